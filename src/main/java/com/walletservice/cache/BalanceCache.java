@@ -0,0 +1,244 @@
+package com.walletservice.cache;
+
+import com.walletservice.dto.BalanceResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache de saldos com coalescência de misses por usuário.
+ * Substitui o @Cacheable no getBalance: no miss apenas uma thread consulta o banco
+ * e as demais aguardam o mesmo resultado.
+ * Com a renovação antecipada ligada, uma chave quente é recalculada antes do TTL
+ * com probabilidade crescente conforme se aproxima da expiração (XFetch).
+ * getAll atende consultas de várias carteiras com uma leitura e uma escrita em lote no Redis.
+ */
+@Component
+public class BalanceCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCache.class);
+
+    public static final String CACHE_NAME = "walletBalances";
+
+    private final CacheManager cacheManager;
+    private final Duration ttl;
+    private final boolean earlyRefreshEnabled;
+    private final double earlyRefreshBeta;
+    private final Clock clock;
+    private final DoubleSupplier random;
+    private final RedisBulkCache redisBulkCache;
+
+    private final SingleFlight<String, BalanceResponse> singleFlight;
+    private final Counter loads;
+    private final Counter coalesced;
+    private final Counter earlyRefreshes;
+    private final Counter bulkHits;
+
+    @Autowired
+    public BalanceCache(CacheManager cacheManager, MeterRegistry meterRegistry,
+                        ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                        @Value("${wallet.app.balance-cache.ttl:5m}") Duration ttl,
+                        @Value("${wallet.app.balance-cache.early-refresh-enabled:true}") boolean earlyRefreshEnabled,
+                        @Value("${wallet.app.balance-cache.early-refresh-beta:1.0}") double earlyRefreshBeta) {
+        this(cacheManager, meterRegistry, redisConnectionFactory.getIfAvailable(), ttl, earlyRefreshEnabled,
+                earlyRefreshBeta, Clock.systemUTC(), () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    // Sem Redis: a leitura em lote consulta o cache chave a chave
+    public BalanceCache(CacheManager cacheManager, MeterRegistry meterRegistry, Duration ttl,
+                        boolean earlyRefreshEnabled, double earlyRefreshBeta) {
+        this(cacheManager, meterRegistry, null, ttl, earlyRefreshEnabled, earlyRefreshBeta,
+                Clock.systemUTC(), () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    BalanceCache(CacheManager cacheManager, MeterRegistry meterRegistry, Duration ttl,
+                 boolean earlyRefreshEnabled, double earlyRefreshBeta, Clock clock, DoubleSupplier random) {
+        this(cacheManager, meterRegistry, null, ttl, earlyRefreshEnabled, earlyRefreshBeta, clock, random);
+    }
+
+    BalanceCache(CacheManager cacheManager, MeterRegistry meterRegistry, RedisConnectionFactory redisConnectionFactory,
+                 Duration ttl, boolean earlyRefreshEnabled, double earlyRefreshBeta, Clock clock,
+                 DoubleSupplier random) {
+        this.cacheManager = cacheManager;
+        this.redisBulkCache = redisConnectionFactory != null ? new RedisBulkCache(redisConnectionFactory) : null;
+        this.ttl = ttl;
+        this.earlyRefreshEnabled = earlyRefreshEnabled;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.clock = clock;
+        this.random = random;
+
+        this.loads = meterRegistry.counter("wallet.balance.cache.loads");
+        this.coalesced = meterRegistry.counter("wallet.balance.cache.coalesced");
+        this.earlyRefreshes = meterRegistry.counter("wallet.balance.cache.early.refreshes");
+        this.bulkHits = meterRegistry.counter("wallet.balance.cache.bulk.hits");
+        this.singleFlight = new SingleFlight<>() {
+            @Override
+            protected void onCoalesced(String key) {
+                coalesced.increment();
+            }
+        };
+    }
+
+    /**
+     * Retorna o saldo do cache ou carrega com o loader, uma vez por usuário por vez.
+     */
+    public BalanceResponse get(String idUsuario, Supplier<BalanceResponse> loader) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        CachedBalance cached = cache != null ? read(cache, idUsuario) : null;
+
+        if (cached != null) {
+            if (!shouldRefreshEarly(cached)) {
+                return cached.balance();
+            }
+            earlyRefreshes.increment();
+            logger.debug("Refreshing balance cache early for user: {}", idUsuario);
+            try {
+                return singleFlight.execute(idUsuario, () -> load(cache, idUsuario, loader));
+            } catch (RuntimeException e) {
+                // A entrada ainda está dentro do TTL: melhor devolvê-la do que falhar
+                logger.warn("Early balance refresh failed for user {}: {}", idUsuario, e.getMessage());
+                return cached.balance();
+            }
+        }
+
+        return singleFlight.execute(idUsuario, () -> load(cache, idUsuario, loader));
+    }
+
+    /**
+     * Saldos de várias carteiras: lê todas as chaves de uma vez, carrega os misses com uma única
+     * chamada ao loader e grava o resultado de volta de uma vez. Carteiras que o loader não
+     * encontrar ficam fora do mapa. Sem coalescência nem renovação antecipada.
+     */
+    public Map<String, BalanceResponse> getAll(Collection<String> idsUsuario,
+                                               Function<List<String>, Map<String, BalanceResponse>> loader) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        Map<String, BalanceResponse> balances = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+
+        Map<String, Object> cached = cache != null ? readAll(cache, new ArrayList<>(idsUsuario)) : Map.of();
+        for (String idUsuario : idsUsuario) {
+            if (cached.get(idUsuario) instanceof CachedBalance cachedBalance) {
+                balances.put(idUsuario, cachedBalance.balance());
+            } else {
+                misses.add(idUsuario);
+            }
+        }
+        bulkHits.increment(balances.size());
+        if (misses.isEmpty()) {
+            return balances;
+        }
+
+        loads.increment(misses.size());
+        long start = clock.millis();
+        Map<String, BalanceResponse> loaded = loader.apply(misses);
+        long now = clock.millis();
+        // O custo do lote é dividido entre as carteiras para o XFetch das leituras individuais
+        long computeMillis = Math.max(1, (now - start) / Math.max(1, loaded.size()));
+
+        Map<String, CachedBalance> entries = new HashMap<>();
+        loaded.forEach((idUsuario, balance) ->
+                entries.put(idUsuario, new CachedBalance(balance, computeMillis, now + ttl.toMillis())));
+        if (cache != null && !entries.isEmpty()) {
+            writeAll(cache, entries);
+        }
+
+        for (String idUsuario : misses) {
+            BalanceResponse balance = loaded.get(idUsuario);
+            if (balance != null) {
+                balances.put(idUsuario, balance);
+            }
+        }
+        return balances;
+    }
+
+    private Map<String, Object> readAll(Cache cache, List<String> idsUsuario) {
+        try {
+            if (redisBulkCache != null && cache instanceof RedisCache redisCache) {
+                return redisBulkCache.getAll(redisCache, idsUsuario);
+            }
+            Map<String, Object> values = new HashMap<>();
+            for (String idUsuario : idsUsuario) {
+                Cache.ValueWrapper wrapper = cache.get(idUsuario);
+                if (wrapper != null) {
+                    values.put(idUsuario, wrapper.get());
+                }
+            }
+            return values;
+        } catch (RuntimeException e) {
+            // Cache indisponível: tudo vira miss e vai para o banco
+            logger.warn("Balance cache bulk read failed for {} users: {}", idsUsuario.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private void writeAll(Cache cache, Map<String, CachedBalance> entries) {
+        try {
+            if (redisBulkCache != null && cache instanceof RedisCache redisCache) {
+                redisBulkCache.putAll(redisCache, entries, ttl);
+            } else {
+                entries.forEach(cache::put);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Balance cache bulk write failed for {} users: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    private CachedBalance read(Cache cache, String idUsuario) {
+        try {
+            Cache.ValueWrapper wrapper = cache.get(idUsuario);
+            // Entradas antigas (BalanceResponse puro) são tratadas como miss
+            return wrapper != null && wrapper.get() instanceof CachedBalance cachedBalance ? cachedBalance : null;
+        } catch (RuntimeException e) {
+            // Cache indisponível não deve derrubar a consulta de saldo
+            logger.warn("Balance cache read failed for user {}: {}", idUsuario, e.getMessage());
+            return null;
+        }
+    }
+
+    private BalanceResponse load(Cache cache, String idUsuario, Supplier<BalanceResponse> loader) {
+        loads.increment();
+        long start = clock.millis();
+        BalanceResponse balance = loader.get();
+        long now = clock.millis();
+
+        if (cache != null && balance != null) {
+            try {
+                cache.put(idUsuario, new CachedBalance(balance, now - start, now + ttl.toMillis()));
+            } catch (RuntimeException e) {
+                logger.warn("Balance cache write failed for user {}: {}", idUsuario, e.getMessage());
+            }
+        }
+        return balance;
+    }
+
+    // XFetch: now - delta * beta * ln(rand) >= expiry, com ln(rand) <= 0
+    boolean shouldRefreshEarly(CachedBalance cached) {
+        if (!earlyRefreshEnabled) {
+            return false;
+        }
+        double gap = -Math.max(cached.computeMillis(), 1) * earlyRefreshBeta * Math.log(random.getAsDouble());
+        return clock.millis() + gap >= cached.expiresAtMillis();
+    }
+}
@@ -0,0 +1,10 @@
+package com.walletservice.cache;
+
+import com.walletservice.dto.BalanceResponse;
+
+/**
+ * Entrada do cache walletBalances.
+ * Guarda quanto o cálculo levou e quando expira, usados na renovação antecipada (XFetch).
+ */
+public record CachedBalance(BalanceResponse balance, long computeMillis, long expiresAtMillis) {
+}
@@ -0,0 +1,81 @@
+package com.walletservice.cache;
+
+import com.walletservice.metrics.RequestTimings;
+import com.walletservice.metrics.RequestTimings.Phase;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura e escrita de várias chaves de um RedisCache em uma ida ao Redis cada:
+ * um MGET para ler e um pipeline de SETs com TTL para gravar.
+ * Usa o prefixo e os serializadores do próprio cache, então as entradas são as mesmas
+ * lidas e gravadas pelo Cache.get/put do Spring.
+ */
+final class RedisBulkCache {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    RedisBulkCache(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    Map<String, Object> getAll(RedisCache cache, List<String> keys) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            rawKeys[i] = rawKey(cache, config, keys.get(i));
+        }
+
+        long start = System.nanoTime();
+        List<byte[]> rawValues;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        } finally {
+            RequestTimings.record(Phase.REDIS, System.nanoTime() - start);
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; rawValues != null && i < keys.size(); i++) {
+            byte[] rawValue = rawValues.get(i);
+            if (rawValue != null) {
+                values.put(keys.get(i), config.getValueSerializationPair().read(ByteBuffer.wrap(rawValue)));
+            }
+        }
+        return values;
+    }
+
+    void putAll(RedisCache cache, Map<String, ?> entries, Duration ttl) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        Expiration expiration = Expiration.from(ttl);
+
+        long start = System.nanoTime();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                entries.forEach((key, value) -> connection.stringCommands().set(rawKey(cache, config, key),
+                        ByteUtils.getBytes(config.getValueSerializationPair().write(value)), expiration,
+                        SetOption.upsert()));
+            } finally {
+                connection.closePipeline();
+            }
+        } finally {
+            RequestTimings.record(Phase.REDIS, System.nanoTime() - start);
+        }
+    }
+
+    private static byte[] rawKey(RedisCache cache, RedisCacheConfiguration config, String key) {
+        String prefixed = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + key : key;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(prefixed));
+    }
+}
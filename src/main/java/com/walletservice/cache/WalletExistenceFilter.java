@@ -0,0 +1,385 @@
+package com.walletservice.cache;
+
+import com.walletservice.config.RedisSubscriptions;
+import com.walletservice.datasource.ReadYourWrites;
+import com.walletservice.datasource.WorkloadContext;
+import com.walletservice.exception.WalletFilterUnavailableException;
+import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de Bloom com os idUsuario que têm carteira, para responder 404 a IDs inexistentes
+ * sem consultar o cache.
+ *
+ * Construído em segundo plano no startup e reconstruído periodicamente; enquanto não existe,
+ * mightExist responde true e tudo segue para o banco. createWallet insere o ID antes do commit
+ * (a carteira nunca fica visível fora do filtro) e de novo depois dele, para o caso de uma
+ * reconstrução ter começado no meio e não enxergar a linha ainda não confirmada.
+ *
+ * Com redisEnabled, add também publica o ID no Redis antes do commit (se a publicação falha, a criação é
+ * desfeita) e as outras instâncias o inserem nos seus filtros. A ausência no filtro só vira 404 sem
+ * consulta enquanto a instância está sincronizada: a assinatura do canal está ativa, a instância recebeu
+ * a própria mensagem de heartbeat nos últimos três intervalos, e o filtro atual veio de uma reconstrução
+ * iniciada depois da última (re)assinatura, que cobre as mensagens perdidas enquanto ela caiu.
+ * Fora disso (sem Redis, durante a reconstrução, com o heartbeat atrasado) a ausência é confirmada no
+ * primário e guardada por pouco tempo num cache negativo; carteiras encontradas entram no filtro.
+ */
+@Component
+public class WalletExistenceFilter implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletExistenceFilter.class);
+
+    static final String WORKLOAD = "walletReporting";
+    static final String CHANNEL = "wallet:created";
+
+    private final WalletRepository walletRepository;
+    private final ReadYourWrites readYourWrites;
+    private final WalletFilterProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("wallet-filter-rebuild").daemon().factory());
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Publicação do heartbeat fora do scheduler, que um Redis fora do ar deixaria preso no timeout
+    private final ExecutorService heartbeats = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("wallet-filter-heartbeat").daemon().factory());
+    private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+    // Protege a troca do filtro em construção contra inserções concorrentes
+    private final Object lock = new Object();
+    private volatile BloomFilter current;
+    private BloomFilter building;
+    // idUsuario confirmados como inexistentes no primário -> validade (System.nanoTime)
+    private final Map<String, Long> confirmedMissing = new ConcurrentHashMap<>();
+    // Cada (re)assinatura incrementa; o filtro só é confiável se a reconstrução começou na geração atual
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean synced;
+    private volatile long lastHeartbeat;
+    private final long heartbeatTimeoutNanos;
+    private final Counter rejections;
+    private final Counter staleMisses;
+
+    @Autowired
+    public WalletExistenceFilter(WalletRepository walletRepository, ReadYourWrites readYourWrites,
+                                 WalletFilterProperties properties, MeterRegistry meterRegistry,
+                                 ObjectProvider<StringRedisTemplate> redisTemplate,
+                                 ObjectProvider<RedisSubscriptions> redisSubscriptions) {
+        this(walletRepository, readYourWrites, properties, meterRegistry,
+                properties.enabled() && properties.redisEnabled() ? redisTemplate.getIfAvailable() : null);
+        RedisSubscriptions subscriptions = redisSubscriptions.getIfAvailable();
+        if (this.redisTemplate != null && subscriptions != null) {
+            subscriptions.subscribe(CHANNEL, new Subscription());
+        }
+    }
+
+    public WalletExistenceFilter(WalletRepository walletRepository, ReadYourWrites readYourWrites,
+                                 WalletFilterProperties properties, MeterRegistry meterRegistry) {
+        this(walletRepository, readYourWrites, properties, meterRegistry, null);
+    }
+
+    WalletExistenceFilter(WalletRepository walletRepository, ReadYourWrites readYourWrites,
+                          WalletFilterProperties properties, MeterRegistry meterRegistry,
+                          StringRedisTemplate redisTemplate) {
+        this.walletRepository = walletRepository;
+        this.readYourWrites = readYourWrites;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.heartbeatTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(3 * properties.heartbeatIntervalMs());
+        this.rejections = Counter.builder("wallet.existence.filter.rejections")
+                .description("Consultas a carteiras inexistentes respondidas com 404 sem acessar o cache")
+                .register(meterRegistry);
+        this.staleMisses = Counter.builder("wallet.existence.filter.stale")
+                .description("Carteiras ausentes do filtro local que existiam no primário")
+                .register(meterRegistry);
+        Gauge.builder("wallet.existence.filter.bits", this, f -> f.current == null ? 0 : f.current.bitCount())
+                .description("Tamanho em bits do filtro de existência de carteiras")
+                .register(meterRegistry);
+    }
+
+    /**
+     * false quando o filtro sincronizado não contém o idUsuario ou o primário confirmou que ele não tem
+     * carteira.
+     */
+    public boolean mightExist(String idUsuario) {
+        BloomFilter filter = current;
+        if (!properties.enabled() || filter == null || filter.mightContain(idUsuario)) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (isSynced(now)) {
+            rejections.increment();
+            return false;
+        }
+        Long validUntil = confirmedMissing.get(idUsuario);
+        if (validUntil != null && now - validUntil < 0) {
+            rejections.increment();
+            return false;
+        }
+        // Sempre no primário: uma réplica atrasada também não enxergaria a carteira recém-criada
+        if (readYourWrites.readFromPrimary(() -> walletRepository.existsByIdUsuario(idUsuario))) {
+            confirmedMissing.remove(idUsuario);
+            staleMisses.increment();
+            put(idUsuario);
+            return true;
+        }
+        rememberMissing(idUsuario, now);
+        rejections.increment();
+        return false;
+    }
+
+    /**
+     * Registra uma carteira nova. Chamado dentro da transação de criação; lança
+     * WalletFilterUnavailableException se não conseguiu avisar as outras instâncias.
+     */
+    public void add(String idUsuario) {
+        confirmedMissing.remove(idUsuario);
+        put(idUsuario);
+        publish(idUsuario);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(idUsuario);
+                }
+            });
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    boolean isSynced() {
+        return isSynced(System.nanoTime());
+    }
+
+    private boolean isSynced(long now) {
+        long heartbeat = lastHeartbeat;
+        return synced && heartbeat != 0 && now - heartbeat < heartbeatTimeoutNanos;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.enabled()) {
+            rebuilder.submit(this::rebuild);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.app.wallet-filter.rebuild-interval-ms:3600000}",
+            initialDelayString = "${wallet.app.wallet-filter.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        if (properties.enabled()) {
+            rebuilder.submit(this::rebuild);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.app.wallet-filter.heartbeat-interval-ms:1000}")
+    public void heartbeat() {
+        if (redisTemplate == null || !heartbeatPending.compareAndSet(false, true)) {
+            return;
+        }
+        heartbeats.submit(() -> {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, instanceId + ":");
+            } catch (RuntimeException e) {
+                logger.debug("Could not publish wallet filter heartbeat: {}", e.getMessage());
+            } finally {
+                heartbeatPending.set(false);
+            }
+        });
+    }
+
+    /**
+     * Mensagem do canal: "instancia:idUsuario" para carteiras criadas, "instancia:" para heartbeats.
+     */
+    void onMessage(String message) {
+        int separator = message.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        String idUsuario = message.substring(separator + 1);
+        boolean own = message.substring(0, separator).equals(instanceId);
+        if (idUsuario.isEmpty()) {
+            if (own) {
+                long now = System.nanoTime();
+                boolean lapsed = lastHeartbeat != 0 && now - lastHeartbeat >= heartbeatTimeoutNanos;
+                lastHeartbeat = now;
+                // Mensagens podem ter se perdido enquanto o heartbeat não chegava
+                if (lapsed) {
+                    resync();
+                }
+            }
+        } else if (!own) {
+            confirmedMissing.remove(idUsuario);
+            put(idUsuario);
+        }
+    }
+
+    /**
+     * A assinatura (re)começou: as criações publicadas antes dela podem ter se perdido, então as
+     * ausências deixam de ser confiáveis até uma nova reconstrução terminar.
+     */
+    void resync() {
+        generation.incrementAndGet();
+        synced = false;
+        if (properties.enabled()) {
+            rebuilder.submit(this::rebuild);
+        }
+    }
+
+    void unsubscribed() {
+        synced = false;
+    }
+
+    /**
+     * Varre todos os idUsuario em páginas por chave e troca o filtro ao final.
+     * Retorna a quantidade de carteiras, ou -1 se já havia uma reconstrução em andamento.
+     */
+    public long rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return -1;
+        }
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            long start = System.nanoTime();
+            long startedIn = generation.get();
+            long expected = Math.max(properties.expectedWallets(), walletRepository.count() * 2);
+            BloomFilter next = BloomFilter.create(expected, properties.falsePositiveRate());
+            synchronized (lock) {
+                building = next;
+            }
+            long wallets = 0;
+            String after = "";
+            List<String> page;
+            do {
+                // Sem transação readOnly: a varredura lê o primário, para não perder carteiras recém-criadas
+                page = walletRepository.findIdUsuarioAfter(after, PageRequest.of(0, properties.pageSize()));
+                for (String idUsuario : page) {
+                    next.put(idUsuario);
+                }
+                wallets += page.size();
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == properties.pageSize());
+
+            synchronized (lock) {
+                current = next;
+                building = null;
+                synced = redisTemplate != null && startedIn == generation.get() && startedIn > 0;
+            }
+            logger.info("Wallet existence filter rebuilt with {} wallets ({} bits, {} hashes) in {} ms", wallets,
+                    next.bitCount(), next.hashFunctions(), (System.nanoTime() - start) / 1_000_000);
+            // Uma (re)assinatura durante a varredura não foi coberta por ela
+            if (redisTemplate != null && startedIn != generation.get()) {
+                rebuilder.submit(this::rebuild);
+            }
+            return wallets;
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                building = null;
+            }
+            // Mantém o filtro anterior; sem ele, as consultas continuam indo ao banco
+            logger.error("Wallet existence filter rebuild failed", e);
+            return -1;
+        } finally {
+            WorkloadContext.restore(previous);
+            rebuilding.set(false);
+        }
+    }
+
+    // Antes do commit: quando a carteira fica visível, as outras instâncias já receberam o ID
+    private void publish(String idUsuario) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + ":" + idUsuario);
+        } catch (RuntimeException e) {
+            throw new WalletFilterUnavailableException("Não foi possível registrar a carteira nas outras instâncias", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.app.wallet-filter.negative-eviction-interval-ms:60000}")
+    public void evictExpiredMisses() {
+        long now = System.nanoTime();
+        confirmedMissing.values().removeIf(validUntil -> now - validUntil >= 0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+        heartbeats.shutdownNow();
+    }
+
+    // Acima do limite, novos IDs deixam de ser guardados e cada consulta vai ao primário
+    private void rememberMissing(String idUsuario, long now) {
+        if (properties.negativeCacheTtl().isZero()) {
+            return;
+        }
+        if (confirmedMissing.size() >= properties.negativeCacheSize()) {
+            evictExpiredMisses();
+            if (confirmedMissing.size() >= properties.negativeCacheSize()) {
+                return;
+            }
+        }
+        confirmedMissing.put(idUsuario, now + properties.negativeCacheTtl().toNanos());
+    }
+
+    private void put(String idUsuario) {
+        synchronized (lock) {
+            if (building != null) {
+                building.put(idUsuario);
+            }
+            if (current != null) {
+                current.put(idUsuario);
+            }
+        }
+    }
+
+    private class Subscription implements MessageListener, SubscriptionListener {
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            WalletExistenceFilter.this.onMessage(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            resync();
+        }
+
+        @Override
+        public void onChannelUnsubscribed(byte[] channel, long count) {
+            unsubscribed();
+        }
+    }
+}
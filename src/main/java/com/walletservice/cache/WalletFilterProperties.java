@@ -0,0 +1,30 @@
+package com.walletservice.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Filtro de existência de carteiras (wallet.app.wallet-filter.*).
+ * expectedWallets = tamanho mínimo do filtro; cada reconstrução usa o dobro das carteiras existentes
+ * se for maior. A reconstrução periódica fica em wallet.app.wallet-filter.rebuild-interval-ms.
+ * negativeCacheTtl/negativeCacheSize = por quanto tempo e quantos IDs confirmados como inexistentes
+ * no primário são respondidos sem nova consulta; 0 desliga o cache negativo.
+ * redisEnabled = publica as carteiras criadas no Redis para os filtros das outras instâncias; enquanto a
+ * assinatura está ativa, uma ausência no filtro é respondida com 404 sem consulta. heartbeatIntervalMs =
+ * intervalo da mensagem que cada instância publica para si mesma; sem recebê-la por três intervalos, a
+ * assinatura deixa de ser considerada ativa.
+ */
+@ConfigurationProperties(prefix = "wallet.app.wallet-filter")
+public record WalletFilterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000000") long expectedWallets,
+        @DefaultValue("0.01") double falsePositiveRate,
+        @DefaultValue("10000") int pageSize,
+        @DefaultValue("5s") Duration negativeCacheTtl,
+        @DefaultValue("100000") int negativeCacheSize,
+        @DefaultValue("true") boolean redisEnabled,
+        @DefaultValue("1000") long heartbeatIntervalMs
+) {
+}
@@ -0,0 +1,150 @@
+package com.walletservice.config;
+
+import com.walletservice.datasource.DataSourcePartitions;
+import com.walletservice.datasource.DataSourceRoutingProperties;
+import com.walletservice.datasource.DataSourceRoutingProperties.Partition;
+import com.walletservice.datasource.DataSourceRoutingProperties.Replica;
+import com.walletservice.datasource.PartitionedDataSource;
+import com.walletservice.datasource.ReplicaRoutingDataSource;
+import com.walletservice.datasource.ReplicaSelector;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monta o DataSource da aplicação:
+ * - primário com um pool Hikari por classe de carga (quando partitioned=true), para que
+ *   relatórios pesados não esgotem as conexões de depósitos e consultas de saldo;
+ * - transações readOnly vão para as réplicas configuradas, escolhidas pelo ReplicaSelector.
+ * O LazyConnectionDataSourceProxy só pega a conexão real no primeiro comando, quando
+ * o readOnly da transação já é conhecido.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public DataSourcePartitions dataSourcePartitions(DataSourceProperties dataSourceProperties,
+                                                     DataSourceRoutingProperties routingProperties,
+                                                     Environment environment,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+
+        DataSourcePartitions partitions = new DataSourcePartitions();
+        HikariDataSource defaultPool = createPool(dataSourceProperties, binder, registry);
+        defaultPool.setPoolName("wallet-" + DataSourcePartitions.DEFAULT_PARTITION);
+        partitions.add(DataSourcePartitions.DEFAULT_PARTITION, defaultPool);
+
+        if (routingProperties.partitioned()) {
+            routingProperties.partitions().forEach((name, partition) ->
+                    partitions.add(name, createPartition(dataSourceProperties, binder, name, partition, registry)));
+        }
+        return partitions;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSelector replicaSelector(DataSourceProperties dataSourceProperties,
+                                           DataSourceRoutingProperties routingProperties,
+                                           Environment environment,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+
+        List<ReplicaSelector.Node> nodes = new ArrayList<>();
+        routingProperties.replicas().forEach((name, replica) -> {
+            if (StringUtils.hasText(replica.url())) {
+                nodes.add(new ReplicaSelector.Node(name,
+                        createReplica(dataSourceProperties, binder, name, replica, registry)));
+            }
+        });
+        return new ReplicaSelector(nodes, routingProperties.maxReplicaLag(),
+                routingProperties.replicaLagQuery(), registry);
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourcePartitions partitions, ReplicaSelector replicaSelector,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        DataSource primary = partitions.get(DataSourcePartitions.DEFAULT_PARTITION);
+        if (partitions.pools().size() > 1) {
+            Map<Object, Object> targets = new HashMap<>(partitions.pools());
+            PartitionedDataSource partitioned = new PartitionedDataSource();
+            partitioned.setTargetDataSources(targets);
+            partitioned.setDefaultTargetDataSource(primary);
+            partitioned.afterPropertiesSet();
+            primary = partitioned;
+        }
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        // Valores padrão do Hikari; evita abrir uma conexão no startup só para descobri-los
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        if (!replicaSelector.replicas().isEmpty()) {
+            dataSource.setReadOnlyDataSource(
+                    new ReplicaRoutingDataSource(primary, replicaSelector, meterRegistry.getIfAvailable()));
+        }
+        return dataSource;
+    }
+
+    private HikariDataSource createPartition(DataSourceProperties properties, Binder binder, String name,
+                                             Partition partition, MeterRegistry registry) {
+        HikariDataSource pool = createPool(properties, binder, registry);
+        pool.setPoolName("wallet-" + name);
+        if (partition.maximumPoolSize() > 0) {
+            pool.setMaximumPoolSize(partition.maximumPoolSize());
+        }
+        if (partition.connectionTimeout() != null) {
+            pool.setConnectionTimeout(partition.connectionTimeout().toMillis());
+        }
+        return pool;
+    }
+
+    private HikariDataSource createReplica(DataSourceProperties properties, Binder binder, String name,
+                                           Replica replica, MeterRegistry registry) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replica.url())
+                .username(StringUtils.hasText(replica.username()) ? replica.username() : properties.determineUsername())
+                .password(StringUtils.hasText(replica.password()) ? replica.password() : properties.determinePassword())
+                .build();
+        configure(pool, binder, registry);
+        pool.setPoolName("wallet-replica-" + name);
+        pool.setReadOnly(true);
+        if (replica.maximumPoolSize() > 0) {
+            pool.setMaximumPoolSize(replica.maximumPoolSize());
+        }
+        return pool;
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, Binder binder, MeterRegistry registry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configure(pool, binder, registry);
+        return pool;
+    }
+
+    private void configure(HikariDataSource pool, Binder binder, MeterRegistry registry) {
+        // Herda spring.datasource.hikari.*; o que for específico do pool é sobrescrito depois
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        // Os pools não são beans, então o auto-config do Actuator não os instrumenta sozinho
+        if (registry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.walletservice.config;
+
+import com.walletservice.metrics.RequestTimings;
+import com.walletservice.metrics.RequestTimings.Phase;
+import com.walletservice.metrics.ServerTimingFilter;
+import com.walletservice.protobuf.RecordProtobufCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+/**
+ * Conversor application/x-protobuf para os DTOs (records) da API.
+ * Mapas e demais tipos, como os corpos de erro, continuam indo para o conversor JSON.
+ * Assim como o {@link TimedJacksonHttpMessageConverter}, escreve o Server-Timing e mede a serialização.
+ */
+public class ProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+
+    public ProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RecordProtobufCodec.supports(clazz);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        byte[] body = inputMessage.getBody().readAllBytes();
+        try {
+            return RecordProtobufCodec.decode(clazz, body);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        String serverTiming = RequestTimings.currentHeaderValue();
+        if (serverTiming != null) {
+            outputMessage.getHeaders().set(ServerTimingFilter.SERVER_TIMING_HEADER, serverTiming);
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] body = RecordProtobufCodec.encode((Record) object);
+            outputMessage.getHeaders().setContentLength(body.length);
+            outputMessage.getBody().write(body);
+        } finally {
+            RequestTimings.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected Long getContentLength(Object object, MediaType contentType) {
+        return null;
+    }
+}
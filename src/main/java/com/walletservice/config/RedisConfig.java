@@ -1,10 +1,12 @@
 package com.walletservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
@@ -17,7 +19,8 @@ import java.time.Duration;
 public class RedisConfig {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                          @Value("${wallet.app.balance-cache.ttl:5m}") Duration balanceTtl) {
         // Configuração padrão para todos os caches
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10)) // TTL de 10 minutos
@@ -28,11 +31,19 @@ public class RedisConfig {
                         RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
 
         // Criando o cache manager com a configuração
-        return RedisCacheManager.builder(connectionFactory)
+        // O writer é decorado para medir o tempo gasto no Redis (fase "redis" do Server-Timing)
+        RedisCacheWriter cacheWriter = new TimedRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory));
+
+        return RedisCacheManager.builder(cacheWriter)
                 .cacheDefaults(cacheConfig)
+                // Estatísticas de hit/miss por cache, exportadas pelo Actuator como cache.gets
+                .enableStatistics()
                 // Configurações específicas para diferentes caches
                 .withCacheConfiguration("walletBalances",
-                        cacheConfig.entryTtl(Duration.ofMinutes(5))) // Cache de saldos expira em 5 minutos
+                        cacheConfig.entryTtl(balanceTtl)) // Cache de saldos expira em 5 minutos (mesmo TTL usado pelo BalanceCache)
+                .withCacheConfiguration("walletVersions",
+                        cacheConfig.entryTtl(balanceTtl)) // Versões das carteiras (ETag do saldo), mesmo TTL dos saldos
                 .withCacheConfiguration("userWallets",
                         cacheConfig.entryTtl(Duration.ofHours(1))) // Cache de carteiras expira em 1 hora
                 .build();
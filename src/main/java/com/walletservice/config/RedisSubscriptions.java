@@ -0,0 +1,56 @@
+package com.walletservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Canais pub/sub do Redis usados para avisar as outras instâncias (stream de saldo, filtro de
+ * existência de carteiras). Os componentes assinam nos construtores; o container só é iniciado depois
+ * que todos os beans existem, e em segundo plano: com o Redis fora do ar, start() esperaria e
+ * derrubaria o startup. Depois disso o próprio container segue tentando reconectar.
+ * Listeners que implementam SubscriptionListener são avisados a cada (re)assinatura do canal.
+ */
+@Component
+public class RedisSubscriptions implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisSubscriptions.class);
+
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    private volatile boolean subscribed;
+
+    public RedisSubscriptions(RedisConnectionFactory connectionFactory) {
+        container.setConnectionFactory(connectionFactory);
+        container.afterPropertiesSet();
+    }
+
+    public void subscribe(String channel, MessageListener listener) {
+        container.addMessageListener(listener, new ChannelTopic(channel));
+        subscribed = true;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!subscribed) {
+            return;
+        }
+        Thread.ofPlatform().name("redis-subscriptions").daemon().start(() -> {
+            try {
+                container.start();
+            } catch (RuntimeException e) {
+                logger.warn("Redis subscriptions not ready, retrying in background: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        container.destroy();
+    }
+}
@@ -0,0 +1,39 @@
+package com.walletservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.walletservice.metrics.RequestTimings;
+import com.walletservice.metrics.RequestTimings.Phase;
+import com.walletservice.metrics.ServerTimingFilter;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Conversor JSON que mede a fase de serialização.
+ * Também é o último ponto antes do commit da resposta, então é aqui que o header
+ * Server-Timing é escrito para respostas com corpo.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        String serverTiming = RequestTimings.currentHeaderValue();
+        if (serverTiming != null) {
+            outputMessage.getHeaders().set(ServerTimingFilter.SERVER_TIMING_HEADER, serverTiming);
+        }
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            RequestTimings.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.walletservice.config;
+
+import com.walletservice.metrics.RequestTimings;
+import com.walletservice.metrics.RequestTimings.Phase;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decorator do RedisCacheWriter que soma o tempo gasto no Redis à fase "redis" do Server-Timing.
+ */
+public class TimedRedisCacheWriter implements RedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+
+    public TimedRedisCacheWriter(RedisCacheWriter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        long start = System.nanoTime();
+        try {
+            return delegate.get(name, key);
+        } finally {
+            RequestTimings.record(Phase.REDIS, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        long start = System.nanoTime();
+        try {
+            return delegate.get(name, key, ttl);
+        } finally {
+            RequestTimings.record(Phase.REDIS, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    // Operações assíncronas não rodam na thread da requisição, então não entram no Server-Timing
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        long start = System.nanoTime();
+        try {
+            delegate.put(name, key, value, ttl);
+        } finally {
+            RequestTimings.record(Phase.REDIS, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        long start = System.nanoTime();
+        try {
+            return delegate.putIfAbsent(name, key, value, ttl);
+        } finally {
+            RequestTimings.record(Phase.REDIS, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        long start = System.nanoTime();
+        try {
+            delegate.remove(name, key);
+        } finally {
+            RequestTimings.record(Phase.REDIS, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        long start = System.nanoTime();
+        try {
+            delegate.clean(name, pattern);
+        } finally {
+            RequestTimings.record(Phase.REDIS, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new TimedRedisCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector));
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+}
@@ -0,0 +1,43 @@
+package com.walletservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.walletservice.resilience.ConcurrencyLimitInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    public WebConfig(ConcurrencyLimitInterceptor concurrencyLimitInterceptor) {
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // O stream SSE fica aberto por minutos e seguraria uma vaga do limite durante toda a conexão.
+        // O stream de operações também: a latência dele é a do lote inteiro e derrubaria o limite medido;
+        // cada operação do lote continua passando pelos bulkheads do WalletService
+        registry.addInterceptor(concurrencyLimitInterceptor).addPathPatterns("/api/wallets/**")
+                .excludePathPatterns("/api/wallets/*/balance/stream", "/api/wallets/operations");
+    }
+
+    // Protobuf entra depois do JSON: sem Accept explícito a resposta continua sendo JSON
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ProtobufHttpMessageConverter());
+    }
+
+    // Substitui o conversor JSON padrão do Spring Boot pela versão que mede a serialização
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJacksonHttpMessageConverter(objectMapper);
+    }
+}
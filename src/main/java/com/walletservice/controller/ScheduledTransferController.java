@@ -0,0 +1,83 @@
+package com.walletservice.controller;
+
+import com.walletservice.dto.ScheduledTransferRequest;
+import com.walletservice.dto.ScheduledTransferResponse;
+import com.walletservice.resilience.RateLimited;
+import com.walletservice.schedule.ScheduledTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/wallets/scheduled-transfers")
+@Tag(name = "Scheduled Transfers", description = "Transferências com data futura, únicas ou recorrentes")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    public ScheduledTransferController(ScheduledTransferService scheduledTransferService) {
+        this.scheduledTransferService = scheduledTransferService;
+    }
+
+    // Endpoint para agendar uma transferência única ou recorrente
+    @PostMapping
+    @Operation(summary = "Agendar transferência",
+               description = "Agenda uma transferência para uma data futura, uma vez ou com recorrência diária, "
+                       + "semanal ou mensal")
+    @ApiResponses({
+        @ApiResponse(responseCode = "201", description = "Transferência agendada",
+                     content = @Content(schema = @Schema(implementation = ScheduledTransferResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Requisição inválida ou data no passado"),
+        @ApiResponse(responseCode = "404", description = "Carteira não encontrada")
+    })
+    @RateLimited("transfer")
+    public ResponseEntity<ScheduledTransferResponse> schedule(@Valid @RequestBody ScheduledTransferRequest request) {
+        ScheduledTransferResponse schedule = scheduledTransferService.create(request);
+        return ResponseEntity.created(URI.create("/api/wallets/scheduled-transfers/" + schedule.agendamentoId()))
+                .body(schedule);
+    }
+
+    // Endpoint para consultar um agendamento e o resultado da última execução
+    @GetMapping("/{agendamentoId}")
+    @Operation(summary = "Consultar agendamento", description = "Retorna a situação de uma transferência agendada")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Agendamento consultado"),
+        @ApiResponse(responseCode = "404", description = "Agendamento não encontrado")
+    })
+    @RateLimited("balance")
+    public ResponseEntity<ScheduledTransferResponse> getSchedule(
+            @Parameter(description = "ID do agendamento", required = true)
+            @PathVariable UUID agendamentoId) {
+        return ResponseEntity.ok(scheduledTransferService.get(agendamentoId));
+    }
+
+    // Endpoint para cancelar as execuções futuras de um agendamento
+    @PostMapping("/{agendamentoId}/cancel")
+    @Operation(summary = "Cancelar agendamento", description = "Cancela as execuções ainda não feitas")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Agendamento cancelado"),
+        @ApiResponse(responseCode = "404", description = "Agendamento não encontrado"),
+        @ApiResponse(responseCode = "409", description = "Agendamento já concluído, cancelado ou com falha")
+    })
+    @RateLimited("transfer")
+    public ResponseEntity<ScheduledTransferResponse> cancel(
+            @Parameter(description = "ID do agendamento", required = true)
+            @PathVariable UUID agendamentoId) {
+        return ResponseEntity.ok(scheduledTransferService.cancel(agendamentoId));
+    }
+}
@@ -1,7 +1,14 @@
 package com.walletservice.controller;
 
 import com.walletservice.dto.*;
+import com.walletservice.exception.ServiceOverloadedException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.protobuf.ProtobufSchema;
+import com.walletservice.resilience.RateLimited;
 import com.walletservice.service.WalletService;
+import com.walletservice.stream.BalanceStreamHub;
+import com.walletservice.transfer.AsyncTransferService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,21 +18,43 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/wallets")
 @Tag(name = "Wallet Controller", description = "API para gerenciamento de carteiras digitais")
 public class WalletController {
 
+    // Schema dos DTOs aceitos e devolvidos em application/x-protobuf
+    private static final String PROTOBUF_SCHEMA = ProtobufSchema.generate(List.of(
+            CreateWalletRequest.class, DepositRequest.class, WithdrawalRequest.class, TransferRequest.class,
+            AsyncTransferRequest.class, BalancesRequest.class, BalanceResponse.class, BalancesResponse.class,
+            BalanceSummaryResponse.class, TransferOperationResponse.class, WalletOperationRequest.class,
+            WalletOperationResult.class, HoldRequest.class, CaptureRequest.class, HoldResponse.class,
+            AvailableBalanceResponse.class, ScheduledTransferRequest.class, ScheduledTransferResponse.class));
+
     private final WalletService walletService;
+    private final AsyncTransferService asyncTransferService;
+    private final BalanceStreamHub balanceStreamHub;
+    private final WalletMetrics walletMetrics;
 
-    public WalletController(WalletService walletService) {
+    public WalletController(WalletService walletService, AsyncTransferService asyncTransferService,
+                            BalanceStreamHub balanceStreamHub, WalletMetrics walletMetrics) {
         this.walletService = walletService;
+        this.asyncTransferService = asyncTransferService;
+        this.balanceStreamHub = balanceStreamHub;
+        this.walletMetrics = walletMetrics;
     }
 
     // Endpoint para criar uma nova carteira
@@ -36,6 +65,7 @@ public class WalletController {
         @ApiResponse(responseCode = "409", description = "Carteira já existe",
                      content = @Content(schema = @Schema(implementation = String.class)))
     })
+    @RateLimited("create")
     public ResponseEntity<?> createWallet(@Valid @RequestBody CreateWalletRequest request) {
         walletService.createWallet(request);
         // Retorna 201 Created sem corpo
@@ -51,6 +81,7 @@ public class WalletController {
         @ApiResponse(responseCode = "404", description = "Carteira não encontrada"),
         @ApiResponse(responseCode = "400", description = "Valor inválido")
     })
+    @RateLimited("deposit")
     public ResponseEntity<BalanceResponse> deposit(@Valid @RequestBody DepositRequest request) {
         var wallet = walletService.deposit(request);
         return ResponseEntity.ok(new BalanceResponse(wallet.getIdUsuario(), wallet.getSaldo(), wallet.getMoeda()));
@@ -64,6 +95,7 @@ public class WalletController {
         @ApiResponse(responseCode = "404", description = "Carteira não encontrada"),
         @ApiResponse(responseCode = "400", description = "Valor inválido ou saldo insuficiente")
     })
+    @RateLimited("withdraw")
     public ResponseEntity<BalanceResponse> withdraw(@Valid @RequestBody WithdrawalRequest request) {
         var wallet = walletService.withdraw(request);
         return ResponseEntity.ok(new BalanceResponse(wallet.getIdUsuario(), wallet.getSaldo(), wallet.getMoeda()));
@@ -77,23 +109,202 @@ public class WalletController {
         @ApiResponse(responseCode = "404", description = "Carteira não encontrada"),
         @ApiResponse(responseCode = "400", description = "Valor inválido ou saldo insuficiente")
     })
+    @RateLimited("transfer")
     public ResponseEntity<?> transfer(@Valid @RequestBody TransferRequest request) {
         walletService.transfer(request);
         // Não retorna o saldo para não expor informações desnecessárias
         return ResponseEntity.ok().build();
     }
 
+    // Endpoint para transferência assíncrona: responde assim que a operação está gravada na fila
+    @PostMapping("/transfers")
+    @Operation(summary = "Transferir (assíncrono)",
+               description = "Aceita a transferência e retorna o id da operação; o resultado é consultado depois")
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Transferência aceita",
+                     content = @Content(schema = @Schema(implementation = TransferOperationResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Requisição inválida")
+    })
+    @RateLimited("transfer")
+    public ResponseEntity<TransferOperationResponse> submitTransfer(@Valid @RequestBody AsyncTransferRequest request) {
+        TransferOperationResponse operation = asyncTransferService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/wallets/transfers/" + operation.operacaoId()))
+                .body(operation);
+    }
+
+    // Endpoint para consultar o resultado de uma transferência assíncrona
+    @GetMapping("/transfers/{operacaoId}")
+    @Operation(summary = "Consultar transferência", description = "Retorna a situação de uma transferência assíncrona")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Situação consultada"),
+        @ApiResponse(responseCode = "404", description = "Operação não encontrada")
+    })
+    @RateLimited("balance")
+    public ResponseEntity<TransferOperationResponse> getTransfer(
+            @Parameter(description = "ID da operação", required = true)
+            @PathVariable UUID operacaoId) {
+        return ResponseEntity.ok(asyncTransferService.status(operacaoId));
+    }
+
+    // Endpoint para reservar saldo (autorização); o valor sai do disponível até captura, liberação ou prazo
+    @PostMapping("/holds")
+    @Operation(summary = "Reservar saldo", description = "Reserva parte do saldo disponível até a captura ou o prazo")
+    @ApiResponses({
+        @ApiResponse(responseCode = "201", description = "Reserva criada",
+                     content = @Content(schema = @Schema(implementation = HoldResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Carteira não encontrada"),
+        @ApiResponse(responseCode = "400", description = "Valor ou prazo inválido, ou saldo disponível insuficiente")
+    })
+    @RateLimited("hold")
+    public ResponseEntity<HoldResponse> hold(@Valid @RequestBody HoldRequest request) {
+        HoldResponse hold = walletService.hold(request);
+        return ResponseEntity.created(URI.create("/api/wallets/holds/" + hold.holdId())).body(hold);
+    }
+
+    // Endpoint para consultar uma reserva
+    @GetMapping("/holds/{holdId}")
+    @Operation(summary = "Consultar reserva", description = "Retorna a situação de uma reserva de saldo")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Reserva consultada"),
+        @ApiResponse(responseCode = "404", description = "Reserva não encontrada")
+    })
+    @RateLimited("balance")
+    public ResponseEntity<HoldResponse> getHold(
+            @Parameter(description = "ID da reserva", required = true)
+            @PathVariable UUID holdId) {
+        return ResponseEntity.ok(walletService.getHold(holdId));
+    }
+
+    // Endpoint para capturar a reserva: debita o valor (total ou parcial) e libera o restante
+    @PostMapping("/holds/{holdId}/capture")
+    @Operation(summary = "Capturar reserva", description = "Debita o valor reservado, ou parte dele, da carteira")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Reserva capturada"),
+        @ApiResponse(responseCode = "404", description = "Reserva não encontrada"),
+        @ApiResponse(responseCode = "409", description = "Reserva já capturada, liberada ou expirada")
+    })
+    @RateLimited("hold")
+    public ResponseEntity<HoldResponse> capture(
+            @Parameter(description = "ID da reserva", required = true)
+            @PathVariable UUID holdId,
+            @Valid @RequestBody(required = false) CaptureRequest request) {
+        return ResponseEntity.ok(walletService.capture(holdId, request != null ? request.valor() : null));
+    }
+
+    // Endpoint para liberar a reserva sem debitar nada
+    @PostMapping("/holds/{holdId}/release")
+    @Operation(summary = "Liberar reserva", description = "Encerra a reserva e devolve o valor ao disponível")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Reserva liberada"),
+        @ApiResponse(responseCode = "404", description = "Reserva não encontrada"),
+        @ApiResponse(responseCode = "409", description = "Reserva já capturada, liberada ou expirada")
+    })
+    @RateLimited("hold")
+    public ResponseEntity<HoldResponse> release(
+            @Parameter(description = "ID da reserva", required = true)
+            @PathVariable UUID holdId) {
+        return ResponseEntity.ok(walletService.release(holdId));
+    }
+
+    // Endpoint com saldo, valor reservado e disponível para saques e transferências
+    @GetMapping("/{idUsuario}/available")
+    @Operation(summary = "Saldo disponível", description = "Retorna saldo, soma das reservas ativas e disponível")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Saldo disponível consultado"),
+        @ApiResponse(responseCode = "404", description = "Carteira não encontrada")
+    })
+    @RateLimited("balance")
+    public ResponseEntity<AvailableBalanceResponse> getAvailableBalance(
+            @Parameter(description = "ID do usuário", required = true)
+            @PathVariable String idUsuario) {
+        return ResponseEntity.ok(walletService.getAvailableBalance(idUsuario));
+    }
+
     // Endpoint para consultar saldo atual
+    // O ETag é a versão da carteira: com If-None-Match igual, responde 304 sem ler nem serializar o saldo
     @GetMapping("/{idUsuario}/balance")
     @Operation(summary = "Consultar saldo", description = "Retorna o saldo atual")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Saldo consultado"),
+        @ApiResponse(responseCode = "304", description = "Saldo não mudou desde o ETag informado"),
         @ApiResponse(responseCode = "404", description = "Carteira não encontrada")
     })
+    @RateLimited("balance")
     public ResponseEntity<BalanceResponse> getBalance(
+            @Parameter(description = "ID do usuário", required = true)
+            @PathVariable String idUsuario,
+            @Parameter(description = "ETag da última resposta de saldo")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String versao = walletService.getBalanceVersion(idUsuario);
+        if (versao == null) {
+            return ResponseEntity.ok(walletService.getBalance(idUsuario));
+        }
+        String etag = "\"" + versao + "\"";
+        if (matchesETag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        BalanceResponse balance = walletService.getBalance(idUsuario);
+        if (walletMetrics.lastOperationFellBack()) {
+            // Saldo padrão do fallback: com ETag, o cliente receberia 304 para ele até a próxima escrita
+            return ResponseEntity.ok(balance);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(balance);
+    }
+
+    // Endpoint SSE que envia o novo saldo a cada lançamento confirmado, em vez de polling em /balance
+    @GetMapping(value = "/{idUsuario}/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar saldo", description = "Stream SSE com o saldo atual e cada nova alteração")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stream aberto"),
+        @ApiResponse(responseCode = "404", description = "Carteira não encontrada"),
+        @ApiResponse(responseCode = "503", description = "Limite de conexões atingido")
+    })
+    @RateLimited("balance")
+    public ResponseEntity<SseEmitter> streamBalance(
+            @Parameter(description = "ID do usuário", required = true)
+            @PathVariable String idUsuario,
+            @Parameter(description = "Último evento recebido, enviado pelo cliente ao reconectar")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return ResponseEntity.ok(balanceStreamHub.subscribe(idUsuario, lastEventId));
+        } catch (WalletNotFoundException e) {
+            // O cliente aceita só text/event-stream, então o corpo JSON do GlobalExceptionHandler não seria aceito
+            return ResponseEntity.notFound().build();
+        } catch (ServiceOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+
+    // Endpoint para consultar saldos de várias carteiras em uma chamada (dashboards)
+    @PostMapping("/balances")
+    @Operation(summary = "Consultar saldos", description = "Retorna os saldos de uma lista de usuários")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Saldos consultados; IDs sem carteira vêm em naoEncontrados"),
+        @ApiResponse(responseCode = "400", description = "Lista vazia ou com mais de " + BalancesRequest.MAX_IDS + " IDs")
+    })
+    @RateLimited("balance")
+    public ResponseEntity<BalancesResponse> getBalances(@Valid @RequestBody BalancesRequest request) {
+        return ResponseEntity.ok(walletService.getBalances(request.idsUsuario()));
+    }
+
+    // Endpoint de resumo para extrato, servido pelo modelo de leitura
+    @GetMapping("/{idUsuario}/summary")
+    @Operation(summary = "Resumo da carteira", description = "Retorna saldo, último lançamento e totais do dia")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Resumo consultado"),
+        @ApiResponse(responseCode = "404", description = "Carteira não encontrada")
+    })
+    @RateLimited("balance")
+    public ResponseEntity<BalanceSummaryResponse> getBalanceSummary(
             @Parameter(description = "ID do usuário", required = true)
             @PathVariable String idUsuario) {
-        return ResponseEntity.ok(walletService.getBalance(idUsuario));
+        return ResponseEntity.ok(walletService.getBalanceSummary(idUsuario));
     }
 
     // Endpoint para consultar saldo histórico
@@ -104,9 +315,34 @@ public class WalletController {
         @ApiResponse(responseCode = "200", description = "Saldo histórico consultado"),
         @ApiResponse(responseCode = "404", description = "Carteira não encontrada")
     })
+    @RateLimited("historical")
     public ResponseEntity<BalanceResponse> getHistoricalBalance(
             @PathVariable String idUsuario,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime) {
         return ResponseEntity.ok(walletService.getHistoricalBalance(idUsuario, dateTime));
     }
+
+    // Endpoint com o schema .proto para clientes que usam application/x-protobuf
+    @GetMapping(value = "/schema.proto", produces = MediaType.TEXT_PLAIN_VALUE)
+    @Operation(summary = "Schema protobuf", description = "Schema proto3 dos DTOs aceitos em application/x-protobuf")
+    public ResponseEntity<String> getProtobufSchema() {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(PROTOBUF_SCHEMA);
+    }
+
+    // If-None-Match pode trazer vários ETags, "*" ou a forma fraca W/"..."
+    static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
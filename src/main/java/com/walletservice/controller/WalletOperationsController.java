@@ -0,0 +1,51 @@
+package com.walletservice.controller;
+
+import com.walletservice.config.ProtobufHttpMessageConverter;
+import com.walletservice.operations.WalletOperationStream;
+import com.walletservice.operations.WalletOperationStream.Format;
+import com.walletservice.resilience.RateLimited;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/wallets")
+@Tag(name = "Wallet Operations", description = "Stream de operações para chamadores internos de alto volume")
+public class WalletOperationsController {
+
+    private final WalletOperationStream operationStream;
+
+    public WalletOperationsController(WalletOperationStream operationStream) {
+        this.operationStream = operationStream;
+    }
+
+    // Endpoint de stream: várias operações num único corpo, um resultado por operação, na mesma ordem
+    // NDJSON (uma operação por linha) ou protobuf com cada mensagem precedida do tamanho em varint
+    @PostMapping(value = "/operations",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, ProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE})
+    @Operation(summary = "Enviar operações em stream",
+            description = "Aplica CREATE, DEPOSIT, WITHDRAW, TRANSFER e BALANCE na ordem recebida e devolve "
+                    + "os resultados no mesmo formato do corpo, à medida que são processados")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stream de resultados; erros vêm em cada resultado"),
+        @ApiResponse(responseCode = "415", description = "Formato não suportado")
+    })
+    @RateLimited("operations")
+    public void submitOperations(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? Format.NDJSON : Format.PROTOBUF;
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(format == Format.NDJSON
+                ? MediaType.APPLICATION_NDJSON_VALUE : ProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE);
+        operationStream.process(request.getInputStream(), response.getOutputStream(), format);
+    }
+}
@@ -0,0 +1,35 @@
+package com.walletservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pools Hikari de cada partição, incluindo o padrão.
+ * Fica fora do tipo DataSource para não ser envolvido pelo profiler nem pelo auto-config,
+ * e fecha os pools no shutdown.
+ */
+public class DataSourcePartitions implements AutoCloseable {
+
+    public static final String DEFAULT_PARTITION = "default";
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+
+    public void add(String name, HikariDataSource pool) {
+        pools.put(name, pool);
+    }
+
+    public HikariDataSource get(String name) {
+        return pools.get(name);
+    }
+
+    public Map<String, HikariDataSource> pools() {
+        return Map.copyOf(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,33 @@
+package com.walletservice.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Roteamento de conexões (wallet.app.datasource.*).
+ * partitions.&lt;bulkhead&gt;.* = partições do pool do primário; cada partição herda
+ * spring.datasource.hikari.* e sobrescreve apenas o tamanho e o timeout.
+ * replicas.&lt;nome&gt;.* = réplicas de leitura usadas por transações readOnly.
+ */
+@ConfigurationProperties(prefix = "wallet.app.datasource")
+public record DataSourceRoutingProperties(
+        @DefaultValue("false") boolean partitioned,
+        Map<String, Partition> partitions,
+        Map<String, Replica> replicas,
+        @DefaultValue("5s") Duration maxReplicaLag,
+        @DefaultValue(ReplicaSelector.POSTGRES_LAG_QUERY) String replicaLagQuery,
+        @DefaultValue("10s") Duration readYourWritesWindow
+) {
+    public DataSourceRoutingProperties {
+        partitions = partitions != null ? partitions : Map.of();
+        replicas = replicas != null ? replicas : Map.of();
+    }
+
+    public record Partition(int maximumPoolSize, Duration connectionTimeout) {}
+
+    // Usuário e senha vazios herdam os do primário; URL vazia desliga a réplica
+    public record Replica(String url, String username, String password, int maximumPoolSize) {}
+}
@@ -0,0 +1,15 @@
+package com.walletservice.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Roteia cada conexão para o pool da classe de carga atual.
+ * Sem classe definida (autenticação, criação de carteira) usa o pool padrão.
+ */
+public class PartitionedDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+}
@@ -0,0 +1,109 @@
+package com.walletservice.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Leituras que precisam ver a própria escrita recém-confirmada.
+ * Depois de uma escrita, as leituras da mesma chave (idUsuario ou username) ficam fixadas
+ * no primário durante a janela configurada, que deve ser maior que o atraso aceito das réplicas.
+ * O registro é local à instância.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(@Value("${wallet.app.datasource.read-your-writes-window:10s}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * Registra a escrita das chaves; dentro de uma transação, só depois do commit.
+     */
+    public void recordWrite(String... keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markWritten(keys);
+                }
+            });
+        } else {
+            markWritten(keys);
+        }
+    }
+
+    public boolean mustReadFromPrimary(String key) {
+        Long lastWrite = lastWrites.get(key);
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    /**
+     * Executa a leitura fixada no primário se a chave foi escrita dentro da janela.
+     */
+    public <T> T read(String key, Supplier<T> query) {
+        if (!mustReadFromPrimary(key)) {
+            return query.get();
+        }
+        return readFromPrimary(query);
+    }
+
+    /**
+     * Executa a leitura sempre no primário, mesmo dentro de uma transação readOnly.
+     */
+    public <T> T readFromPrimary(Supplier<T> query) {
+        if (isPinnedToPrimary()) {
+            return query.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    /**
+     * Leitura de várias chaves: fixada no primário se qualquer uma delas foi escrita dentro da janela.
+     */
+    public <T> T readAll(Collection<String> keys, Supplier<T> query) {
+        for (String key : keys) {
+            if (mustReadFromPrimary(key)) {
+                return read(key, query);
+            }
+        }
+        return query.get();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.app.datasource.read-your-writes-eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+
+    private void markWritten(String... keys) {
+        long now = System.nanoTime();
+        for (String key : keys) {
+            if (key != null) {
+                lastWrites.put(key, now);
+            }
+        }
+    }
+}
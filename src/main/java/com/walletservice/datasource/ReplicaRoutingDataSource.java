@@ -0,0 +1,57 @@
+package com.walletservice.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource das transações readOnly (via LazyConnectionDataSourceProxy.setReadOnlyDataSource).
+ * Vai para uma réplica disponível; volta para o primário quando a leitura está fixada
+ * pelo ReadYourWrites, quando não há réplica disponível ou quando a conexão falha.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaSelector selector;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSelector selector, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.selector = selector;
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        this.replicaReads = registry.counter("wallet.datasource.readonly.connections", "target", "replica");
+        this.primaryReads = registry.counter("wallet.datasource.readonly.connections", "target", "primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!ReadYourWrites.isPinnedToPrimary()) {
+            ReplicaSelector.Node node = selector.select();
+            if (node != null) {
+                try {
+                    Connection connection = username != null
+                            ? node.dataSource().getConnection(username, password)
+                            : node.dataSource().getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    selector.markDown(node, e);
+                }
+            }
+        }
+
+        primaryReads.increment();
+        return username != null ? primary.getConnection(username, password) : primary.getConnection();
+    }
+}
@@ -0,0 +1,141 @@
+package com.walletservice.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Escolhe a réplica de leitura: round-robin entre as saudáveis e com atraso de replicação
+ * abaixo de maxReplicaLag. Começa sem réplicas disponíveis até a primeira verificação,
+ * então no startup as leituras vão para o primário.
+ */
+public class ReplicaSelector implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSelector.class);
+
+    // Atraso em milissegundos; zero quando a réplica já aplicou tudo o que recebeu
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() "
+            + "THEN 0 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final List<Node> replicas;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<Node> available = List.of();
+
+    public ReplicaSelector(List<Node> replicas, Duration maxLag, String lagQuery, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+
+        if (meterRegistry != null) {
+            for (Node node : this.replicas) {
+                TimeGauge.builder("wallet.datasource.replica.lag", node, TimeUnit.MILLISECONDS, n -> n.lagMillis)
+                        .tag("replica", node.name())
+                        .register(meterRegistry);
+                Gauge.builder("wallet.datasource.replica.available", node, n -> n.available ? 1 : 0)
+                        .tag("replica", node.name())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Réplica para a próxima leitura, ou null se nenhuma estiver disponível.
+     */
+    public Node select() {
+        List<Node> candidates = available;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    // Falha ao conectar tira a réplica de rotação até a próxima verificação bem-sucedida
+    public void markDown(Node node, Exception cause) {
+        if (node.available) {
+            logger.warn("Replica {} removed from rotation: {}", node.name(), cause.getMessage());
+        }
+        node.available = false;
+        refreshAvailable();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.app.datasource.replica-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Node node : replicas) {
+            boolean wasAvailable = node.available;
+            try (Connection connection = node.dataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                node.lagMillis = resultSet.next() ? Math.max(0, resultSet.getLong(1)) : 0;
+                node.available = node.lagMillis <= maxLagMillis;
+            } catch (Exception e) {
+                node.available = false;
+                logger.debug("Replica {} health check failed", node.name(), e);
+            }
+
+            if (wasAvailable != node.available) {
+                logger.info("Replica {} is now {} (lag {} ms)", node.name(),
+                        node.available ? "available" : "unavailable", node.lagMillis);
+            }
+        }
+        refreshAvailable();
+    }
+
+    public List<Node> replicas() {
+        return replicas;
+    }
+
+    private void refreshAvailable() {
+        available = replicas.stream().filter(node -> node.available).toList();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Node node : replicas) {
+            if (node.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public static final class Node {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+        private volatile long lagMillis;
+
+        public Node(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        public long lagMillis() {
+            return lagMillis;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.walletservice.datasource;
+
+/**
+ * Classe de carga (walletRead, walletWrite, walletReporting) da thread atual.
+ * Usada pelo PartitionedDataSource para escolher o pool de conexões.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    // Retorna a classe anterior para ser restaurada no finally (chamadas aninhadas)
+    public static String enter(String workload) {
+        String previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    public static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
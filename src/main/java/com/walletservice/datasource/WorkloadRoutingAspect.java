@@ -0,0 +1,32 @@
+package com.walletservice.datasource;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propaga o nome do bulkhead do método como classe de carga, para que a conexão
+ * venha da partição do pool correspondente.
+ * Precisa rodar antes do @Transactional, que é quem pega a conexão.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class WorkloadRoutingAspect {
+
+    @Around("@annotation(io.github.resilience4j.bulkhead.annotation.Bulkhead)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Bulkhead bulkhead = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(Bulkhead.class);
+        String previous = WorkloadContext.enter(bulkhead.name());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+}
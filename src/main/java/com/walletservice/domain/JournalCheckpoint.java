@@ -0,0 +1,73 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Última sequência do journal local já aplicada ao banco.
+ * Atualizada na mesma transação que aplica os registros, então o replay depois de um crash
+ * nunca aplica um registro duas vezes.
+ */
+@Entity
+@Table(name = "journal_checkpoint")
+public class JournalCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String nome;
+
+    @Column(nullable = false)
+    private long sequencia;
+
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    public JournalCheckpoint() {
+    }
+
+    public JournalCheckpoint(String nome, long sequencia, LocalDateTime atualizadoEm) {
+        this.nome = nome;
+        this.sequencia = sequencia;
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    public void setSequencia(long sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JournalCheckpoint that = (JournalCheckpoint) o;
+        return Objects.equals(nome, that.nome);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nome);
+    }
+}
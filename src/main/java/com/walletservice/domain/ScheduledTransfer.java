@@ -0,0 +1,238 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Transferência agendada, única ou recorrente. proximaExecucao é a fila por data: o índice
+ * (status, proximaExecucao, id) permite ler só as execuções da próxima janela.
+ * A n-ésima execução é sempre calculada a partir de inicio (execução n = inicio + n períodos), então
+ * uma recorrência mensal no dia 31 cai no último dia dos meses mais curtos sem perder a âncora.
+ */
+@Entity
+@Table(name = "scheduled_transfers", indexes = {
+        @Index(name = "idx_scheduled_transfers_fila", columnList = "status, proximaExecucao, id")
+})
+public class ScheduledTransfer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    public static final String ONCE = "ONCE";
+    public static final String DAILY = "DAILY";
+    public static final String WEEKLY = "WEEKLY";
+    public static final String MONTHLY = "MONTHLY";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String idUsuarioOrigem;
+
+    @Column(nullable = false)
+    private String idUsuarioDestino;
+
+    @Column(nullable = false)
+    private BigDecimal valor;
+
+    @Column(nullable = false)
+    private String recorrencia;
+
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    @Column(nullable = true)
+    private LocalDateTime fim;
+
+    @Column(nullable = false)
+    private LocalDateTime proximaExecucao;
+
+    // Execuções já consumidas (concluídas, com falha ou puladas): índice da próxima
+    @Column(nullable = false)
+    private int execucoes;
+
+    @Column(nullable = false)
+    private int falhas;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = true)
+    private LocalDateTime ultimaExecucao;
+
+    @Column(nullable = true)
+    private String motivo;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long versao;
+
+    public ScheduledTransfer() {
+    }
+
+    public ScheduledTransfer(String idUsuarioOrigem, String idUsuarioDestino, BigDecimal valor, String recorrencia,
+                             LocalDateTime inicio, LocalDateTime fim, LocalDateTime criadoEm) {
+        this.idUsuarioOrigem = idUsuarioOrigem;
+        this.idUsuarioDestino = idUsuarioDestino;
+        this.valor = valor;
+        this.recorrencia = recorrencia;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.proximaExecucao = inicio;
+        this.status = STATUS_ACTIVE;
+        this.criadoEm = criadoEm;
+    }
+
+    public static boolean isValidRecurrence(String recorrencia) {
+        return ONCE.equals(recorrencia) || DAILY.equals(recorrencia) || WEEKLY.equals(recorrencia)
+                || MONTHLY.equals(recorrencia);
+    }
+
+    /**
+     * Data da n-ésima execução (0 = inicio); null se a recorrência não tem execução n.
+     */
+    public LocalDateTime occurrence(int n) {
+        LocalDateTime quando = switch (recorrencia) {
+            case DAILY -> inicio.plusDays(n);
+            case WEEKLY -> inicio.plusWeeks(n);
+            case MONTHLY -> inicio.plusMonths(n);
+            default -> n == 0 ? inicio : null;
+        };
+        return quando == null || (fim != null && quando.isAfter(fim)) ? null : quando;
+    }
+
+    public boolean isActive() {
+        return STATUS_ACTIVE.equals(status);
+    }
+
+    /**
+     * Consome a execução atual e avança para a próxima; sem próxima, encerra o agendamento.
+     * motivo != null registra a execução como falha. Uma transferência única com falha termina FAILED.
+     */
+    public void advance(LocalDateTime quando, String motivo) {
+        this.ultimaExecucao = quando;
+        this.motivo = motivo != null && motivo.length() > 255 ? motivo.substring(0, 255) : motivo;
+        if (motivo != null) {
+            this.falhas++;
+        }
+        skip(1);
+        if (!isActive() && motivo != null && ONCE.equals(recorrencia)) {
+            this.status = STATUS_FAILED;
+        }
+    }
+
+    /**
+     * Pula execuções sem transferir (atraso acima do limite de recuperação).
+     */
+    public void skip(int count) {
+        this.execucoes += count;
+        LocalDateTime proxima = occurrence(execucoes);
+        if (proxima == null) {
+            this.status = STATUS_COMPLETED;
+        } else {
+            this.proximaExecucao = proxima;
+        }
+    }
+
+    public void cancel() {
+        this.status = STATUS_CANCELLED;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getIdUsuarioOrigem() {
+        return idUsuarioOrigem;
+    }
+
+    public String getIdUsuarioDestino() {
+        return idUsuarioDestino;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public String getRecorrencia() {
+        return recorrencia;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public LocalDateTime getProximaExecucao() {
+        return proximaExecucao;
+    }
+
+    public int getExecucoes() {
+        return execucoes;
+    }
+
+    public int getFalhas() {
+        return falhas;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getUltimaExecucao() {
+        return ultimaExecucao;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ScheduledTransfer that = (ScheduledTransfer) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,109 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Progresso de uma partição da geração de extratos de um dia.
+ * A faixa [inicio, fim) é fixada no planejamento e não muda entre reinícios; ultimoIdUsuario é
+ * atualizado na mesma transação que grava os extratos do bloco, então um reinício continua dali.
+ */
+@Entity
+@Table(name = "statement_checkpoints")
+public class StatementCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // dataReferencia + "#" + particao
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private LocalDate dataReferencia;
+
+    @Column(nullable = false)
+    private int particao;
+
+    @Column(nullable = false)
+    private String inicio;
+
+    // Null = sem limite superior
+    @Column(nullable = true)
+    private String fim;
+
+    @Column(nullable = true)
+    private String ultimoIdUsuario;
+
+    @Column(nullable = false)
+    private boolean concluida;
+
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    public StatementCheckpoint() {
+    }
+
+    public StatementCheckpoint(String id, LocalDate dataReferencia, int particao, String inicio, String fim,
+                               String ultimoIdUsuario, boolean concluida, LocalDateTime atualizadoEm) {
+        this.id = id;
+        this.dataReferencia = dataReferencia;
+        this.particao = particao;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.ultimoIdUsuario = ultimoIdUsuario;
+        this.concluida = concluida;
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDate getDataReferencia() {
+        return dataReferencia;
+    }
+
+    public int getParticao() {
+        return particao;
+    }
+
+    public String getInicio() {
+        return inicio;
+    }
+
+    public String getFim() {
+        return fim;
+    }
+
+    public String getUltimoIdUsuario() {
+        return ultimoIdUsuario;
+    }
+
+    public boolean isConcluida() {
+        return concluida;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StatementCheckpoint that = (StatementCheckpoint) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -16,7 +17,13 @@ import java.util.Objects;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+// Índices para as consultas por carteira (saldo histórico e projeção do wallet_balance_view)
+// e por período (reconstrução das janelas de limite de velocidade)
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_origem_data", columnList = "idUsuarioOrigem, dataHora"),
+        @Index(name = "idx_transactions_destino_data", columnList = "idUsuarioDestino, dataHora"),
+        @Index(name = "idx_transactions_data", columnList = "dataHora")
+})
 public class Transaction implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,105 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Total diário de lançamentos de uma carteira por tipo, mantido pelo DailyRollupWriter na mesma
+ * transação que grava o lançamento. Transferências contam para a origem (TRANSFERENCIA_ENVIADA)
+ * e para o destino (TRANSFERENCIA_RECEBIDA).
+ */
+@Entity
+@Table(name = "transaction_daily_rollup", indexes = {
+        @Index(name = "idx_rollup_dia_tipo", columnList = "dia, tipo"),
+        @Index(name = "idx_rollup_usuario_dia", columnList = "idUsuario, dia")
+})
+public class TransactionDailyRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // idUsuario + "#" + dia + "#" + tipo
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String idUsuario;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(nullable = false)
+    private String tipo;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    @Column(nullable = false)
+    private BigDecimal valorTotal;
+
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    public TransactionDailyRollup() {
+    }
+
+    public TransactionDailyRollup(String id, String idUsuario, LocalDate dia, String tipo, long quantidade,
+                                  BigDecimal valorTotal, LocalDateTime atualizadoEm) {
+        this.id = id;
+        this.idUsuario = idUsuario;
+        this.dia = dia;
+        this.tipo = tipo;
+        this.quantidade = quantidade;
+        this.valorTotal = valorTotal;
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public BigDecimal getValorTotal() {
+        return valorTotal;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TransactionDailyRollup that = (TransactionDailyRollup) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,179 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Transferência aceita de forma assíncrona (202), aguardando ou já processada pelo AsyncTransferService.
+ * id é a posição na fila: dentro de uma partição as operações são aplicadas em ordem de id, e todas
+ * as transferências de uma mesma carteira de origem caem na mesma partição. versao reserva a operação
+ * para uma única instância: quem grava o status primeiro aplica, as demais falham na versão.
+ */
+@Entity
+@Table(name = "transfer_operations", indexes = {
+        @Index(name = "idx_transfer_operations_fila", columnList = "particao, status, id")
+})
+public class TransferOperation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID operacaoId;
+
+    @Column(nullable = false)
+    private String idUsuarioOrigem;
+
+    @Column(nullable = false)
+    private String idUsuarioDestino;
+
+    @Column(nullable = false)
+    private BigDecimal valor;
+
+    @Column(nullable = false)
+    private int particao;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = true)
+    private String motivo;
+
+    @Column(nullable = true, length = 2048)
+    private String callbackUrl;
+
+    @Column(nullable = false)
+    private int tentativas;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(nullable = true)
+    private LocalDateTime processadoEm;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long versao;
+
+    public TransferOperation() {
+    }
+
+    public TransferOperation(UUID operacaoId, String idUsuarioOrigem, String idUsuarioDestino, BigDecimal valor,
+                             int particao, String callbackUrl, LocalDateTime criadoEm) {
+        this.operacaoId = operacaoId;
+        this.idUsuarioOrigem = idUsuarioOrigem;
+        this.idUsuarioDestino = idUsuarioDestino;
+        this.valor = valor;
+        this.particao = particao;
+        this.status = STATUS_PENDING;
+        this.callbackUrl = callbackUrl;
+        this.criadoEm = criadoEm;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getOperacaoId() {
+        return operacaoId;
+    }
+
+    public String getIdUsuarioOrigem() {
+        return idUsuarioOrigem;
+    }
+
+    public String getIdUsuarioDestino() {
+        return idUsuarioDestino;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public int getParticao() {
+        return particao;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public int getTentativas() {
+        return tentativas;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getProcessadoEm() {
+        return processadoEm;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public boolean isPending() {
+        return STATUS_PENDING.equals(status);
+    }
+
+    public void complete(LocalDateTime processadoEm) {
+        this.status = STATUS_COMPLETED;
+        this.motivo = null;
+        this.processadoEm = processadoEm;
+        this.tentativas++;
+    }
+
+    public void fail(String motivo, LocalDateTime processadoEm) {
+        this.status = STATUS_FAILED;
+        this.motivo = motivo != null && motivo.length() > 255 ? motivo.substring(0, 255) : motivo;
+        this.processadoEm = processadoEm;
+        this.tentativas++;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TransferOperation that = (TransferOperation) o;
+        return Objects.equals(operacaoId, that.operacaoId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operacaoId);
+    }
+}
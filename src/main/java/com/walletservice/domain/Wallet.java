@@ -6,6 +6,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -34,6 +36,18 @@ public class Wallet implements Serializable {
     @Column(nullable = false)
     private String moeda;
 
+    // Soma das reservas (holds) ativas: disponível = saldo - reservado
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private BigDecimal reservado = BigDecimal.ZERO;
+
+    // Incrementada a cada alteração: trava otimista nas escritas e ETag do saldo
+    // O default permite adicionar a coluna em tabelas que já têm carteiras
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long versao;
+
     public Wallet() {
         this.saldo = BigDecimal.ZERO;
         this.moeda = "BRL";
@@ -78,6 +92,27 @@ public class Wallet implements Serializable {
         this.moeda = moeda;
     }
 
+    public BigDecimal getReservado() {
+        return reservado;
+    }
+
+    public void setReservado(BigDecimal reservado) {
+        this.reservado = reservado;
+    }
+
+    // Não é getter de propriedade: fica fora do JSON da carteira no cache
+    public BigDecimal disponivel() {
+        return saldo.subtract(reservado);
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(long versao) {
+        this.versao = versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
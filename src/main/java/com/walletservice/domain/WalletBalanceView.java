@@ -0,0 +1,158 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Modelo de leitura desnormalizado do saldo, mantido pelo BalanceProjector a partir do ledger.
+ * Não deve ser alterado pelo caminho de escrita.
+ */
+@Entity
+@Table(name = "wallet_balance_view")
+public class WalletBalanceView implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String idUsuario;
+
+    @Column(nullable = false)
+    private BigDecimal saldo;
+
+    @Column(nullable = false)
+    private String moeda;
+
+    @Column(nullable = true)
+    private LocalDateTime ultimaTransacao;
+
+    // Dia a que creditosDia/debitosDia se referem
+    @Column(nullable = false)
+    private LocalDate dataReferencia;
+
+    @Column(nullable = false)
+    private BigDecimal creditosDia;
+
+    @Column(nullable = false)
+    private BigDecimal debitosDia;
+
+    // Quantidade de lançamentos do ledger já refletidos na visão
+    @Column(nullable = false)
+    private long versao;
+
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    public WalletBalanceView() {
+        this.saldo = BigDecimal.ZERO;
+        this.moeda = "BRL";
+        this.creditosDia = BigDecimal.ZERO;
+        this.debitosDia = BigDecimal.ZERO;
+    }
+
+    public WalletBalanceView(String idUsuario, BigDecimal saldo, String moeda, LocalDateTime ultimaTransacao,
+                             LocalDate dataReferencia, BigDecimal creditosDia, BigDecimal debitosDia,
+                             long versao, LocalDateTime atualizadoEm) {
+        this.idUsuario = idUsuario;
+        this.saldo = saldo;
+        this.moeda = moeda;
+        this.ultimaTransacao = ultimaTransacao;
+        this.dataReferencia = dataReferencia;
+        this.creditosDia = creditosDia;
+        this.debitosDia = debitosDia;
+        this.versao = versao;
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public void setIdUsuario(String idUsuario) {
+        this.idUsuario = idUsuario;
+    }
+
+    public BigDecimal getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(BigDecimal saldo) {
+        this.saldo = saldo;
+    }
+
+    public String getMoeda() {
+        return moeda;
+    }
+
+    public void setMoeda(String moeda) {
+        this.moeda = moeda;
+    }
+
+    public LocalDateTime getUltimaTransacao() {
+        return ultimaTransacao;
+    }
+
+    public void setUltimaTransacao(LocalDateTime ultimaTransacao) {
+        this.ultimaTransacao = ultimaTransacao;
+    }
+
+    public LocalDate getDataReferencia() {
+        return dataReferencia;
+    }
+
+    public void setDataReferencia(LocalDate dataReferencia) {
+        this.dataReferencia = dataReferencia;
+    }
+
+    public BigDecimal getCreditosDia() {
+        return creditosDia;
+    }
+
+    public void setCreditosDia(BigDecimal creditosDia) {
+        this.creditosDia = creditosDia;
+    }
+
+    public BigDecimal getDebitosDia() {
+        return debitosDia;
+    }
+
+    public void setDebitosDia(BigDecimal debitosDia) {
+        this.debitosDia = debitosDia;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(long versao) {
+        this.versao = versao;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WalletBalanceView that = (WalletBalanceView) o;
+        return Objects.equals(idUsuario, that.idUsuario);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(idUsuario);
+    }
+}
@@ -0,0 +1,110 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Evento do stream append-only de uma carteira (modo event-sourced).
+ * valor é o efeito no saldo: positivo para créditos, negativo para débitos.
+ * A unicidade de (idUsuario, sequencia) impede que duas escritas concorrentes
+ * acrescentem o mesmo evento.
+ */
+@Entity
+@Table(name = "wallet_events", uniqueConstraints =
+        @UniqueConstraint(name = "uk_wallet_events_usuario_sequencia", columnNames = {"idUsuario", "sequencia"}))
+public class WalletEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String idUsuario;
+
+    @Column(nullable = false)
+    private long sequencia;
+
+    @Column(nullable = false)
+    private String tipo;
+
+    @Column(nullable = false)
+    private BigDecimal valor;
+
+    @Column(nullable = false)
+    private LocalDateTime dataHora;
+
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(nullable = true)
+    private UUID idTransacao;
+
+    public WalletEvent() {
+    }
+
+    public WalletEvent(UUID id, String idUsuario, long sequencia, String tipo, BigDecimal valor,
+                       LocalDateTime dataHora, UUID idTransacao) {
+        this.id = id;
+        this.idUsuario = idUsuario;
+        this.sequencia = sequencia;
+        this.tipo = tipo;
+        this.valor = valor;
+        this.dataHora = dataHora;
+        this.idTransacao = idTransacao;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+
+    public UUID getIdTransacao() {
+        return idTransacao;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WalletEvent that = (WalletEvent) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,152 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Reserva de saldo (autorização) de uma carteira. Enquanto ACTIVE, o valor entra em wallets.reservado
+ * e não pode ser sacado nem transferido; termina capturada (vira um saque), liberada ou expirada.
+ */
+@Entity
+@Table(name = "wallet_holds", indexes = {
+        @Index(name = "idx_wallet_holds_usuario_status", columnList = "idUsuario, status, expiraEm"),
+        @Index(name = "idx_wallet_holds_status_id", columnList = "status, id")
+})
+public class WalletHold implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_CAPTURED = "CAPTURED";
+    public static final String STATUS_RELEASED = "RELEASED";
+    public static final String STATUS_EXPIRED = "EXPIRED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String idUsuario;
+
+    @Column(nullable = false)
+    private BigDecimal valor;
+
+    @Column(nullable = true)
+    private BigDecimal valorCapturado;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = true)
+    private String descricao;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(nullable = true)
+    private LocalDateTime finalizadoEm;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long versao;
+
+    public WalletHold() {
+    }
+
+    public WalletHold(String idUsuario, BigDecimal valor, String descricao, LocalDateTime criadoEm,
+                      LocalDateTime expiraEm) {
+        this.idUsuario = idUsuario;
+        this.valor = valor;
+        this.descricao = descricao;
+        this.criadoEm = criadoEm;
+        this.expiraEm = expiraEm;
+        this.status = STATUS_ACTIVE;
+    }
+
+    public boolean isActive() {
+        return STATUS_ACTIVE.equals(status);
+    }
+
+    public void capture(BigDecimal valorCapturado, LocalDateTime quando) {
+        this.valorCapturado = valorCapturado;
+        finish(STATUS_CAPTURED, quando);
+    }
+
+    public void finish(String status, LocalDateTime quando) {
+        this.status = status;
+        this.finalizadoEm = quando;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public BigDecimal getValorCapturado() {
+        return valorCapturado;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getExpiraEm() {
+        return expiraEm;
+    }
+
+    public LocalDateTime getFinalizadoEm() {
+        return finalizadoEm;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WalletHold hold = (WalletHold) o;
+        return Objects.equals(id, hold.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
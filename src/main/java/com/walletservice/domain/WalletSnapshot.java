@@ -0,0 +1,85 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Último snapshot de uma carteira: saldo após aplicar os eventos até a sequência indicada.
+ * O replay começa daqui e aplica só os eventos posteriores.
+ */
+@Entity
+@Table(name = "wallet_snapshots")
+public class WalletSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String idUsuario;
+
+    @Column(nullable = false)
+    private long sequencia;
+
+    @Column(nullable = false)
+    private BigDecimal saldo;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    public WalletSnapshot() {
+    }
+
+    public WalletSnapshot(String idUsuario, long sequencia, BigDecimal saldo, LocalDateTime criadoEm) {
+        this.idUsuario = idUsuario;
+        this.sequencia = sequencia;
+        this.saldo = saldo;
+        this.criadoEm = criadoEm;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    public void setSequencia(long sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    public BigDecimal getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(BigDecimal saldo) {
+        this.saldo = saldo;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public void setCriadoEm(LocalDateTime criadoEm) {
+        this.criadoEm = criadoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WalletSnapshot that = (WalletSnapshot) o;
+        return Objects.equals(idUsuario, that.idUsuario);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(idUsuario);
+    }
+}
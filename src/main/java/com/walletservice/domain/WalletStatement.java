@@ -0,0 +1,130 @@
+package com.walletservice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Extrato diário de uma carteira, gerado em lote pelo StatementJob.
+ * saldoFinal = saldoInicial + creditos - debitos; o saldoFinal de um dia é o saldoInicial do seguinte.
+ */
+@Entity
+@Table(name = "wallet_statements", uniqueConstraints =
+        @UniqueConstraint(name = "uk_wallet_statements_usuario_data", columnNames = {"idUsuario", "dataReferencia"}))
+public class WalletStatement implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String idUsuario;
+
+    @Column(nullable = false)
+    private LocalDate dataReferencia;
+
+    @Column(nullable = false)
+    private BigDecimal saldoInicial;
+
+    @Column(nullable = false)
+    private BigDecimal creditos;
+
+    @Column(nullable = false)
+    private BigDecimal debitos;
+
+    @Column(nullable = false)
+    private BigDecimal saldoFinal;
+
+    @Column(nullable = false)
+    private int quantidadeTransacoes;
+
+    @Column(nullable = false)
+    private String moeda;
+
+    @Column(nullable = false)
+    private LocalDateTime geradoEm;
+
+    public WalletStatement() {
+    }
+
+    public WalletStatement(UUID id, String idUsuario, LocalDate dataReferencia, BigDecimal saldoInicial,
+                           BigDecimal creditos, BigDecimal debitos, BigDecimal saldoFinal,
+                           int quantidadeTransacoes, String moeda, LocalDateTime geradoEm) {
+        this.id = id;
+        this.idUsuario = idUsuario;
+        this.dataReferencia = dataReferencia;
+        this.saldoInicial = saldoInicial;
+        this.creditos = creditos;
+        this.debitos = debitos;
+        this.saldoFinal = saldoFinal;
+        this.quantidadeTransacoes = quantidadeTransacoes;
+        this.moeda = moeda;
+        this.geradoEm = geradoEm;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public LocalDate getDataReferencia() {
+        return dataReferencia;
+    }
+
+    public BigDecimal getSaldoInicial() {
+        return saldoInicial;
+    }
+
+    public BigDecimal getCreditos() {
+        return creditos;
+    }
+
+    public BigDecimal getDebitos() {
+        return debitos;
+    }
+
+    public BigDecimal getSaldoFinal() {
+        return saldoFinal;
+    }
+
+    public int getQuantidadeTransacoes() {
+        return quantidadeTransacoes;
+    }
+
+    public String getMoeda() {
+        return moeda;
+    }
+
+    public LocalDateTime getGeradoEm() {
+        return geradoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WalletStatement that = (WalletStatement) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
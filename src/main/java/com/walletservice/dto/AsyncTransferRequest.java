@@ -0,0 +1,34 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+
+@Schema(description = "Requisição de transferência assíncrona; o resultado é consultado pelo id da operação")
+public record AsyncTransferRequest(
+    @Schema(description = "ID do usuário de origem", example = "user123")
+    @NotBlank(message = "Source User ID cannot be blank")
+    String idUsuarioOrigem,
+
+    @Schema(description = "ID do usuário de destino", example = "user456")
+    @NotBlank(message = "Destination User ID cannot be blank")
+    String idUsuarioDestino,
+
+    @Schema(description = "Valor a ser transferido", example = "75.00")
+    @NotNull(message = "Amount cannot be null")
+    @Positive(message = "Amount must be positive")
+    BigDecimal valor,
+
+    @Schema(description = "URL opcional que recebe um POST com o resultado", example = "https://example.com/callbacks/transfer")
+    @Pattern(regexp = "^https?://.+", message = "Callback URL must be an http(s) URL")
+    @Size(max = 2048, message = "Callback URL is too long")
+    String callbackUrl
+) {
+    public TransferRequest toTransferRequest() {
+        return new TransferRequest(idUsuarioOrigem, idUsuarioDestino, valor);
+    }
+}
@@ -0,0 +1,23 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Saldo da carteira com o valor reservado e o disponível para saques e transferências")
+public record AvailableBalanceResponse(
+    @Schema(description = "ID do usuário", example = "user123")
+    String idUsuario,
+
+    @Schema(description = "Saldo atual", example = "100.00")
+    BigDecimal saldo,
+
+    @Schema(description = "Soma das reservas ativas", example = "30.00")
+    BigDecimal reservado,
+
+    @Schema(description = "saldo - reservado", example = "70.00")
+    BigDecimal disponivel,
+
+    @Schema(description = "Moeda", example = "BRL")
+    String moeda
+) {}
@@ -0,0 +1,30 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Schema(description = "Resumo da carteira lido do modelo de leitura (wallet_balance_view)")
+public record BalanceSummaryResponse(
+    @Schema(description = "ID do usuário", example = "user123")
+    String idUsuario,
+
+    @Schema(description = "Saldo atual da carteira", example = "150.75")
+    BigDecimal saldo,
+
+    @Schema(description = "Moeda do saldo", example = "BRL")
+    String moeda,
+
+    @Schema(description = "Data e hora do último lançamento")
+    LocalDateTime ultimaTransacao,
+
+    @Schema(description = "Total creditado hoje", example = "50.00")
+    BigDecimal creditosDia,
+
+    @Schema(description = "Total debitado hoje", example = "20.00")
+    BigDecimal debitosDia,
+
+    @Schema(description = "Quantidade de lançamentos refletidos no resumo", example = "12")
+    long versao
+) {}
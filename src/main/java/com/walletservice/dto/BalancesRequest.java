@@ -0,0 +1,19 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Requisição de saldos de várias carteiras")
+public record BalancesRequest(
+    @ArraySchema(schema = @Schema(description = "ID do usuário", example = "user123"), maxItems = BalancesRequest.MAX_IDS)
+    @NotEmpty(message = "User ID list cannot be empty")
+    @Size(max = BalancesRequest.MAX_IDS, message = "At most " + BalancesRequest.MAX_IDS + " user IDs per request")
+    List<@NotBlank(message = "User ID cannot be blank") String> idsUsuario
+) {
+    public static final int MAX_IDS = 500;
+}
@@ -0,0 +1,14 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Saldos de várias carteiras, na ordem pedida")
+public record BalancesResponse(
+    @Schema(description = "Saldos das carteiras encontradas")
+    List<BalanceResponse> saldos,
+
+    @Schema(description = "IDs de usuário sem carteira")
+    List<String> naoEncontrados
+) {}
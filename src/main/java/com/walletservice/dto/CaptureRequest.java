@@ -0,0 +1,13 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Requisição para capturar uma reserva; sem valor, captura o total reservado")
+public record CaptureRequest(
+    @Schema(description = "Valor a ser capturado, no máximo o reservado", example = "45.00")
+    @Positive(message = "Amount must be positive")
+    BigDecimal valor
+) {}
@@ -0,0 +1,29 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Requisição para reservar saldo de uma carteira (autorização)")
+public record HoldRequest(
+    @Schema(description = "ID do usuário", example = "user123")
+    @NotBlank(message = "User ID cannot be blank")
+    String idUsuario,
+
+    @Schema(description = "Valor a ser reservado", example = "50.00")
+    @NotNull(message = "Amount cannot be null")
+    @Positive(message = "Amount must be positive")
+    BigDecimal valor,
+
+    @Schema(description = "Prazo da reserva em segundos; sem valor, usa o padrão do serviço", example = "900")
+    @Positive(message = "TTL must be positive")
+    Long ttlSegundos,
+
+    @Schema(description = "Descrição livre da reserva", example = "Pedido 123")
+    @Size(max = 255, message = "Description must have at most 255 characters")
+    String descricao
+) {}
@@ -0,0 +1,40 @@
+package com.walletservice.dto;
+
+import com.walletservice.domain.WalletHold;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Situação de uma reserva de saldo")
+public record HoldResponse(
+    @Schema(description = "ID da reserva")
+    UUID holdId,
+
+    @Schema(description = "ID do usuário", example = "user123")
+    String idUsuario,
+
+    @Schema(description = "Valor reservado", example = "50.00")
+    BigDecimal valor,
+
+    @Schema(description = "Valor capturado, quando status = CAPTURED", example = "45.00")
+    BigDecimal valorCapturado,
+
+    @Schema(description = "ACTIVE, CAPTURED, RELEASED ou EXPIRED", example = "ACTIVE")
+    String status,
+
+    @Schema(description = "Data e hora em que a reserva foi criada")
+    LocalDateTime criadoEm,
+
+    @Schema(description = "Data e hora em que a reserva expira se não for capturada nem liberada")
+    LocalDateTime expiraEm,
+
+    @Schema(description = "Data e hora em que a reserva foi encerrada")
+    LocalDateTime finalizadoEm
+) {
+    public static HoldResponse from(WalletHold hold) {
+        return new HoldResponse(hold.getId(), hold.getIdUsuario(), hold.getValor(), hold.getValorCapturado(),
+                hold.getStatus(), hold.getCriadoEm(), hold.getExpiraEm(), hold.getFinalizadoEm());
+    }
+}
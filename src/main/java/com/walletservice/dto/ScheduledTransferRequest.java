@@ -0,0 +1,38 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Schema(description = "Requisição de transferência agendada, única ou recorrente")
+public record ScheduledTransferRequest(
+    @Schema(description = "ID do usuário de origem", example = "user123")
+    @NotBlank(message = "Source User ID cannot be blank")
+    String idUsuarioOrigem,
+
+    @Schema(description = "ID do usuário de destino", example = "user456")
+    @NotBlank(message = "Destination User ID cannot be blank")
+    String idUsuarioDestino,
+
+    @Schema(description = "Valor de cada transferência", example = "75.00")
+    @NotNull(message = "Amount cannot be null")
+    @Positive(message = "Amount must be positive")
+    BigDecimal valor,
+
+    @Schema(description = "Data e hora da primeira execução (precisão de segundos)", example = "2025-07-01T09:00:00")
+    @NotNull(message = "Execution date cannot be null")
+    LocalDateTime dataExecucao,
+
+    @Schema(description = "ONCE, DAILY, WEEKLY ou MONTHLY; sem valor, ONCE", example = "MONTHLY")
+    @Pattern(regexp = "(?i)ONCE|DAILY|WEEKLY|MONTHLY", message = "Recurrence must be ONCE, DAILY, WEEKLY or MONTHLY")
+    String recorrencia,
+
+    @Schema(description = "Última data em que a recorrência pode executar; sem valor, não termina",
+            example = "2025-12-31T23:59:59")
+    LocalDateTime dataFim
+) {}
@@ -0,0 +1,61 @@
+package com.walletservice.dto;
+
+import com.walletservice.domain.ScheduledTransfer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Situação de uma transferência agendada")
+public record ScheduledTransferResponse(
+    @Schema(description = "ID do agendamento")
+    UUID agendamentoId,
+
+    @Schema(description = "ACTIVE, COMPLETED, FAILED ou CANCELLED", example = "ACTIVE")
+    String status,
+
+    @Schema(description = "ID do usuário de origem", example = "user123")
+    String idUsuarioOrigem,
+
+    @Schema(description = "ID do usuário de destino", example = "user456")
+    String idUsuarioDestino,
+
+    @Schema(description = "Valor de cada transferência", example = "75.00")
+    BigDecimal valor,
+
+    @Schema(description = "ONCE, DAILY, WEEKLY ou MONTHLY", example = "MONTHLY")
+    String recorrencia,
+
+    @Schema(description = "Data e hora da primeira execução")
+    LocalDateTime inicio,
+
+    @Schema(description = "Última data em que a recorrência pode executar")
+    LocalDateTime fim,
+
+    @Schema(description = "Próxima execução; vazio quando o agendamento foi encerrado")
+    LocalDateTime proximaExecucao,
+
+    @Schema(description = "Execuções já consumidas, com sucesso, com falha ou puladas", example = "3")
+    int execucoes,
+
+    @Schema(description = "Execuções que falharam", example = "0")
+    int falhas,
+
+    @Schema(description = "Data e hora da última execução")
+    LocalDateTime ultimaExecucao,
+
+    @Schema(description = "Motivo da falha da última execução")
+    String motivo,
+
+    @Schema(description = "Data e hora em que o agendamento foi criado")
+    LocalDateTime criadoEm
+) {
+    public static ScheduledTransferResponse from(ScheduledTransfer schedule) {
+        return new ScheduledTransferResponse(schedule.getId(), schedule.getStatus(), schedule.getIdUsuarioOrigem(),
+                schedule.getIdUsuarioDestino(), schedule.getValor(), schedule.getRecorrencia(), schedule.getInicio(),
+                schedule.getFim(), schedule.isActive() ? schedule.getProximaExecucao() : null,
+                schedule.getExecucoes(), schedule.getFalhas(), schedule.getUltimaExecucao(), schedule.getMotivo(),
+                schedule.getCriadoEm());
+    }
+}
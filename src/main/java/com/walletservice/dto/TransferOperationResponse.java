@@ -0,0 +1,41 @@
+package com.walletservice.dto;
+
+import com.walletservice.domain.TransferOperation;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Situação de uma transferência assíncrona")
+public record TransferOperationResponse(
+    @Schema(description = "ID da operação")
+    UUID operacaoId,
+
+    @Schema(description = "PENDING, COMPLETED ou FAILED", example = "COMPLETED")
+    String status,
+
+    @Schema(description = "ID do usuário de origem", example = "user123")
+    String idUsuarioOrigem,
+
+    @Schema(description = "ID do usuário de destino", example = "user456")
+    String idUsuarioDestino,
+
+    @Schema(description = "Valor da transferência", example = "75.00")
+    BigDecimal valor,
+
+    @Schema(description = "Motivo da falha, quando status = FAILED")
+    String motivo,
+
+    @Schema(description = "Data e hora em que a operação foi aceita")
+    LocalDateTime criadoEm,
+
+    @Schema(description = "Data e hora em que a operação foi processada")
+    LocalDateTime processadoEm
+) {
+    public static TransferOperationResponse from(TransferOperation operation) {
+        return new TransferOperationResponse(operation.getOperacaoId(), operation.getStatus(),
+                operation.getIdUsuarioOrigem(), operation.getIdUsuarioDestino(), operation.getValor(),
+                operation.getMotivo(), operation.getCriadoEm(), operation.getProcessadoEm());
+    }
+}
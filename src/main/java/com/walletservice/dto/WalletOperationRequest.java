@@ -0,0 +1,23 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Uma operação dentro do stream POST /api/wallets/operations")
+public record WalletOperationRequest(
+    @Schema(description = "Número escolhido pelo cliente para casar a resposta; 0 usa a posição no stream", example = "1")
+    long sequencia,
+
+    @Schema(description = "CREATE, DEPOSIT, WITHDRAW, TRANSFER ou BALANCE", example = "DEPOSIT")
+    String tipo,
+
+    @Schema(description = "ID do usuário (origem, no caso de TRANSFER)", example = "user123")
+    String idUsuario,
+
+    @Schema(description = "ID do usuário de destino, só para TRANSFER", example = "user456")
+    String idUsuarioDestino,
+
+    @Schema(description = "Valor da operação", example = "100.00")
+    BigDecimal valor
+) {}
@@ -0,0 +1,27 @@
+package com.walletservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Resultado de uma operação do stream, na mesma ordem em que foi enviada")
+public record WalletOperationResult(
+    @Schema(description = "Sequência da operação correspondente", example = "1")
+    long sequencia,
+
+    @Schema(description = "OK ou o código do erro (INVALID_ARGUMENT, NOT_FOUND, ALREADY_EXISTS, FAILED_PRECONDITION, "
+            + "ABORTED, RESOURCE_EXHAUSTED, UNAVAILABLE, INTERNAL)", example = "OK")
+    String status,
+
+    @Schema(description = "ID do usuário da operação", example = "user123")
+    String idUsuario,
+
+    @Schema(description = "Saldo após a operação; vazio em TRANSFER e em erros", example = "150.75")
+    BigDecimal saldo,
+
+    @Schema(description = "Moeda do saldo", example = "BRL")
+    String moeda,
+
+    @Schema(description = "Mensagem de erro, quando status != OK")
+    String mensagem
+) {}
@@ -0,0 +1,198 @@
+package com.walletservice.eventsourcing;
+
+import com.walletservice.eventsourcing.ParallelReplay.KeyRange;
+import com.walletservice.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recuperação no startup do modo event-sourced.
+ *
+ * Faz o replay de todas as carteiras em paralelo (ParallelReplay, fork/join por faixas de idUsuario),
+ * começando de cada snapshot. Em cada faixa:
+ * - corrige wallets.saldo que divergir do stream;
+ * - grava snapshot das carteiras com snapshotEvery ou mais eventos desde o último;
+ * - adota carteiras sem stream com um snapshot inicial do saldo atual.
+ * Roda antes de a aplicação ficar pronta (ApplicationRunner). Usa JDBC direto com fetch size
+ * para ler milhões de eventos sem materializar entidades.
+ */
+@Component
+public class EventSourcedRecovery implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventSourcedRecovery.class);
+
+    private static final int ID_PAGE_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletRepository walletRepository;
+    private final EventSourcingProperties properties;
+
+    public record RecoveryResult(long wallets, long events, long repaired, long snapshots, long adopted,
+                                 long durationMillis) {}
+
+    public EventSourcedRecovery(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                WalletRepository walletRepository, EventSourcingProperties properties) {
+        // Template próprio: o fetch size não deve vazar para o JdbcTemplate compartilhado
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.recoveryFetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.walletRepository = walletRepository;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.enabled() && properties.recoverOnStartup()) {
+            recover();
+        }
+    }
+
+    public RecoveryResult recover() {
+        long start = System.nanoTime();
+        List<String> ids = allWalletIds();
+        List<KeyRange> ranges = ParallelReplay.ranges(ids, properties.recoveryPartitions());
+        logger.info("Recovering {} wallets from event streams in {} partitions", ids.size(), ranges.size());
+
+        AtomicLong repaired = new AtomicLong();
+        AtomicLong snapshots = new AtomicLong();
+        AtomicLong adopted = new AtomicLong();
+        ParallelReplay.Result result = ParallelReplay.replay(ranges, (range, states) ->
+                transactionTemplate.execute(status -> {
+                    Map<String, Long> snapshotSequences = loadSnapshots(range, states);
+                    long events = replayEvents(range, states);
+                    reconcile(range, states, snapshotSequences, repaired, snapshots, adopted);
+                    // Já reconciliado na própria faixa; não precisa subir na recursão
+                    states.clear();
+                    return events;
+                }), properties.effectiveParallelism());
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        RecoveryResult recovery = new RecoveryResult(ids.size(), result.events(), repaired.get(), snapshots.get(),
+                adopted.get(), durationMillis);
+        logger.info("Event stream recovery finished: {}", recovery);
+        return recovery;
+    }
+
+    private List<String> allWalletIds() {
+        List<String> ids = new ArrayList<>();
+        String after = "";
+        List<String> page;
+        do {
+            page = walletRepository.findIdUsuarioAfter(after, PageRequest.of(0, ID_PAGE_SIZE));
+            ids.addAll(page);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == ID_PAGE_SIZE);
+        return ids;
+    }
+
+    private Map<String, Long> loadSnapshots(KeyRange range, Map<String, WalletState> states) {
+        Map<String, Long> sequences = new HashMap<>();
+        jdbcTemplate.query("SELECT id_usuario, sequencia, saldo FROM wallet_snapshots WHERE " + rangeCondition("id_usuario", range),
+                rs -> {
+                    String idUsuario = rs.getString(1);
+                    long sequencia = rs.getLong(2);
+                    states.put(idUsuario, new WalletState(idUsuario, sequencia, rs.getBigDecimal(3)));
+                    sequences.put(idUsuario, sequencia);
+                }, rangeArgs(range));
+        return sequences;
+    }
+
+    private long replayEvents(KeyRange range, Map<String, WalletState> states) {
+        long[] events = {0};
+        jdbcTemplate.query("SELECT e.id_usuario, e.sequencia, e.valor FROM wallet_events e "
+                        + "LEFT JOIN wallet_snapshots s ON s.id_usuario = e.id_usuario "
+                        + "WHERE " + rangeCondition("e.id_usuario", range)
+                        + " AND e.sequencia > COALESCE(s.sequencia, 0) ORDER BY e.id_usuario, e.sequencia",
+                rs -> {
+                    String idUsuario = rs.getString(1);
+                    WalletState state = states.get(idUsuario);
+                    if (state == null) {
+                        state = new WalletState(idUsuario, 0, BigDecimal.ZERO);
+                    }
+                    states.put(idUsuario, state.apply(rs.getLong(2), rs.getBigDecimal(3)));
+                    events[0]++;
+                }, rangeArgs(range));
+        return events[0];
+    }
+
+    private void reconcile(KeyRange range, Map<String, WalletState> states, Map<String, Long> snapshotSequences,
+                           AtomicLong repaired, AtomicLong snapshots, AtomicLong adopted) {
+        List<Object[]> repairs = new ArrayList<>();
+        List<Object[]> snapshotUpdates = new ArrayList<>();
+        List<Object[]> snapshotInserts = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.query("SELECT id_usuario, saldo FROM wallets WHERE " + rangeCondition("id_usuario", range),
+                rs -> {
+                    String idUsuario = rs.getString(1);
+                    BigDecimal saldo = rs.getBigDecimal(2);
+                    WalletState state = states.get(idUsuario);
+
+                    if (state == null) {
+                        snapshotInserts.add(new Object[]{idUsuario, 0L, saldo, now});
+                        adopted.incrementAndGet();
+                        return;
+                    }
+                    if (saldo.compareTo(state.saldo()) != 0) {
+                        logger.warn("Wallet {} balance {} differs from its event stream {}; repairing",
+                                idUsuario, saldo, state.saldo());
+                        // Compare-and-set: se houve escrita concorrente, a próxima leitura do stream corrige
+                        repairs.add(new Object[]{state.saldo(), idUsuario, saldo});
+                    }
+                    Long snapshotSequencia = snapshotSequences.get(idUsuario);
+                    if (snapshotSequencia == null) {
+                        snapshotInserts.add(new Object[]{idUsuario, state.sequencia(), state.saldo(), now});
+                    } else if (state.sequencia() - snapshotSequencia >= properties.snapshotEvery()) {
+                        snapshotUpdates.add(new Object[]{state.sequencia(), state.saldo(), now, idUsuario});
+                    }
+                }, rangeArgs(range));
+
+        if (!repairs.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE wallets SET saldo = ?, versao = versao + 1 WHERE id_usuario = ? AND saldo = ?", repairs);
+            repaired.addAndGet(repairs.size());
+        }
+        if (!snapshotInserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO wallet_snapshots (id_usuario, sequencia, saldo, criado_em) VALUES (?, ?, ?, ?)",
+                    snapshotInserts);
+        }
+        if (!snapshotUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE wallet_snapshots SET sequencia = ?, saldo = ?, criado_em = ? WHERE id_usuario = ?",
+                    snapshotUpdates);
+        }
+        snapshots.addAndGet(snapshotInserts.size() + snapshotUpdates.size());
+    }
+
+    private static String rangeCondition(String column, KeyRange range) {
+        return range.toExclusive() == null
+                ? column + " >= ?"
+                : column + " >= ? AND " + column + " < ?";
+    }
+
+    private static Object[] rangeArgs(KeyRange range) {
+        return range.toExclusive() == null
+                ? new Object[]{range.fromInclusive()}
+                : new Object[]{range.fromInclusive(), range.toExclusive()};
+    }
+}
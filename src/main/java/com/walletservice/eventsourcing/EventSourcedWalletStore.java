@@ -0,0 +1,126 @@
+package com.walletservice.eventsourcing;
+
+import com.walletservice.domain.Wallet;
+import com.walletservice.domain.WalletEvent;
+import com.walletservice.domain.WalletSnapshot;
+import com.walletservice.projection.LedgerEvent;
+import com.walletservice.repository.WalletEventRepository;
+import com.walletservice.repository.WalletRepository;
+import com.walletservice.repository.WalletSnapshotRepository;
+import com.walletservice.utils.Messages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistência event-sourced opcional das carteiras.
+ *
+ * Cada lançamento do ledger vira um evento no stream da carteira, gravado na mesma transação
+ * da escrita. O saldo usado pelas operações de escrita vem do replay do stream, começando
+ * pelo último snapshot; a tabela wallets passa a ser uma materialização desse estado.
+ * Carteiras anteriores ao modo ganham um snapshot inicial (sequência 0) no primeiro evento.
+ */
+@Component
+public class EventSourcedWalletStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventSourcedWalletStore.class);
+
+    private final WalletEventRepository eventRepository;
+    private final WalletSnapshotRepository snapshotRepository;
+    private final WalletRepository walletRepository;
+    private final EventSourcingProperties properties;
+
+    public EventSourcedWalletStore(WalletEventRepository eventRepository, WalletSnapshotRepository snapshotRepository,
+                                   WalletRepository walletRepository, EventSourcingProperties properties) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.walletRepository = walletRepository;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    // Síncrono, dentro da transação da escrita: evento e saldo são confirmados juntos
+    @EventListener
+    public void onLedgerEvent(LedgerEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        switch (event.tipoTransacao()) {
+            case Messages.TRANSACTION_TYPE_DEPOSIT -> append(event.idUsuarioOrigem(), event, event.valor());
+            case Messages.TRANSACTION_TYPE_WITHDRAW -> append(event.idUsuarioOrigem(), event, event.valor().negate());
+            case Messages.TRANSACTION_TYPE_TRANSFER -> {
+                append(event.idUsuarioOrigem(), event, event.valor().negate());
+                append(event.idUsuarioDestino(), event, event.valor());
+            }
+            default -> logger.warn("Ignoring ledger event of unknown type {}", event.tipoTransacao());
+        }
+    }
+
+    /**
+     * Estado atual da carteira pelo replay a partir do último snapshot, ou vazio se a carteira
+     * ainda não tem stream.
+     */
+    public Optional<WalletState> load(String idUsuario) {
+        Optional<WalletSnapshot> snapshot = snapshotRepository.findById(idUsuario);
+        long from = snapshot.map(WalletSnapshot::getSequencia).orElse(0L);
+        List<WalletEvent> events = eventRepository.findByIdUsuarioAndSequenciaGreaterThanOrderBySequencia(idUsuario, from);
+        if (snapshot.isEmpty() && events.isEmpty()) {
+            return Optional.empty();
+        }
+
+        WalletState state = new WalletState(idUsuario, from, snapshot.map(WalletSnapshot::getSaldo).orElse(BigDecimal.ZERO));
+        for (WalletEvent event : events) {
+            state = state.apply(event.getSequencia(), event.getValor());
+        }
+        return Optional.of(state);
+    }
+
+    /**
+     * No modo event-sourced, substitui o saldo da carteira pelo do stream antes de uma escrita.
+     */
+    public void replayInto(Wallet wallet) {
+        if (!isEnabled()) {
+            return;
+        }
+        load(wallet.getIdUsuario()).ifPresent(state -> {
+            if (wallet.getSaldo().compareTo(state.saldo()) != 0) {
+                logger.warn("Wallet {} balance {} differs from its event stream {}; using the stream",
+                        wallet.getIdUsuario(), wallet.getSaldo(), state.saldo());
+            }
+            wallet.setSaldo(state.saldo());
+        });
+    }
+
+    private void append(String idUsuario, LedgerEvent event, BigDecimal valor) {
+        long last = eventRepository.findLastSequencia(idUsuario);
+        if (last == 0 && !snapshotRepository.existsById(idUsuario)) {
+            adopt(idUsuario, valor);
+        }
+
+        long sequencia = last + 1;
+        eventRepository.save(new WalletEvent(null, idUsuario, sequencia, event.tipoTransacao(), valor,
+                event.dataHora(), event.transactionId()));
+
+        if (sequencia % properties.snapshotEvery() == 0) {
+            load(idUsuario).ifPresent(state -> snapshotRepository.save(
+                    new WalletSnapshot(idUsuario, state.sequencia(), state.saldo(), LocalDateTime.now())));
+        }
+    }
+
+    // Carteira sem stream: o saldo antes deste evento vira o snapshot inicial
+    private void adopt(String idUsuario, BigDecimal valor) {
+        // Entidade gerenciada pela transação atual, já com o saldo após a operação
+        Wallet wallet = walletRepository.findByIdUsuario(idUsuario);
+        BigDecimal before = wallet != null ? wallet.getSaldo().subtract(valor) : BigDecimal.ZERO;
+        snapshotRepository.save(new WalletSnapshot(idUsuario, 0, before, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.walletservice.eventsourcing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Modo event-sourced (wallet.app.event-sourcing.*).
+ * snapshotEvery = eventos entre snapshots da mesma carteira;
+ * recoveryPartitions = faixas de idUsuario lidas em paralelo na recuperação;
+ * recoveryParallelism = threads do ForkJoinPool (0 = número de processadores).
+ */
+@ConfigurationProperties(prefix = "wallet.app.event-sourcing")
+public record EventSourcingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100") int snapshotEvery,
+        @DefaultValue("true") boolean recoverOnStartup,
+        @DefaultValue("16") int recoveryPartitions,
+        @DefaultValue("0") int recoveryParallelism,
+        @DefaultValue("10000") int recoveryFetchSize
+) {
+    public int effectiveParallelism() {
+        return recoveryParallelism > 0 ? recoveryParallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
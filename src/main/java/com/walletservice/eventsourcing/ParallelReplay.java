@@ -0,0 +1,113 @@
+package com.walletservice.eventsourcing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Replay de todas as carteiras em paralelo com fork/join.
+ * O espaço de idUsuario é dividido em faixas contíguas; cada folha lê e aplica os eventos
+ * de uma faixa, e os resultados são unidos na volta da recursão.
+ * Como cada carteira pertence a uma única faixa, não há estado compartilhado entre folhas.
+ */
+public final class ParallelReplay {
+
+    private ParallelReplay() {
+    }
+
+    /**
+     * Faixa [fromInclusive, toExclusive); toExclusive null = sem limite superior.
+     */
+    public record KeyRange(String fromInclusive, String toExclusive) {
+
+        public boolean contains(String idUsuario) {
+            return idUsuario.compareTo(fromInclusive) >= 0
+                    && (toExclusive == null || idUsuario.compareTo(toExclusive) < 0);
+        }
+    }
+
+    /**
+     * Semeia states com os snapshots da faixa e aplica os eventos posteriores.
+     * Retorna quantos eventos foram aplicados.
+     */
+    @FunctionalInterface
+    public interface PartitionReader {
+        long read(KeyRange range, Map<String, WalletState> states);
+    }
+
+    public record Result(Map<String, WalletState> states, long events) {
+    }
+
+    public static Result replay(List<KeyRange> ranges, PartitionReader reader, int parallelism) {
+        if (ranges.isEmpty()) {
+            return new Result(Map.of(), 0);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new ReplayTask(ranges, reader));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Divide a lista ordenada de idUsuario em até partitions faixas de tamanho parecido.
+     */
+    public static List<KeyRange> ranges(List<String> sortedIds, int partitions) {
+        if (sortedIds.isEmpty()) {
+            return List.of();
+        }
+        int count = Math.max(1, Math.min(partitions, sortedIds.size()));
+        List<KeyRange> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // A primeira faixa começa em "" para incluir carteiras com eventos mas fora da lista
+            String from = i == 0 ? "" : sortedIds.get(i * sortedIds.size() / count);
+            String to = i == count - 1 ? null : sortedIds.get((i + 1) * sortedIds.size() / count);
+            ranges.add(new KeyRange(from, to));
+        }
+        return ranges;
+    }
+
+    private static final class ReplayTask extends RecursiveTask<Result> {
+
+        private final List<KeyRange> ranges;
+        private final PartitionReader reader;
+
+        ReplayTask(List<KeyRange> ranges, PartitionReader reader) {
+            this.ranges = ranges;
+            this.reader = reader;
+        }
+
+        @Override
+        protected Result compute() {
+            if (ranges.size() == 1) {
+                Map<String, WalletState> states = new HashMap<>();
+                long events = reader.read(ranges.get(0), states);
+                return new Result(states, events);
+            }
+
+            int middle = ranges.size() / 2;
+            ReplayTask left = new ReplayTask(ranges.subList(0, middle), reader);
+            ReplayTask right = new ReplayTask(ranges.subList(middle, ranges.size()), reader);
+            left.fork();
+            Result rightResult = right.compute();
+            Result leftResult = left.join();
+
+            // Une no maior mapa para copiar menos
+            Map<String, WalletState> merged;
+            Map<String, WalletState> other;
+            if (leftResult.states().size() >= rightResult.states().size()) {
+                merged = leftResult.states();
+                other = rightResult.states();
+            } else {
+                merged = rightResult.states();
+                other = leftResult.states();
+            }
+            merged.putAll(other);
+            return new Result(merged, leftResult.events() + rightResult.events());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.walletservice.eventsourcing;
+
+import java.math.BigDecimal;
+
+/**
+ * Estado de uma carteira derivado do stream: saldo após o evento de número sequencia.
+ */
+public record WalletState(String idUsuario, long sequencia, BigDecimal saldo) {
+
+    public WalletState apply(long eventSequencia, BigDecimal valor) {
+        return new WalletState(idUsuario, eventSequencia, saldo.add(valor));
+    }
+}
@@ -1,7 +1,11 @@
 package com.walletservice.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -38,6 +42,51 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(TransferOperationNotFoundException.class)
+    public ResponseEntity<Object> handleTransferOperationNotFoundException(TransferOperationNotFoundException ex, WebRequest request) {
+        // Id de transferência assíncrona desconhecido
+        return new ResponseEntity<>(
+            createErrorResponse("Operação não encontrada: " + ex.getMessage(), HttpStatus.NOT_FOUND),
+            HttpStatus.NOT_FOUND
+        );
+    }
+
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<Object> handleHoldNotFoundException(HoldNotFoundException ex, WebRequest request) {
+        // Id de reserva desconhecido
+        return new ResponseEntity<>(
+            createErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND),
+            HttpStatus.NOT_FOUND
+        );
+    }
+
+    @ExceptionHandler(HoldNotActiveException.class)
+    public ResponseEntity<Object> handleHoldNotActiveException(HoldNotActiveException ex, WebRequest request) {
+        // Reserva já capturada, liberada ou expirada
+        return new ResponseEntity<>(
+            createErrorResponse(ex.getMessage(), HttpStatus.CONFLICT),
+            HttpStatus.CONFLICT
+        );
+    }
+
+    @ExceptionHandler(ScheduledTransferNotFoundException.class)
+    public ResponseEntity<Object> handleScheduledTransferNotFoundException(ScheduledTransferNotFoundException ex, WebRequest request) {
+        // Id de transferência agendada desconhecido
+        return new ResponseEntity<>(
+            createErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND),
+            HttpStatus.NOT_FOUND
+        );
+    }
+
+    @ExceptionHandler(ScheduledTransferNotActiveException.class)
+    public ResponseEntity<Object> handleScheduledTransferNotActiveException(ScheduledTransferNotActiveException ex, WebRequest request) {
+        // Agendamento já concluído, cancelado ou com falha
+        return new ResponseEntity<>(
+            createErrorResponse(ex.getMessage(), HttpStatus.CONFLICT),
+            HttpStatus.CONFLICT
+        );
+    }
+
     @ExceptionHandler(InsufficientFundsException.class)
     public ResponseEntity<Object> handleInsufficientFundsException(InsufficientFundsException ex, WebRequest request) {
         // Saldo insuficiente - usuário tentou sacar ou transferir mais do que tem
@@ -56,6 +105,71 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request) {
+        // A carteira mudou durante a operação em todas as tentativas do @Retry
+        return new ResponseEntity<>(
+            createErrorResponse("A carteira foi alterada por outra operação, tente novamente", HttpStatus.CONFLICT),
+            HttpStatus.CONFLICT
+        );
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Object> handleRateLimitExceededException(RateLimitExceededException ex, WebRequest request) {
+        // Cliente excedeu o limite de requisições do endpoint
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(createErrorResponse(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<Object> handleVelocityLimitExceededException(VelocityLimitExceededException ex, WebRequest request) {
+        // Limite de saques/transferências do usuário na janela deslizante
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(createErrorResponse(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Object> handleServiceOverloadedException(ServiceOverloadedException ex, WebRequest request) {
+        // Requisição descartada pelo limite de concorrência adaptativo
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(createErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<Object> handleBulkheadFullException(BulkheadFullException ex, WebRequest request) {
+        // Todas as vagas da classe de carga (leitura, escrita, relatórios) ocupadas
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(createErrorResponse("Service is busy. Please try again shortly.", HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @ExceptionHandler(JournalUnavailableException.class)
+    public ResponseEntity<Object> handleJournalUnavailableException(JournalUnavailableException ex, WebRequest request) {
+        // Journal local parado (erro de fsync ou shutdown); a operação não foi confirmada
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(createErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @ExceptionHandler(WalletFilterUnavailableException.class)
+    public ResponseEntity<Object> handleWalletFilterUnavailableException(WalletFilterUnavailableException ex, WebRequest request) {
+        // Criação não avisada às outras instâncias; a transação foi desfeita
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(createErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @ExceptionHandler(HoldsUnavailableException.class)
+    public ResponseEntity<Object> handleHoldsUnavailableException(HoldsUnavailableException ex, WebRequest request) {
+        // Reservas não funcionam no modo journal
+        return new ResponseEntity<>(
+            createErrorResponse(ex.getMessage(), HttpStatus.NOT_IMPLEMENTED),
+            HttpStatus.NOT_IMPLEMENTED
+        );
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Object> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
         // Parâmetros inválidos - como valor negativo para depósito
@@ -65,6 +179,15 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Object> handleNotReadableException(HttpMessageNotReadableException ex, WebRequest request) {
+        // Corpo que não pôde ser lido - JSON malformado ou protobuf truncado
+        return new ResponseEntity<>(
+            createErrorResponse("Corpo da requisição inválido", HttpStatus.BAD_REQUEST),
+            HttpStatus.BAD_REQUEST
+        );
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(MethodArgumentNotValidException ex, WebRequest request) {
         // Erros de validação dos campos da requisição
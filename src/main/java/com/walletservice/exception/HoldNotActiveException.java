@@ -0,0 +1,8 @@
+package com.walletservice.exception;
+
+public class HoldNotActiveException extends RuntimeException {
+    public HoldNotActiveException(String message) {
+        // Sem stack trace: captura/liberação de reserva já encerrada, respondida como 409
+        super(message, null, false, false);
+    }
+}
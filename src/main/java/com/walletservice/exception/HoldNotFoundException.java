@@ -0,0 +1,8 @@
+package com.walletservice.exception;
+
+public class HoldNotFoundException extends RuntimeException {
+    public HoldNotFoundException(String message) {
+        // Sem stack trace: reserva com ID desconhecido, respondida como 404
+        super(message, null, false, false);
+    }
+}
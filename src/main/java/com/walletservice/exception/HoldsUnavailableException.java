@@ -0,0 +1,8 @@
+package com.walletservice.exception;
+
+public class HoldsUnavailableException extends RuntimeException {
+    public HoldsUnavailableException(String message) {
+        // Sem stack trace: reservas desligadas pelo modo de persistência, respondidas como 501
+        super(message, null, false, false);
+    }
+}
@@ -2,6 +2,7 @@ package com.walletservice.exception;
 
 public class InsufficientFundsException extends RuntimeException {
     public InsufficientFundsException(String message) {
-        super(message);
+        // Sem stack trace: erro de negócio esperado, respondido como 400
+        super(message, null, false, false);
     }
 }
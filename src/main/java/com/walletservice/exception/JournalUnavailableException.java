@@ -0,0 +1,7 @@
+package com.walletservice.exception;
+
+public class JournalUnavailableException extends RuntimeException {
+    public JournalUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.walletservice.exception;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long waitNanos) {
+        // Sem stack trace: lançada em rajadas, justamente quando o cliente excede o limite
+        super("Limite de requisições excedido", null, false, false);
+        // Retry-After é em segundos inteiros; arredonda para cima
+        this.retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
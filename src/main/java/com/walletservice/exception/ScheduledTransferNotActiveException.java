@@ -0,0 +1,8 @@
+package com.walletservice.exception;
+
+public class ScheduledTransferNotActiveException extends RuntimeException {
+    public ScheduledTransferNotActiveException(String message) {
+        // Sem stack trace: cancelamento de agendamento já encerrado, respondido como 409
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,8 @@
+package com.walletservice.exception;
+
+public class ScheduledTransferNotFoundException extends RuntimeException {
+    public ScheduledTransferNotFoundException(String message) {
+        // Sem stack trace: consulta/cancelamento de agendamento desconhecido, respondido como 404
+        super(message, null, false, false);
+    }
+}
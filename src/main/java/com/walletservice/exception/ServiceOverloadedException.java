@@ -0,0 +1,8 @@
+package com.walletservice.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException() {
+        // Sem stack trace: é lançada justamente quando o serviço está sobrecarregado
+        super("Serviço sobrecarregado, tente novamente em instantes", null, false, false);
+    }
+}
@@ -0,0 +1,8 @@
+package com.walletservice.exception;
+
+public class TransferOperationNotFoundException extends RuntimeException {
+    public TransferOperationNotFoundException(String message) {
+        // Sem stack trace: consulta de status com ID desconhecido, respondida como 404
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,19 @@
+package com.walletservice.exception;
+
+import java.util.concurrent.TimeUnit;
+
+public class VelocityLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public VelocityLimitExceededException(String message, long waitMillis) {
+        // Sem stack trace: erro de negócio esperado, respondido como 429
+        super(message, null, false, false);
+        // Quando a janela terá liberado valor suficiente; Retry-After em segundos inteiros, para cima
+        this.retryAfterSeconds = Math.max(1, (waitMillis + TimeUnit.SECONDS.toMillis(1) - 1) / TimeUnit.SECONDS.toMillis(1));
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -2,6 +2,7 @@ package com.walletservice.exception;
 
 public class WalletAlreadyExistsException extends RuntimeException {
     public WalletAlreadyExistsException(String message) {
-        super(message);
+        // Sem stack trace: erro de negócio esperado, respondido como 409
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,7 @@
+package com.walletservice.exception;
+
+public class WalletFilterUnavailableException extends RuntimeException {
+    public WalletFilterUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
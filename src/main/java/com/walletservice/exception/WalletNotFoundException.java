@@ -2,6 +2,7 @@ package com.walletservice.exception;
 
 public class WalletNotFoundException extends RuntimeException {
     public WalletNotFoundException(String message) {
-        super(message);
+        // Sem stack trace: caminho quente (inclusive pelo filtro de existência), sempre respondida como 404
+        super(message, null, false, false);
     }
 }
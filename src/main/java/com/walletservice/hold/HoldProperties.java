@@ -0,0 +1,21 @@
+package com.walletservice.hold;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Reservas de saldo (wallet.app.holds.*).
+ * defaultTtl/maxTtl = prazo quando o cliente não informa e o máximo aceito; tick = resolução da
+ * timing wheel de expiração; expiryBatchSize = reservas vencidas expiradas por transação.
+ */
+@ConfigurationProperties(prefix = "wallet.app.holds")
+public record HoldProperties(
+        @DefaultValue("15m") Duration defaultTtl,
+        @DefaultValue("7d") Duration maxTtl,
+        @DefaultValue("100ms") Duration tick,
+        @DefaultValue("500") int expiryBatchSize,
+        @DefaultValue("10000") int loadPageSize
+) {
+}
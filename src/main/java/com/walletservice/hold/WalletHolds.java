@@ -0,0 +1,299 @@
+package com.walletservice.hold;
+
+import com.walletservice.datasource.WorkloadContext;
+import com.walletservice.domain.Wallet;
+import com.walletservice.domain.WalletHold;
+import com.walletservice.exception.HoldNotFoundException;
+import com.walletservice.limits.VelocityLimiter;
+import com.walletservice.repository.ActiveHold;
+import com.walletservice.repository.WalletHoldRepository;
+import com.walletservice.repository.WalletRepository;
+import com.walletservice.timer.HierarchicalTimingWheel;
+import com.walletservice.timer.HierarchicalTimingWheel.Timeout;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ciclo de vida das reservas de saldo: gravação, consulta e expiração.
+ *
+ * Cada reserva ativa tem um timer numa {@link HierarchicalTimingWheel} em memória, agendado depois
+ * do commit; agendar e cancelar custam O(1) e um tick sem vencimentos não toca no banco. As reservas
+ * vencidas em cada tick são expiradas em lotes (reserva EXPIRED e wallets.reservado reduzido na
+ * mesma transação). No startup as reservas ativas são reagendadas a partir do banco, em segundo plano.
+ *
+ * A roda é local à instância; como a expiração só altera reservas ainda ACTIVE, timers de reservas
+ * capturadas em outra instância não têm efeito. Saques e transferências também expiram, na própria
+ * transação, as reservas vencidas da carteira ({@link #releaseOverdue}), então o disponível nunca
+ * depende do atraso da roda. O valor de uma reserva expirada volta ao limite de saques.
+ */
+@Component
+public class WalletHolds implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletHolds.class);
+
+    static final String WORKLOAD = "walletWrite";
+
+    private final WalletHoldRepository holdRepository;
+    private final WalletRepository walletRepository;
+    private final VelocityLimiter velocityLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final HoldProperties properties;
+    private final HierarchicalTimingWheel<UUID> wheel;
+    private final Map<UUID, Timeout<UUID>> timeouts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("wallet-holds-ticker").daemon().factory());
+    private final ExecutorService expirer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("wallet-holds-expiry").daemon().factory());
+    private final Counter expired;
+
+    public WalletHolds(WalletHoldRepository holdRepository, WalletRepository walletRepository,
+                       VelocityLimiter velocityLimiter, PlatformTransactionManager transactionManager,
+                       HoldProperties properties, MeterRegistry meterRegistry) {
+        this.holdRepository = holdRepository;
+        this.walletRepository = walletRepository;
+        this.velocityLimiter = velocityLimiter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.wheel = new HierarchicalTimingWheel<>(properties.tick().toMillis(), 6, System.currentTimeMillis());
+        this.expired = Counter.builder("wallet.holds.expired")
+                .description("Reservas encerradas por prazo vencido")
+                .register(meterRegistry);
+        Gauge.builder("wallet.holds.scheduled", wheel, HierarchicalTimingWheel::size)
+                .description("Reservas ativas com expiração agendada nesta instância")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Prazo da reserva: o informado pelo cliente (até maxTtl) ou o padrão.
+     */
+    public Duration ttl(Long ttlSegundos) {
+        if (ttlSegundos == null) {
+            return properties.defaultTtl();
+        }
+        Duration ttl = Duration.ofSeconds(ttlSegundos);
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(properties.maxTtl()) > 0) {
+            throw new IllegalArgumentException("O prazo da reserva deve estar entre 1 segundo e "
+                    + properties.maxTtl().toSeconds() + " segundos");
+        }
+        return ttl;
+    }
+
+    /**
+     * Grava a reserva; a expiração é agendada quando a transação confirmar.
+     */
+    public WalletHold place(WalletHold hold) {
+        WalletHold saved = holdRepository.save(hold);
+        afterCommit(() -> schedule(saved.getId(), saved.getExpiraEm()));
+        return saved;
+    }
+
+    public WalletHold find(UUID holdId) {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new HoldNotFoundException(String.format(Messages.HOLD_NOT_FOUND, holdId)));
+    }
+
+    /**
+     * Encerra a reserva (capturada ou liberada) e cancela o timer depois do commit.
+     */
+    public void finish(WalletHold hold) {
+        holdRepository.save(hold);
+        afterCommit(() -> cancel(hold.getId()));
+    }
+
+    /**
+     * Expira, na transação corrente, as reservas vencidas da carteira e devolve o valor ao disponível.
+     * Chamado nas escritas que checam o disponível; a carteira é salva pelo chamador.
+     */
+    public void releaseOverdue(Wallet wallet) {
+        if (wallet.getReservado().signum() <= 0) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        for (WalletHold hold : holdRepository.findOverdue(wallet.getIdUsuario(), agora)) {
+            expireInto(wallet, hold, agora);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ticker.scheduleWithFixedDelay(this::tick, properties.tick().toMillis(), properties.tick().toMillis(),
+                TimeUnit.MILLISECONDS);
+        expirer.submit(this::loadActive);
+    }
+
+    /**
+     * Reagenda todas as reservas ativas do banco, em páginas por chave.
+     * As já vencidas durante a parada saem no próximo tick. Retorna quantas foram agendadas.
+     */
+    long loadActive() {
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            long start = System.nanoTime();
+            long loaded = 0;
+            // Menor UUID na ordem do banco (bytes sem sinal)
+            UUID after = new UUID(0, 0);
+            List<ActiveHold> page;
+            do {
+                page = holdRepository.findActiveAfter(after, PageRequest.of(0, properties.loadPageSize()));
+                for (ActiveHold hold : page) {
+                    schedule(hold.getId(), hold.getExpiraEm());
+                }
+                loaded += page.size();
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == properties.loadPageSize());
+            logger.info("Scheduled expiry of {} active holds in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+            return loaded;
+        } catch (RuntimeException e) {
+            // Sem a carga, as reservas vencidas ainda são expiradas pelas escritas na carteira
+            logger.error("Loading active holds failed", e);
+            return -1;
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    void tick(long nowMillis) {
+        try {
+            List<UUID> due = wheel.advance(nowMillis);
+            for (int from = 0; from < due.size(); from += properties.expiryBatchSize()) {
+                List<UUID> batch = due.subList(from, Math.min(due.size(), from + properties.expiryBatchSize()));
+                batch.forEach(timeouts::remove);
+                List<UUID> copy = List.copyOf(batch);
+                expirer.submit(() -> expire(copy));
+            }
+        } catch (RuntimeException e) {
+            // Não pode derrubar o agendamento periódico
+            logger.error("Hold expiry tick failed", e);
+        }
+    }
+
+    /**
+     * Expira, numa transação, as reservas do lote que ainda estiverem ativas e vencidas.
+     * Se o lote falhar (ex.: carteira alterada ao mesmo tempo), cada reserva é tentada sozinha e as
+     * que falharem de novo voltam para a roda.
+     */
+    int expire(List<UUID> holdIds) {
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            try {
+                return expireBatch(holdIds);
+            } catch (RuntimeException e) {
+                logger.warn("Hold expiry batch of {} failed, retrying one by one: {}", holdIds.size(), e.toString());
+            }
+            int count = 0;
+            for (UUID holdId : holdIds) {
+                try {
+                    count += expireBatch(List.of(holdId));
+                } catch (RuntimeException e) {
+                    logger.warn("Hold {} expiry postponed: {}", holdId, e.toString());
+                    schedule(holdId, LocalDateTime.now().plusSeconds(1));
+                }
+            }
+            return count;
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    private int expireBatch(List<UUID> holdIds) {
+        Integer count = transactionTemplate.execute(status -> {
+            LocalDateTime agora = LocalDateTime.now();
+            Map<String, Wallet> wallets = new HashMap<>();
+            int expiredNow = 0;
+            for (WalletHold hold : holdRepository.findAllById(holdIds)) {
+                if (!hold.isActive() || hold.getExpiraEm().isAfter(agora)) {
+                    continue;
+                }
+                Wallet wallet = wallets.computeIfAbsent(hold.getIdUsuario(), walletRepository::findByIdUsuario);
+                expireInto(wallet, hold, agora);
+                expiredNow++;
+            }
+            wallets.values().forEach(walletRepository::save);
+            return expiredNow;
+        });
+        return count == null ? 0 : count;
+    }
+
+    private void expireInto(Wallet wallet, WalletHold hold, LocalDateTime agora) {
+        if (wallet != null) {
+            BigDecimal reservado = wallet.getReservado().subtract(hold.getValor());
+            wallet.setReservado(reservado.signum() < 0 ? BigDecimal.ZERO : reservado);
+        }
+        hold.finish(WalletHold.STATUS_EXPIRED, agora);
+        holdRepository.save(hold);
+        velocityLimiter.refundWithdrawal(hold.getIdUsuario(), hold.getValor(), hold.getCriadoEm(), false);
+        expired.increment();
+    }
+
+    int scheduled() {
+        return wheel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        expirer.shutdownNow();
+    }
+
+    private void schedule(UUID holdId, LocalDateTime expiraEm) {
+        long deadline = expiraEm.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Timeout<UUID> previous = timeouts.put(holdId, wheel.schedule(holdId, deadline));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    private void cancel(UUID holdId) {
+        Timeout<UUID> timeout = timeouts.remove(holdId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    // Fora de transação (ex.: testes) executa na hora
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
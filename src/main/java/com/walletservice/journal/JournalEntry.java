@@ -0,0 +1,66 @@
+package com.walletservice.journal;
+
+import com.walletservice.utils.Messages;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * Operação de dinheiro confirmada no journal local.
+ * tipoTransacao segue os tipos de Messages; idUsuarioDestino só existe em transferências.
+ */
+public record JournalEntry(long sequence, long timestampMillis, String tipoTransacao, String idUsuarioOrigem,
+                           String idUsuarioDestino, BigDecimal valor) {
+
+    public static JournalEntry deposit(String idUsuario, BigDecimal valor) {
+        return new JournalEntry(0, System.currentTimeMillis(), Messages.TRANSACTION_TYPE_DEPOSIT, idUsuario, null, valor);
+    }
+
+    public static JournalEntry withdraw(String idUsuario, BigDecimal valor) {
+        return new JournalEntry(0, System.currentTimeMillis(), Messages.TRANSACTION_TYPE_WITHDRAW, idUsuario, null, valor);
+    }
+
+    public static JournalEntry transfer(String idUsuarioOrigem, String idUsuarioDestino, BigDecimal valor) {
+        return new JournalEntry(0, System.currentTimeMillis(), Messages.TRANSACTION_TYPE_TRANSFER,
+                idUsuarioOrigem, idUsuarioDestino, valor);
+    }
+
+    JournalEntry withSequence(long sequence) {
+        return new JournalEntry(sequence, timestampMillis, tipoTransacao, idUsuarioOrigem, idUsuarioDestino, valor);
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(sequence);
+            out.writeLong(timestampMillis);
+            out.writeUTF(tipoTransacao);
+            out.writeUTF(idUsuarioOrigem);
+            out.writeUTF(idUsuarioDestino != null ? idUsuarioDestino : "");
+            out.writeUTF(valor.toPlainString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalEntry decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long sequence = in.readLong();
+            long timestampMillis = in.readLong();
+            String tipoTransacao = in.readUTF();
+            String idUsuarioOrigem = in.readUTF();
+            String idUsuarioDestino = in.readUTF();
+            BigDecimal valor = new BigDecimal(in.readUTF());
+            return new JournalEntry(sequence, timestampMillis, tipoTransacao, idUsuarioOrigem,
+                    idUsuarioDestino.isEmpty() ? null : idUsuarioDestino, valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.walletservice.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Journal local de operações (wallet.app.journal.*).
+ * segmentSize = tamanho de cada arquivo mapeado; applyBatchSize = registros por transação
+ * ao aplicar o journal no banco.
+ */
+@ConfigurationProperties(prefix = "wallet.app.journal")
+public record JournalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/journal") String directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("500") int applyBatchSize
+) {
+}
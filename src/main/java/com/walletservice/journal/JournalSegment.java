@@ -0,0 +1,166 @@
+package com.walletservice.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Um arquivo do journal, mapeado em memória com tamanho fixo.
+ * Cada registro é [tamanho int][crc32c int][payload]; tamanho 0 marca o fim dos dados.
+ * Escritas usam posições absolutas e acontecem sob o lock do WriteAheadJournal;
+ * o force() pode rodar em paralelo sobre a faixa já escrita.
+ */
+final class JournalSegment {
+
+    static final String PREFIX = "journal-";
+    static final String SUFFIX = ".log";
+    static final int HEADER_BYTES = 8;
+
+    private final Path path;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+    private int forcedPosition;
+    private long lastSequence;
+
+    private JournalSegment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) {
+        return open(directory.resolve(fileName(firstSequence)), firstSequence, size);
+    }
+
+    static JournalSegment open(Path path, long firstSequence, int size) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            int mappedSize = (int) Math.max(size, channel.size());
+            return new JournalSegment(path, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal segment " + path, e);
+        }
+    }
+
+    static String fileName(long firstSequence) {
+        return String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX);
+    }
+
+    static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Lê os registros válidos a partir do início e posiciona a escrita logo depois do último.
+     * Um registro cortado ou com CRC inválido (escrita interrompida por crash) encerra a leitura;
+     * o restante do arquivo é zerado para não ser confundido com dados numa próxima leitura.
+     */
+    void recover(List<JournalEntry> entries) {
+        int offset = 0;
+        CRC32C crc = new CRC32C();
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            JournalEntry entry = JournalEntry.decode(payload);
+            entries.add(entry);
+            lastSequence = entry.sequence();
+            offset += HEADER_BYTES + length;
+        }
+        position = offset;
+        forcedPosition = offset;
+        if (hasDataAfter(offset)) {
+            for (int i = offset; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+    }
+
+    private boolean hasDataAfter(int offset) {
+        for (int i = offset; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Grava o registro se couber no arquivo; false indica que é hora de trocar de segmento.
+     */
+    boolean tryAppend(long sequence, byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        // Mantém espaço para o marcador de fim (tamanho 0)
+        if (position + recordBytes + 4 > buffer.capacity()) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // O tamanho por último: um registro só passa a existir quando está completo
+        buffer.putInt(position, payload.length);
+        position += recordBytes;
+        lastSequence = sequence;
+        return true;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    int position() {
+        return position;
+    }
+
+    /**
+     * Sincroniza com o disco a faixa escrita até upTo (posição capturada sob o lock do journal).
+     */
+    void force(int upTo) {
+        int from = forcedPosition;
+        if (upTo > from) {
+            buffer.force(from, upTo - from);
+            forcedPosition = upTo;
+        }
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close journal segment " + path, e);
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.walletservice.journal;
+
+import com.walletservice.datasource.ReadYourWrites;
+import com.walletservice.domain.JournalCheckpoint;
+import com.walletservice.domain.Transaction;
+import com.walletservice.domain.Wallet;
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.JournalUnavailableException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.projection.LedgerEvent;
+import com.walletservice.repository.JournalCheckpointRepository;
+import com.walletservice.repository.TransactionRepository;
+import com.walletservice.repository.WalletRepository;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo journal: depósitos, saques e transferências são confirmados assim que chegam ao
+ * WriteAheadJournal local (fsync em group commit) e aplicados no Postgres de forma assíncrona.
+ *
+ * Enquanto o modo está ligado, o saldo de cada carteira com operações ainda não aplicadas fica em
+ * memória e é a fonte de verdade para validar as operações; o banco fica atrás por alguns
+ * milissegundos. Saldo e versão em memória só mudam depois do fsync: até lá o débito fica reservado
+ * (conta na validação, não no saldo lido) e é desfeito se o journal falhar. A carteira sai da memória
+ * quando todas as suas operações já foram aplicadas no banco.
+ * Os registros são aplicados em ordem, em lotes, junto com o checkpoint (journal_checkpoint) na mesma
+ * transação. No start, antes do servidor web aceitar requisições, o que ficou no journal depois do
+ * checkpoint é reaplicado. Por ser um arquivo local, o modo pressupõe uma única instância escrevendo.
+ */
+@Component
+public class WalletJournal implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletJournal.class);
+
+    static final String CHECKPOINT = "wallet";
+
+    private final JournalProperties properties;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadYourWrites readYourWrites;
+    private final Timer commitTimer;
+
+    private final ConcurrentMap<String, JournaledWallet> wallets = new ConcurrentHashMap<>();
+    private final BlockingQueue<JournalEntry> toApply = new LinkedBlockingQueue<>();
+    private volatile WriteAheadJournal journal;
+    private volatile long appliedSequence;
+    private volatile boolean running;
+    private Thread applier;
+
+    // Saldo de uma carteira no modo journal; as alterações acontecem sob o monitor do próprio objeto
+    private static final class JournaledWallet {
+        private final UUID id;
+        private final String idUsuario;
+        private final String moeda;
+        private volatile BigDecimal saldo;
+        // Cada operação aplicada grava a carteira uma vez, então o banco chega a esta mesma versão
+        private volatile long versao;
+        // Débitos gravados no journal e ainda sem fsync
+        private BigDecimal reservado = BigDecimal.ZERO;
+        private int pendentes;
+        private long ultimaSequencia;
+        // Removida do mapa: quem ainda tem a referência carrega de novo
+        private boolean evicted;
+
+        JournaledWallet(Wallet wallet) {
+            this.id = wallet.getId();
+            this.idUsuario = wallet.getIdUsuario();
+            this.moeda = wallet.getMoeda();
+            this.saldo = wallet.getSaldo();
+            this.versao = wallet.getVersao();
+        }
+
+        BigDecimal disponivel() {
+            return saldo.subtract(reservado);
+        }
+
+        void begin(JournalEntry entry, BigDecimal debito) {
+            ultimaSequencia = entry.sequence();
+            reservado = reservado.add(debito);
+            pendentes++;
+        }
+
+        // Durável: a variação entra no saldo; com falha, só a reserva é desfeita
+        void finish(BigDecimal delta, BigDecimal debito, boolean durable) {
+            reservado = reservado.subtract(debito);
+            pendentes--;
+            if (durable) {
+                saldo = saldo.add(delta);
+                versao++;
+            }
+        }
+
+        Wallet toWallet() {
+            Wallet wallet = new Wallet(id, idUsuario, saldo, moeda);
+            wallet.setVersao(versao);
+            return wallet;
+        }
+    }
+
+    public WalletJournal(JournalProperties properties, WalletRepository walletRepository,
+                         TransactionRepository transactionRepository, JournalCheckpointRepository checkpointRepository,
+                         PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                         ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.readYourWrites = readYourWrites;
+
+        this.commitTimer = Timer.builder("wallet.journal.commit")
+                .description("Tempo para gravar uma operação no journal, incluindo o fsync")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("wallet.journal.apply.lag", this, WalletJournal::applyLag)
+                .description("Registros do journal ainda não aplicados no banco")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public Wallet deposit(String idUsuario, BigDecimal valor) {
+        long start = System.nanoTime();
+        while (true) {
+            JournaledWallet wallet = wallet(idUsuario);
+            JournalEntry entry;
+            synchronized (wallet) {
+                if (wallet.evicted) {
+                    continue;
+                }
+                entry = append(JournalEntry.deposit(idUsuario, valor));
+                wallet.begin(entry, BigDecimal.ZERO);
+            }
+            return complete(entry, start, wallet, valor, BigDecimal.ZERO);
+        }
+    }
+
+    public Wallet withdraw(String idUsuario, BigDecimal valor) {
+        long start = System.nanoTime();
+        while (true) {
+            JournaledWallet wallet = wallet(idUsuario);
+            JournalEntry entry;
+            synchronized (wallet) {
+                if (wallet.evicted) {
+                    continue;
+                }
+                if (wallet.disponivel().compareTo(valor) < 0) {
+                    throw new InsufficientFundsException(Messages.INSUFFICIENT_BALANCE);
+                }
+                entry = append(JournalEntry.withdraw(idUsuario, valor));
+                wallet.begin(entry, valor);
+            }
+            return complete(entry, start, wallet, valor.negate(), valor);
+        }
+    }
+
+    public void transfer(String idUsuarioOrigem, String idUsuarioDestino, BigDecimal valor) {
+        long start = System.nanoTime();
+        while (true) {
+            JournaledWallet source = wallet(idUsuarioOrigem);
+            JournaledWallet destination = wallet(idUsuarioDestino);
+            // Trava sempre na mesma ordem para transferências cruzadas não se bloquearem
+            boolean sourceFirst = idUsuarioOrigem.compareTo(idUsuarioDestino) < 0;
+            JournaledWallet first = sourceFirst ? source : destination;
+            JournaledWallet second = sourceFirst ? destination : source;
+            JournalEntry entry;
+            synchronized (first) {
+                synchronized (second) {
+                    if (source.evicted || destination.evicted) {
+                        continue;
+                    }
+                    if (source.disponivel().compareTo(valor) < 0) {
+                        throw new InsufficientFundsException(Messages.INSUFFICIENT_BALANCE);
+                    }
+                    entry = append(JournalEntry.transfer(idUsuarioOrigem, idUsuarioDestino, valor));
+                    source.begin(entry, valor);
+                    destination.begin(entry, BigDecimal.ZERO);
+                }
+            }
+            boolean durable = false;
+            try {
+                awaitDurable(entry, start);
+                durable = true;
+            } finally {
+                finish(source, valor.negate(), valor, durable);
+                finish(destination, valor, BigDecimal.ZERO, durable);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Saldo confirmado (durável) no journal, para carteiras com operações ainda em memória.
+     * O banco pode ainda não ter aplicado as últimas operações dessas carteiras; sem elas, vazio.
+     */
+    public Optional<BalanceResponse> balance(String idUsuario) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        JournaledWallet wallet = wallets.get(idUsuario);
+        return wallet == null
+                ? Optional.empty()
+                : Optional.of(new BalanceResponse(wallet.idUsuario, wallet.saldo, wallet.moeda));
+    }
+
+    /**
+     * Versão da carteira no journal, à frente da coluna versao do banco enquanto há operações por aplicar.
+     */
+    public Optional<Long> version(String idUsuario) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        JournaledWallet wallet = wallets.get(idUsuario);
+        return wallet == null ? Optional.empty() : Optional.of(wallet.versao);
+    }
+
+    public long appliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Espera o banco alcançar tudo o que já foi confirmado no journal; usado em testes.
+     */
+    public boolean awaitApplied(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (applyLag() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double applyLag() {
+        WriteAheadJournal current = journal;
+        return current == null ? 0 : Math.max(0, current.durableSequence() - appliedSequence);
+    }
+
+    private Wallet complete(JournalEntry entry, long startNanos, JournaledWallet wallet, BigDecimal delta,
+                            BigDecimal debito) {
+        boolean durable = false;
+        try {
+            awaitDurable(entry, startNanos);
+            durable = true;
+        } finally {
+            finish(wallet, delta, debito, durable);
+        }
+        synchronized (wallet) {
+            return wallet.toWallet();
+        }
+    }
+
+    private void finish(JournaledWallet wallet, BigDecimal delta, BigDecimal debito, boolean durable) {
+        synchronized (wallet) {
+            wallet.finish(delta, debito, durable);
+        }
+        evictIfApplied(wallet);
+    }
+
+    // Tudo o que a carteira gravou no journal já está no banco: a próxima operação relê de lá
+    private void evictIfApplied(JournaledWallet wallet) {
+        synchronized (wallet) {
+            if (!wallet.evicted && wallet.pendentes == 0 && wallet.ultimaSequencia <= appliedSequence) {
+                wallet.evicted = true;
+                wallets.remove(wallet.idUsuario, wallet);
+            }
+        }
+    }
+
+    private JournaledWallet wallet(String idUsuario) {
+        JournaledWallet wallet = wallets.get(idUsuario);
+        if (wallet != null) {
+            return wallet;
+        }
+        // Fora da memória o banco está em dia: toda operação da carteira no journal já foi aplicada.
+        // Carregada sob o lock da chave, para que uma remoção concorrente não deixe no mapa um saldo lido antes dela
+        return wallets.computeIfAbsent(idUsuario, id -> {
+            Wallet stored = walletRepository.findByIdUsuario(id);
+            if (stored == null) {
+                throw new WalletNotFoundException(String.format(Messages.WALLET_NOT_FOUND, id));
+            }
+            return new JournaledWallet(stored);
+        });
+    }
+
+    private JournalEntry append(JournalEntry entry) {
+        WriteAheadJournal current = journal;
+        if (current == null || !running) {
+            throw new JournalUnavailableException("Journal de operações indisponível", null);
+        }
+        try {
+            return current.append(entry);
+        } catch (RuntimeException e) {
+            throw new JournalUnavailableException("Journal de operações indisponível", e);
+        }
+    }
+
+    private void awaitDurable(JournalEntry entry, long startNanos) {
+        try {
+            journal.awaitDurable(entry.sequence());
+        } catch (RuntimeException e) {
+            throw new JournalUnavailableException("Não foi possível confirmar a operação no journal", e);
+        }
+        commitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        long checkpoint = checkpointRepository.findById(CHECKPOINT).map(JournalCheckpoint::getSequencia).orElse(0L);
+        appliedSequence = checkpoint;
+        journal = new WriteAheadJournal(Path.of(properties.directory()), (int) properties.segmentSize().toBytes(),
+                checkpoint, toApply::addAll);
+
+        // Replay do que foi confirmado mas não chegou ao banco antes da última parada
+        List<JournalEntry> recovered = journal.recovered();
+        if (!recovered.isEmpty()) {
+            logger.info("Replaying {} journal entries after sequence {}", recovered.size(), checkpoint);
+            for (int i = 0; i < recovered.size(); i += properties.applyBatchSize()) {
+                apply(recovered.subList(i, Math.min(recovered.size(), i + properties.applyBatchSize())));
+            }
+        }
+
+        running = true;
+        applier = Thread.ofPlatform().name("wallet-journal-apply").daemon().start(this::applyLoop);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        // Fecha o journal primeiro: o fsync final ainda entrega os últimos registros para aplicar
+        journal.close();
+        running = false;
+        try {
+            applier.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Journal stopped at applied sequence {}", appliedSequence);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Antes do servidor web no start e depois dele no stop
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void applyLoop() {
+        List<JournalEntry> batch = new ArrayList<>(properties.applyBatchSize());
+        while (running || !toApply.isEmpty()) {
+            try {
+                JournalEntry first = toApply.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                toApply.drainTo(batch, properties.applyBatchSize() - 1);
+                applyWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void applyWithRetry(List<JournalEntry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                apply(batch);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Could not apply {} journal entries from sequence {}; retrying",
+                        batch.size(), batch.get(0).sequence(), e);
+                if (!running) {
+                    // Os registros continuam no journal e são reaplicados no próximo start
+                    return;
+                }
+                Thread.sleep(1000);
+            }
+        }
+    }
+
+    private void apply(List<JournalEntry> batch) {
+        long last = batch.get(batch.size() - 1).sequence();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (JournalEntry entry : batch) {
+                if (entry.sequence() > appliedSequence) {
+                    applyEntry(entry);
+                }
+            }
+            JournalCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT)
+                    .orElseGet(() -> new JournalCheckpoint(CHECKPOINT, 0, LocalDateTime.now()));
+            checkpoint.setSequencia(last);
+            checkpoint.setAtualizadoEm(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        });
+        appliedSequence = last;
+        journal.release(last);
+        for (JournalEntry entry : batch) {
+            evictIfApplied(entry.idUsuarioOrigem());
+            if (entry.idUsuarioDestino() != null) {
+                evictIfApplied(entry.idUsuarioDestino());
+            }
+        }
+    }
+
+    private void evictIfApplied(String idUsuario) {
+        JournaledWallet wallet = wallets.get(idUsuario);
+        if (wallet != null) {
+            evictIfApplied(wallet);
+        }
+    }
+
+    private void applyEntry(JournalEntry entry) {
+        Wallet wallet;
+        String descricao;
+        switch (entry.tipoTransacao()) {
+            case Messages.TRANSACTION_TYPE_DEPOSIT -> {
+                wallet = adjust(entry.idUsuarioOrigem(), entry.valor());
+                descricao = Messages.DEPOSIT_SUCCESS;
+            }
+            case Messages.TRANSACTION_TYPE_WITHDRAW -> {
+                wallet = adjust(entry.idUsuarioOrigem(), entry.valor().negate());
+                descricao = Messages.WITHDRAW_SUCCESS;
+            }
+            case Messages.TRANSACTION_TYPE_TRANSFER -> {
+                wallet = adjust(entry.idUsuarioOrigem(), entry.valor().negate());
+                adjust(entry.idUsuarioDestino(), entry.valor());
+                descricao = Messages.TRANSFER_SUCCESS;
+            }
+            default -> throw new IllegalStateException("Unknown journal entry type " + entry.tipoTransacao());
+        }
+
+        Transaction transaction = new Transaction(null, entry.tipoTransacao(), entry.valor(), wallet.getMoeda(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestampMillis()), ZoneId.systemDefault()),
+                entry.idUsuarioOrigem(), entry.idUsuarioDestino(), "COMPLETED", descricao);
+        transactionRepository.save(transaction);
+        eventPublisher.publishEvent(LedgerEvent.from(transaction));
+        if (entry.idUsuarioDestino() != null) {
+            readYourWrites.recordWrite(entry.idUsuarioOrigem(), entry.idUsuarioDestino());
+        } else {
+            readYourWrites.recordWrite(entry.idUsuarioOrigem());
+        }
+    }
+
+    // Aplica a variação sobre o saldo do banco: o journal já validou a operação
+    private Wallet adjust(String idUsuario, BigDecimal delta) {
+        Wallet wallet = walletRepository.findByIdUsuario(idUsuario);
+        if (wallet == null) {
+            throw new WalletNotFoundException(String.format(Messages.WALLET_NOT_FOUND, idUsuario));
+        }
+        wallet.setSaldo(wallet.getSaldo().add(delta));
+        walletRepository.save(wallet);
+        return wallet;
+    }
+}
@@ -0,0 +1,296 @@
+package com.walletservice.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Journal append-only em arquivos mapeados em memória, com group commit.
+ *
+ * append() grava o registro no segmento atual e devolve a sequência; awaitDurable() bloqueia até
+ * o fsync que cobre essa sequência. Uma única thread faz os fsyncs: enquanto um está em andamento,
+ * os registros que chegam se acumulam e saem todos no próximo, então o custo do fsync é dividido
+ * entre as requisições concorrentes. Cada lote confirmado é entregue, em ordem, para onDurable.
+ *
+ * Um erro de fsync é fatal: o journal para de aceitar registros até o restart, quando o replay
+ * decide o que de fato chegou ao disco.
+ */
+public class WriteAheadJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadJournal.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Consumer<List<JournalEntry>> onDurable;
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private final List<JournalEntry> recovered = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasWork = lock.newCondition();
+    private final Condition durableChanged = lock.newCondition();
+
+    private JournalSegment current;
+    private long nextSequence;
+    private long durableSequence;
+    private long syncs;
+    private List<JournalEntry> unsynced = new ArrayList<>();
+    // Segmentos com escritas ainda sem fsync (mais de um só logo depois de uma troca de segmento)
+    private final List<JournalSegment> dirty = new ArrayList<>();
+    private RuntimeException failure;
+    private boolean closed;
+    private final Thread syncThread;
+
+    /**
+     * Abre (ou cria) o journal em directory. Os registros com sequência maior que appliedSequence
+     * ficam disponíveis em recovered() para serem reaplicados; as novas sequências continuam
+     * depois da maior entre o último registro e appliedSequence.
+     */
+    public WriteAheadJournal(Path directory, int segmentSize, long appliedSequence,
+                             Consumer<List<JournalEntry>> onDurable) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.onDurable = onDurable;
+
+        long lastSequence = appliedSequence;
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.filter(p -> p.getFileName().toString().startsWith(JournalSegment.PREFIX)
+                                && p.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                JournalSegment segment = JournalSegment.open(file, JournalSegment.firstSequenceOf(file), segmentSize);
+                List<JournalEntry> entries = new ArrayList<>();
+                segment.recover(entries);
+                for (JournalEntry entry : entries) {
+                    if (entry.sequence() > appliedSequence) {
+                        recovered.add(entry);
+                    }
+                }
+                lastSequence = Math.max(lastSequence, segment.lastSequence());
+                segments.add(segment);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal at " + directory, e);
+        }
+
+        this.nextSequence = lastSequence + 1;
+        this.durableSequence = lastSequence;
+        if (segments.isEmpty()) {
+            segments.add(JournalSegment.create(directory, nextSequence, segmentSize));
+        }
+        this.current = segments.get(segments.size() - 1);
+        logger.info("Journal opened at {}: {} segments, {} entries to replay, next sequence {}",
+                directory, segments.size(), recovered.size(), nextSequence);
+
+        this.syncThread = new Thread(this::syncLoop, "wallet-journal-sync");
+        this.syncThread.setDaemon(true);
+        this.syncThread.start();
+    }
+
+    public List<JournalEntry> recovered() {
+        return recovered;
+    }
+
+    /**
+     * Grava o registro e devolve a sequência atribuída. Não espera o fsync.
+     */
+    public JournalEntry append(JournalEntry entry) {
+        lock.lock();
+        try {
+            ensureWritable();
+            JournalEntry sequenced = entry.withSequence(nextSequence);
+            byte[] payload = sequenced.encode();
+            if (!current.tryAppend(sequenced.sequence(), payload)) {
+                if (JournalSegment.HEADER_BYTES + payload.length + 4 > segmentSize) {
+                    throw new IllegalArgumentException("Journal entry larger than a segment");
+                }
+                current = JournalSegment.create(directory, sequenced.sequence(), segmentSize);
+                segments.add(current);
+                current.tryAppend(sequenced.sequence(), payload);
+            }
+            nextSequence++;
+            unsynced.add(sequenced);
+            if (dirty.isEmpty() || dirty.get(dirty.size() - 1) != current) {
+                dirty.add(current);
+            }
+            hasWork.signal();
+            return sequenced;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bloqueia até a sequência estar no disco.
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw failure;
+                }
+                durableChanged.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long durableSequence() {
+        lock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Quantidade de fsyncs feitos; com group commit fica bem abaixo do número de registros
+    public long syncs() {
+        lock.lock();
+        try {
+            return syncs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove os segmentos fechados cujos registros já foram todos aplicados.
+     */
+    public void release(long appliedSequence) {
+        List<JournalSegment> removable = new ArrayList<>();
+        lock.lock();
+        try {
+            while (segments.size() > 1 && segments.get(1).firstSequence() - 1 <= appliedSequence
+                    && !dirty.contains(segments.get(0))) {
+                removable.add(segments.remove(0));
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (JournalSegment segment : removable) {
+            segment.close();
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                logger.warn("Could not delete applied journal segment {}", segment.path(), e);
+            }
+        }
+    }
+
+    int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureWritable() {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            List<JournalEntry> batch;
+            List<JournalSegment> toSync;
+            int currentPosition;
+            JournalSegment syncCurrent;
+            lock.lock();
+            try {
+                while (unsynced.isEmpty() && !closed) {
+                    hasWork.awaitUninterruptibly();
+                }
+                if (unsynced.isEmpty()) {
+                    return;
+                }
+                batch = unsynced;
+                unsynced = new ArrayList<>();
+                toSync = new ArrayList<>(dirty);
+                dirty.clear();
+                syncCurrent = current;
+                currentPosition = current.position();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                for (JournalSegment segment : toSync) {
+                    segment.force(segment == syncCurrent ? currentPosition : segment.capacity());
+                }
+            } catch (RuntimeException e) {
+                logger.error("Journal fsync failed; refusing further writes until restart", e);
+                lock.lock();
+                try {
+                    failure = new UncheckedIOException("Journal fsync failed",
+                            e.getCause() instanceof IOException io ? io : new IOException(e));
+                    durableChanged.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                durableSequence = batch.get(batch.size() - 1).sequence();
+                syncs++;
+                durableChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            onDurable.accept(batch);
+        }
+    }
+
+    /**
+     * Espera o fsync do que já foi gravado e fecha os arquivos.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            hasWork.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            syncThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            segments.forEach(JournalSegment::close);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
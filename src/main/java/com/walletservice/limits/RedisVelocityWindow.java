@@ -0,0 +1,108 @@
+package com.walletservice.limits;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Mesma janela em fatias do {@link SlidingWindow}, num hash Redis por usuário (campo = fatia,
+ * valor = "centavos:contagem"), para que o limite valha somando todas as instâncias.
+ * A fatia vem do relógio do Redis, então instâncias com relógios diferentes enxergam a mesma janela.
+ */
+public class RedisVelocityWindow {
+
+    private static final String KEY_PREFIX = "velocity:";
+
+    // Retorna {espera em ms (0 = aceita, -1 = nunca cabe), fatia usada}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            local bucket_millis = tonumber(ARGV[1])
+            local size = tonumber(ARGV[2])
+            local amount = tonumber(ARGV[3])
+            local max_cents = tonumber(ARGV[4])
+            local max_count = tonumber(ARGV[5])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local bucket = math.floor(now / bucket_millis)
+            local oldest = bucket - size + 1
+            local fields = redis.call('HGETALL', KEYS[1])
+            local live = {}
+            local total_cents, total_count = 0, 0
+            for i = 1, #fields, 2 do
+              local b = tonumber(fields[i])
+              if b < oldest then
+                redis.call('HDEL', KEYS[1], fields[i])
+              else
+                local c, n = string.match(fields[i + 1], '(%d+):(%d+)')
+                c, n = tonumber(c), tonumber(n)
+                total_cents = total_cents + c
+                total_count = total_count + n
+                table.insert(live, {b, c, n})
+              end
+            end
+            local function fits(c, n)
+              return (max_cents <= 0 or c <= max_cents) and (max_count <= 0 or n <= max_count)
+            end
+            if not fits(total_cents + amount, total_count + 1) then
+              table.sort(live, function(x, y) return x[1] < y[1] end)
+              for _, entry in ipairs(live) do
+                total_cents = total_cents - entry[2]
+                total_count = total_count - entry[3]
+                if fits(total_cents + amount, total_count + 1) then
+                  return {(entry[1] + size) * bucket_millis - now, bucket}
+                end
+              end
+              return {-1, bucket}
+            end
+            local current = redis.call('HGET', KEYS[1], tostring(bucket))
+            local c, n = 0, 0
+            if current then
+              c, n = string.match(current, '(%d+):(%d+)')
+              c, n = tonumber(c), tonumber(n)
+            end
+            redis.call('HSET', KEYS[1], tostring(bucket), string.format('%d:%d', c + amount, n + 1))
+            redis.call('PEXPIRE', KEYS[1], size * bucket_millis + 1000)
+            return {0, bucket}
+            """, List.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('HGET', KEYS[1], ARGV[1])
+            if not current then
+              return 0
+            end
+            local c, n = string.match(current, '(%d+):(%d+)')
+            c = math.max(0, tonumber(c) - tonumber(ARGV[2]))
+            n = math.max(0, tonumber(n) - tonumber(ARGV[3]))
+            redis.call('HSET', KEYS[1], ARGV[1], string.format('%d:%d', c, n))
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisVelocityWindow(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @return {espera em ms (0 = aceita, -1 = nunca cabe), fatia em que a operação foi somada}
+     */
+    public long[] tryAdd(String key, VelocityLimitProperties.Window window, long amount) {
+        List<?> result = redisTemplate.execute(RESERVE_SCRIPT, List.of(KEY_PREFIX + key),
+                Long.toString(window.bucketMillis()), Integer.toString(window.buckets()),
+                Long.toString(amount), Long.toString(window.maxCents()), Long.toString(window.maxCount()));
+        if (result == null || result.size() < 2) {
+            return new long[]{0, 0};
+        }
+        return new long[]{((Number) result.get(0)).longValue(), ((Number) result.get(1)).longValue()};
+    }
+
+    /**
+     * Tira amount centavos e count operações da fatia, se ela ainda existir.
+     */
+    public void release(String key, long bucket, long amount, int count) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + key), Long.toString(bucket), Long.toString(amount),
+                Integer.toString(count));
+    }
+}
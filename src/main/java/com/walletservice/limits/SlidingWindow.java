@@ -0,0 +1,118 @@
+package com.walletservice.limits;
+
+/**
+ * Janela deslizante em anel de fatias: soma de valores (centavos) e contagem das últimas
+ * {@code size} fatias. Avançar a janela zera só as fatias que saíram dela, então cada operação
+ * custa O(1) amortizado e a memória por usuário é fixa. Não é thread-safe; o chamador sincroniza.
+ */
+class SlidingWindow {
+
+    private final long[] cents;
+    private final long[] counts;
+    private final int size;
+    private long head = Long.MIN_VALUE;
+    private long totalCents;
+    private long totalCount;
+
+    SlidingWindow(int size) {
+        this.size = size;
+        this.cents = new long[size];
+        this.counts = new long[size];
+    }
+
+    /**
+     * Soma a operação se couber nos limites (0 = sem limite).
+     *
+     * @return 0 se foi aceita, ou em quantas fatias a janela terá espaço (-1 se nunca caberá)
+     */
+    long tryAdd(long bucket, long amount, long maxCents, long maxCount) {
+        advance(bucket);
+        if (fits(totalCents + amount, totalCount + 1, maxCents, maxCount)) {
+            add(bucket, amount);
+            return 0;
+        }
+        // Descarta as fatias mais antigas, uma a uma, até a operação caber
+        long remainingCents = totalCents;
+        long remainingCount = totalCount;
+        for (int k = 1; k <= size; k++) {
+            int slot = slot(head - size + k);
+            remainingCents -= cents[slot];
+            remainingCount -= counts[slot];
+            if (fits(remainingCents + amount, remainingCount + 1, maxCents, maxCount)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Soma sem checar limites; fatias anteriores à janela atual são ignoradas (reconstrução pelo ledger).
+     */
+    void record(long bucket, long amount) {
+        advance(bucket);
+        if (bucket > head - size) {
+            add(bucket, amount);
+        }
+    }
+
+    /**
+     * Desfaz uma operação aceita (ou só parte do valor dela, com count 0), se a fatia dela ainda
+     * estiver na janela.
+     */
+    void remove(long bucket, long amount, int count) {
+        if (bucket > head || bucket <= head - size) {
+            return;
+        }
+        int slot = slot(bucket);
+        long removedCents = Math.min(amount, cents[slot]);
+        long removedCount = Math.min(count, counts[slot]);
+        cents[slot] -= removedCents;
+        counts[slot] -= removedCount;
+        totalCents -= removedCents;
+        totalCount -= removedCount;
+    }
+
+    long head() {
+        return head;
+    }
+
+    long totalCents() {
+        return totalCents;
+    }
+
+    long totalCount() {
+        return totalCount;
+    }
+
+    private void add(long bucket, long amount) {
+        int slot = slot(bucket);
+        cents[slot] += amount;
+        counts[slot]++;
+        totalCents += amount;
+        totalCount++;
+    }
+
+    // Zera as fatias que saem da janela; no máximo size posições, mesmo após longa inatividade
+    private void advance(long bucket) {
+        if (bucket <= head) {
+            return;
+        }
+        long from = head == Long.MIN_VALUE ? bucket - size + 1 : Math.max(head + 1, bucket - size + 1);
+        for (long b = from; b <= bucket; b++) {
+            int slot = slot(b);
+            totalCents -= cents[slot];
+            totalCount -= counts[slot];
+            cents[slot] = 0;
+            counts[slot] = 0;
+        }
+        head = bucket;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) size);
+    }
+
+    private static boolean fits(long cents, long count, long maxCents, long maxCount) {
+        return (maxCents <= 0 || cents <= maxCents) && (maxCount <= 0 || count <= maxCount);
+    }
+}
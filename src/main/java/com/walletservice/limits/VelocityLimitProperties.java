@@ -0,0 +1,50 @@
+package com.walletservice.limits;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Limites de velocidade por usuário (wallet.app.velocity-limits.*).
+ * Cada janela é dividida em {@code buckets} fatias: a janela desliza de fatia em fatia.
+ * maxAmount/maxCount = 0 desliga aquele limite. Sai desligado (enabled=false) e, mesmo ligado, as
+ * janelas padrão não limitam nada: cada limite precisa ser configurado. A limpeza de usuários ociosos
+ * fica em wallet.app.velocity-limits.eviction-interval-ms.
+ */
+@ConfigurationProperties(prefix = "wallet.app.velocity-limits")
+public record VelocityLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("false") boolean redisEnabled,
+        @DefaultValue("true") boolean warmupEnabled,
+        Window withdrawals,
+        Window transfers
+) {
+    public VelocityLimitProperties {
+        withdrawals = withdrawals != null ? withdrawals
+                : new Window(Duration.ofHours(24), 96, BigDecimal.ZERO, 0);
+        transfers = transfers != null ? transfers
+                : new Window(Duration.ofMinutes(1), 60, BigDecimal.ZERO, 0);
+    }
+
+    public record Window(Duration window, int buckets, BigDecimal maxAmount, long maxCount) {
+        public Window {
+            window = window != null ? window : Duration.ofMinutes(1);
+            buckets = buckets > 0 ? buckets : 60;
+            maxAmount = maxAmount != null ? maxAmount : BigDecimal.ZERO;
+        }
+
+        public long bucketMillis() {
+            return Math.max(1, window.toMillis() / buckets);
+        }
+
+        public long maxCents() {
+            return VelocityLimiter.toCents(maxAmount);
+        }
+
+        public boolean isLimited() {
+            return maxAmount.signum() > 0 || maxCount > 0;
+        }
+    }
+}
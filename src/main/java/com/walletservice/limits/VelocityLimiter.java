@@ -0,0 +1,374 @@
+package com.walletservice.limits;
+
+import com.walletservice.datasource.WorkloadContext;
+import com.walletservice.exception.VelocityLimitExceededException;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Limites de saque e transferência por usuário em janelas deslizantes (ex.: R$ 5.000 de saques
+ * em 24h, 20 transferências por minuto), checados dentro da transação da operação.
+ *
+ * Cada usuário ativo tem um anel de fatias por tipo de operação em memória; usuários sem
+ * movimento há mais que a maior janela são descartados. No startup as janelas são reconstruídas
+ * em segundo plano a partir do ledger recente. Com {@code wallet.app.velocity-limits.redis-enabled=true}
+ * as janelas ficam no Redis e valem para todas as instâncias; se o Redis falhar, a janela local
+ * continua valendo. Se a transação for desfeita, a reserva é devolvida.
+ *
+ * Uma reserva de saldo (hold) conta como saque no momento em que é feita, para que a captura nunca
+ * seja barrada pelo limite; o que não vira saque (reserva liberada, expirada ou o restante de uma
+ * captura parcial) é devolvido à fatia em que foi reservado com {@link #refundWithdrawal}.
+ */
+@Component
+public class VelocityLimiter implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VelocityLimiter.class);
+
+    static final String WORKLOAD = "walletReporting";
+
+    enum Kind {
+        WITHDRAWAL(Messages.TRANSACTION_TYPE_WITHDRAW, Messages.WITHDRAWAL_LIMIT_EXCEEDED),
+        TRANSFER(Messages.TRANSACTION_TYPE_TRANSFER, Messages.TRANSFER_LIMIT_EXCEEDED);
+
+        final String tipoTransacao;
+        final String message;
+
+        Kind(String tipoTransacao, String message) {
+            this.tipoTransacao = tipoTransacao;
+            this.message = message;
+        }
+    }
+
+    private final VelocityLimitProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final RedisVelocityWindow redisWindow;
+    private final Map<String, UserWindows> users = new ConcurrentHashMap<>();
+    private final ExecutorService warmupExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("velocity-limits-warmup").daemon().factory());
+    // Lançamentos a partir daqui são somados ao vivo; a reconstrução lê só os anteriores
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final Counter withdrawalRejections;
+    private final Counter transferRejections;
+
+    public VelocityLimiter(VelocityLimitProperties properties, JdbcTemplate jdbcTemplate,
+                           ObjectProvider<StringRedisTemplate> redisTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisWindow = properties.redisEnabled() && redisTemplate.getIfAvailable() != null
+                ? new RedisVelocityWindow(redisTemplate.getObject())
+                : null;
+        this.withdrawalRejections = rejections(meterRegistry, Kind.WITHDRAWAL);
+        this.transferRejections = rejections(meterRegistry, Kind.TRANSFER);
+        Gauge.builder("wallet.velocity.users", users, Map::size)
+                .description("Usuários com janela de limite de velocidade em memória")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserva o saque na janela do usuário ou lança {@link VelocityLimitExceededException}.
+     */
+    public void reserveWithdrawal(String idUsuario, BigDecimal valor) {
+        reserve(Kind.WITHDRAWAL, idUsuario, valor, System.currentTimeMillis());
+    }
+
+    /**
+     * Reserva a transferência na janela do usuário de origem ou lança {@link VelocityLimitExceededException}.
+     */
+    public void reserveTransfer(String idUsuarioOrigem, BigDecimal valor) {
+        reserve(Kind.TRANSFER, idUsuarioOrigem, valor, System.currentTimeMillis());
+    }
+
+    /**
+     * Devolve à janela de saques um valor reservado em {@code reservadoEm} que não virou saque, quando
+     * a transação corrente confirmar. Com keepCount a operação continua contando como um saque
+     * (captura parcial). Se a fatia já saiu da janela não há o que devolver.
+     */
+    public void refundWithdrawal(String idUsuario, BigDecimal valor, LocalDateTime reservadoEm, boolean keepCount) {
+        VelocityLimitProperties.Window window = properties.withdrawals();
+        if (!properties.enabled() || !window.isLimited() || idUsuario == null
+                || valor == null || valor.signum() <= 0) {
+            return;
+        }
+        long bucket = toEpochMillis(reservadoEm) / window.bucketMillis();
+        long amount = toCents(valor);
+        int count = keepCount ? 0 : 1;
+        afterCommit(() -> refund(Kind.WITHDRAWAL, idUsuario, bucket, amount, count));
+    }
+
+    void reserve(Kind kind, String idUsuario, BigDecimal valor, long nowMillis) {
+        VelocityLimitProperties.Window window = window(kind);
+        // Valor inválido é rejeitado pela validação da operação, não pelo limite
+        if (!properties.enabled() || !window.isLimited() || idUsuario == null
+                || valor == null || valor.signum() <= 0) {
+            return;
+        }
+        long amount = toCents(valor);
+
+        if (redisWindow != null) {
+            String key = redisKey(kind, idUsuario);
+            try {
+                long[] result = redisWindow.tryAdd(key, window, amount);
+                if (result[0] != 0) {
+                    reject(kind, idUsuario, result[0] < 0 ? window.window().toMillis() : result[0]);
+                }
+                onRollback(() -> redisWindow.release(key, result[1], amount, 1));
+                return;
+            } catch (VelocityLimitExceededException e) {
+                throw e;
+            } catch (RuntimeException ex) {
+                logger.warn("Redis velocity limiter unavailable, falling back to local windows: {}", ex.getMessage());
+            }
+        }
+
+        long bucket = nowMillis / window.bucketMillis();
+        long wait;
+        while (true) {
+            UserWindows windows = users.computeIfAbsent(idUsuario, id -> new UserWindows());
+            synchronized (windows) {
+                // Descartada pela limpeza entre o get e o lock: pega a nova
+                if (windows.evicted) {
+                    continue;
+                }
+                windows.lastTouchedMillis = Math.max(windows.lastTouchedMillis, nowMillis);
+                SlidingWindow sliding = windows.get(kind, window);
+                wait = sliding.tryAdd(bucket, amount, window.maxCents(), window.maxCount());
+                if (wait == 0) {
+                    onRollback(() -> {
+                        synchronized (windows) {
+                            sliding.remove(bucket, amount, 1);
+                        }
+                    });
+                    return;
+                }
+            }
+            break;
+        }
+        // A fatia k mais antiga sai da janela no início da fatia head + k
+        long waitMillis = wait < 0 ? window.window().toMillis()
+                : (bucket + wait) * window.bucketMillis() - nowMillis;
+        reject(kind, idUsuario, waitMillis);
+    }
+
+    void refund(Kind kind, String idUsuario, long bucket, long amount, int count) {
+        if (redisWindow != null) {
+            try {
+                redisWindow.release(redisKey(kind, idUsuario), bucket, amount, count);
+                return;
+            } catch (RuntimeException ex) {
+                logger.warn("Redis velocity limiter unavailable, refunding local windows: {}", ex.getMessage());
+            }
+        }
+        UserWindows windows = users.get(idUsuario);
+        if (windows == null) {
+            return;
+        }
+        synchronized (windows) {
+            if (!windows.evicted) {
+                windows.get(kind, window(kind)).remove(bucket, amount, count);
+            }
+        }
+    }
+
+    /**
+     * Soma um lançamento já confirmado sem checar limites (reconstrução a partir do ledger).
+     */
+    void record(Kind kind, String idUsuario, BigDecimal valor, long atMillis) {
+        VelocityLimitProperties.Window window = window(kind);
+        if (!window.isLimited() || idUsuario == null || valor == null || valor.signum() <= 0) {
+            return;
+        }
+        UserWindows windows = users.computeIfAbsent(idUsuario, id -> new UserWindows());
+        synchronized (windows) {
+            if (!windows.evicted) {
+                windows.lastTouchedMillis = Math.max(windows.lastTouchedMillis, atMillis);
+                windows.get(kind, window).record(atMillis / window.bucketMillis(), toCents(valor));
+            }
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // No modo Redis a janela já é compartilhada e sobrevive ao restart da instância
+        if (properties.enabled() && properties.warmupEnabled() && redisWindow == null) {
+            warmupExecutor.submit(() -> warmup(startedAtMillis));
+        }
+    }
+
+    /**
+     * Reconstrói as janelas com os saques e transferências do ledger anteriores a {@code untilMillis},
+     * mais as reservas de saldo ainda ativas feitas nesse período (capturas já estão no ledger como saque).
+     * Retorna quantos lançamentos foram somados, ou -1 se a leitura falhou.
+     */
+    long warmup(long untilMillis) {
+        long since = untilMillis - Math.max(properties.withdrawals().window().toMillis(),
+                properties.transfers().window().toMillis());
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            long start = System.nanoTime();
+            long[] rows = {0};
+            jdbcTemplate.query("""
+                    select id_usuario_origem, tipo_transacao, valor, data_hora from transactions
+                    where data_hora >= ? and data_hora < ? and tipo_transacao in (?, ?)
+                    """, rs -> {
+                Kind kind = Kind.WITHDRAWAL.tipoTransacao.equals(rs.getString(2)) ? Kind.WITHDRAWAL : Kind.TRANSFER;
+                long at = toEpochMillis(rs.getTimestamp(4).toLocalDateTime());
+                // Cada tipo só guarda o que cabe na própria janela
+                if (at >= untilMillis - window(kind).window().toMillis()) {
+                    record(kind, rs.getString(1), rs.getBigDecimal(3), at);
+                    rows[0]++;
+                }
+            }, Timestamp.valueOf(toLocalDateTime(since)), Timestamp.valueOf(toLocalDateTime(untilMillis)),
+                    Kind.WITHDRAWAL.tipoTransacao, Kind.TRANSFER.tipoTransacao);
+            long holdsSince = untilMillis - properties.withdrawals().window().toMillis();
+            jdbcTemplate.query("""
+                    select id_usuario, valor, criado_em from wallet_holds
+                    where status = 'ACTIVE' and criado_em >= ? and criado_em < ?
+                    """, rs -> {
+                record(Kind.WITHDRAWAL, rs.getString(1), rs.getBigDecimal(2),
+                        toEpochMillis(rs.getTimestamp(3).toLocalDateTime()));
+                rows[0]++;
+            }, Timestamp.valueOf(toLocalDateTime(holdsSince)), Timestamp.valueOf(toLocalDateTime(untilMillis)));
+            logger.info("Velocity limits rebuilt from {} ledger rows for {} users in {} ms", rows[0], users.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return rows[0];
+        } catch (RuntimeException e) {
+            // Sem o histórico, as janelas começam vazias e passam a contar a partir de agora
+            logger.error("Velocity limits warmup failed", e);
+            return -1;
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    // Usuários sem movimento há mais que a maior janela não guardam informação útil
+    @Scheduled(fixedDelayString = "${wallet.app.velocity-limits.eviction-interval-ms:60000}")
+    public void evictIdleUsers() {
+        evictIdleUsers(System.currentTimeMillis());
+    }
+
+    void evictIdleUsers(long nowMillis) {
+        long idleMillis = Math.max(properties.withdrawals().window().toMillis(),
+                properties.transfers().window().toMillis());
+        users.forEach((idUsuario, windows) -> {
+            synchronized (windows) {
+                if (nowMillis - windows.lastTouchedMillis >= idleMillis) {
+                    windows.evicted = true;
+                    users.remove(idUsuario, windows);
+                }
+            }
+        });
+    }
+
+    int userCount() {
+        return users.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmupExecutor.shutdownNow();
+    }
+
+    static long toCents(BigDecimal valor) {
+        try {
+            return valor.setScale(2, RoundingMode.UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE / 4;
+        }
+    }
+
+    private VelocityLimitProperties.Window window(Kind kind) {
+        return kind == Kind.WITHDRAWAL ? properties.withdrawals() : properties.transfers();
+    }
+
+    private void reject(Kind kind, String idUsuario, long waitMillis) {
+        (kind == Kind.WITHDRAWAL ? withdrawalRejections : transferRejections).increment();
+        throw new VelocityLimitExceededException(String.format(kind.message, idUsuario), waitMillis);
+    }
+
+    private static String redisKey(Kind kind, String idUsuario) {
+        return kind.name().toLowerCase() + ':' + idUsuario;
+    }
+
+    // Fora de transação (ex.: testes) devolve na hora
+    private static void afterCommit(Runnable refund) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refund.run();
+                }
+            });
+        } else {
+            refund.run();
+        }
+    }
+
+    // Fora de transação (ex.: testes) a reserva fica valendo
+    private static void onRollback(Runnable release) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, Kind kind) {
+        return Counter.builder("wallet.velocity.rejections")
+                .description("Operações rejeitadas por limite de velocidade do usuário")
+                .tag("kind", kind.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    // Janelas de um usuário; o monitor do objeto protege as duas
+    private static final class UserWindows {
+        private SlidingWindow withdrawals;
+        private SlidingWindow transfers;
+        private long lastTouchedMillis;
+        private boolean evicted;
+
+        SlidingWindow get(Kind kind, VelocityLimitProperties.Window window) {
+            if (kind == Kind.WITHDRAWAL) {
+                return withdrawals != null ? withdrawals : (withdrawals = new SlidingWindow(window.buckets()));
+            }
+            return transfers != null ? transfers : (transfers = new SlidingWindow(window.buckets()));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.walletservice.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um método de serviço para ser cronometrado pelo {@link WalletMetricsAspect}.
+ * O tempo registrado inclui cache, retry, circuit breaker e fallback.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MeteredOperation {
+    WalletMetrics.Operation value();
+}
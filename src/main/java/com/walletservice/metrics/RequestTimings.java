@@ -0,0 +1,125 @@
+package com.walletservice.metrics;
+
+/**
+ * Acumulador de tempo por fase da requisição, usado para montar o header Server-Timing.
+ * Cada thread reaproveita a mesma instância (arrays fixos e um StringBuilder),
+ * então medir uma fase não aloca nada. Fora de uma requisição as chamadas são ignoradas.
+ */
+public final class RequestTimings {
+
+    public enum Phase {
+        JWT("jwt"),
+        USER("user"),
+        REDIS("redis"),
+        DB("db"),
+        SERIALIZATION("ser");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+    private final StringBuilder buffer = new StringBuilder(160);
+    private long startNanos;
+    private boolean active;
+
+    private RequestTimings() {
+    }
+
+    public static RequestTimings begin() {
+        RequestTimings timings = CURRENT.get();
+        for (int i = 0; i < PHASES.length; i++) {
+            timings.nanos[i] = 0;
+            timings.counts[i] = 0;
+        }
+        timings.startNanos = System.nanoTime();
+        timings.active = true;
+        return timings;
+    }
+
+    public static void end() {
+        CURRENT.get().active = false;
+    }
+
+    /**
+     * Soma a duração à fase na requisição corrente da thread.
+     */
+    public static void record(Phase phase, long durationNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.nanos[phase.ordinal()] += durationNanos;
+            timings.counts[phase.ordinal()]++;
+        }
+    }
+
+    /**
+     * Valor do header Server-Timing com as fases medidas até agora, mais o total ("app").
+     * Retorna null fora de uma requisição.
+     */
+    public static String currentHeaderValue() {
+        RequestTimings timings = CURRENT.get();
+        return timings.active ? timings.headerValue() : null;
+    }
+
+    public String headerValue() {
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        for (Phase phase : PHASES) {
+            if (counts[phase.ordinal()] > 0) {
+                sb.append(phase.metricName()).append(";dur=");
+                appendMillis(sb, nanos[phase.ordinal()]);
+                sb.append(", ");
+            }
+        }
+        sb.append("app;dur=");
+        appendMillis(sb, System.nanoTime() - startNanos);
+        return sb.toString();
+    }
+
+    /**
+     * Linha única no formato chave=valor para o log estruturado.
+     */
+    public String logLine(String method, String uri, int status) {
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        sb.append("method=").append(method)
+          .append(" uri=").append(uri)
+          .append(" status=").append(status)
+          .append(" total_ms=");
+        appendMillis(sb, System.nanoTime() - startNanos);
+        for (Phase phase : PHASES) {
+            sb.append(' ').append(phase.metricName()).append("_ms=");
+            appendMillis(sb, nanos[phase.ordinal()]);
+        }
+        return sb.toString();
+    }
+
+    public long phaseNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    // Milissegundos com três casas decimais, sem String.format
+    private static void appendMillis(StringBuilder sb, long durationNanos) {
+        long micros = durationNanos / 1_000;
+        long fraction = micros % 1_000;
+        sb.append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+}
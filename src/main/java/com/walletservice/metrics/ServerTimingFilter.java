@@ -0,0 +1,58 @@
+package com.walletservice.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Mede as fases de cada requisição (JWT, usuário, Redis, banco, serialização)
+ * e devolve o resultado no header Server-Timing.
+ * Registrado antes da cadeia do Spring Security para incluir a validação do token.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    @Value("${wallet.app.server-timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${wallet.app.server-timing.log-enabled:false}")
+    private boolean logEnabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Respostas com corpo JSON já receberam o header no conversor, antes do commit
+            if (!response.isCommitted()) {
+                response.setHeader(SERVER_TIMING_HEADER, timings.headerValue());
+            }
+            if (logEnabled) {
+                logger.info(timings.logLine(request.getMethod(), request.getRequestURI(), response.getStatus()));
+            }
+            RequestTimings.end();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.walletservice.metrics;
+
+import com.walletservice.exception.HoldNotFoundException;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.VelocityLimitExceededException;
+import com.walletservice.exception.WalletNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas das operações de carteira.
+ * Os timers são criados uma única vez no startup (operação x resultado) para que
+ * o registro de cada chamada não precise montar tags nem consultar o registry.
+ */
+@Component
+public class WalletMetrics {
+
+    public static final String OPERATION_TIMER = "wallet.operation";
+
+    public enum Operation {
+        DEPOSIT("deposit"),
+        WITHDRAW("withdraw"),
+        TRANSFER("transfer"),
+        BALANCE("balance"),
+        BALANCE_VERSION("balance_version"),
+        BALANCES("balances"),
+        HISTORICAL("historical"),
+        HOLD("hold"),
+        CAPTURE("capture"),
+        RELEASE("release");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    public enum Outcome {
+        OK("ok"),
+        NOT_FOUND("not_found"),
+        INSUFFICIENT_FUNDS("insufficient_funds"),
+        LIMIT_EXCEEDED("limit_exceeded"),
+        FALLBACK("fallback"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    // Flag por thread indicando que um fallback do circuit breaker foi executado na operação corrente
+    private static final ThreadLocal<boolean[]> FALLBACK_TRIGGERED = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    // Se a última operação medida na thread terminou em fallback (lida depois que o aspecto consumiu a flag)
+    private static final ThreadLocal<boolean[]> LAST_FELL_BACK = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private final Timer[][] timers;
+
+    public WalletMetrics(MeterRegistry registry) {
+        Operation[] operations = Operation.values();
+        Outcome[] outcomes = Outcome.values();
+        this.timers = new Timer[operations.length][outcomes.length];
+        for (Operation operation : operations) {
+            for (Outcome outcome : outcomes) {
+                timers[operation.ordinal()][outcome.ordinal()] = Timer.builder(OPERATION_TIMER)
+                        .description("Tempo total das operações de carteira, incluindo cache e resiliência")
+                        .tag("operation", operation.tag())
+                        .tag("outcome", outcome.tag())
+                        .publishPercentileHistogram()
+                        .register(registry);
+            }
+        }
+    }
+
+    public void record(Operation operation, Outcome outcome, long durationNanos) {
+        timers[operation.ordinal()][outcome.ordinal()].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer timer(Operation operation, Outcome outcome) {
+        return timers[operation.ordinal()][outcome.ordinal()];
+    }
+
+    // Chamado pelos métodos de fallback do WalletService
+    public void markFallback() {
+        FALLBACK_TRIGGERED.get()[0] = true;
+    }
+
+    /**
+     * Lê e limpa a flag de fallback da thread corrente.
+     */
+    public boolean consumeFallback() {
+        boolean[] flag = FALLBACK_TRIGGERED.get();
+        boolean triggered = flag[0];
+        flag[0] = false;
+        return triggered;
+    }
+
+    void recordLastOutcome(Outcome outcome) {
+        LAST_FELL_BACK.get()[0] = outcome == Outcome.FALLBACK;
+    }
+
+    /**
+     * Indica se a última operação medida nesta thread foi atendida pelo fallback, por exemplo
+     * para não marcar com ETag um saldo padrão.
+     */
+    public boolean lastOperationFellBack() {
+        return LAST_FELL_BACK.get()[0];
+    }
+
+    public static Outcome outcomeOf(Throwable ex) {
+        if (ex instanceof WalletNotFoundException || ex instanceof HoldNotFoundException) {
+            return Outcome.NOT_FOUND;
+        }
+        if (ex instanceof InsufficientFundsException) {
+            return Outcome.INSUFFICIENT_FUNDS;
+        }
+        if (ex instanceof VelocityLimitExceededException) {
+            return Outcome.LIMIT_EXCEEDED;
+        }
+        return Outcome.ERROR;
+    }
+}
@@ -0,0 +1,49 @@
+package com.walletservice.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Cronometra os métodos anotados com {@link MeteredOperation}.
+ * Roda antes de todos os outros aspectos (cache, transação, Resilience4j) para medir o tempo total.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WalletMetricsAspect {
+
+    private final WalletMetrics walletMetrics;
+
+    public WalletMetricsAspect(WalletMetrics walletMetrics) {
+        this.walletMetrics = walletMetrics;
+    }
+
+    @Around("@annotation(com.walletservice.metrics.MeteredOperation)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        WalletMetrics.Operation operation = method.getAnnotation(MeteredOperation.class).value();
+        walletMetrics.consumeFallback();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            WalletMetrics.Outcome outcome = walletMetrics.consumeFallback()
+                    ? WalletMetrics.Outcome.FALLBACK : WalletMetrics.Outcome.OK;
+            walletMetrics.record(operation, outcome, System.nanoTime() - start);
+            walletMetrics.recordLastOutcome(outcome);
+            return result;
+        } catch (Throwable ex) {
+            WalletMetrics.Outcome outcome = walletMetrics.consumeFallback()
+                    ? WalletMetrics.Outcome.FALLBACK : WalletMetrics.outcomeOf(ex);
+            walletMetrics.record(operation, outcome, System.nanoTime() - start);
+            walletMetrics.recordLastOutcome(outcome);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.walletservice.metrics.sql;
+
+import com.walletservice.metrics.RequestTimings;
+import com.walletservice.metrics.RequestTimings.Phase;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Proxy JDBC que mede cada comando executado e repassa ao {@link SqlProfiler}.
+ * Também alimenta a fase "db" do Server-Timing, já que aqui entram inclusive os
+ * flushes do Hibernate no commit, que não passam pelos repositórios.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final ObjectProvider<SqlProfiler> profilerProvider;
+
+    public ProfilingDataSource(DataSource targetDataSource, ObjectProvider<SqlProfiler> profilerProvider) {
+        super(targetDataSource);
+        this.profilerProvider = profilerProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        // O profiler é buscado de forma preguiçosa para não antecipar a criação do MeterRegistry
+        SqlProfiler profiler = profilerProvider.getIfAvailable();
+        if (profiler == null || !profiler.isEnabled()) {
+            return connection;
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection, profiler));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final SqlProfiler profiler;
+
+        ConnectionHandler(Connection target, SqlProfiler profiler) {
+            this.target = target;
+            this.profiler = profiler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class,
+                            new StatementHandler((Statement) result, (String) args[0], profiler));
+                case "prepareCall":
+                    return proxy(java.sql.CallableStatement.class,
+                            new StatementHandler((Statement) result, (String) args[0], profiler));
+                case "createStatement":
+                    return proxy(Statement.class, new StatementHandler((Statement) result, null, profiler));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final SqlProfiler profiler;
+
+        StatementHandler(Statement target, String preparedSql, SqlProfiler profiler) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.profiler = profiler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!EXECUTE_METHODS.contains(method.getName())) {
+                return ProfilingDataSource.invoke(target, method, args);
+            }
+
+            String sql = preparedSql != null ? preparedSql
+                    : (args != null && args.length > 0 && args[0] instanceof String s ? s : "<batch>");
+            long start = System.nanoTime();
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            long elapsed = System.nanoTime() - start;
+            RequestTimings.record(Phase.DB, elapsed);
+
+            if (result instanceof ResultSet resultSet) {
+                // Linhas de um SELECT só são conhecidas ao fim da leitura do ResultSet
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, sql, elapsed, profiler));
+            }
+            profiler.record(sql, elapsed, affectedRows(result));
+            return result;
+        }
+
+        private static long affectedRows(Object result) {
+            if (result instanceof Integer count) {
+                return Math.max(count, 0);
+            }
+            if (result instanceof Long count) {
+                return Math.max(count, 0);
+            }
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            return 0;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final String sql;
+        private final long executionNanos;
+        private final SqlProfiler profiler;
+        private long rows;
+        private boolean recorded;
+
+        ResultSetHandler(ResultSet target, String sql, long executionNanos, SqlProfiler profiler) {
+            this.target = target;
+            this.sql = sql;
+            this.executionNanos = executionNanos;
+            this.profiler = profiler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("next".equals(name)) {
+                long start = System.nanoTime();
+                boolean hasNext = (Boolean) ProfilingDataSource.invoke(target, method, args);
+                RequestTimings.record(Phase.DB, System.nanoTime() - start);
+                if (hasNext) {
+                    rows++;
+                }
+                return hasNext;
+            }
+            if ("close".equals(name) && !recorded) {
+                recorded = true;
+                profiler.record(sql, executionNanos, rows);
+            }
+            return ProfilingDataSource.invoke(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.walletservice.metrics.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Perfilador de SQL alimentado pelo {@link ProfilingDataSource}.
+ * Agrega latência e linhas por comando normalizado, conta comandos por requisição HTTP
+ * e sinaliza requisições acima do limite como candidatas a N+1.
+ */
+@Component
+public class SqlProfiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlProfiler.class);
+
+    // Limites para os mapas não crescerem sem controle com SQL dinâmico
+    private static final int MAX_DISTINCT_STATEMENTS = 1_000;
+    private static final int MAX_RECENT_CANDIDATES = 50;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ThreadLocal<int[]> REQUEST_STATEMENTS = ThreadLocal.withInitial(() -> new int[] {-1});
+
+    private final Map<String, String> normalizedCache = new ConcurrentHashMap<>();
+    private final Map<String, QueryStats> statistics = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<NPlusOneCandidate> recentCandidates = new ConcurrentLinkedDeque<>();
+    private final AtomicLong requestsProfiled = new AtomicLong();
+
+    private final boolean enabled;
+    private final int nPlusOneThreshold;
+    private final long slowQueryThresholdNanos;
+    private final int topN;
+
+    private final DistributionSummary statementsPerRequest;
+    private final Counter nPlusOneCounter;
+    private final Counter slowQueryCounter;
+
+    public SqlProfiler(MeterRegistry registry,
+                       @Value("${wallet.app.sql-profiler.enabled:true}") boolean enabled,
+                       @Value("${wallet.app.sql-profiler.n-plus-one-threshold:10}") int nPlusOneThreshold,
+                       @Value("${wallet.app.sql-profiler.slow-query-threshold-ms:200}") long slowQueryThresholdMs,
+                       @Value("${wallet.app.sql-profiler.top-n:20}") int topN) {
+        this.enabled = enabled;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+        this.topN = topN;
+        this.statementsPerRequest = DistributionSummary.builder("wallet.sql.statements.per.request")
+                .description("Comandos SQL executados por requisição HTTP")
+                .register(registry);
+        this.nPlusOneCounter = Counter.builder("wallet.sql.n_plus_one")
+                .description("Requisições acima do limite de comandos SQL (candidatas a N+1)")
+                .register(registry);
+        this.slowQueryCounter = Counter.builder("wallet.sql.slow")
+                .description("Comandos SQL acima do limite de lentidão")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String sql, long durationNanos, long rows) {
+        int[] counter = REQUEST_STATEMENTS.get();
+        if (counter[0] >= 0) {
+            counter[0]++;
+        }
+
+        String normalized = normalize(sql);
+        QueryStats stats = statistics.get(normalized);
+        if (stats == null) {
+            if (statistics.size() >= MAX_DISTINCT_STATEMENTS) {
+                return;
+            }
+            stats = statistics.computeIfAbsent(normalized, QueryStats::new);
+        }
+        stats.record(durationNanos, rows);
+
+        if (durationNanos >= slowQueryThresholdNanos) {
+            slowQueryCounter.increment();
+            logger.warn("Slow SQL ({} ms, {} rows): {}", TimeUnit.NANOSECONDS.toMillis(durationNanos), rows, normalized);
+        }
+    }
+
+    public void beginRequest() {
+        REQUEST_STATEMENTS.get()[0] = 0;
+    }
+
+    /**
+     * Encerra a contagem da requisição corrente e retorna quantos comandos foram executados.
+     */
+    public int endRequest(String method, String uri) {
+        int[] counter = REQUEST_STATEMENTS.get();
+        int statements = counter[0];
+        counter[0] = -1;
+        if (statements < 0) {
+            return 0;
+        }
+
+        requestsProfiled.incrementAndGet();
+        statementsPerRequest.record(statements);
+        if (statements > nPlusOneThreshold) {
+            nPlusOneCounter.increment();
+            logger.warn("Possible N+1: {} {} executed {} SQL statements", method, uri, statements);
+            recentCandidates.addFirst(new NPlusOneCandidate(method, uri, statements, LocalDateTime.now()));
+            while (recentCandidates.size() > MAX_RECENT_CANDIDATES) {
+                recentCandidates.pollLast();
+            }
+        }
+        return statements;
+    }
+
+    public String normalize(String sql) {
+        String cached = normalizedCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?...)");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        if (normalizedCache.size() < MAX_DISTINCT_STATEMENTS) {
+            normalizedCache.put(sql, normalized);
+        }
+        return normalized;
+    }
+
+    public List<QueryStatsView> slowestQueries(int limit) {
+        List<QueryStatsView> views = new ArrayList<>(statistics.size());
+        statistics.values().forEach(stats -> views.add(stats.view()));
+        views.sort(Comparator.comparingDouble(QueryStatsView::maxMs).reversed());
+        return views.size() > limit ? new ArrayList<>(views.subList(0, limit)) : views;
+    }
+
+    public Report report() {
+        return new Report(requestsProfiled.get(), nPlusOneThreshold, (long) nPlusOneCounter.count(),
+                List.copyOf(recentCandidates), slowestQueries(topN));
+    }
+
+    public void reset() {
+        statistics.clear();
+        recentCandidates.clear();
+        requestsProfiled.set(0);
+    }
+
+    static final class QueryStats {
+        private final String sql;
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder totalRows = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        QueryStats(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long durationNanos, long rows) {
+            executions.increment();
+            totalNanos.add(durationNanos);
+            totalRows.add(rows);
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+        }
+
+        QueryStatsView view() {
+            long count = executions.sum();
+            double totalMs = totalNanos.sum() / 1_000_000.0;
+            return new QueryStatsView(sql, count, totalMs, count == 0 ? 0 : totalMs / count,
+                    maxNanos.get() / 1_000_000.0, totalRows.sum());
+        }
+    }
+
+    public record QueryStatsView(String sql, long executions, double totalMs, double avgMs, double maxMs, long rows) {}
+
+    public record NPlusOneCandidate(String method, String uri, int statements, LocalDateTime detectedAt) {}
+
+    public record Report(long requestsProfiled, int nPlusOneThreshold, long nPlusOneCandidates,
+                         List<NPlusOneCandidate> recentCandidates, List<QueryStatsView> slowestQueries) {}
+}
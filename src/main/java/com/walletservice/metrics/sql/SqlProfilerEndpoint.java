@@ -0,0 +1,30 @@
+package com.walletservice.metrics.sql;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Endpoint /actuator/sqlprofiler: comandos mais lentos e candidatos a N+1.
+ */
+@Component
+@Endpoint(id = "sqlprofiler")
+public class SqlProfilerEndpoint {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilerEndpoint(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @ReadOperation
+    public SqlProfiler.Report report() {
+        return sqlProfiler.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlProfiler.reset();
+    }
+}
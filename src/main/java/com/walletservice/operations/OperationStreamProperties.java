@@ -0,0 +1,16 @@
+package com.walletservice.operations;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Stream de operações (wallet.app.operation-stream.*).
+ * flushEvery = resultados acumulados antes de forçar o envio, mesmo com mais operações já recebidas;
+ * maxMessageBytes = tamanho máximo de cada operação (linha NDJSON ou mensagem protobuf).
+ */
+@ConfigurationProperties(prefix = "wallet.app.operation-stream")
+public record OperationStreamProperties(
+        @DefaultValue("64") int flushEvery,
+        @DefaultValue("16384") int maxMessageBytes
+) {
+}
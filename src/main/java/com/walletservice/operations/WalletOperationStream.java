@@ -0,0 +1,294 @@
+package com.walletservice.operations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.walletservice.domain.Wallet;
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.dto.CreateWalletRequest;
+import com.walletservice.dto.DepositRequest;
+import com.walletservice.dto.TransferRequest;
+import com.walletservice.dto.WalletOperationRequest;
+import com.walletservice.dto.WalletOperationResult;
+import com.walletservice.dto.WithdrawalRequest;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.RateLimitExceededException;
+import com.walletservice.exception.ServiceOverloadedException;
+import com.walletservice.exception.VelocityLimitExceededException;
+import com.walletservice.exception.WalletAlreadyExistsException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.protobuf.RecordProtobufCodec;
+import com.walletservice.resilience.WalletRateLimiter;
+import com.walletservice.service.WalletService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Processa um stream de operações de carteira enviado numa única requisição, para chamadores internos
+ * (ex.: serviço de pagamentos) que enviam milhares de operações sem abrir uma requisição por operação.
+ *
+ * As operações são lidas e aplicadas uma a uma, na ordem do stream, cada uma na sua própria transação via
+ * WalletService; o resultado de cada operação é escrito assim que ela termina. Os resultados saem em lote:
+ * o envio é forçado quando não há mais operações já recebidas para processar ou a cada flushEvery resultados.
+ * O controle de fluxo é o da própria conexão: enquanto o cliente não lê os resultados, o servidor para de
+ * ler operações, e vice-versa.
+ *
+ * Um erro numa operação vira um resultado com o código do erro e o stream continua. Só um erro de framing
+ * (protobuf truncado, mensagem acima de maxMessageBytes) encerra o stream, depois de um último resultado
+ * INVALID_ARGUMENT.
+ */
+@Service
+public class WalletOperationStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletOperationStream.class);
+
+    public enum Format { NDJSON, PROTOBUF }
+
+    enum Status { OK, INVALID_ARGUMENT, NOT_FOUND, ALREADY_EXISTS, FAILED_PRECONDITION, ABORTED,
+        RESOURCE_EXHAUSTED, UNAVAILABLE, INTERNAL }
+
+    // Marca uma linha NDJSON inválida: o erro é dessa operação, as linhas seguintes continuam legíveis
+    private static final WalletOperationRequest NDJSON_UNREADABLE = new WalletOperationRequest(0, null, null, null, null);
+
+    private final WalletService walletService;
+    private final WalletRateLimiter rateLimiter;
+    private final WalletMetrics walletMetrics;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final OperationStreamProperties properties;
+
+    private final Map<Status, Counter> messages = new EnumMap<>(Status.class);
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    public WalletOperationStream(WalletService walletService, WalletRateLimiter rateLimiter,
+                                 WalletMetrics walletMetrics, Validator validator, ObjectMapper objectMapper,
+                                 OperationStreamProperties properties, MeterRegistry meterRegistry) {
+        this.walletService = walletService;
+        this.rateLimiter = rateLimiter;
+        this.walletMetrics = walletMetrics;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        for (Status status : Status.values()) {
+            messages.put(status, Counter.builder("wallet.operation.stream.messages")
+                    .description("Operations processed through the operation stream")
+                    .tag("status", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("wallet.operation.stream.active", activeStreams, AtomicInteger::get)
+                .description("Open operation streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lê operações de input até o fim do stream e escreve um resultado por operação em output, no mesmo formato.
+     *
+     * @return quantas operações foram processadas
+     */
+    public long process(InputStream input, OutputStream output, Format format) throws IOException {
+        InputStream in = input instanceof BufferedInputStream ? input : new BufferedInputStream(input);
+        OutputStream out = new BufferedOutputStream(output);
+        activeStreams.incrementAndGet();
+        long position = 0;
+        int unflushed = 0;
+        try {
+            while (true) {
+                WalletOperationRequest request;
+                try {
+                    request = read(in, format);
+                } catch (IllegalArgumentException | IOException e) {
+                    // Sem framing confiável não há como achar o início da próxima operação
+                    messages.get(Status.INVALID_ARGUMENT).increment();
+                    write(out, format, failure(position + 1, null, Status.INVALID_ARGUMENT, e.getMessage()));
+                    logger.warn("Operation stream closed after malformed message {}: {}", position + 1, e.getMessage());
+                    break;
+                }
+                if (request == null) {
+                    break;
+                }
+                position++;
+                WalletOperationResult result = request == NDJSON_UNREADABLE
+                        ? failure(position, null, Status.INVALID_ARGUMENT, "Invalid JSON operation")
+                        : apply(request, position);
+                messages.get(Status.valueOf(result.status())).increment();
+                write(out, format, result);
+                // Só segura o resultado se já houver outra operação no buffer para processar
+                if (++unflushed >= properties.flushEvery() || in.available() == 0) {
+                    out.flush();
+                    unflushed = 0;
+                }
+            }
+            out.flush();
+            return position;
+        } finally {
+            activeStreams.decrementAndGet();
+        }
+    }
+
+    private WalletOperationRequest read(InputStream in, Format format) throws IOException {
+        if (format == Format.PROTOBUF) {
+            return RecordProtobufCodec.readDelimited(WalletOperationRequest.class, in, properties.maxMessageBytes());
+        }
+        byte[] line;
+        do {
+            line = readLine(in, properties.maxMessageBytes());
+            if (line == null) {
+                return null;
+            }
+        } while (isBlank(line));
+        try {
+            return objectMapper.readValue(line, WalletOperationRequest.class);
+        } catch (JsonProcessingException e) {
+            return NDJSON_UNREADABLE;
+        }
+    }
+
+    WalletOperationResult apply(WalletOperationRequest request, long position) {
+        long sequencia = request.sequencia() != 0 ? request.sequencia() : position;
+        String tipo = request.tipo() == null ? "" : request.tipo().toUpperCase(Locale.ROOT);
+        String idUsuario = request.idUsuario();
+        try {
+            return switch (tipo) {
+                case "CREATE" -> {
+                    CreateWalletRequest create = valid(new CreateWalletRequest(idUsuario));
+                    checkRate("create", idUsuario);
+                    yield ok(sequencia, walletService.createWallet(create));
+                }
+                case "DEPOSIT" -> {
+                    DepositRequest deposit = valid(new DepositRequest(idUsuario, request.valor()));
+                    checkRate("deposit", idUsuario);
+                    yield ok(sequencia, walletService.deposit(deposit));
+                }
+                case "WITHDRAW" -> {
+                    WithdrawalRequest withdrawal = valid(new WithdrawalRequest(idUsuario, request.valor()));
+                    checkRate("withdraw", idUsuario);
+                    yield ok(sequencia, walletService.withdraw(withdrawal));
+                }
+                case "TRANSFER" -> {
+                    TransferRequest transfer = valid(
+                            new TransferRequest(idUsuario, request.idUsuarioDestino(), request.valor()));
+                    checkRate("transfer", idUsuario);
+                    walletService.transfer(transfer);
+                    yield new WalletOperationResult(sequencia, Status.OK.name(), idUsuario, null, null, null);
+                }
+                case "BALANCE" -> {
+                    if (idUsuario == null || idUsuario.isBlank()) {
+                        throw new IllegalArgumentException("idUsuario: User ID cannot be blank");
+                    }
+                    checkRate("balance", idUsuario);
+                    BalanceResponse balance = walletService.getBalance(idUsuario);
+                    if (walletMetrics.lastOperationFellBack()) {
+                        // Saldo padrão do fallback não é o saldo da carteira
+                        yield failure(sequencia, idUsuario, Status.UNAVAILABLE, "Balance temporarily unavailable");
+                    }
+                    yield new WalletOperationResult(sequencia, Status.OK.name(), balance.idUsuario(),
+                            balance.saldo(), balance.moeda(), null);
+                }
+                default -> throw new IllegalArgumentException("Unknown operation type: " + request.tipo());
+            };
+        } catch (RuntimeException e) {
+            Status status = statusOf(e);
+            if (status == Status.INTERNAL) {
+                logger.error("Operation {} of type {} failed for user {}", sequencia, tipo, idUsuario, e);
+            }
+            return failure(sequencia, idUsuario, status, e.getMessage());
+        }
+    }
+
+    private Status statusOf(RuntimeException e) {
+        return switch (e) {
+            case IllegalArgumentException ignored -> Status.INVALID_ARGUMENT;
+            case WalletNotFoundException ignored -> Status.NOT_FOUND;
+            case WalletAlreadyExistsException ignored -> Status.ALREADY_EXISTS;
+            case InsufficientFundsException ignored -> Status.FAILED_PRECONDITION;
+            case OptimisticLockingFailureException ignored -> Status.ABORTED;
+            case RateLimitExceededException ignored -> Status.RESOURCE_EXHAUSTED;
+            case VelocityLimitExceededException ignored -> Status.RESOURCE_EXHAUSTED;
+            case ServiceOverloadedException ignored -> Status.UNAVAILABLE;
+            case CallNotPermittedException ignored -> Status.UNAVAILABLE;
+            case BulkheadFullException ignored -> Status.UNAVAILABLE;
+            default -> walletMetrics.lastOperationFellBack() ? Status.UNAVAILABLE : Status.INTERNAL;
+        };
+    }
+
+    private <T> T valid(T request) {
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return request;
+    }
+
+    // Buckets por carteira próprios do stream (operations.<tipo>), separados dos endpoints REST: operações em
+    // pipeline não consomem a cota REST da carteira. O limite por chamador é aplicado uma vez, ao abrir o stream
+    private void checkRate(String operation, String idUsuario) {
+        long waitNanos = rateLimiter.tryAcquire("operations." + operation, "user:" + idUsuario);
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(waitNanos);
+        }
+    }
+
+    private static WalletOperationResult ok(long sequencia, Wallet wallet) {
+        return new WalletOperationResult(sequencia, Status.OK.name(), wallet.getIdUsuario(), wallet.getSaldo(),
+                wallet.getMoeda(), null);
+    }
+
+    private static WalletOperationResult failure(long sequencia, String idUsuario, Status status, String mensagem) {
+        return new WalletOperationResult(sequencia, status.name(), idUsuario, null, null, mensagem);
+    }
+
+    private void write(OutputStream out, Format format, WalletOperationResult result) throws IOException {
+        if (format == Format.PROTOBUF) {
+            RecordProtobufCodec.writeDelimited(result, out);
+        } else {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+        }
+    }
+
+    // Lê até '\n' sem passar de maxBytes; null no fim do stream
+    private static byte[] readLine(InputStream in, int maxBytes) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) >= 0 && b != '\n') {
+            if (line.size() >= maxBytes) {
+                throw new IllegalArgumentException("Operation line exceeds " + maxBytes + " bytes");
+            }
+            line.write(b);
+        }
+        if (b < 0 && line.size() == 0) {
+            return null;
+        }
+        return line.toByteArray();
+    }
+
+    private static boolean isBlank(byte[] line) {
+        return new String(line, StandardCharsets.UTF_8).isBlank();
+    }
+}
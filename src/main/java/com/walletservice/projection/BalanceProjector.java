@@ -0,0 +1,298 @@
+package com.walletservice.projection;
+
+import com.walletservice.cache.BalanceCache;
+import com.walletservice.domain.Wallet;
+import com.walletservice.domain.WalletBalanceView;
+import com.walletservice.repository.LedgerSummary;
+import com.walletservice.repository.TransactionRepository;
+import com.walletservice.repository.WalletBalanceViewRepository;
+import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Projetor em processo do modelo de leitura wallet_balance_view.
+ *
+ * Cada LedgerEvent confirmado marca as carteiras envolvidas como pendentes; uma thread por
+ * partição (hash do idUsuario) recalcula a linha da carteira a partir do modelo de escrita.
+ * Recalcular em vez de aplicar o delta torna a projeção idempotente e independente de ordem,
+ * e vários eventos da mesma carteira na fila viram um único recálculo.
+ * Enquanto uma carteira está pendente, currentView retorna vazio e a leitura cai no modelo de escrita.
+ */
+@Component
+public class BalanceProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceProjector.class);
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletBalanceViewRepository viewRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final int rebuildPageSize;
+    private final Clock clock;
+
+    private final ExecutorService[] partitions;
+    private final ConcurrentMap<String, Mark> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Timer projectionDelay;
+    private volatile RebuildResult lastRebuild;
+
+    // seq muda a cada evento; sinceNanos é o primeiro evento ainda não projetado
+    private record Mark(long seq, long sinceNanos) {}
+
+    public record RebuildResult(long wallets, long failures, long durationMillis, LocalDateTime finishedAt) {}
+
+    public record Status(boolean enabled, int pending, long lagMillis, boolean rebuilding, RebuildResult lastRebuild) {}
+
+    @Autowired
+    public BalanceProjector(WalletRepository walletRepository, TransactionRepository transactionRepository,
+                            WalletBalanceViewRepository viewRepository, PlatformTransactionManager transactionManager,
+                            CacheManager cacheManager, MeterRegistry meterRegistry,
+                            @Value("${wallet.app.projection.enabled:true}") boolean enabled,
+                            @Value("${wallet.app.projection.partitions:4}") int partitions,
+                            @Value("${wallet.app.projection.rebuild-page-size:500}") int rebuildPageSize) {
+        this(walletRepository, transactionRepository, viewRepository, transactionManager, cacheManager,
+                meterRegistry, enabled, partitions, rebuildPageSize, Clock.systemDefaultZone());
+    }
+
+    BalanceProjector(WalletRepository walletRepository, TransactionRepository transactionRepository,
+                     WalletBalanceViewRepository viewRepository, PlatformTransactionManager transactionManager,
+                     CacheManager cacheManager, MeterRegistry meterRegistry, boolean enabled, int partitions,
+                     int rebuildPageSize, Clock clock) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.viewRepository = viewRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.enabled = enabled;
+        this.rebuildPageSize = rebuildPageSize;
+        this.clock = clock;
+
+        this.partitions = new ExecutorService[Math.max(1, partitions)];
+        for (int i = 0; i < this.partitions.length; i++) {
+            this.partitions[i] = Executors.newSingleThreadExecutor(
+                    Thread.ofPlatform().name("balance-projector-" + i).daemon().factory());
+        }
+
+        this.projectionDelay = Timer.builder("wallet.projection.delay")
+                .description("Tempo entre o commit do lançamento e a atualização do wallet_balance_view")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("wallet.projection.pending", pending, ConcurrentMap::size).register(meterRegistry);
+        TimeGauge.builder("wallet.projection.lag", this, TimeUnit.MILLISECONDS, BalanceProjector::lagMillis)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLedgerEvent(LedgerEvent event) {
+        if (!enabled) {
+            return;
+        }
+        markPending(event.idUsuarioOrigem());
+        if (event.idUsuarioDestino() != null) {
+            markPending(event.idUsuarioDestino());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isPending(String idUsuario) {
+        return pending.containsKey(idUsuario);
+    }
+
+    /**
+     * Linha atual da visão, ou vazio se a projeção estiver desligada, pendente para a carteira
+     * ou ainda não existir. Nesses casos o chamador deve ler o modelo de escrita.
+     */
+    public Optional<WalletBalanceView> currentView(String idUsuario) {
+        if (!enabled || isPending(idUsuario)) {
+            return Optional.empty();
+        }
+        return viewRepository.findById(idUsuario);
+    }
+
+    /**
+     * Calcula a linha da visão sem gravar; null se a carteira não existir.
+     */
+    public WalletBalanceView compute(String idUsuario) {
+        Wallet wallet = walletRepository.findByIdUsuario(idUsuario);
+        if (wallet == null) {
+            return null;
+        }
+        LocalDate today = LocalDate.now(clock);
+        LedgerSummary summary = transactionRepository.summarizeLedger(idUsuario, today.atStartOfDay());
+        return new WalletBalanceView(idUsuario, wallet.getSaldo(), wallet.getMoeda(),
+                summary.getLastTransaction(), today, summary.getCredits(), summary.getDebits(),
+                summary.getEntries(), LocalDateTime.now(clock));
+    }
+
+    /**
+     * Apaga a visão e a reconstrói do zero, em páginas de carteiras distribuídas pelas partições.
+     * Durante a reconstrução as leituras caem no modelo de escrita.
+     */
+    public RebuildResult rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Balance view rebuild already running");
+        }
+        try {
+            long start = System.nanoTime();
+            long wallets = 0;
+            long failures = 0;
+            logger.info("Rebuilding wallet_balance_view");
+            // Sem a linha, currentView retorna vazio e a leitura vai para o modelo de escrita
+            transactionTemplate.executeWithoutResult(status -> viewRepository.deleteAllInBatch());
+
+            String after = "";
+            List<String> page;
+            do {
+                page = walletRepository.findIdUsuarioAfter(after, PageRequest.of(0, rebuildPageSize));
+                // A página inteira é recalculada em paralelo, uma fila por partição
+                List<CompletableFuture<Boolean>> results = new ArrayList<>(page.size());
+                for (String idUsuario : page) {
+                    results.add(markPending(idUsuario));
+                }
+                for (CompletableFuture<Boolean> result : results) {
+                    if (!result.join()) {
+                        failures++;
+                    }
+                }
+                wallets += page.size();
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == rebuildPageSize);
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            lastRebuild = new RebuildResult(wallets, failures, durationMillis, LocalDateTime.now(clock));
+            logger.info("Rebuilt wallet_balance_view: {} wallets, {} failures in {} ms", wallets, failures, durationMillis);
+            return lastRebuild;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public Status status() {
+        return new Status(enabled, pending.size(), lagMillis(), rebuilding.get(), lastRebuild);
+    }
+
+    // Idade do evento pendente mais antigo
+    long lagMillis() {
+        long now = System.nanoTime();
+        long oldest = now;
+        for (Mark mark : pending.values()) {
+            oldest = Math.min(oldest, mark.sinceNanos());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(now - oldest);
+    }
+
+    /**
+     * Espera as partições esvaziarem as filas atuais; usado em testes e no shutdown.
+     */
+    public boolean awaitIdle(Duration timeout) {
+        List<CompletableFuture<Void>> barriers = new ArrayList<>(partitions.length);
+        for (ExecutorService partition : partitions) {
+            barriers.add(CompletableFuture.runAsync(() -> { }, partition));
+        }
+        try {
+            CompletableFuture.allOf(barriers.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+    }
+
+    private CompletableFuture<Boolean> markPending(String idUsuario) {
+        long seq = sequence.incrementAndGet();
+        long now = System.nanoTime();
+        pending.compute(idUsuario, (key, previous) -> new Mark(seq, previous != null ? previous.sinceNanos() : now));
+        return CompletableFuture.supplyAsync(() -> project(idUsuario), partitionOf(idUsuario));
+    }
+
+    private ExecutorService partitionOf(String idUsuario) {
+        return partitions[Math.floorMod(idUsuario.hashCode(), partitions.length)];
+    }
+
+    private boolean project(String idUsuario) {
+        Mark mark = pending.get(idUsuario);
+        if (mark == null) {
+            // Já coberto por um recálculo anterior da mesma carteira
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                WalletBalanceView view = compute(idUsuario);
+                if (view != null) {
+                    viewRepository.save(view);
+                } else {
+                    viewRepository.deleteById(idUsuario);
+                }
+            });
+            evictCachedBalance(idUsuario);
+            // Se chegou outro evento durante o recálculo, a marca mudou e a carteira continua pendente
+            if (pending.remove(idUsuario, mark)) {
+                projectionDelay.record(System.nanoTime() - mark.sinceNanos(), TimeUnit.NANOSECONDS);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // Continua pendente: as leituras seguem no modelo de escrita até o próximo evento ou rebuild
+            logger.error("Failed to project balance view for user {}", idUsuario, e);
+            return false;
+        }
+    }
+
+    // O getBalance cacheia o que leu da visão; depois de projetar, a próxima leitura busca a linha nova
+    private void evictCachedBalance(String idUsuario) {
+        Cache cache = cacheManager.getCache(BalanceCache.CACHE_NAME);
+        if (cache != null) {
+            try {
+                cache.evict(idUsuario);
+            } catch (RuntimeException e) {
+                logger.warn("Balance cache evict failed for user {}: {}", idUsuario, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.walletservice.projection;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Endpoint /actuator/balanceview: atraso da projeção e reconstrução do wallet_balance_view.
+ */
+@Component
+@Endpoint(id = "balanceview")
+public class BalanceViewEndpoint {
+
+    private final BalanceProjector balanceProjector;
+
+    public BalanceViewEndpoint(BalanceProjector balanceProjector) {
+        this.balanceProjector = balanceProjector;
+    }
+
+    @ReadOperation
+    public BalanceProjector.Status status() {
+        return balanceProjector.status();
+    }
+
+    @WriteOperation
+    public BalanceProjector.RebuildResult rebuild() {
+        return balanceProjector.rebuild();
+    }
+}
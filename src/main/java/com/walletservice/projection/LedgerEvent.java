@@ -0,0 +1,25 @@
+package com.walletservice.projection;
+
+import com.walletservice.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lançamento gravado no ledger, publicado dentro da transação de escrita.
+ * Os ouvintes recebem o evento só depois do commit.
+ */
+public record LedgerEvent(
+        UUID transactionId,
+        String tipoTransacao,
+        BigDecimal valor,
+        String idUsuarioOrigem,
+        String idUsuarioDestino,
+        LocalDateTime dataHora
+) {
+    public static LedgerEvent from(Transaction transaction) {
+        return new LedgerEvent(transaction.getId(), transaction.getTipoTransacao(), transaction.getValor(),
+                transaction.getIdUsuarioOrigem(), transaction.getIdUsuarioDestino(), transaction.getDataHora());
+    }
+}
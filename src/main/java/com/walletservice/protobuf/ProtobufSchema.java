@@ -0,0 +1,66 @@
+package com.walletservice.protobuf;
+
+import com.walletservice.protobuf.RecordProtobufCodec.Field;
+import com.walletservice.protobuf.RecordProtobufCodec.RecordLayout;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Gera o schema proto3 dos records trafegados por {@link RecordProtobufCodec}.
+ * O schema sai do mesmo mapeamento usado pelo codec, então não existe .proto para manter à mão.
+ */
+public final class ProtobufSchema {
+
+    public static final String PACKAGE = "walletservice";
+
+    private ProtobufSchema() {
+    }
+
+    public static String generate(List<Class<? extends Record>> types) {
+        Set<Class<?>> messages = new LinkedHashSet<>();
+        for (Class<?> type : types) {
+            collect(type, messages);
+        }
+        StringBuilder schema = new StringBuilder()
+                .append("syntax = \"proto3\";\n\n")
+                .append("package ").append(PACKAGE).append(";\n\n")
+                .append("// Decimais trafegam como string (BigDecimal.toPlainString) e datas em ISO-8601\n");
+        for (Class<?> type : messages) {
+            schema.append('\n').append("message ").append(type.getSimpleName()).append(" {\n");
+            for (Field field : RecordProtobufCodec.layout(type).fields()) {
+                schema.append("  ").append(protoType(field)).append(' ')
+                        .append(field.name()).append(" = ").append(field.number()).append(";\n");
+            }
+            schema.append("}\n");
+        }
+        return schema.toString();
+    }
+
+    private static void collect(Class<?> type, Set<Class<?>> messages) {
+        RecordLayout layout = RecordProtobufCodec.layout(type);
+        if (!messages.add(type)) {
+            return;
+        }
+        for (Field field : layout.fields()) {
+            if (field.kind() == RecordProtobufCodec.Kind.MESSAGE) {
+                collect(field.type(), messages);
+            } else if (field.kind() == RecordProtobufCodec.Kind.REPEATED_MESSAGE) {
+                collect(field.elementType(), messages);
+            }
+        }
+    }
+
+    private static String protoType(Field field) {
+        return switch (field.kind()) {
+            case STRING, DECIMAL, DATE_TIME, UUID -> "string";
+            case INT64 -> "int64";
+            case INT32 -> "int32";
+            case BOOL -> "bool";
+            case MESSAGE -> field.type().getSimpleName();
+            case REPEATED_STRING -> "repeated string";
+            case REPEATED_MESSAGE -> "repeated " + field.elementType().getSimpleName();
+        };
+    }
+}
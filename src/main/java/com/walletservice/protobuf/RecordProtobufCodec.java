@@ -0,0 +1,436 @@
+package com.walletservice.protobuf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codifica e decodifica records no formato binário do Protocol Buffers (proto3), sem classes geradas.
+ *
+ * O número de cada campo é a posição do componente no record (1, 2, ...), então componentes novos
+ * devem ser acrescentados no fim. BigDecimal, LocalDateTime e UUID trafegam como string (valor exato,
+ * ISO-8601 e forma canônica). Nulos, zeros e listas vazias não são gravados, como no proto3.
+ * O schema .proto correspondente é gerado por {@link ProtobufSchema}.
+ */
+public final class RecordProtobufCodec {
+
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    private static final Map<Class<?>, RecordLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private RecordProtobufCodec() {
+    }
+
+    enum Kind { STRING, DECIMAL, DATE_TIME, UUID, INT64, INT32, BOOL, MESSAGE, REPEATED_STRING, REPEATED_MESSAGE }
+
+    record Field(int number, String name, Kind kind, Class<?> type, Class<?> elementType, MethodHandle accessor) {}
+
+    record RecordLayout(Class<?> type, List<Field> fields, MethodHandle constructor) {}
+
+    public static boolean supports(Class<?> type) {
+        if (!type.isRecord()) {
+            return false;
+        }
+        try {
+            layout(type);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static byte[] encode(Record value) {
+        Output out = new Output();
+        writeMessage(out, value);
+        return out.toByteArray();
+    }
+
+    public static <T> T decode(Class<T> type, byte[] data) {
+        return type.cast(readMessage(layout(type), data, 0, data.length));
+    }
+
+    /**
+     * Grava a mensagem precedida do tamanho em varint, o mesmo framing do writeDelimitedTo do protobuf-java,
+     * para várias mensagens seguidas no mesmo stream.
+     */
+    public static void writeDelimited(Record value, OutputStream out) throws IOException {
+        Output message = new Output();
+        writeMessage(message, value);
+        Output length = new Output();
+        length.varint(message.size());
+        length.writeTo(out);
+        message.writeTo(out);
+    }
+
+    /**
+     * Lê uma mensagem gravada por {@link #writeDelimited}. Retorna null no fim do stream.
+     * Mensagens maiores que maxBytes são rejeitadas antes de alocar o corpo.
+     */
+    public static <T> T readDelimited(Class<T> type, InputStream in, int maxBytes) throws IOException {
+        long length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return null;
+                }
+                throw new EOFException("Truncated protobuf length prefix");
+            }
+            if (shift > 28) {
+                throw new IllegalArgumentException("Malformed protobuf length prefix");
+            }
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length > maxBytes) {
+            throw new IllegalArgumentException("Protobuf message of " + length + " bytes exceeds " + maxBytes);
+        }
+        byte[] data = in.readNBytes((int) length);
+        if (data.length < length) {
+            throw new EOFException("Truncated protobuf message");
+        }
+        return decode(type, data);
+    }
+
+    static RecordLayout layout(Class<?> type) {
+        RecordLayout layout = LAYOUTS.get(type);
+        if (layout == null) {
+            layout = buildLayout(type);
+            LAYOUTS.putIfAbsent(type, layout);
+        }
+        return layout;
+    }
+
+    private static RecordLayout buildLayout(Class<?> type) {
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException(type.getName() + " is not a record");
+        }
+        RecordComponent[] components = type.getRecordComponents();
+        List<Field> fields = new ArrayList<>(components.length);
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            for (int i = 0; i < components.length; i++) {
+                RecordComponent component = components[i];
+                parameterTypes[i] = component.getType();
+                Class<?> elementType = null;
+                Kind kind = kindOf(component.getType());
+                if (kind == null && component.getType() == List.class) {
+                    elementType = listElementType(component.getGenericType(), type);
+                    kind = elementType == String.class ? Kind.REPEATED_STRING : Kind.REPEATED_MESSAGE;
+                    if (kind == Kind.REPEATED_MESSAGE) {
+                        layout(elementType);
+                    }
+                }
+                if (kind == null) {
+                    throw new IllegalArgumentException("Unsupported component " + component.getName()
+                            + " of type " + component.getType().getName() + " in " + type.getName());
+                }
+                if (kind == Kind.MESSAGE) {
+                    layout(component.getType());
+                }
+                fields.add(new Field(i + 1, component.getName(), kind, component.getType(), elementType,
+                        lookup.unreflect(component.getAccessor())));
+            }
+            Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+            return new RecordLayout(type, List.copyOf(fields), lookup.unreflectConstructor(constructor));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot map " + type.getName() + " to protobuf", e);
+        }
+    }
+
+    private static Kind kindOf(Class<?> type) {
+        if (type == String.class) return Kind.STRING;
+        if (type == BigDecimal.class) return Kind.DECIMAL;
+        if (type == LocalDateTime.class) return Kind.DATE_TIME;
+        if (type == UUID.class) return Kind.UUID;
+        if (type == long.class || type == Long.class) return Kind.INT64;
+        if (type == int.class || type == Integer.class) return Kind.INT32;
+        if (type == boolean.class || type == Boolean.class) return Kind.BOOL;
+        if (type.isRecord()) return Kind.MESSAGE;
+        return null;
+    }
+
+    private static Class<?> listElementType(Type genericType, Class<?> owner) {
+        if (genericType instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> element
+                && (element == String.class || element.isRecord())) {
+            return element;
+        }
+        throw new IllegalArgumentException("Unsupported list type " + genericType + " in " + owner.getName());
+    }
+
+    // ---- escrita ----
+
+    private static void writeMessage(Output out, Object value) {
+        RecordLayout layout = layout(value.getClass());
+        for (Field field : layout.fields()) {
+            Object fieldValue;
+            try {
+                fieldValue = field.accessor().invoke(value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot read " + field.name() + " of " + layout.type().getName(), e);
+            }
+            writeField(out, field, fieldValue);
+        }
+    }
+
+    private static void writeField(Output out, Field field, Object value) {
+        if (value == null) {
+            return;
+        }
+        switch (field.kind()) {
+            case STRING -> writeString(out, field.number(), (String) value);
+            case DECIMAL -> writeString(out, field.number(), ((BigDecimal) value).toPlainString());
+            case DATE_TIME, UUID -> writeString(out, field.number(), value.toString());
+            case INT64, INT32 -> {
+                long number = ((Number) value).longValue();
+                if (number != 0) {
+                    out.tag(field.number(), VARINT);
+                    out.varint(number);
+                }
+            }
+            case BOOL -> {
+                if ((Boolean) value) {
+                    out.tag(field.number(), VARINT);
+                    out.varint(1);
+                }
+            }
+            case MESSAGE -> writeNested(out, field.number(), value);
+            case REPEATED_STRING -> {
+                for (Object element : (List<?>) value) {
+                    if (element != null) {
+                        writeString(out, field.number(), (String) element);
+                    }
+                }
+            }
+            case REPEATED_MESSAGE -> {
+                for (Object element : (List<?>) value) {
+                    if (element != null) {
+                        writeNested(out, field.number(), element);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeString(Output out, int number, String value) {
+        if (value.isEmpty()) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.tag(number, LENGTH_DELIMITED);
+        out.varint(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeNested(Output out, int number, Object value) {
+        Output nested = new Output();
+        writeMessage(nested, value);
+        out.tag(number, LENGTH_DELIMITED);
+        out.varint(nested.size());
+        nested.writeTo(out);
+    }
+
+    // ---- leitura ----
+
+    private static Object readMessage(RecordLayout layout, byte[] data, int offset, int end) {
+        List<Field> fields = layout.fields();
+        Object[] values = new Object[fields.size()];
+        List<List<Object>> repeated = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            repeated.add(null);
+        }
+        Input in = new Input(data, offset, end);
+        while (in.hasMore()) {
+            long tag = in.varint();
+            int number = (int) (tag >>> 3);
+            int wireType = (int) (tag & 7);
+            if (number < 1 || number > fields.size()) {
+                in.skip(wireType);
+                continue;
+            }
+            Field field = fields.get(number - 1);
+            int index = number - 1;
+            switch (field.kind()) {
+                case STRING -> values[index] = in.string(wireType);
+                case DECIMAL -> values[index] = new BigDecimal(in.string(wireType));
+                case DATE_TIME -> values[index] = dateTime(in.string(wireType));
+                case UUID -> values[index] = java.util.UUID.fromString(in.string(wireType));
+                case INT64 -> values[index] = in.varintValue(wireType);
+                case INT32 -> values[index] = (int) in.varintValue(wireType);
+                case BOOL -> values[index] = in.varintValue(wireType) != 0;
+                case MESSAGE -> values[index] = in.message(layout(field.type()), wireType);
+                case REPEATED_STRING -> repeatedList(repeated, index).add(in.string(wireType));
+                case REPEATED_MESSAGE -> repeatedList(repeated, index).add(in.message(layout(field.elementType()), wireType));
+            }
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            if (field.kind() == Kind.REPEATED_STRING || field.kind() == Kind.REPEATED_MESSAGE) {
+                List<Object> list = repeated.get(i);
+                values[i] = list == null ? List.of() : List.copyOf(list);
+            } else if (values[i] == null && field.type().isPrimitive()) {
+                values[i] = defaultPrimitive(field.type());
+            } else if (values[i] != null && field.type() == Long.class && values[i] instanceof Integer number) {
+                values[i] = number.longValue();
+            }
+        }
+        try {
+            return layout.constructor().invokeWithArguments(values);
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Cannot build " + layout.type().getSimpleName() + " from protobuf", e);
+        }
+    }
+
+    private static List<Object> repeatedList(List<List<Object>> repeated, int index) {
+        List<Object> list = repeated.get(index);
+        if (list == null) {
+            list = new ArrayList<>();
+            repeated.set(index, list);
+        }
+        return list;
+    }
+
+    // Data malformada é erro de entrada, como um decimal ou UUID inválido
+    private static LocalDateTime dateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Malformed protobuf date " + value, e);
+        }
+    }
+
+    private static Object defaultPrimitive(Class<?> type) {
+        if (type == long.class) return 0L;
+        if (type == int.class) return 0;
+        return false;
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(64);
+        }
+
+        void tag(int number, int wireType) {
+            varint(((long) number << 3) | wireType);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeTo(Output target) {
+            target.write(buf, 0, count);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] data;
+        private final int end;
+        private int position;
+
+        Input(byte[] data, int offset, int end) {
+            this.data = data;
+            this.position = offset;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return position < end;
+        }
+
+        long varint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= end) {
+                    throw new IllegalArgumentException("Truncated protobuf varint");
+                }
+                byte b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed protobuf varint");
+        }
+
+        long varintValue(int wireType) {
+            expect(wireType, VARINT);
+            return varint();
+        }
+
+        String string(int wireType) {
+            int length = length(wireType);
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        Object message(RecordLayout layout, int wireType) {
+            int length = length(wireType);
+            Object value = readMessage(layout, data, position, position + length);
+            position += length;
+            return value;
+        }
+
+        void skip(int wireType) {
+            switch (wireType) {
+                case VARINT -> varint();
+                case FIXED64 -> advance(8);
+                case LENGTH_DELIMITED -> advance(length(wireType));
+                case FIXED32 -> advance(4);
+                default -> throw new IllegalArgumentException("Unsupported protobuf wire type " + wireType);
+            }
+        }
+
+        private int length(int wireType) {
+            expect(wireType, LENGTH_DELIMITED);
+            long length = varint();
+            if (length < 0 || length > end - position) {
+                throw new IllegalArgumentException("Truncated protobuf field");
+            }
+            return (int) length;
+        }
+
+        private void advance(int bytes) {
+            if (bytes > end - position) {
+                throw new IllegalArgumentException("Truncated protobuf field");
+            }
+            position += bytes;
+        }
+
+        private static void expect(int wireType, int expected) {
+            if (wireType != expected) {
+                throw new IllegalArgumentException("Unexpected protobuf wire type " + wireType);
+            }
+        }
+    }
+}
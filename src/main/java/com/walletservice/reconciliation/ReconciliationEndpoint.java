@@ -0,0 +1,31 @@
+package com.walletservice.reconciliation;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Endpoint /actuator/reconciliation: progresso, ritmo e divergências da conciliação saldo x ledger.
+ * O POST dispara uma execução em segundo plano.
+ */
+@Component
+@Endpoint(id = "reconciliation")
+public class ReconciliationEndpoint {
+
+    private final ReconciliationJob reconciliationJob;
+
+    public ReconciliationEndpoint(ReconciliationJob reconciliationJob) {
+        this.reconciliationJob = reconciliationJob;
+    }
+
+    @ReadOperation
+    public ReconciliationJob.Status status() {
+        return reconciliationJob.status();
+    }
+
+    @WriteOperation
+    public ReconciliationJob.Status start() {
+        return reconciliationJob.start();
+    }
+}
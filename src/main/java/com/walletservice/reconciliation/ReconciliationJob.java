@@ -0,0 +1,269 @@
+package com.walletservice.reconciliation;
+
+import com.walletservice.datasource.WorkloadContext;
+import com.walletservice.repository.LedgerBalance;
+import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conciliação de wallets.saldo com a soma dos lançamentos de cada carteira em transactions.
+ *
+ * Percorre as carteiras em blocos de idUsuario (keyset), então a memória usada não depende do
+ * número de carteiras. Cada bloco é dividido com fork/join em faixas menores, e cada faixa é uma
+ * única consulta que traz saldo e soma do ledger juntos. As consultas são somente leitura (vão para
+ * uma réplica quando houver) e usam o pool de relatórios; entre blocos o job respeita um teto de
+ * carteiras por segundo. Divergências são logadas e as mais recentes ficam em /actuator/reconciliation.
+ */
+@Component
+public class ReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationJob.class);
+
+    static final String WORKLOAD = "walletReporting";
+
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ReconciliationProperties properties;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("wallet-reconciliation").daemon().factory());
+
+    private final Counter walletsCounter;
+    private final Counter mismatchesCounter;
+    private final Timer durationTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final Deque<Mismatch> recentMismatches = new ArrayDeque<>();
+    private volatile long total;
+    private volatile long startedNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile Result lastResult;
+
+    public record Mismatch(String idUsuario, BigDecimal saldo, BigDecimal ledger, BigDecimal diferenca) {}
+
+    public record Result(long wallets, long mismatches, long durationMillis, long walletsPerSecond,
+                         LocalDateTime finishedAt) {}
+
+    public record Status(boolean running, long total, long checked, long mismatches, long walletsPerSecond,
+                         LocalDateTime startedAt, Result lastRun, List<Mismatch> recentMismatches) {}
+
+    private record ChunkResult(long wallets, List<Mismatch> mismatches) {}
+
+    public ReconciliationJob(WalletRepository walletRepository, PlatformTransactionManager transactionManager,
+                             ReconciliationProperties properties, MeterRegistry meterRegistry) {
+        this.walletRepository = walletRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.properties = properties;
+
+        this.walletsCounter = Counter.builder("wallet.reconciliation.wallets")
+                .description("Carteiras conferidas pela conciliação")
+                .register(meterRegistry);
+        this.mismatchesCounter = Counter.builder("wallet.reconciliation.mismatches")
+                .description("Carteiras com saldo diferente da soma do ledger")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("wallet.reconciliation.duration")
+                .description("Duração de uma conciliação completa")
+                .register(meterRegistry);
+        Gauge.builder("wallet.reconciliation.progress", this, ReconciliationJob::progress)
+                .description("Fração das carteiras já conferidas na execução atual")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${wallet.app.reconciliation.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (running.get()) {
+            logger.info("Skipping scheduled reconciliation: previous run still in progress");
+            return;
+        }
+        run();
+    }
+
+    /**
+     * Dispara uma execução em segundo plano, se nenhuma estiver em andamento.
+     */
+    public Status start() {
+        if (!running.get()) {
+            runner.submit(this::run);
+        }
+        return status();
+    }
+
+    /**
+     * Executa a conciliação completa na thread atual. Retorna null se outra execução já estiver em andamento.
+     */
+    public Result run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, properties.parallelism()));
+        try {
+            begin();
+            logger.info("Reconciling {} wallets against the ledger", total);
+
+            String after = "";
+            List<String> chunk;
+            do {
+                long chunkStart = System.nanoTime();
+                chunk = walletRepository.findIdUsuarioAfter(after, PageRequest.of(0, properties.chunkSize()));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                ChunkResult result = pool.invoke(new RangeTask(chunk));
+                record(result);
+                after = chunk.get(chunk.size() - 1);
+                throttle(chunk.size(), chunkStart);
+            } while (chunk.size() == properties.chunkSize());
+
+            long durationNanos = System.nanoTime() - startedNanos;
+            durationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+            lastResult = new Result(checked.get(), mismatches.get(), TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                    walletsPerSecond(), LocalDateTime.now());
+            logger.info("Reconciliation finished: {}", lastResult);
+            return lastResult;
+        } catch (RuntimeException e) {
+            logger.error("Reconciliation aborted after {} wallets", checked.get(), e);
+            throw e;
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    public Status status() {
+        List<Mismatch> recent;
+        synchronized (recentMismatches) {
+            recent = List.copyOf(recentMismatches);
+        }
+        Result last = lastResult;
+        boolean active = running.get();
+        long rate = active || last == null ? walletsPerSecond() : last.walletsPerSecond();
+        return new Status(active, total, checked.get(), mismatches.get(), rate, startedAt, last, recent);
+    }
+
+    private void begin() {
+        checked.set(0);
+        mismatches.set(0);
+        synchronized (recentMismatches) {
+            recentMismatches.clear();
+        }
+        total = walletRepository.count();
+        startedAt = LocalDateTime.now();
+        startedNanos = System.nanoTime();
+    }
+
+    private void record(ChunkResult result) {
+        checked.addAndGet(result.wallets());
+        walletsCounter.increment(result.wallets());
+        if (result.mismatches().isEmpty()) {
+            return;
+        }
+        mismatches.addAndGet(result.mismatches().size());
+        mismatchesCounter.increment(result.mismatches().size());
+        synchronized (recentMismatches) {
+            for (Mismatch mismatch : result.mismatches()) {
+                logger.warn("Wallet {} balance {} differs from its ledger sum {}",
+                        mismatch.idUsuario(), mismatch.saldo(), mismatch.ledger());
+                recentMismatches.addLast(mismatch);
+                if (recentMismatches.size() > properties.maxReportedMismatches()) {
+                    recentMismatches.removeFirst();
+                }
+            }
+        }
+    }
+
+    // Segura o próximo bloco até o ritmo ficar abaixo de maxWalletsPerSecond
+    private void throttle(int wallets, long chunkStartNanos) {
+        if (properties.maxWalletsPerSecond() <= 0) {
+            return;
+        }
+        long minimumNanos = TimeUnit.SECONDS.toNanos(wallets) / properties.maxWalletsPerSecond();
+        long remainingNanos = minimumNanos - (System.nanoTime() - chunkStartNanos);
+        if (remainingNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long walletsPerSecond() {
+        long elapsedNanos = System.nanoTime() - startedNanos;
+        return startedAt == null || elapsedNanos <= 0 ? 0 : checked.get() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    private double progress() {
+        return total == 0 ? (running.get() ? 0 : 1) : Math.min(1.0, (double) checked.get() / total);
+    }
+
+    private ChunkResult reconcile(List<String> ids) {
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            List<LedgerBalance> balances = readOnlyTemplate.execute(status ->
+                    walletRepository.findLedgerBalances(ids.get(0), ids.get(ids.size() - 1)));
+            List<Mismatch> found = new ArrayList<>();
+            for (LedgerBalance balance : balances) {
+                if (balance.getSaldo().compareTo(balance.getLedger()) != 0) {
+                    found.add(new Mismatch(balance.getIdUsuario(), balance.getSaldo(), balance.getLedger(),
+                            balance.getSaldo().subtract(balance.getLedger())));
+                }
+            }
+            return new ChunkResult(balances.size(), found);
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    // Divide o bloco ao meio até o tamanho de uma consulta
+    private final class RangeTask extends RecursiveTask<ChunkResult> {
+
+        private final List<String> ids;
+
+        RangeTask(List<String> ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (ids.size() <= Math.max(1, properties.leafSize())) {
+                return reconcile(ids);
+            }
+            int middle = ids.size() / 2;
+            RangeTask left = new RangeTask(ids.subList(0, middle));
+            RangeTask right = new RangeTask(ids.subList(middle, ids.size()));
+            left.fork();
+            ChunkResult rightResult = right.compute();
+            ChunkResult leftResult = left.join();
+
+            List<Mismatch> merged = new ArrayList<>(leftResult.mismatches());
+            merged.addAll(rightResult.mismatches());
+            return new ChunkResult(leftResult.wallets() + rightResult.wallets(), merged);
+        }
+    }
+}
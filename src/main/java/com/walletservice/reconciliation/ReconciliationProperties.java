@@ -0,0 +1,20 @@
+package com.walletservice.reconciliation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Conciliação saldo x ledger (wallet.app.reconciliation.*).
+ * chunkSize = carteiras lidas por vez (limita a memória); leafSize = carteiras por consulta;
+ * parallelism = consultas simultâneas; maxWalletsPerSecond = teto de ritmo para não pesar no banco.
+ * O agendamento fica em wallet.app.reconciliation.cron ("-" desliga).
+ */
+@ConfigurationProperties(prefix = "wallet.app.reconciliation")
+public record ReconciliationProperties(
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("250") int leafSize,
+        @DefaultValue("2") int parallelism,
+        @DefaultValue("5000") int maxWalletsPerSecond,
+        @DefaultValue("100") int maxReportedMismatches
+) {
+}
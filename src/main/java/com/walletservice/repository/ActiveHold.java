@@ -0,0 +1,14 @@
+package com.walletservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Reserva ativa e seu prazo, lida no startup para reagendar a expiração.
+ */
+public interface ActiveHold {
+
+    UUID getId();
+
+    LocalDateTime getExpiraEm();
+}
@@ -0,0 +1,16 @@
+package com.walletservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Transferência agendada com execução dentro da janela, lida para a timing wheel.
+ */
+public interface DueTransfer {
+
+    UUID getId();
+
+    String getIdUsuarioOrigem();
+
+    LocalDateTime getProximaExecucao();
+}
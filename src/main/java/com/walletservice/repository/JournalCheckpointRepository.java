@@ -0,0 +1,7 @@
+package com.walletservice.repository;
+
+import com.walletservice.domain.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+}
@@ -0,0 +1,15 @@
+package com.walletservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Saldo gravado da carteira ao lado do saldo calculado pelo ledger, usado na conciliação.
+ */
+public interface LedgerBalance {
+
+    String getIdUsuario();
+
+    BigDecimal getSaldo();
+
+    BigDecimal getLedger();
+}
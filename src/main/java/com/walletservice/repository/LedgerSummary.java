@@ -0,0 +1,18 @@
+package com.walletservice.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado do ledger de uma carteira, usado pela projeção do saldo.
+ */
+public interface LedgerSummary {
+
+    long getEntries();
+
+    LocalDateTime getLastTransaction();
+
+    BigDecimal getCredits();
+
+    BigDecimal getDebits();
+}
@@ -0,0 +1,28 @@
+package com.walletservice.repository;
+
+import com.walletservice.domain.ScheduledTransfer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, UUID> {
+
+    // Primeira página da fila por data: agendamentos ativos com execução antes do horizonte
+    @Query("SELECT s.id AS id, s.idUsuarioOrigem AS idUsuarioOrigem, s.proximaExecucao AS proximaExecucao "
+            + "FROM ScheduledTransfer s WHERE s.status = '" + ScheduledTransfer.STATUS_ACTIVE + "' "
+            + "AND s.proximaExecucao < :horizonte ORDER BY s.proximaExecucao, s.id")
+    List<DueTransfer> findDue(@Param("horizonte") LocalDateTime horizonte, Pageable limit);
+
+    // Páginas seguintes, por chave (proximaExecucao, id)
+    @Query("SELECT s.id AS id, s.idUsuarioOrigem AS idUsuarioOrigem, s.proximaExecucao AS proximaExecucao "
+            + "FROM ScheduledTransfer s WHERE s.status = '" + ScheduledTransfer.STATUS_ACTIVE + "' "
+            + "AND s.proximaExecucao < :horizonte AND (s.proximaExecucao > :after "
+            + "OR (s.proximaExecucao = :after AND s.id > :afterId)) ORDER BY s.proximaExecucao, s.id")
+    List<DueTransfer> findDueAfter(@Param("horizonte") LocalDateTime horizonte, @Param("after") LocalDateTime after,
+                                   @Param("afterId") UUID afterId, Pageable limit);
+}
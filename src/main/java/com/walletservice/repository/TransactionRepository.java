@@ -1,7 +1,10 @@
 package com.walletservice.repository;
 
 import com.walletservice.domain.Transaction;
+import com.walletservice.utils.Messages;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -9,4 +12,16 @@ import java.util.UUID;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
     List<Transaction> findByIdUsuarioOrigemAndDataHoraLessThanEqual(String idUsuario, LocalDateTime dataHora);
+
+    // Total de lançamentos, último lançamento e créditos/débitos a partir de "desde" em uma única leitura
+    @Query("SELECT COUNT(t) AS entries, MAX(t.dataHora) AS lastTransaction, "
+            + "COALESCE(SUM(CASE WHEN t.dataHora >= :desde AND ("
+            + "(t.tipoTransacao = '" + Messages.TRANSACTION_TYPE_DEPOSIT + "' AND t.idUsuarioOrigem = :idUsuario) OR "
+            + "(t.tipoTransacao = '" + Messages.TRANSACTION_TYPE_TRANSFER + "' AND t.idUsuarioDestino = :idUsuario)) "
+            + "THEN t.valor ELSE 0 END), 0) AS credits, "
+            + "COALESCE(SUM(CASE WHEN t.dataHora >= :desde AND t.idUsuarioOrigem = :idUsuario AND "
+            + "t.tipoTransacao IN ('" + Messages.TRANSACTION_TYPE_WITHDRAW + "', '" + Messages.TRANSACTION_TYPE_TRANSFER + "') "
+            + "THEN t.valor ELSE 0 END), 0) AS debits "
+            + "FROM Transaction t WHERE t.idUsuarioOrigem = :idUsuario OR t.idUsuarioDestino = :idUsuario")
+    LedgerSummary summarizeLedger(@Param("idUsuario") String idUsuario, @Param("desde") LocalDateTime desde);
 }
@@ -0,0 +1,21 @@
+package com.walletservice.repository;
+
+import com.walletservice.domain.TransferOperation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TransferOperationRepository extends JpaRepository<TransferOperation, Long> {
+
+    Optional<TransferOperation> findByOperacaoId(UUID operacaoId);
+
+    // Próximo lote da fila de uma partição, na ordem de chegada
+    @Query("SELECT o FROM TransferOperation o WHERE o.particao = :particao AND o.status = '"
+            + TransferOperation.STATUS_PENDING + "' ORDER BY o.id")
+    List<TransferOperation> findPending(@Param("particao") int particao, Pageable limit);
+}
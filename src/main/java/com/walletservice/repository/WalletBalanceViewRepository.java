@@ -0,0 +1,7 @@
+package com.walletservice.repository;
+
+import com.walletservice.domain.WalletBalanceView;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WalletBalanceViewRepository extends JpaRepository<WalletBalanceView, String> {
+}
@@ -0,0 +1,17 @@
+package com.walletservice.repository;
+
+import com.walletservice.domain.WalletEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface WalletEventRepository extends JpaRepository<WalletEvent, UUID> {
+
+    @Query("SELECT COALESCE(MAX(e.sequencia), 0) FROM WalletEvent e WHERE e.idUsuario = :idUsuario")
+    long findLastSequencia(@Param("idUsuario") String idUsuario);
+
+    List<WalletEvent> findByIdUsuarioAndSequenciaGreaterThanOrderBySequencia(String idUsuario, long sequencia);
+}
@@ -0,0 +1,24 @@
+package com.walletservice.repository;
+
+import com.walletservice.domain.WalletHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface WalletHoldRepository extends JpaRepository<WalletHold, UUID> {
+
+    // Reservas ativas já vencidas de uma carteira (expiração na própria escrita)
+    @Query("SELECT h FROM WalletHold h WHERE h.idUsuario = :idUsuario AND h.status = '"
+            + WalletHold.STATUS_ACTIVE + "' AND h.expiraEm <= :agora")
+    List<WalletHold> findOverdue(@Param("idUsuario") String idUsuario, @Param("agora") LocalDateTime agora);
+
+    // Paginação por chave das reservas ativas, para reagendar as expirações no startup
+    @Query("SELECT h.id AS id, h.expiraEm AS expiraEm FROM WalletHold h WHERE h.status = '"
+            + WalletHold.STATUS_ACTIVE + "' AND h.id > :after ORDER BY h.id")
+    List<ActiveHold> findActiveAfter(@Param("after") UUID after, Pageable limit);
+}
@@ -1,10 +1,37 @@
 package com.walletservice.repository;
 
 import com.walletservice.domain.Wallet;
+import com.walletservice.utils.Messages;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     Wallet findByIdUsuario(String idUsuario);
+
+    List<Wallet> findByIdUsuarioIn(Collection<String> idsUsuario);
+
+    @Query("SELECT w.versao FROM Wallet w WHERE w.idUsuario = :idUsuario")
+    Optional<Long> findVersaoByIdUsuario(@Param("idUsuario") String idUsuario);
+
+    boolean existsByIdUsuario(String idUsuario);
+
+    // Paginação por chave (keyset): evita o custo crescente de OFFSET em varreduras completas
+    @Query("SELECT w.idUsuario FROM Wallet w WHERE w.idUsuario > :after ORDER BY w.idUsuario")
+    List<String> findIdUsuarioAfter(@Param("after") String after, Pageable limit);
+
+    // Saldo e soma do ledger das carteiras da faixa [de, ate], no mesmo comando (mesmo snapshot)
+    @Query("SELECT w.idUsuario AS idUsuario, w.saldo AS saldo, "
+            + "COALESCE((SELECT SUM(CASE WHEN t.tipoTransacao = '" + Messages.TRANSACTION_TYPE_DEPOSIT + "' "
+            + "THEN t.valor ELSE -t.valor END) FROM Transaction t WHERE t.idUsuarioOrigem = w.idUsuario), 0) "
+            + "+ COALESCE((SELECT SUM(t.valor) FROM Transaction t WHERE t.idUsuarioDestino = w.idUsuario "
+            + "AND t.tipoTransacao = '" + Messages.TRANSACTION_TYPE_TRANSFER + "'), 0) AS ledger "
+            + "FROM Wallet w WHERE w.idUsuario >= :de AND w.idUsuario <= :ate")
+    List<LedgerBalance> findLedgerBalances(@Param("de") String de, @Param("ate") String ate);
 }
@@ -0,0 +1,7 @@
+package com.walletservice.repository;
+
+import com.walletservice.domain.WalletSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WalletSnapshotRepository extends JpaRepository<WalletSnapshot, String> {
+}
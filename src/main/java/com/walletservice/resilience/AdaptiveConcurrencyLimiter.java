@@ -0,0 +1,136 @@
+package com.walletservice.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de concorrência adaptativo no estilo TCP Vegas.
+ * Compara a latência de cada requisição com a menor latência observada (sem fila):
+ * se a fila estimada é pequena o limite sobe, se cresce o limite desce.
+ * Requisições acima do limite são rejeitadas na hora, sem esperar em fila.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Classes de prioridade. Cada uma só pode ocupar uma fração do limite,
+     * então sob sobrecarga as de menor fração são descartadas primeiro.
+     */
+    public enum Priority {
+        BALANCE, WRITE, REPORTING
+    }
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeInterval;
+    private final double[] shares = new double[Priority.values().length];
+    private final Counter[] rejected = new Counter[Priority.values().length];
+
+    private volatile int limit;
+    // Estado do algoritmo, protegido pelo lock do próprio limiter
+    private double estimatedLimit;
+    private long noLoadRttNanos = Long.MAX_VALUE;
+    private int samplesSinceProbe;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry registry,
+                                      @Value("${wallet.app.concurrency-limit.initial-limit:20}") int initialLimit,
+                                      @Value("${wallet.app.concurrency-limit.min-limit:4}") int minLimit,
+                                      @Value("${wallet.app.concurrency-limit.max-limit:200}") int maxLimit,
+                                      @Value("${wallet.app.concurrency-limit.probe-interval:1000}") int probeInterval,
+                                      @Value("${wallet.app.concurrency-limit.write-share:0.9}") double writeShare,
+                                      @Value("${wallet.app.concurrency-limit.reporting-share:0.5}") double reportingShare) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        shares[Priority.BALANCE.ordinal()] = 1.0;
+        shares[Priority.WRITE.ordinal()] = writeShare;
+        shares[Priority.REPORTING.ordinal()] = reportingShare;
+
+        Gauge.builder("wallet.concurrency.limit", () -> limit)
+                .description("Limite atual de requisições simultâneas")
+                .register(registry);
+        Gauge.builder("wallet.concurrency.inflight", inFlight::get)
+                .description("Requisições em andamento")
+                .register(registry);
+        for (Priority priority : Priority.values()) {
+            rejected[priority.ordinal()] = Counter.builder("wallet.concurrency.rejected")
+                    .description("Requisições descartadas pelo limite de concorrência")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Tenta reservar uma vaga para a requisição.
+     *
+     * @return false se a requisição deve ser descartada
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * shares[priority.ordinal()]));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected[priority.ordinal()].increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga e alimenta o algoritmo com a latência observada.
+     * Falhas não entram na amostra: um erro rápido não indica capacidade sobrando.
+     */
+    public void release(long rttNanos, boolean success) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        if (success) {
+            onSample(rttNanos, inFlightAtRelease);
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        // Periodicamente esquece o mínimo para acompanhar mudanças de baseline (ex.: banco mais lento)
+        if (++samplesSinceProbe >= probeInterval) {
+            samplesSinceProbe = 0;
+            noLoadRttNanos = rttNanos;
+        }
+        if (rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+        // Com pouca carga a latência não diz nada sobre o limite
+        if (inFlightAtRelease * 2 < estimatedLimit) {
+            return;
+        }
+
+        double queueSize = estimatedLimit * (1 - (double) noLoadRttNanos / rttNanos);
+        double log = Math.max(1, Math.log10(estimatedLimit));
+        double alpha = 3 * log;
+        double beta = 6 * log;
+        if (queueSize <= alpha) {
+            estimatedLimit += log;
+        } else if (queueSize >= beta) {
+            estimatedLimit -= log;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,62 @@
+package com.walletservice.resilience;
+
+import com.walletservice.exception.ServiceOverloadedException;
+import com.walletservice.resilience.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Aplica o {@link AdaptiveConcurrencyLimiter} às requisições do WalletController.
+ * Consultas de saldo (inclusive em lote e o disponível) têm prioridade sobre escritas, e escritas
+ * sobre relatórios (saldo histórico) e demais consultas.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Value("${wallet.app.concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled) {
+            return true;
+        }
+        if (!limiter.tryAcquire(priorityOf(request))) {
+            throw new ServiceOverloadedException();
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            boolean success = ex == null && response.getStatus() < 500;
+            limiter.release(System.nanoTime() - (Long) start, success);
+        }
+    }
+
+    // Classificação pela rota, não só pelo método: a consulta de saldos em lote é um POST
+    static Priority priorityOf(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (!"GET".equals(request.getMethod())) {
+            return "POST".equals(request.getMethod()) && uri.endsWith("/api/wallets/balances")
+                    ? Priority.BALANCE : Priority.WRITE;
+        }
+        return uri.endsWith("/balance") || uri.endsWith("/summary") || uri.endsWith("/available")
+                ? Priority.BALANCE : Priority.REPORTING;
+    }
+}
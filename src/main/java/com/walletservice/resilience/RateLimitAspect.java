@@ -0,0 +1,80 @@
+package com.walletservice.resilience;
+
+import com.walletservice.dto.CreateWalletRequest;
+import com.walletservice.dto.DepositRequest;
+import com.walletservice.dto.HoldRequest;
+import com.walletservice.dto.ScheduledTransferRequest;
+import com.walletservice.dto.TransferRequest;
+import com.walletservice.dto.WithdrawalRequest;
+import com.walletservice.exception.RateLimitExceededException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Verifica os limites de {@link RateLimited} antes de executar o endpoint:
+ * um bucket para o usuário autenticado e outro para o idUsuario alvo da operação.
+ */
+@Aspect
+@Component
+public class RateLimitAspect {
+
+    private final WalletRateLimiter rateLimiter;
+
+    public RateLimitAspect(WalletRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Around("@annotation(com.walletservice.resilience.RateLimited)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Method method = signature.getMethod();
+        String endpoint = method.getAnnotation(RateLimited.class).value();
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            check(endpoint, "principal:" + authentication.getName());
+        }
+
+        String idUsuario = idUsuarioOf(signature.getParameterNames(), joinPoint.getArgs());
+        if (idUsuario != null) {
+            check(endpoint, "user:" + idUsuario);
+        }
+
+        return joinPoint.proceed();
+    }
+
+    private void check(String endpoint, String key) {
+        long waitNanos = rateLimiter.tryAcquire(endpoint, key);
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(waitNanos);
+        }
+    }
+
+    // Carteira alvo: o corpo da requisição ou o path variable idUsuario
+    private static String idUsuarioOf(String[] parameterNames, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            boolean idUsuarioParameter = parameterNames != null && "idUsuario".equals(parameterNames[i]);
+            String idUsuario = switch (args[i]) {
+                case CreateWalletRequest request -> request.idUsuario();
+                case DepositRequest request -> request.idUsuario();
+                case WithdrawalRequest request -> request.idUsuario();
+                case TransferRequest request -> request.idUsuarioOrigem();
+                case HoldRequest request -> request.idUsuario();
+                case ScheduledTransferRequest request -> request.idUsuarioOrigem();
+                case String value when idUsuarioParameter -> value;
+                case null, default -> null;
+            };
+            if (idUsuario != null) {
+                return idUsuario;
+            }
+        }
+        return null;
+    }
+}
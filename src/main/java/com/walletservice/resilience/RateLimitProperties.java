@@ -0,0 +1,27 @@
+package com.walletservice.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Limites por endpoint (wallet.app.rate-limit.endpoints.&lt;nome&gt;.*).
+ * replenishRate = tokens por segundo; burstCapacity = tamanho máximo da rajada.
+ * Nomes com ponto, como os limites por carteira do stream de operações (operations.deposit), usam
+ * colchetes: wallet.app.rate-limit.endpoints[operations.deposit].replenish-rate.
+ */
+@ConfigurationProperties(prefix = "wallet.app.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("false") boolean redisEnabled,
+        @DefaultValue("10m") Duration idleTimeout,
+        Map<String, Limit> endpoints
+) {
+    public RateLimitProperties {
+        endpoints = endpoints != null ? endpoints : Map.of();
+    }
+
+    public record Limit(double replenishRate, long burstCapacity) {}
+}
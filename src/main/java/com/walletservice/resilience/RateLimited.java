@@ -0,0 +1,16 @@
+package com.walletservice.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Aplica os limites de taxa configurados em {@code wallet.app.rate-limit.endpoints.<value>}
+ * ao usuário autenticado e ao {@code idUsuario} da requisição.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    String value();
+}
@@ -0,0 +1,52 @@
+package com.walletservice.resilience;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesmo algoritmo do {@link TokenBucket} (GCRA), executado atomicamente no Redis por script Lua
+ * para que a cota seja compartilhada por todas as instâncias do serviço.
+ */
+public class RedisRateLimiter {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    // Retorna 0 se o token foi concedido ou a espera em microssegundos
+    private static final RedisScript<Long> GCRA_SCRIPT = new DefaultRedisScript<>("""
+            local interval = tonumber(ARGV[1])
+            local tolerance = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]))
+            if not tat or tat < now then
+              tat = now
+            end
+            local new_tat = tat + interval
+            local wait = new_tat - now - tolerance
+            if wait > 0 then
+              return wait
+            end
+            redis.call('SET', KEYS[1], new_tat, 'PX', math.ceil((new_tat - now) / 1000) + 1000)
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @return 0 se o token foi concedido, ou quantos nanossegundos esperar
+     */
+    public long tryAcquire(String key, RateLimitProperties.Limit limit) {
+        long intervalMicros = Math.max(1L, (long) (1_000_000L / limit.replenishRate()));
+        Long waitMicros = redisTemplate.execute(GCRA_SCRIPT, List.of(KEY_PREFIX + key),
+                Long.toString(intervalMicros), Long.toString(intervalMicros * limit.burstCapacity()));
+        return waitMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+    }
+}
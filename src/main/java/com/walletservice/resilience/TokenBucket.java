@@ -0,0 +1,52 @@
+package com.walletservice.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem locks, implementado como GCRA (generic cell rate algorithm).
+ * Todo o estado é um único instante teórico de chegada (TAT), atualizado por CAS,
+ * então verificar um token não aloca nem bloqueia.
+ */
+public class TokenBucket {
+
+    // Intervalo entre tokens e tolerância de rajada, em nanossegundos
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double replenishRatePerSecond, long burstCapacity) {
+        if (replenishRatePerSecond <= 0 || burstCapacity <= 0) {
+            throw new IllegalArgumentException("Rate and burst capacity must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / replenishRatePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burstCapacity;
+    }
+
+    /**
+     * Tenta consumir um token.
+     *
+     * @return 0 se o token foi concedido, ou quantos nanossegundos esperar até o próximo token
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat == Long.MIN_VALUE || tat < nowNanos ? nowNanos : tat;
+            long newTat = base + emissionIntervalNanos;
+            long wait = newTat - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Um bucket ocioso está cheio há pelo menos {@code idleNanos} e pode ser descartado sem perda.
+     */
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        long tat = theoreticalArrival.get();
+        return tat == Long.MIN_VALUE || nowNanos - tat > idleNanos;
+    }
+}
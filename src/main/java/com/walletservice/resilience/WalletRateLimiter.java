@@ -0,0 +1,75 @@
+package com.walletservice.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limites de taxa por endpoint e chave (usuário autenticado ou idUsuario).
+ * Os buckets locais ficam num ConcurrentHashMap e são removidos quando ficam ociosos.
+ * Com {@code wallet.app.rate-limit.redis-enabled=true} a cota passa a ser global no Redis;
+ * se o Redis falhar, o limite local continua valendo.
+ */
+@Component
+public class WalletRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletRateLimiter.class);
+
+    private final RateLimitProperties properties;
+    private final RedisRateLimiter redisRateLimiter;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public WalletRateLimiter(RateLimitProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this.properties = properties;
+        this.redisRateLimiter = properties.redisEnabled() && redisTemplate.getIfAvailable() != null
+                ? new RedisRateLimiter(redisTemplate.getObject())
+                : null;
+    }
+
+    /**
+     * @return 0 se a requisição pode seguir, ou quantos nanossegundos esperar
+     */
+    public long tryAcquire(String endpoint, String key) {
+        if (!properties.enabled()) {
+            return 0;
+        }
+        RateLimitProperties.Limit limit = properties.endpoints().get(endpoint);
+        if (limit == null) {
+            return 0;
+        }
+
+        String bucketKey = endpoint + ':' + key;
+        if (redisRateLimiter != null) {
+            try {
+                return redisRateLimiter.tryAcquire(bucketKey, limit);
+            } catch (RuntimeException ex) {
+                logger.warn("Redis rate limiter unavailable, falling back to local buckets: {}", ex.getMessage());
+            }
+        }
+
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(bucketKey,
+                    k -> new TokenBucket(limit.replenishRate(), limit.burstCapacity()));
+        }
+        return bucket.tryAcquire(System.nanoTime());
+    }
+
+    // Buckets cheios há mais que idle-timeout não guardam informação útil
+    @Scheduled(fixedDelayString = "${wallet.app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idleNanos = properties.idleTimeout().toNanos();
+        buckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now, idleNanos));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,51 @@
+package com.walletservice.rollup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+
+/**
+ * Endpoint /actuator/rollups: totais diários por tipo de lançamento a partir de transaction_daily_rollup.
+ * GET ?from=&to= soma todas as carteiras; GET /{idUsuario}?from=&to= uma carteira.
+ * O POST {"from", "to"} reconstrói o rollup desses dias a partir do ledger.
+ */
+@Component
+@Endpoint(id = "rollups")
+public class DailyRollupEndpoint {
+
+    private final DailyRollupReports reports;
+
+    public DailyRollupEndpoint(DailyRollupReports reports) {
+        this.reports = reports;
+    }
+
+    @ReadOperation
+    public DailyRollupReports.Report daily(String from, String to) {
+        return invoke(() -> reports.daily(LocalDate.parse(from), LocalDate.parse(to), null));
+    }
+
+    @ReadOperation
+    public DailyRollupReports.Report wallet(@Selector String idUsuario, String from, String to) {
+        return invoke(() -> reports.daily(LocalDate.parse(from), LocalDate.parse(to), idUsuario));
+    }
+
+    @WriteOperation
+    public DailyRollupReports.RebuildResult rebuild(String from, String to) {
+        return invoke(() -> reports.rebuild(LocalDate.parse(from), LocalDate.parse(to)));
+    }
+
+    // Data malformada vira IllegalArgumentException, respondida como 400 pelo GlobalExceptionHandler
+    private static <T> T invoke(Supplier<T> operation) {
+        try {
+            return operation.get();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.walletservice.rollup;
+
+import com.walletservice.datasource.WorkloadContext;
+import com.walletservice.utils.Messages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas por intervalo de datas sobre transaction_daily_rollup e reconstrução do rollup a partir
+ * do ledger, para dias anteriores à ativação do rollup ou após uma correção manual no ledger.
+ * As consultas leem uma linha por carteira, dia e tipo em vez de varrer transactions.
+ */
+@Component
+public class DailyRollupReports {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyRollupReports.class);
+
+    static final String WORKLOAD = "walletReporting";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final RollupProperties properties;
+
+    public record DayTotal(LocalDate dia, String tipo, long quantidade, BigDecimal valorTotal) {}
+
+    public record Totals(long quantidade, BigDecimal valorTotal) {}
+
+    public record Report(LocalDate from, LocalDate to, String idUsuario, List<DayTotal> dias,
+                         Map<String, Totals> totais, long durationMillis) {}
+
+    public record RebuildResult(LocalDate from, LocalDate to, int days, long rows, long durationMillis) {}
+
+    public DailyRollupReports(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              RollupProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * Totais por dia e tipo no intervalo [from, to]; de todas as carteiras quando idUsuario é null.
+     */
+    public Report daily(LocalDate from, LocalDate to, String idUsuario) {
+        validateRange(from, to);
+        long start = System.nanoTime();
+        String sql = "SELECT dia, tipo, SUM(quantidade), SUM(valor_total) FROM transaction_daily_rollup "
+                + "WHERE dia >= ? AND dia <= ?" + (idUsuario != null ? " AND id_usuario = ?" : "")
+                + " GROUP BY dia, tipo ORDER BY dia, tipo";
+        Object[] args = idUsuario != null
+                ? new Object[]{Date.valueOf(from), Date.valueOf(to), idUsuario}
+                : new Object[]{Date.valueOf(from), Date.valueOf(to)};
+
+        String previous = WorkloadContext.enter(WORKLOAD);
+        List<DayTotal> dias;
+        try {
+            dias = readOnlyTemplate.execute(status -> jdbcTemplate.query(sql,
+                    (rs, rowNum) -> new DayTotal(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getLong(3),
+                            rs.getBigDecimal(4)), args));
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+
+        Map<String, Totals> totais = new LinkedHashMap<>();
+        for (DayTotal day : dias) {
+            totais.merge(day.tipo(), new Totals(day.quantidade(), day.valorTotal()),
+                    (a, b) -> new Totals(a.quantidade() + b.quantidade(), a.valorTotal().add(b.valorTotal())));
+        }
+        return new Report(from, to, idUsuario, dias, totais, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Regrava o rollup dos dias [from, to] a partir de transactions, um dia por transação.
+     * O dia corrente ainda recebe lançamentos e não pode ser reconstruído.
+     */
+    public RebuildResult rebuild(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        if (!to.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Only days before today can be rebuilt");
+        }
+        long start = System.nanoTime();
+        long rows = 0;
+        int days = 0;
+        for (LocalDate dia = from; !dia.isAfter(to); dia = dia.plusDays(1)) {
+            LocalDate current = dia;
+            rows += writeTemplate.execute(status -> rebuildDay(current));
+            days++;
+        }
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Rebuilt transaction rollups from {} to {}: {} rows in {} ms", from, to, rows, durationMillis);
+        return new RebuildResult(from, to, days, rows, durationMillis);
+    }
+
+    private long rebuildDay(LocalDate dia) {
+        Timestamp dayStart = Timestamp.valueOf(dia.atStartOfDay());
+        Timestamp dayEnd = Timestamp.valueOf(dia.plusDays(1).atStartOfDay());
+        Date data = Date.valueOf(dia);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query("SELECT id_usuario_origem, tipo_transacao, COUNT(*), SUM(valor) FROM transactions "
+                        + "WHERE data_hora >= ? AND data_hora < ? GROUP BY id_usuario_origem, tipo_transacao",
+                rs -> {
+                    rows.add(row(rs.getString(1), data, DailyRollupWriter.originType(rs.getString(2)),
+                            rs.getLong(3), rs.getBigDecimal(4), now));
+                }, dayStart, dayEnd);
+        jdbcTemplate.query("SELECT id_usuario_destino, COUNT(*), SUM(valor) FROM transactions "
+                        + "WHERE tipo_transacao = ? AND data_hora >= ? AND data_hora < ? GROUP BY id_usuario_destino",
+                rs -> {
+                    rows.add(row(rs.getString(1), data, DailyRollupWriter.TRANSFER_IN, rs.getLong(2),
+                            rs.getBigDecimal(3), now));
+                }, Messages.TRANSACTION_TYPE_TRANSFER, dayStart, dayEnd);
+
+        jdbcTemplate.update("DELETE FROM transaction_daily_rollup WHERE dia = ?", data);
+        jdbcTemplate.batchUpdate("INSERT INTO transaction_daily_rollup (id, id_usuario, dia, tipo, quantidade, "
+                + "valor_total, atualizado_em) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        return rows.size();
+    }
+
+    private static Object[] row(String idUsuario, Date dia, String tipo, long quantidade, BigDecimal valorTotal,
+                                Timestamp now) {
+        return new Object[]{new DailyRollupWriter.Key(idUsuario, dia.toLocalDate(), tipo).id(), idUsuario, dia, tipo,
+                quantidade, valorTotal, now};
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > properties.maxRangeDays()) {
+            throw new IllegalArgumentException("Range exceeds " + properties.maxRangeDays() + " days");
+        }
+    }
+}
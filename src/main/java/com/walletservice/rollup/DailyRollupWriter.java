@@ -0,0 +1,175 @@
+package com.walletservice.rollup;
+
+import com.walletservice.projection.LedgerEvent;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantém transaction_daily_rollup junto com o ledger.
+ *
+ * Cada LedgerEvent publicado dentro da transação de escrita soma no acumulado da própria transação;
+ * antes do commit, os totais acumulados são gravados num único batch de upserts, na mesma conexão.
+ * Um lote do journal com centenas de lançamentos vira poucas linhas, e um rollback desfaz o ledger e o
+ * rollup juntos. As linhas são gravadas em ordem de id para que duas transações nunca esperem uma
+ * pela outra em ordens diferentes.
+ */
+@Component
+public class DailyRollupWriter {
+
+    public static final String DEPOSIT = Messages.TRANSACTION_TYPE_DEPOSIT;
+    public static final String WITHDRAW = Messages.TRANSACTION_TYPE_WITHDRAW;
+    public static final String TRANSFER_OUT = "TRANSFERENCIA_ENVIADA";
+    public static final String TRANSFER_IN = "TRANSFERENCIA_RECEBIDA";
+
+    // Soma atômica na própria linha: dois commits simultâneos do mesmo dia nunca perdem um ao outro
+    private static final String POSTGRES_UPSERT = "INSERT INTO transaction_daily_rollup "
+            + "(id, id_usuario, dia, tipo, quantidade, valor_total, atualizado_em) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (id) DO UPDATE SET quantidade = transaction_daily_rollup.quantidade + EXCLUDED.quantidade, "
+            + "valor_total = transaction_daily_rollup.valor_total + EXCLUDED.valor_total, "
+            + "atualizado_em = EXCLUDED.atualizado_em";
+
+    // H2 (testes) não tem ON CONFLICT ... DO UPDATE
+    private static final String MERGE_UPSERT = "MERGE INTO transaction_daily_rollup r USING (SELECT "
+            + "CAST(? AS VARCHAR(255)) AS id, CAST(? AS VARCHAR(255)) AS id_usuario, CAST(? AS DATE) AS dia, "
+            + "CAST(? AS VARCHAR(255)) AS tipo, CAST(? AS BIGINT) AS quantidade, "
+            + "CAST(? AS NUMERIC(38,2)) AS valor_total, CAST(? AS TIMESTAMP) AS atualizado_em) s ON r.id = s.id "
+            + "WHEN MATCHED THEN UPDATE SET quantidade = r.quantidade + s.quantidade, "
+            + "valor_total = r.valor_total + s.valor_total, atualizado_em = s.atualizado_em "
+            + "WHEN NOT MATCHED THEN INSERT (id, id_usuario, dia, tipo, quantidade, valor_total, atualizado_em) "
+            + "VALUES (s.id, s.id_usuario, s.dia, s.tipo, s.quantidade, s.valor_total, s.atualizado_em)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupProperties properties;
+    private final Timer flushTimer;
+    private volatile String upsertSql;
+
+    record Key(String idUsuario, LocalDate dia, String tipo) {
+        String id() {
+            return idUsuario + '#' + dia + '#' + tipo;
+        }
+    }
+
+    static final class Delta {
+        long quantidade;
+        BigDecimal valorTotal = BigDecimal.ZERO;
+
+        void add(BigDecimal valor) {
+            quantidade++;
+            valorTotal = valorTotal.add(valor);
+        }
+    }
+
+    public DailyRollupWriter(DataSource dataSource, RollupProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.properties = properties;
+        this.flushTimer = Timer.builder("wallet.rollups.flush")
+                .description("Rollup upserts written before the ledger commit")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onLedgerEvent(LedgerEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Lançamento fora de transação: grava na hora
+            Map<String, Object[]> single = new TreeMap<>();
+            accumulate(new HashMap<>(), event).forEach((key, delta) -> single.put(key.id(), row(key, delta)));
+            write(single);
+            return;
+        }
+        PendingRollup pending = (PendingRollup) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRollup();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        accumulate(pending.deltas, event);
+    }
+
+    /**
+     * Linhas (tipo de rollup e carteira) afetadas por um lançamento do ledger.
+     */
+    static Map<Key, Delta> accumulate(Map<Key, Delta> deltas, LedgerEvent event) {
+        LocalDate dia = event.dataHora().toLocalDate();
+        add(deltas, event.idUsuarioOrigem(), dia, originType(event.tipoTransacao()), event.valor());
+        if (Messages.TRANSACTION_TYPE_TRANSFER.equals(event.tipoTransacao())) {
+            add(deltas, event.idUsuarioDestino(), dia, TRANSFER_IN, event.valor());
+        }
+        return deltas;
+    }
+
+    // Tipo do rollup para a carteira de origem; o destino de uma transferência é sempre TRANSFER_IN
+    static String originType(String tipoTransacao) {
+        return Messages.TRANSACTION_TYPE_TRANSFER.equals(tipoTransacao) ? TRANSFER_OUT : tipoTransacao;
+    }
+
+    private static void add(Map<Key, Delta> deltas, String idUsuario, LocalDate dia, String tipo, BigDecimal valor) {
+        deltas.computeIfAbsent(new Key(idUsuario, dia, tipo), k -> new Delta()).add(valor);
+    }
+
+    private static Object[] row(Key key, Delta delta) {
+        return new Object[]{key.id(), key.idUsuario(), Date.valueOf(key.dia()), key.tipo(), delta.quantidade,
+                delta.valorTotal, Timestamp.valueOf(LocalDateTime.now())};
+    }
+
+    private void write(Map<String, Object[]> rowsById) {
+        if (rowsById.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(rowsById.values());
+        flushTimer.record(() -> jdbcTemplate.batchUpdate(upsertSql(), rows));
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            // Na conexão da transação corrente: não pega uma segunda conexão do pool no meio do commit
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            sql = "PostgreSQL".equalsIgnoreCase(product) ? POSTGRES_UPSERT : MERGE_UPSERT;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+    // Acumulado da transação corrente; gravado no beforeCommit, descartado no fim da transação
+    private final class PendingRollup implements TransactionSynchronization {
+        private final Map<Key, Delta> deltas = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // TreeMap por id: ordem estável de bloqueio das linhas entre transações
+            Map<String, Object[]> rows = new TreeMap<>();
+            deltas.forEach((key, delta) -> rows.put(key.id(), row(key, delta)));
+            deltas.clear();
+            write(rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DailyRollupWriter.this);
+        }
+    }
+}
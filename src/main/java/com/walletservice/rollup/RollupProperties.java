@@ -0,0 +1,15 @@
+package com.walletservice.rollup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Totais diários de lançamentos (wallet.app.rollups.*).
+ * maxRangeDays = maior intervalo aceito nas consultas e na reconstrução pelo /actuator/rollups.
+ */
+@ConfigurationProperties(prefix = "wallet.app.rollups")
+public record RollupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("366") int maxRangeDays
+) {
+}
@@ -0,0 +1,26 @@
+package com.walletservice.schedule;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Transferências agendadas (wallet.app.scheduled-transfers.*).
+ * window = intervalo entre leituras da fila no banco; cada leitura carrega na timing wheel as execuções
+ * das próximas duas janelas. tick = resolução da roda; partitions = threads de execução (hash da carteira
+ * de origem); batchSize = execuções lidas por consulta; maxCatchUp = execuções atrasadas recuperadas por
+ * agendamento depois de uma parada (as mais antigas além disso são puladas); maxPending = teto de
+ * execuções na roda.
+ */
+@ConfigurationProperties(prefix = "wallet.app.scheduled-transfers")
+public record ScheduledTransferProperties(
+        @DefaultValue("1s") Duration tick,
+        @DefaultValue("1m") Duration window,
+        @DefaultValue("4") int partitions,
+        @DefaultValue("200") int batchSize,
+        @DefaultValue("31") int maxCatchUp,
+        @DefaultValue("5000") int loadPageSize,
+        @DefaultValue("100000") int maxPending
+) {
+}
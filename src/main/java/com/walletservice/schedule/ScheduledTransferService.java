@@ -0,0 +1,465 @@
+package com.walletservice.schedule;
+
+import com.walletservice.datasource.WorkloadContext;
+import com.walletservice.domain.ScheduledTransfer;
+import com.walletservice.dto.ScheduledTransferRequest;
+import com.walletservice.dto.ScheduledTransferResponse;
+import com.walletservice.dto.TransferRequest;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.ScheduledTransferNotActiveException;
+import com.walletservice.exception.ScheduledTransferNotFoundException;
+import com.walletservice.exception.VelocityLimitExceededException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.repository.DueTransfer;
+import com.walletservice.repository.ScheduledTransferRepository;
+import com.walletservice.repository.WalletRepository;
+import com.walletservice.service.WalletService;
+import com.walletservice.timer.HierarchicalTimingWheel;
+import com.walletservice.timer.HierarchicalTimingWheel.Timeout;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transferências agendadas e recorrentes (diária, semanal, mensal), executadas com WalletService.transfer.
+ *
+ * A fila fica em scheduled_transfers, ordenada pelo índice (status, proxima_execucao, id). A cada
+ * janela, as execuções das próximas duas janelas são lidas em páginas por chave e agendadas numa
+ * {@link HierarchicalTimingWheel} em memória; o tick da roda não toca no banco e a tabela nunca é
+ * varrida inteira, só o trecho que vence em breve. Execuções vencidas são agrupadas por partição
+ * (hash da carteira de origem, uma thread cada, como nas transferências assíncronas) e lidas em lotes
+ * de batchSize com uma consulta por lote.
+ *
+ * Cada execução grava o avanço do agendamento (com checagem de versão) antes da transferência e na
+ * mesma transação: a linha fica bloqueada até o commit, então outra instância com a mesma execução na
+ * roda falha na versão sem transferir, e um rollback desfaz as duas coisas. Erros de negócio registram
+ * a falha e passam para a próxima execução; erros de infraestrutura deixam o agendamento na fila do
+ * banco, e a próxima leitura o recoloca na roda.
+ *
+ * Depois de uma parada, a primeira leitura traz todas as execuções atrasadas e cada agendamento
+ * recupera até maxCatchUp delas, uma transferência por execução; as mais antigas além disso são puladas.
+ * No modo journal a transferência é confirmada no journal local, fora desta transação (mesma ressalva
+ * do AsyncTransferService).
+ */
+@Service
+public class ScheduledTransferService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTransferService.class);
+
+    static final String WORKLOAD = "walletWrite";
+
+    // Execução agendada na roda; execucao é a proxima_execucao lida do banco
+    record Due(UUID id, String idUsuarioOrigem, LocalDateTime execucao) {
+    }
+
+    private final ScheduledTransferRepository repository;
+    private final WalletRepository walletRepository;
+    private final WalletService walletService;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledTransferProperties properties;
+    private final HierarchicalTimingWheel<Due> wheel;
+    // Na roda ou em execução nesta instância: a leitura da fila não agenda de novo
+    private final Map<UUID, Timeout<Due>> timeouts = new ConcurrentHashMap<>();
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("scheduled-transfers-ticker").daemon().factory());
+    private final ExecutorService[] partitions;
+
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter skipped;
+    private final Counter retries;
+    private final Timer delay;
+
+    public ScheduledTransferService(ScheduledTransferRepository repository, WalletRepository walletRepository,
+                                    WalletService walletService, PlatformTransactionManager transactionManager,
+                                    ScheduledTransferProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.walletRepository = walletRepository;
+        this.walletService = walletService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.wheel = new HierarchicalTimingWheel<>(properties.tick().toMillis(), 4, System.currentTimeMillis());
+
+        int count = Math.max(1, properties.partitions());
+        this.partitions = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            this.partitions[i] = Executors.newSingleThreadExecutor(
+                    Thread.ofPlatform().name("scheduled-transfers-" + i).daemon().factory());
+        }
+
+        this.completed = outcome(meterRegistry, "completed");
+        this.failed = outcome(meterRegistry, "failed");
+        this.skipped = outcome(meterRegistry, "skipped");
+        this.retries = Counter.builder("wallet.scheduled.transfers.retries")
+                .description("Execuções adiadas por erro de infraestrutura")
+                .register(meterRegistry);
+        // Atraso entre a data agendada e a execução; cresce na recuperação depois de uma parada
+        this.delay = Timer.builder("wallet.scheduled.transfers.delay")
+                .description("Atraso entre a data agendada e a execução da transferência")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("wallet.scheduled.transfers.pending", wheel, HierarchicalTimingWheel::size)
+                .description("Execuções da próxima janela agendadas nesta instância")
+                .register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("wallet.scheduled.transfers")
+                .description("Execuções de transferências agendadas, por resultado")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Grava o agendamento; se a primeira execução cai na janela carregada, entra direto na roda.
+     */
+    public ScheduledTransferResponse create(ScheduledTransferRequest request) {
+        // Não permite transferir para si mesmo
+        if (Objects.equals(request.idUsuarioOrigem(), request.idUsuarioDestino())) {
+            throw new IllegalArgumentException("Não é possível transferir para si mesmo");
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        // Precisão de segundos: a data volta igual do banco e as execuções seguintes herdam a mesma
+        LocalDateTime inicio = request.dataExecucao().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime fim = request.dataFim() != null ? request.dataFim().truncatedTo(ChronoUnit.SECONDS) : null;
+        // Tolerância de um minuto para "agora" enviado pelo cliente e diferenças de relógio
+        if (inicio.isBefore(agora.minusMinutes(1))) {
+            throw new IllegalArgumentException(Messages.SCHEDULED_TRANSFER_IN_PAST);
+        }
+        if (fim != null && fim.isBefore(inicio)) {
+            throw new IllegalArgumentException(Messages.SCHEDULED_TRANSFER_END_BEFORE_START);
+        }
+        String recorrencia = request.recorrencia() != null
+                ? request.recorrencia().toUpperCase(Locale.ROOT) : ScheduledTransfer.ONCE;
+        if (!ScheduledTransfer.isValidRecurrence(recorrencia)) {
+            throw new IllegalArgumentException("Recorrência inválida: " + request.recorrencia());
+        }
+
+        String previous = WorkloadContext.enter(WORKLOAD);
+        ScheduledTransfer schedule;
+        try {
+            for (String idUsuario : List.of(request.idUsuarioOrigem(), request.idUsuarioDestino())) {
+                if (walletRepository.findByIdUsuario(idUsuario) == null) {
+                    throw new WalletNotFoundException(String.format(Messages.WALLET_NOT_FOUND, idUsuario));
+                }
+            }
+            schedule = repository.save(new ScheduledTransfer(request.idUsuarioOrigem(), request.idUsuarioDestino(),
+                    request.valor(), recorrencia, inicio, fim, agora));
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+        scheduleIfWithinHorizon(schedule, System.currentTimeMillis());
+        return ScheduledTransferResponse.from(schedule);
+    }
+
+    public ScheduledTransferResponse get(UUID agendamentoId) {
+        return ScheduledTransferResponse.from(find(agendamentoId));
+    }
+
+    /**
+     * Cancela as execuções futuras. Outras instâncias descartam o timer ao ler o status antes de executar.
+     */
+    public ScheduledTransferResponse cancel(UUID agendamentoId) {
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            ScheduledTransfer cancelled = transactionTemplate.execute(status -> {
+                ScheduledTransfer schedule = find(agendamentoId);
+                if (!schedule.isActive()) {
+                    throw new ScheduledTransferNotActiveException(String.format(
+                            Messages.SCHEDULED_TRANSFER_NOT_ACTIVE, agendamentoId, schedule.getStatus()));
+                }
+                schedule.cancel();
+                return repository.save(schedule);
+            });
+            unschedule(agendamentoId);
+            return ScheduledTransferResponse.from(cancelled);
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    private ScheduledTransfer find(UUID agendamentoId) {
+        return repository.findById(agendamentoId).orElseThrow(() -> new ScheduledTransferNotFoundException(
+                String.format(Messages.SCHEDULED_TRANSFER_NOT_FOUND, agendamentoId)));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long tick = properties.tick().toMillis();
+        ticker.scheduleWithFixedDelay(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+        // A primeira leitura, logo no startup, traz também as execuções perdidas durante a parada
+        ticker.scheduleWithFixedDelay(this::refill, 0, properties.window().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void refill() {
+        refill(System.currentTimeMillis());
+    }
+
+    /**
+     * Carrega na roda os agendamentos ativos com execução antes de agora + 2 janelas, em páginas por
+     * chave (proxima_execucao, id). Para ao atingir maxPending; o restante vem nas próximas leituras,
+     * das execuções mais antigas para as mais novas. Retorna quantas execuções foram agendadas.
+     */
+    int refill(long nowMillis) {
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            LocalDateTime horizonte = toLocal(nowMillis + 2 * properties.window().toMillis());
+            PageRequest page = PageRequest.of(0, properties.loadPageSize());
+            int loaded = 0;
+            List<DueTransfer> due = repository.findDue(horizonte, page);
+            while (true) {
+                for (DueTransfer transfer : due) {
+                    if (timeouts.size() >= properties.maxPending()) {
+                        return loaded;
+                    }
+                    if (!timeouts.containsKey(transfer.getId()) && !running.contains(transfer.getId())) {
+                        schedule(new Due(transfer.getId(), transfer.getIdUsuarioOrigem(), transfer.getProximaExecucao()));
+                        loaded++;
+                    }
+                }
+                if (due.size() < properties.loadPageSize()) {
+                    return loaded;
+                }
+                DueTransfer last = due.get(due.size() - 1);
+                due = repository.findDueAfter(horizonte, last.getProximaExecucao(), last.getId(), page);
+            }
+        } catch (RuntimeException e) {
+            // Não pode derrubar a leitura periódica; a próxima janela tenta de novo
+            logger.error("Loading scheduled transfers failed", e);
+            return -1;
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    void tick(long nowMillis) {
+        try {
+            List<Due> due = wheel.advance(nowMillis);
+            if (due.isEmpty()) {
+                return;
+            }
+            List<List<Due>> byPartition = new ArrayList<>(partitions.length);
+            for (int i = 0; i < partitions.length; i++) {
+                byPartition.add(new ArrayList<>());
+            }
+            for (Due transfer : due) {
+                running.add(transfer.id());
+                timeouts.remove(transfer.id());
+                byPartition.get(partitionOf(transfer.idUsuarioOrigem())).add(transfer);
+            }
+            for (int i = 0; i < partitions.length; i++) {
+                List<Due> pending = byPartition.get(i);
+                for (int from = 0; from < pending.size(); from += properties.batchSize()) {
+                    List<Due> batch = List.copyOf(pending.subList(from,
+                            Math.min(pending.size(), from + properties.batchSize())));
+                    partitions[i].submit(() -> execute(batch));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Não pode derrubar o agendamento periódico
+            logger.error("Scheduled transfers tick failed", e);
+        }
+    }
+
+    int partitionOf(String idUsuarioOrigem) {
+        return Math.floorMod(idUsuarioOrigem.hashCode(), partitions.length);
+    }
+
+    /**
+     * Executa um lote de execuções vencidas: uma consulta para o lote e uma transação por transferência.
+     * Agendamentos cancelados ou já executados por outra instância são descartados pelo estado lido.
+     */
+    void execute(List<Due> batch) {
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            Map<UUID, ScheduledTransfer> rows = repository.findAllById(batch.stream().map(Due::id).toList())
+                    .stream().collect(Collectors.toMap(ScheduledTransfer::getId, Function.identity()));
+            for (Due transfer : batch) {
+                try {
+                    ScheduledTransfer schedule = rows.get(transfer.id());
+                    if (schedule != null && schedule.isActive()) {
+                        runDue(schedule);
+                    }
+                } finally {
+                    running.remove(transfer.id());
+                }
+            }
+        } catch (RuntimeException e) {
+            // Continuam ativos no banco: a próxima leitura da fila recoloca o lote na roda
+            batch.forEach(transfer -> running.remove(transfer.id()));
+            retries.increment(batch.size());
+            logger.warn("Scheduled transfer batch of {} postponed: {}", batch.size(), e.toString());
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    // Executa as execuções vencidas do agendamento (mais de uma na recuperação) e agenda a seguinte
+    private void runDue(ScheduledTransfer schedule) {
+        LocalDateTime agora = LocalDateTime.now();
+        ScheduledTransfer current = skipBeyondCatchUp(schedule, agora);
+        while (current != null && current.isActive() && !current.getProximaExecucao().isAfter(agora)) {
+            current = runOccurrence(current, agora);
+        }
+        if (current != null && current.isActive()) {
+            scheduleIfWithinHorizon(current, System.currentTimeMillis());
+        }
+    }
+
+    // Mais de maxCatchUp execuções atrasadas: pula as mais antigas e recupera só as últimas
+    private ScheduledTransfer skipBeyondCatchUp(ScheduledTransfer schedule, LocalDateTime agora) {
+        int overdue = 0;
+        for (LocalDateTime quando = schedule.occurrence(schedule.getExecucoes());
+             quando != null && !quando.isAfter(agora);
+             quando = schedule.occurrence(schedule.getExecucoes() + overdue)) {
+            overdue++;
+        }
+        int skip = overdue - Math.max(0, properties.maxCatchUp());
+        if (skip <= 0) {
+            return schedule;
+        }
+        try {
+            ScheduledTransfer saved = transactionTemplate.execute(status -> {
+                schedule.skip(skip);
+                return repository.save(schedule);
+            });
+            skipped.increment(skip);
+            logger.warn("Scheduled transfer {} skipped {} missed runs beyond the catch-up limit", schedule.getId(), skip);
+            return saved;
+        } catch (RuntimeException e) {
+            retries.increment();
+            logger.warn("Scheduled transfer {} postponed: {}", schedule.getId(), e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Executa a execução atual. Retorna o agendamento atualizado, ou null se deve ser tentado de novo
+     * na próxima leitura da fila.
+     */
+    private ScheduledTransfer runOccurrence(ScheduledTransfer schedule, LocalDateTime agora) {
+        UUID id = schedule.getId();
+        LocalDateTime execucao = schedule.getProximaExecucao();
+        TransferRequest request = new TransferRequest(schedule.getIdUsuarioOrigem(), schedule.getIdUsuarioDestino(),
+                schedule.getValor());
+        try {
+            ScheduledTransfer saved = transactionTemplate.execute(status -> {
+                // O avanço vai primeiro: trava a linha e falha na versão se outra instância já executou
+                schedule.advance(agora, null);
+                ScheduledTransfer advanced = repository.saveAndFlush(schedule);
+                walletService.transfer(request);
+                return advanced;
+            });
+            completed.increment();
+            delay.record(Duration.between(execucao, agora));
+            return saved;
+        } catch (InsufficientFundsException | WalletNotFoundException | VelocityLimitExceededException
+                 | IllegalArgumentException e) {
+            // A transação foi desfeita; registra a falha da execução em outra, sobre o estado atual
+            try {
+                ScheduledTransfer saved = transactionTemplate.execute(status -> {
+                    ScheduledTransfer current = find(id);
+                    if (current.isActive() && current.getProximaExecucao().equals(execucao)) {
+                        current.advance(agora, e.getMessage());
+                        return repository.save(current);
+                    }
+                    return current;
+                });
+                failed.increment();
+                logger.info("Scheduled transfer {} run at {} failed: {}", id, execucao, e.getMessage());
+                return saved;
+            } catch (RuntimeException recordFailure) {
+                retries.increment();
+                logger.warn("Scheduled transfer {} failure not recorded: {}", id, recordFailure.toString());
+                return null;
+            }
+        } catch (OptimisticLockingFailureException e) {
+            // Em geral a mesma execução já confirmada por outra instância; a próxima leitura decide
+            logger.debug("Scheduled transfer {} run at {} hit a version conflict", id, execucao);
+            return null;
+        } catch (RuntimeException e) {
+            retries.increment();
+            logger.warn("Scheduled transfer {} postponed: {}", id, e.toString());
+            return null;
+        }
+    }
+
+    private void scheduleIfWithinHorizon(ScheduledTransfer schedule, long nowMillis) {
+        long horizon = nowMillis + 2 * properties.window().toMillis();
+        if (schedule.isActive() && toMillis(schedule.getProximaExecucao()) < horizon) {
+            schedule(new Due(schedule.getId(), schedule.getIdUsuarioOrigem(), schedule.getProximaExecucao()));
+        }
+    }
+
+    private void schedule(Due transfer) {
+        Timeout<Due> previous = timeouts.put(transfer.id(), wheel.schedule(transfer, toMillis(transfer.execucao())));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    private void unschedule(UUID agendamentoId) {
+        Timeout<Due> timeout = timeouts.remove(agendamentoId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    int pending() {
+        return wheel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
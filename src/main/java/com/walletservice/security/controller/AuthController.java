@@ -1,5 +1,6 @@
 package com.walletservice.security.controller;
 
+import com.walletservice.datasource.ReadYourWrites;
 import com.walletservice.security.dto.JwtResponse;
 import com.walletservice.security.dto.LoginRequest;
 import com.walletservice.security.dto.MessageResponse;
@@ -9,6 +10,7 @@ import com.walletservice.security.model.User;
 import com.walletservice.security.repository.UserRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -39,6 +41,9 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    ReadYourWrites readYourWrites;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
@@ -87,6 +92,14 @@ public class AuthController {
         Set<String> strRoles = signUpRequest.roles();
         Set<String> roles = new HashSet<>();
 
+        // O papel ADMIN abre os endpoints administrativos do actuator: só outro administrador concede
+        if (strRoles != null && strRoles.contains("admin")
+                && !isAdmin(SecurityContextHolder.getContext().getAuthentication())) {
+            return ResponseEntity
+                    .status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("Error: Only administrators can grant the admin role!"));
+        }
+
         if (strRoles == null || strRoles.isEmpty()) {
             roles.add("USER");
         } else {
@@ -103,7 +116,14 @@ public class AuthController {
 
         user.setRoles(roles);
         userRepository.save(user);
+        // O signin logo em seguida precisa enxergar o usuário mesmo se a réplica estiver atrasada
+        readYourWrites.recordWrite(user.getUsername());
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
 }
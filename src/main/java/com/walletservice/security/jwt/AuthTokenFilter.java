@@ -1,5 +1,7 @@
 package com.walletservice.security.jwt;
 
+import com.walletservice.metrics.RequestTimings;
+import com.walletservice.metrics.RequestTimings.Phase;
 import com.walletservice.security.service.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -31,10 +33,14 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+            if (jwt != null && validateJwt(jwt)) {
+                long start = System.nanoTime();
                 String username = jwtUtils.getUsernameFromToken(jwt);
+                RequestTimings.record(Phase.JWT, System.nanoTime() - start);
 
+                start = System.nanoTime();
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                RequestTimings.record(Phase.USER, System.nanoTime() - start);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -51,6 +57,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Validação da assinatura, medida na fase "jwt" do Server-Timing
+    private boolean validateJwt(String jwt) {
+        long start = System.nanoTime();
+        try {
+            return jwtUtils.validateJwtToken(jwt);
+        } finally {
+            RequestTimings.record(Phase.JWT, System.nanoTime() - start);
+        }
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
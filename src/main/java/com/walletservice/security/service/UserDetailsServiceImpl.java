@@ -1,5 +1,6 @@
 package com.walletservice.security.service;
 
+import com.walletservice.datasource.ReadYourWrites;
 import com.walletservice.security.model.User;
 import com.walletservice.security.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,10 +19,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    ReadYourWrites readYourWrites;
+
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = readYourWrites.read(username, () -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
 
         List<SimpleGrantedAuthority> authorities = user.getRoles().stream()
@@ -1,18 +1,43 @@
 package com.walletservice.service;
 
+import com.walletservice.cache.BalanceCache;
+import com.walletservice.cache.WalletExistenceFilter;
+import com.walletservice.datasource.ReadYourWrites;
 import com.walletservice.domain.Transaction;
 import com.walletservice.domain.Wallet;
+import com.walletservice.domain.WalletHold;
+import com.walletservice.domain.WalletBalanceView;
+import com.walletservice.dto.AvailableBalanceResponse;
 import com.walletservice.dto.BalanceResponse;
+import com.walletservice.dto.BalanceSummaryResponse;
+import com.walletservice.dto.BalancesResponse;
 import com.walletservice.dto.CreateWalletRequest;
 import com.walletservice.dto.DepositRequest;
+import com.walletservice.dto.HoldRequest;
+import com.walletservice.dto.HoldResponse;
 import com.walletservice.dto.TransferRequest;
 import com.walletservice.dto.WithdrawalRequest;
+import com.walletservice.eventsourcing.EventSourcedWalletStore;
+import com.walletservice.exception.HoldNotActiveException;
+import com.walletservice.exception.HoldNotFoundException;
+import com.walletservice.exception.HoldsUnavailableException;
 import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.VelocityLimitExceededException;
 import com.walletservice.exception.WalletAlreadyExistsException;
 import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.hold.WalletHolds;
+import com.walletservice.journal.WalletJournal;
+import com.walletservice.limits.VelocityLimiter;
+import com.walletservice.metrics.MeteredOperation;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.metrics.WalletMetrics.Operation;
+import com.walletservice.projection.BalanceProjector;
+import com.walletservice.projection.LedgerEvent;
 import com.walletservice.repository.TransactionRepository;
 import com.walletservice.repository.WalletRepository;
 import com.walletservice.utils.Messages;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
@@ -21,13 +46,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class WalletService {
@@ -39,10 +73,35 @@ public class WalletService {
 
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
-
-    public WalletService(WalletRepository walletRepository, TransactionRepository transactionRepository) {
+    private final WalletMetrics walletMetrics;
+    private final BalanceCache balanceCache;
+    private final ReadYourWrites readYourWrites;
+    private final BalanceProjector balanceProjector;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventSourcedWalletStore eventStore;
+    private final WalletJournal walletJournal;
+    private final WalletExistenceFilter walletExistenceFilter;
+    private final VelocityLimiter velocityLimiter;
+    private final WalletHolds walletHolds;
+
+    public WalletService(WalletRepository walletRepository, TransactionRepository transactionRepository,
+                         WalletMetrics walletMetrics, BalanceCache balanceCache, ReadYourWrites readYourWrites,
+                         BalanceProjector balanceProjector, ApplicationEventPublisher eventPublisher,
+                         EventSourcedWalletStore eventStore, WalletJournal walletJournal,
+                         WalletExistenceFilter walletExistenceFilter, VelocityLimiter velocityLimiter,
+                         WalletHolds walletHolds) {
         this.walletRepository = walletRepository;
         this.transactionRepository = transactionRepository;
+        this.walletMetrics = walletMetrics;
+        this.balanceCache = balanceCache;
+        this.readYourWrites = readYourWrites;
+        this.balanceProjector = balanceProjector;
+        this.eventPublisher = eventPublisher;
+        this.eventStore = eventStore;
+        this.walletJournal = walletJournal;
+        this.walletExistenceFilter = walletExistenceFilter;
+        this.velocityLimiter = velocityLimiter;
+        this.walletHolds = walletHolds;
     }
 
     @Transactional
@@ -55,16 +114,27 @@ public class WalletService {
 
         // Cria uma nova carteira com saldo zero
         Wallet newWallet = new Wallet(null, request.idUsuario(), BigDecimal.ZERO, DEFAULT_CURRENCY);
+        walletExistenceFilter.add(request.idUsuario());
         return walletRepository.save(newWallet);
     }
 
     @Transactional
-    @CacheEvict(value = {"walletBalances", "userWallets"}, key = "#request.idUsuario()")
-    @CircuitBreaker(name = "walletService", fallbackMethod = "depositFallback")
+    @CacheEvict(value = {"walletBalances", "userWallets", "walletVersions"}, key = "#request.idUsuario()")
+    @CircuitBreaker(name = "walletWrite", fallbackMethod = "depositFallback")
+    @Bulkhead(name = "walletWrite")
     @Retry(name = "walletService")
+    @MeteredOperation(Operation.DEPOSIT)
     public Wallet deposit(DepositRequest request) {
+        requireKnownWallet(request.idUsuario());
+        if (walletJournal.isEnabled()) {
+            // Confirmado no journal local; o banco é atualizado de forma assíncrona
+            validateAmount(request.valor());
+            return walletJournal.deposit(request.idUsuario(), request.valor());
+        }
+
         // Busca a carteira ou lança exceção se não existir
         Wallet wallet = findWalletByIdUsuario(request.idUsuario());
+        eventStore.replayInto(wallet);
 
         // Valida o valor do depósito
         validateAmount(request.valor());
@@ -76,20 +146,33 @@ public class WalletService {
         // Registra a transação
         createTransaction(request.idUsuario(), null, Messages.TRANSACTION_TYPE_DEPOSIT,
                           request.valor(), Messages.DEPOSIT_SUCCESS);
+        readYourWrites.recordWrite(request.idUsuario());
 
         return wallet;
     }
 
     @Transactional
-    @CacheEvict(value = {"walletBalances", "userWallets"}, key = "#request.idUsuario()")
-    @CircuitBreaker(name = "walletService", fallbackMethod = "withdrawFallback")
+    @CacheEvict(value = {"walletBalances", "userWallets", "walletVersions"}, key = "#request.idUsuario()")
+    @CircuitBreaker(name = "walletWrite", fallbackMethod = "withdrawFallback")
+    @Bulkhead(name = "walletWrite")
     @Retry(name = "walletService")
+    @MeteredOperation(Operation.WITHDRAW)
     public Wallet withdraw(WithdrawalRequest request) {
+        requireKnownWallet(request.idUsuario());
+        // Reserva na janela de saques do usuário; devolvida se a transação for desfeita
+        velocityLimiter.reserveWithdrawal(request.idUsuario(), request.valor());
+        if (walletJournal.isEnabled()) {
+            validateAmount(request.valor());
+            return walletJournal.withdraw(request.idUsuario(), request.valor());
+        }
+
         Wallet wallet = findWalletByIdUsuario(request.idUsuario());
+        eventStore.replayInto(wallet);
         validateAmount(request.valor());
 
-        // Verifica se há saldo suficiente
-        if (wallet.getSaldo().compareTo(request.valor()) < 0) {
+        // Verifica se há saldo suficiente fora das reservas ativas
+        walletHolds.releaseOverdue(wallet);
+        if (wallet.disponivel().compareTo(request.valor()) < 0) {
             throw new InsufficientFundsException(Messages.INSUFFICIENT_BALANCE);
         }
 
@@ -100,28 +183,48 @@ public class WalletService {
         // Registra a transação
         createTransaction(request.idUsuario(), null, Messages.TRANSACTION_TYPE_WITHDRAW,
                           request.valor(), Messages.WITHDRAW_SUCCESS);
+        readYourWrites.recordWrite(request.idUsuario());
 
         return wallet;
     }
 
     @Transactional
-    @CacheEvict(value = {"walletBalances", "userWallets"}, allEntries = true)
-    @CircuitBreaker(name = "walletService", fallbackMethod = "transferFallback")
+    @Caching(evict = {
+            @CacheEvict(value = {"walletBalances", "userWallets"}, allEntries = true),
+            @CacheEvict(value = "walletVersions", key = "#request.idUsuarioOrigem()"),
+            @CacheEvict(value = "walletVersions", key = "#request.idUsuarioDestino()")
+    })
+    @CircuitBreaker(name = "walletWrite", fallbackMethod = "transferFallback")
+    @Bulkhead(name = "walletWrite")
     @Retry(name = "walletService")
+    @MeteredOperation(Operation.TRANSFER)
     public void transfer(TransferRequest request) {
         // Não permite transferir para si mesmo
         if (Objects.equals(request.idUsuarioOrigem(), request.idUsuarioDestino())) {
             throw new IllegalArgumentException("Não é possível transferir para si mesmo");
         }
+        requireKnownWallet(request.idUsuarioOrigem());
+        requireKnownWallet(request.idUsuarioDestino());
+        velocityLimiter.reserveTransfer(request.idUsuarioOrigem(), request.valor());
+
+        if (walletJournal.isEnabled()) {
+            validateAmount(request.valor());
+            walletJournal.transfer(request.idUsuarioOrigem(), request.idUsuarioDestino(), request.valor());
+            return;
+        }
 
         // Busca as carteiras
         Wallet sourceWallet = findWalletByIdUsuario(request.idUsuarioOrigem());
         Wallet destinationWallet = findWalletByIdUsuario(request.idUsuarioDestino());
+        // No modo event-sourced o saldo vem do stream de eventos
+        eventStore.replayInto(sourceWallet);
+        eventStore.replayInto(destinationWallet);
 
         validateAmount(request.valor());
 
-        // Verifica saldo
-        if (sourceWallet.getSaldo().compareTo(request.valor()) < 0) {
+        // Verifica saldo, descontadas as reservas ativas da origem
+        walletHolds.releaseOverdue(sourceWallet);
+        if (sourceWallet.disponivel().compareTo(request.valor()) < 0) {
             throw new InsufficientFundsException(Messages.INSUFFICIENT_BALANCE);
         }
 
@@ -137,31 +240,279 @@ public class WalletService {
         createTransaction(request.idUsuarioOrigem(), request.idUsuarioDestino(),
                           Messages.TRANSACTION_TYPE_TRANSFER, request.valor(),
                           Messages.TRANSFER_SUCCESS);
+        readYourWrites.recordWrite(request.idUsuarioOrigem(), request.idUsuarioDestino());
     }
 
-    @Cacheable(value = "walletBalances", key = "#idUsuario", unless = "#result == null")
-    @CircuitBreaker(name = "walletService", fallbackMethod = "getBalanceFallback")
+    /**
+     * Reserva parte do disponível da carteira até a captura, a liberação ou o prazo (autorização).
+     * O saldo não muda; saques e transferências passam a enxergar só saldo - reservado.
+     */
+    @Transactional
+    @CacheEvict(value = {"userWallets", "walletVersions"}, key = "#request.idUsuario()")
+    @CircuitBreaker(name = "walletWrite", fallbackMethod = "holdFallback")
+    @Bulkhead(name = "walletWrite")
+    @Retry(name = "walletService")
+    @MeteredOperation(Operation.HOLD)
+    public HoldResponse hold(HoldRequest request) {
+        requireHoldsSupported();
+        requireKnownWallet(request.idUsuario());
+        validateAmount(request.valor());
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime expiraEm = agora.plus(walletHolds.ttl(request.ttlSegundos()));
+        // A reserva conta no limite de saques: a captura não passa de novo por ele, e o que não for
+        // capturado é devolvido na liberação, na expiração ou na captura parcial
+        velocityLimiter.reserveWithdrawal(request.idUsuario(), request.valor());
+
+        Wallet wallet = findWalletByIdUsuario(request.idUsuario());
+        eventStore.replayInto(wallet);
+        walletHolds.releaseOverdue(wallet);
+        if (wallet.disponivel().compareTo(request.valor()) < 0) {
+            throw new InsufficientFundsException(Messages.INSUFFICIENT_BALANCE);
+        }
+        wallet.setReservado(wallet.getReservado().add(request.valor()));
+        walletRepository.save(wallet);
+
+        WalletHold hold = walletHolds.place(
+                new WalletHold(request.idUsuario(), request.valor(), request.descricao(), agora, expiraEm));
+        readYourWrites.recordWrite(request.idUsuario());
+        return HoldResponse.from(hold);
+    }
+
+    /**
+     * Captura a reserva: debita valor (no máximo o reservado, ou o total se nulo) como um saque
+     * e devolve o restante ao disponível.
+     */
+    @Transactional
+    @CacheEvict(value = {"walletBalances", "userWallets", "walletVersions"}, key = "#result.idUsuario()")
+    @CircuitBreaker(name = "walletWrite", fallbackMethod = "captureFallback")
+    @Bulkhead(name = "walletWrite")
+    @Retry(name = "walletService")
+    @MeteredOperation(Operation.CAPTURE)
+    public HoldResponse capture(UUID holdId, BigDecimal valor) {
+        requireHoldsSupported();
+        WalletHold hold = activeHold(holdId);
+        BigDecimal capturado = valor != null ? valor : hold.getValor();
+        validateAmount(capturado);
+        if (capturado.compareTo(hold.getValor()) > 0) {
+            throw new IllegalArgumentException(Messages.HOLD_CAPTURE_EXCEEDS);
+        }
+        // Já contada no limite de saques desde a reserva; o restante não capturado é devolvido
+        velocityLimiter.refundWithdrawal(hold.getIdUsuario(), hold.getValor().subtract(capturado),
+                hold.getCriadoEm(), true);
+
+        Wallet wallet = findWalletByIdUsuario(hold.getIdUsuario());
+        eventStore.replayInto(wallet);
+        wallet.setReservado(wallet.getReservado().subtract(hold.getValor()).max(BigDecimal.ZERO));
+        wallet.setSaldo(wallet.getSaldo().subtract(capturado));
+        walletRepository.save(wallet);
+
+        hold.capture(capturado, LocalDateTime.now());
+        walletHolds.finish(hold);
+        createTransaction(hold.getIdUsuario(), null, Messages.TRANSACTION_TYPE_WITHDRAW, capturado,
+                          String.format(Messages.HOLD_CAPTURE_SUCCESS, holdId));
+        readYourWrites.recordWrite(hold.getIdUsuario());
+        return HoldResponse.from(hold);
+    }
+
+    /**
+     * Libera a reserva sem debitar nada; o valor volta ao disponível.
+     */
+    @Transactional
+    @CacheEvict(value = {"userWallets", "walletVersions"}, key = "#result.idUsuario()")
+    @CircuitBreaker(name = "walletWrite", fallbackMethod = "releaseFallback")
+    @Bulkhead(name = "walletWrite")
+    @Retry(name = "walletService")
+    @MeteredOperation(Operation.RELEASE)
+    public HoldResponse release(UUID holdId) {
+        requireHoldsSupported();
+        WalletHold hold = activeHold(holdId);
+
+        Wallet wallet = findWalletByIdUsuario(hold.getIdUsuario());
+        wallet.setReservado(wallet.getReservado().subtract(hold.getValor()).max(BigDecimal.ZERO));
+        walletRepository.save(wallet);
+
+        hold.finish(WalletHold.STATUS_RELEASED, LocalDateTime.now());
+        walletHolds.finish(hold);
+        velocityLimiter.refundWithdrawal(hold.getIdUsuario(), hold.getValor(), hold.getCriadoEm(), false);
+        readYourWrites.recordWrite(hold.getIdUsuario());
+        return HoldResponse.from(hold);
+    }
+
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "walletRead")
+    @Bulkhead(name = "walletRead")
+    public HoldResponse getHold(UUID holdId) {
+        return HoldResponse.from(walletHolds.find(holdId));
+    }
+
+    // Saldo, reservado e disponível lidos do modelo de escrita (wallets), onde as reservas são mantidas
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "walletRead")
+    @Bulkhead(name = "walletRead")
+    public AvailableBalanceResponse getAvailableBalance(String idUsuario) {
+        requireKnownWallet(idUsuario);
+        // No modo journal não há reservas e o saldo em memória está à frente do banco
+        Optional<BalanceResponse> journaled = walletJournal.balance(idUsuario);
+        if (journaled.isPresent()) {
+            BalanceResponse balance = journaled.get();
+            return new AvailableBalanceResponse(idUsuario, balance.saldo(), BigDecimal.ZERO, balance.saldo(),
+                    balance.moeda());
+        }
+        return readYourWrites.read(idUsuario, () -> {
+            Wallet wallet = findWalletByIdUsuario(idUsuario);
+            return new AvailableBalanceResponse(wallet.getIdUsuario(), wallet.getSaldo(), wallet.getReservado(),
+                    wallet.disponivel(), wallet.getMoeda());
+        });
+    }
+
+    // Cache de saldos via BalanceCache: misses concorrentes do mesmo usuário viram uma única consulta
+    // readOnly: o miss vai para uma réplica, exceto logo após uma escrita na carteira
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "walletRead", fallbackMethod = "getBalanceFallback")
+    @Bulkhead(name = "walletRead")
     // Removendo a anotação @TimeLimiter que estava causando problemas
     @Retry(name = "walletService")
+    @MeteredOperation(Operation.BALANCE)
     public BalanceResponse getBalance(String idUsuario) {
-        logger.info("Fetching balance for user: {}", idUsuario);
-        // Esta operação agora será cacheada pelo Redis
-        Wallet wallet = findWalletByIdUsuario(idUsuario);
-        return new BalanceResponse(wallet.getIdUsuario(), wallet.getSaldo(), wallet.getMoeda());
+        requireKnownWallet(idUsuario);
+        // No modo journal, o saldo em memória está à frente do banco
+        Optional<BalanceResponse> journaled = walletJournal.balance(idUsuario);
+        if (journaled.isPresent()) {
+            return journaled.get();
+        }
+        return balanceCache.get(idUsuario, () -> readYourWrites.read(idUsuario, () -> {
+            logger.info("Fetching balance for user: {}", idUsuario);
+            // Lê do wallet_balance_view; se a projeção estiver pendente para a carteira, usa o modelo de escrita
+            return balanceProjector.currentView(idUsuario)
+                    .map(view -> new BalanceResponse(view.getIdUsuario(), view.getSaldo(), view.getMoeda()))
+                    .orElseGet(() -> {
+                        Wallet wallet = findWalletByIdUsuario(idUsuario);
+                        return new BalanceResponse(wallet.getIdUsuario(), wallet.getSaldo(), wallet.getMoeda());
+                    });
+        }));
+    }
+
+    // Saldos de várias carteiras: uma leitura em lote no cache e um único IN para os misses
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "walletRead")
+    @Bulkhead(name = "walletRead")
+    @MeteredOperation(Operation.BALANCES)
+    public BalancesResponse getBalances(List<String> idsUsuario) {
+        List<String> ids = idsUsuario.stream().distinct().toList();
+        Map<String, BalanceResponse> balances = new HashMap<>();
+        List<String> notJournaled = new ArrayList<>();
+        for (String idUsuario : ids) {
+            // IDs que com certeza não têm carteira ficam fora do cache e do IN e vão para naoEncontrados
+            if (!walletExistenceFilter.mightExist(idUsuario)) {
+                continue;
+            }
+            // No modo journal, o saldo em memória está à frente do banco
+            walletJournal.balance(idUsuario).ifPresentOrElse(
+                    balance -> balances.put(idUsuario, balance), () -> notJournaled.add(idUsuario));
+        }
+
+        if (!notJournaled.isEmpty()) {
+            balances.putAll(balanceCache.getAll(notJournaled, misses -> readYourWrites.readAll(misses, () -> {
+                logger.info("Fetching balances for {} users", misses.size());
+                Map<String, BalanceResponse> loaded = new HashMap<>();
+                for (Wallet wallet : walletRepository.findByIdUsuarioIn(misses)) {
+                    loaded.put(wallet.getIdUsuario(),
+                            new BalanceResponse(wallet.getIdUsuario(), wallet.getSaldo(), wallet.getMoeda()));
+                }
+                return loaded;
+            })));
+        }
+
+        List<BalanceResponse> saldos = new ArrayList<>(balances.size());
+        List<String> naoEncontrados = new ArrayList<>();
+        for (String idUsuario : ids) {
+            BalanceResponse balance = balances.get(idUsuario);
+            if (balance != null) {
+                saldos.add(balance);
+            } else {
+                naoEncontrados.add(idUsuario);
+            }
+        }
+        return new BalancesResponse(saldos, naoEncontrados);
+    }
+
+    // Resumo para extrato: último lançamento e totais do dia, direto do modelo de leitura
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "walletRead")
+    @Bulkhead(name = "walletRead")
+    public BalanceSummaryResponse getBalanceSummary(String idUsuario) {
+        requireKnownWallet(idUsuario);
+        return readYourWrites.read(idUsuario, () -> {
+            WalletBalanceView view = balanceProjector.currentView(idUsuario)
+                    .orElseGet(() -> balanceProjector.compute(idUsuario));
+            if (view == null) {
+                throw new WalletNotFoundException(String.format(Messages.WALLET_NOT_FOUND, idUsuario));
+            }
+
+            // Os totais do dia valem só para a data de referência da projeção
+            boolean today = LocalDate.now().equals(view.getDataReferencia());
+            return new BalanceSummaryResponse(view.getIdUsuario(), view.getSaldo(), view.getMoeda(),
+                    view.getUltimaTransacao(),
+                    today ? view.getCreditosDia() : BigDecimal.ZERO,
+                    today ? view.getDebitosDia() : BigDecimal.ZERO,
+                    view.getVersao());
+        });
+    }
+
+    /**
+     * Versão atual da carteira, usada como ETag do saldo: um If-None-Match que confere custa só
+     * esta leitura de cache. O controller lê a versão antes do saldo, então o ETag nunca é mais
+     * novo que o corpo que acompanha. Devolvida como String para voltar do Redis com o mesmo tipo.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "walletVersions", key = "#idUsuario", unless = "#result == null")
+    @CircuitBreaker(name = "walletRead", fallbackMethod = "getBalanceVersionFallback")
+    @Bulkhead(name = "walletRead")
+    @MeteredOperation(Operation.BALANCE_VERSION)
+    public String getBalanceVersion(String idUsuario) {
+        requireKnownWallet(idUsuario);
+        // No modo journal, a versão em memória está à frente do banco
+        Optional<Long> journaled = walletJournal.version(idUsuario);
+        if (journaled.isPresent()) {
+            return Long.toString(journaled.get());
+        }
+        // Fixada no primário logo após uma escrita: um ETag antigo de réplica geraria 304 com saldo velho
+        return readYourWrites.read(idUsuario, () -> walletRepository.findVersaoByIdUsuario(idUsuario))
+                .map(versao -> Long.toString(versao))
+                .orElseThrow(() -> new WalletNotFoundException(String.format(Messages.WALLET_NOT_FOUND, idUsuario)));
+    }
+
+    // Sem versão o saldo é servido sem ETag, como antes
+    public String getBalanceVersionFallback(String idUsuario, Exception ex) {
+        rethrowBusinessError(ex);
+        logger.warn("Circuit breaker fallback: balance version unavailable for user {}: {}", idUsuario, ex.getMessage());
+        walletMetrics.markFallback();
+        return null;
     }
 
     // Fallback method for getBalance
     public BalanceResponse getBalanceFallback(String idUsuario, Exception ex) {
+        rethrowBusinessError(ex);
         logger.error("Circuit breaker fallback: getBalance failed for user {}", idUsuario, ex);
+        walletMetrics.markFallback();
         // Return a default response or cached data
         return new BalanceResponse(idUsuario, BigDecimal.ZERO, "BRL");
     }
 
     // Método para calcular saldo histórico
     // Poderia ser otimizado no futuro usando uma abordagem de snapshot
-    @CircuitBreaker(name = "walletService", fallbackMethod = "getHistoricalBalanceFallback")
+    // Roda no bulkhead de relatórios para que uma rajada de consultas não afete depósitos e saques
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "walletReporting", fallbackMethod = "getHistoricalBalanceFallback")
+    @Bulkhead(name = "walletReporting")
     @Retry(name = "walletService")
+    @MeteredOperation(Operation.HISTORICAL)
     public BalanceResponse getHistoricalBalance(String idUsuario, LocalDateTime dateTime) {
+        requireKnownWallet(idUsuario);
+        return readYourWrites.read(idUsuario, () -> calculateHistoricalBalance(idUsuario, dateTime));
+    }
+
+    private BalanceResponse calculateHistoricalBalance(String idUsuario, LocalDateTime dateTime) {
         Wallet wallet = findWalletByIdUsuario(idUsuario);
         List<Transaction> transactions = transactionRepository.findByIdUsuarioOrigemAndDataHoraLessThanEqual(idUsuario, dateTime);
 
@@ -210,28 +561,97 @@ public class WalletService {
             "COMPLETED", description
         );
         transactionRepository.save(transaction);
+        // Entregue ao BalanceProjector só depois do commit
+        eventPublisher.publishEvent(LedgerEvent.from(transaction));
     }
 
     // Fallback methods for circuit breaker
 
+    // Erros de negócio não são indisponibilidade: seguem para o chamador (400/404) como estão
+    // IDs que o filtro garante não terem carteira viram 404 sem acessar cache nem banco
+    private void requireKnownWallet(String idUsuario) {
+        if (!walletExistenceFilter.mightExist(idUsuario)) {
+            throw new WalletNotFoundException(String.format(Messages.WALLET_NOT_FOUND, idUsuario));
+        }
+    }
+
+    // Reservas ficam no banco; o journal mantém os saldos em memória e não as enxergaria
+    private void requireHoldsSupported() {
+        if (walletJournal.isEnabled()) {
+            throw new HoldsUnavailableException(Messages.HOLDS_UNAVAILABLE_IN_JOURNAL);
+        }
+    }
+
+    private WalletHold activeHold(UUID holdId) {
+        WalletHold hold = walletHolds.find(holdId);
+        if (!hold.isActive()) {
+            throw new HoldNotActiveException(String.format(Messages.HOLD_NOT_ACTIVE, holdId, hold.getStatus()));
+        }
+        if (!hold.getExpiraEm().isAfter(LocalDateTime.now())) {
+            // Vencida e ainda não alcançada pela expiração: já não pode ser capturada nem liberada
+            throw new HoldNotActiveException(String.format(Messages.HOLD_NOT_ACTIVE, holdId, WalletHold.STATUS_EXPIRED));
+        }
+        return hold;
+    }
+
+    private static void rethrowBusinessError(Exception ex) {
+        // Conflito de versão também sobe: o @Retry repete a operação com a carteira relida.
+        // Bulkhead cheio não é falha do serviço: sobe como 503 com Retry-After, sem saldo padrão
+        if (ex instanceof BulkheadFullException || ex instanceof InsufficientFundsException || ex instanceof WalletNotFoundException
+                || ex instanceof VelocityLimitExceededException || ex instanceof HoldNotFoundException
+                || ex instanceof HoldNotActiveException || ex instanceof HoldsUnavailableException
+                || ex instanceof IllegalArgumentException || ex instanceof OptimisticLockingFailureException) {
+            throw (RuntimeException) ex;
+        }
+    }
+
     public Wallet depositFallback(DepositRequest request, Exception ex) {
+        rethrowBusinessError(ex);
         logger.error("Circuit breaker fallback: deposit failed for user {}", request.idUsuario(), ex);
+        walletMetrics.markFallback();
         throw new RuntimeException("Service temporarily unavailable. Please try again later.");
     }
 
     public Wallet withdrawFallback(WithdrawalRequest request, Exception ex) {
+        rethrowBusinessError(ex);
         logger.error("Circuit breaker fallback: withdraw failed for user {}", request.idUsuario(), ex);
+        walletMetrics.markFallback();
         throw new RuntimeException("Service temporarily unavailable. Please try again later.");
     }
 
     public void transferFallback(TransferRequest request, Exception ex) {
+        rethrowBusinessError(ex);
         logger.error("Circuit breaker fallback: transfer failed from user {} to {}",
                   request.idUsuarioOrigem(), request.idUsuarioDestino(), ex);
+        walletMetrics.markFallback();
+        throw new RuntimeException("Service temporarily unavailable. Please try again later.");
+    }
+
+    public HoldResponse holdFallback(HoldRequest request, Exception ex) {
+        rethrowBusinessError(ex);
+        logger.error("Circuit breaker fallback: hold failed for user {}", request.idUsuario(), ex);
+        walletMetrics.markFallback();
+        throw new RuntimeException("Service temporarily unavailable. Please try again later.");
+    }
+
+    public HoldResponse captureFallback(UUID holdId, BigDecimal valor, Exception ex) {
+        rethrowBusinessError(ex);
+        logger.error("Circuit breaker fallback: capture failed for hold {}", holdId, ex);
+        walletMetrics.markFallback();
+        throw new RuntimeException("Service temporarily unavailable. Please try again later.");
+    }
+
+    public HoldResponse releaseFallback(UUID holdId, Exception ex) {
+        rethrowBusinessError(ex);
+        logger.error("Circuit breaker fallback: release failed for hold {}", holdId, ex);
+        walletMetrics.markFallback();
         throw new RuntimeException("Service temporarily unavailable. Please try again later.");
     }
 
     public BalanceResponse getHistoricalBalanceFallback(String idUsuario, LocalDateTime dateTime, Exception ex) {
+        rethrowBusinessError(ex);
         logger.error("Circuit breaker fallback: getHistoricalBalance failed for user {}", idUsuario, ex);
+        walletMetrics.markFallback();
         // Return current balance as fallback
         try {
             return getBalance(idUsuario);
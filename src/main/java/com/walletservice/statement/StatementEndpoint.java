@@ -0,0 +1,42 @@
+package com.walletservice.statement;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Endpoint /actuator/statements: progresso da geração de extratos diários.
+ * O POST ?date= gera (ou continua) os extratos de um dia em segundo plano; o dia anterior já é gerado
+ * pelo cron (wallet.app.statements.cron).
+ */
+@Component
+@Endpoint(id = "statements")
+public class StatementEndpoint {
+
+    private final StatementJob statementJob;
+
+    public StatementEndpoint(StatementJob statementJob) {
+        this.statementJob = statementJob;
+    }
+
+    @ReadOperation
+    public StatementJob.Status status() {
+        return statementJob.status();
+    }
+
+    @WriteOperation
+    public StatementJob.Status generate(String date) {
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            // Respondida como 400 pelo GlobalExceptionHandler
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return statementJob.start(day);
+    }
+}
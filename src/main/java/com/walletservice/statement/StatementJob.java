@@ -0,0 +1,411 @@
+package com.walletservice.statement;
+
+import com.walletservice.datasource.WorkloadContext;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Geração em lote dos extratos diários (wallet_statements) de todas as carteiras.
+ *
+ * O dia é dividido em partições por faixa de idUsuario, gravadas em statement_checkpoints no
+ * planejamento. Um pool de workers processa as partições; cada uma é percorrida em blocos de
+ * carteiras, e cada bloco faz uma única leitura dos lançamentos do dia da sua faixa, calcula
+ * créditos e débitos em memória e grava os extratos em batch junto com o checkpoint, na mesma
+ * transação. Depois de um crash, a próxima execução continua do último bloco gravado.
+ *
+ * O saldo inicial vem do extrato do dia anterior; sem ele (primeiro dia gerado), da soma do
+ * ledger até o início do dia.
+ */
+@Component
+public class StatementJob implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementJob.class);
+
+    static final String WORKLOAD = "walletReporting";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatementProperties properties;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("wallet-statements").daemon().factory());
+
+    private final Counter statementsCounter;
+    private final Timer durationTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger partitionsDone = new AtomicInteger();
+    private final AtomicLong statements = new AtomicLong();
+    private volatile LocalDate current;
+    private volatile int partitions;
+    private volatile Result lastResult;
+
+    public record Result(LocalDate dataReferencia, int partitions, int resumedPartitions, int failedPartitions,
+                         long statements, long durationMillis) {}
+
+    public record Status(boolean running, LocalDate dataReferencia, int partitions, int partitionsDone,
+                         long statements, Result lastRun) {}
+
+    record Checkpoint(String id, int particao, String inicio, String fim, String ultimoIdUsuario,
+                      boolean concluida) {}
+
+    private static final class Totals {
+        private final String moeda;
+        private BigDecimal saldoInicial;
+        private BigDecimal creditos = BigDecimal.ZERO;
+        private BigDecimal debitos = BigDecimal.ZERO;
+        private int transacoes;
+
+        Totals(String moeda) {
+            this.moeda = moeda;
+        }
+    }
+
+    public StatementJob(DataSource dataSource, PlatformTransactionManager transactionManager,
+                        StatementProperties properties, MeterRegistry meterRegistry) {
+        // Template próprio: o fetch size não deve vazar para o JdbcTemplate compartilhado
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.fetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+
+        this.statementsCounter = Counter.builder("wallet.statements.generated")
+                .description("Extratos diários gravados")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("wallet.statements.duration")
+                .description("Duração da geração de extratos de um dia")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.resumeOnStartup()) {
+            runner.submit(this::resumeIncomplete);
+        }
+    }
+
+    @Scheduled(cron = "${wallet.app.statements.cron:0 15 0 * * *}")
+    public void generateYesterday() {
+        resumeIncomplete();
+        generate(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Dispara a geração de um dia em segundo plano, se nenhuma estiver em andamento.
+     */
+    public Status start(LocalDate dataReferencia) {
+        if (!running.get()) {
+            runner.submit(() -> generate(dataReferencia));
+        }
+        return status();
+    }
+
+    /**
+     * Continua, em ordem de data, os dias com partições pendentes (execução interrompida).
+     */
+    public void resumeIncomplete() {
+        List<LocalDate> pending = jdbcTemplate.queryForList(
+                "SELECT DISTINCT data_referencia FROM statement_checkpoints WHERE concluida = false "
+                        + "ORDER BY data_referencia", LocalDate.class);
+        for (LocalDate dataReferencia : pending) {
+            logger.info("Resuming interrupted statement generation for {}", dataReferencia);
+            generate(dataReferencia);
+        }
+    }
+
+    /**
+     * Gera os extratos de um dia na thread atual. Partições já concluídas são puladas, então
+     * chamar de novo para um dia completo não regrava nada. Retorna null se outra execução já
+     * estiver em andamento.
+     */
+    public Result generate(LocalDate dataReferencia) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        String previousWorkload = WorkloadContext.enter(WORKLOAD);
+        long start = System.nanoTime();
+        try {
+            current = dataReferencia;
+            partitionsDone.set(0);
+            statements.set(0);
+
+            List<Checkpoint> checkpoints = plan(dataReferencia);
+            List<Checkpoint> pending = checkpoints.stream().filter(c -> !c.concluida()).toList();
+            int resumed = (int) pending.stream().filter(c -> c.ultimoIdUsuario() != null).count();
+            partitions = checkpoints.size();
+            partitionsDone.set(checkpoints.size() - pending.size());
+            logger.info("Generating statements for {}: {} partitions pending ({} resumed) of {}",
+                    dataReferencia, pending.size(), resumed, checkpoints.size());
+
+            int failed = processAll(dataReferencia, pending);
+
+            long durationNanos = System.nanoTime() - start;
+            durationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+            lastResult = new Result(dataReferencia, checkpoints.size(), resumed, failed, statements.get(),
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos));
+            logger.info("Statement generation finished: {}", lastResult);
+            return lastResult;
+        } finally {
+            WorkloadContext.restore(previousWorkload);
+            running.set(false);
+        }
+    }
+
+    public Status status() {
+        return new Status(running.get(), current, partitions, partitionsDone.get(), statements.get(), lastResult);
+    }
+
+    private int processAll(LocalDate dataReferencia, List<Checkpoint> pending) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, properties.workers()),
+                Thread.ofPlatform().name("wallet-statements-worker-", 0).factory());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Checkpoint checkpoint : pending) {
+                futures.add(workers.submit(() -> {
+                    String previous = WorkloadContext.enter(WORKLOAD);
+                    try {
+                        processPartition(dataReferencia, checkpoint);
+                    } finally {
+                        WorkloadContext.restore(previous);
+                    }
+                }));
+            }
+            int failed = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                    partitionsDone.incrementAndGet();
+                } catch (ExecutionException e) {
+                    // O checkpoint fica pendente; a próxima execução continua desta partição
+                    failed++;
+                    logger.error("Statement partition {} for {} failed", pending.get(i).id(), dataReferencia,
+                            e.getCause());
+                }
+            }
+            return failed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement generation interrupted", e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // Cria as partições do dia na primeira execução; nas seguintes, reaproveita as mesmas faixas
+    private List<Checkpoint> plan(LocalDate dataReferencia) {
+        return transactionTemplate.execute(status -> {
+            List<Checkpoint> existing = loadCheckpoints(dataReferencia);
+            if (!existing.isEmpty()) {
+                return existing;
+            }
+            List<String> boundaries = boundaries();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < boundaries.size(); i++) {
+                String fim = i + 1 < boundaries.size() ? boundaries.get(i + 1) : null;
+                rows.add(new Object[]{dataReferencia + "#" + i, Date.valueOf(dataReferencia), i,
+                        boundaries.get(i), fim, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO statement_checkpoints (id, data_referencia, particao, inicio, fim, "
+                    + "ultimo_id_usuario, concluida, atualizado_em) VALUES (?, ?, ?, ?, ?, NULL, false, ?)", rows);
+            return loadCheckpoints(dataReferencia);
+        });
+    }
+
+    private List<Checkpoint> loadCheckpoints(LocalDate dataReferencia) {
+        return jdbcTemplate.query("SELECT id, particao, inicio, fim, ultimo_id_usuario, concluida "
+                        + "FROM statement_checkpoints WHERE data_referencia = ? ORDER BY particao",
+                (rs, rowNum) -> new Checkpoint(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getBoolean(6)),
+                Date.valueOf(dataReferencia));
+    }
+
+    // Início de cada partição; lê os ids em streaming e guarda só um a cada "passo"
+    private List<String> boundaries() {
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallets", Long.class);
+        int count = (int) Math.max(1, Math.min(properties.partitions(), total));
+        long step = Math.max(1, (total + count - 1) / count);
+
+        List<String> boundaries = new ArrayList<>(count);
+        // A primeira faixa começa em "" para cobrir carteiras criadas durante a execução
+        boundaries.add("");
+        long[] index = {0};
+        jdbcTemplate.query("SELECT id_usuario FROM wallets ORDER BY id_usuario", rs -> {
+            long i = index[0]++;
+            if (i > 0 && i % step == 0) {
+                boundaries.add(rs.getString(1));
+            }
+        });
+        return boundaries;
+    }
+
+    private void processPartition(LocalDate dataReferencia, Checkpoint checkpoint) {
+        String after = checkpoint.ultimoIdUsuario();
+        do {
+            String from = after;
+            // Cada bloco (extratos + checkpoint) é uma transação; null = partição concluída
+            after = transactionTemplate.execute(status -> {
+                Map<String, Totals> chunk = loadWallets(checkpoint, from);
+                if (chunk.isEmpty()) {
+                    markDone(checkpoint, from);
+                    return null;
+                }
+                return writeChunk(dataReferencia, checkpoint, chunk);
+            });
+        } while (after != null);
+    }
+
+    private Map<String, Totals> loadWallets(Checkpoint checkpoint, String after) {
+        StringBuilder sql = new StringBuilder("SELECT id_usuario, moeda FROM wallets WHERE id_usuario >= ?");
+        List<Object> args = new ArrayList<>(List.of(checkpoint.inicio()));
+        if (checkpoint.fim() != null) {
+            sql.append(" AND id_usuario < ?");
+            args.add(checkpoint.fim());
+        }
+        if (after != null) {
+            sql.append(" AND id_usuario > ?");
+            args.add(after);
+        }
+        sql.append(" ORDER BY id_usuario LIMIT ?");
+        args.add(properties.chunkSize());
+
+        Map<String, Totals> chunk = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            chunk.put(rs.getString(1), new Totals(rs.getString(2)));
+        }, args.toArray());
+        return chunk;
+    }
+
+    // Retorna o último idUsuario gravado, ou null se o bloco fechou a partição
+    private String writeChunk(LocalDate dataReferencia, Checkpoint checkpoint, Map<String, Totals> chunk) {
+        List<String> ids = new ArrayList<>(chunk.keySet());
+        String first = ids.get(0);
+        String last = ids.get(ids.size() - 1);
+        Timestamp dayStart = Timestamp.valueOf(dataReferencia.atStartOfDay());
+        Timestamp dayEnd = Timestamp.valueOf(dataReferencia.plusDays(1).atStartOfDay());
+
+        loadOpeningBalances(dataReferencia, chunk, first, last, dayStart);
+
+        // Única leitura dos lançamentos do dia para a faixa do bloco
+        jdbcTemplate.query("SELECT tipo_transacao, valor, id_usuario_origem, id_usuario_destino FROM transactions "
+                        + "WHERE data_hora >= ? AND data_hora < ? AND ((id_usuario_origem >= ? AND id_usuario_origem <= ?) "
+                        + "OR (id_usuario_destino >= ? AND id_usuario_destino <= ?))",
+                rs -> {
+                    String tipo = rs.getString(1);
+                    BigDecimal valor = rs.getBigDecimal(2);
+                    Totals origem = chunk.get(rs.getString(3));
+                    if (origem != null) {
+                        if (Messages.TRANSACTION_TYPE_DEPOSIT.equals(tipo)) {
+                            origem.creditos = origem.creditos.add(valor);
+                        } else {
+                            origem.debitos = origem.debitos.add(valor);
+                        }
+                        origem.transacoes++;
+                    }
+                    Totals destino = Messages.TRANSACTION_TYPE_TRANSFER.equals(tipo) ? chunk.get(rs.getString(4)) : null;
+                    if (destino != null) {
+                        destino.creditos = destino.creditos.add(valor);
+                        destino.transacoes++;
+                    }
+                }, dayStart, dayEnd, first, last, first, last);
+
+        Date data = Date.valueOf(dataReferencia);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        chunk.forEach((idUsuario, totals) -> {
+            BigDecimal saldoFinal = totals.saldoInicial.add(totals.creditos).subtract(totals.debitos);
+            rows.add(new Object[]{UUID.randomUUID(), idUsuario, data, totals.saldoInicial, totals.creditos,
+                    totals.debitos, saldoFinal, totals.transacoes, totals.moeda, now});
+        });
+
+        // Idempotente: um bloco regravado substitui o anterior
+        jdbcTemplate.update("DELETE FROM wallet_statements WHERE data_referencia = ? AND id_usuario >= ? AND id_usuario <= ?",
+                data, first, last);
+        jdbcTemplate.batchUpdate("INSERT INTO wallet_statements (id, id_usuario, data_referencia, saldo_inicial, creditos, "
+                + "debitos, saldo_final, quantidade_transacoes, moeda, gerado_em) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        boolean concluida = chunk.size() < properties.chunkSize();
+        jdbcTemplate.update("UPDATE statement_checkpoints SET ultimo_id_usuario = ?, concluida = ?, atualizado_em = ? WHERE id = ?",
+                last, concluida, now, checkpoint.id());
+
+        statements.addAndGet(rows.size());
+        statementsCounter.increment(rows.size());
+        return concluida ? null : last;
+    }
+
+    private void loadOpeningBalances(LocalDate dataReferencia, Map<String, Totals> chunk, String first, String last,
+                                     Timestamp dayStart) {
+        AtomicInteger missing = new AtomicInteger(chunk.size());
+        jdbcTemplate.query("SELECT id_usuario, saldo_final FROM wallet_statements "
+                        + "WHERE data_referencia = ? AND id_usuario >= ? AND id_usuario <= ?",
+                rs -> {
+                    Totals totals = chunk.get(rs.getString(1));
+                    if (totals != null) {
+                        totals.saldoInicial = rs.getBigDecimal(2);
+                        missing.decrementAndGet();
+                    }
+                }, Date.valueOf(dataReferencia.minusDays(1)), first, last);
+        if (missing.get() == 0) {
+            return;
+        }
+
+        // Sem extrato do dia anterior: saldo de abertura pela soma do ledger até o início do dia
+        Map<String, BigDecimal> ledger = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id_usuario_origem, SUM(CASE WHEN tipo_transacao = ? THEN valor ELSE -valor END) "
+                        + "FROM transactions WHERE data_hora < ? AND id_usuario_origem >= ? AND id_usuario_origem <= ? "
+                        + "GROUP BY id_usuario_origem",
+                rs -> {
+                    ledger.merge(rs.getString(1), rs.getBigDecimal(2), BigDecimal::add);
+                }, Messages.TRANSACTION_TYPE_DEPOSIT, dayStart, first, last);
+        jdbcTemplate.query("SELECT id_usuario_destino, SUM(valor) FROM transactions "
+                        + "WHERE tipo_transacao = ? AND data_hora < ? AND id_usuario_destino >= ? AND id_usuario_destino <= ? "
+                        + "GROUP BY id_usuario_destino",
+                rs -> {
+                    ledger.merge(rs.getString(1), rs.getBigDecimal(2), BigDecimal::add);
+                }, Messages.TRANSACTION_TYPE_TRANSFER, dayStart, first, last);
+
+        chunk.forEach((idUsuario, totals) -> {
+            if (totals.saldoInicial == null) {
+                totals.saldoInicial = ledger.getOrDefault(idUsuario, BigDecimal.ZERO);
+            }
+        });
+    }
+
+    private void markDone(Checkpoint checkpoint, String after) {
+        jdbcTemplate.update("UPDATE statement_checkpoints SET ultimo_id_usuario = ?, concluida = true, atualizado_em = ? WHERE id = ?",
+                after, Timestamp.valueOf(LocalDateTime.now()), checkpoint.id());
+    }
+}
@@ -0,0 +1,20 @@
+package com.walletservice.statement;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Geração de extratos diários (wallet.app.statements.*).
+ * partitions = faixas de idUsuario por dia (fixadas no primeiro planejamento do dia);
+ * workers = partições processadas ao mesmo tempo; chunkSize = carteiras por transação/checkpoint.
+ * O agendamento fica em wallet.app.statements.cron ("-" desliga).
+ */
+@ConfigurationProperties(prefix = "wallet.app.statements")
+public record StatementProperties(
+        @DefaultValue("16") int partitions,
+        @DefaultValue("4") int workers,
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("5000") int fetchSize,
+        @DefaultValue("true") boolean resumeOnStartup
+) {
+}
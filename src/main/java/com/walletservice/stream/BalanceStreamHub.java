@@ -0,0 +1,355 @@
+package com.walletservice.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.walletservice.domain.Wallet;
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.exception.ServiceOverloadedException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.journal.WalletJournal;
+import com.walletservice.projection.LedgerEvent;
+import com.walletservice.repository.WalletRepository;
+import com.walletservice.config.RedisSubscriptions;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conexões SSE de saldo, agrupadas por carteira.
+ *
+ * Cada LedgerEvent confirmado marca a carteira como alterada; se houver conexões abertas para ela,
+ * a partição da carteira lê o saldo uma vez, monta o evento uma vez e envia o mesmo payload a todas
+ * as conexões. Várias mudanças enfileiradas viram um único envio.
+ *
+ * O id de cada evento é a versao da carteira lida junto com o saldo. Na reconexão com Last-Event-ID,
+ * em qualquer instância, o saldo só deixa de ser reenviado quando a versao atual é igual a esse id.
+ * As conexões são locais à instância. Com redisEnabled cada mudança confirmada também é publicada no
+ * Redis, e as outras instâncias empurram o saldo para as conexões delas; sem Redis, só conexões da
+ * instância que confirmou a mudança recebem o envio.
+ */
+@Component
+public class BalanceStreamHub {
+
+    static final String EVENT_NAME = "balance";
+    static final String CHANNEL = "wallet:balance-changes";
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceStreamHub.class);
+
+    private final WalletJournal walletJournal;
+    private final WalletRepository walletRepository;
+    private final ObjectMapper objectMapper;
+    private final BalanceStreamProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    // Identifica as mensagens desta instância no canal, que ela mesma também recebe
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ExecutorService[] partitions;
+    private final ConcurrentMap<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    // Número da última mudança vista de cada carteira; cobre a corrida entre a leitura e o registro
+    private final ConcurrentMap<String, Long> lastChange = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long sequenceAtLastHeartbeat;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter eventsSent;
+    private final Counter sendFailures;
+    private final Counter publishFailures;
+
+    @Autowired
+    public BalanceStreamHub(WalletJournal walletJournal, WalletRepository walletRepository, ObjectMapper objectMapper,
+                            BalanceStreamProperties properties, MeterRegistry meterRegistry,
+                            ObjectProvider<StringRedisTemplate> redisTemplate,
+                            ObjectProvider<RedisSubscriptions> redisSubscriptions) {
+        this(walletJournal, walletRepository, objectMapper, properties, meterRegistry,
+                properties.redisEnabled() ? redisTemplate.getIfAvailable() : null);
+        RedisSubscriptions subscriptions = redisSubscriptions.getIfAvailable();
+        if (this.redisTemplate != null && subscriptions != null) {
+            subscriptions.subscribe(CHANNEL, (message, pattern) ->
+                    onRemoteChange(new String(message.getBody(), StandardCharsets.UTF_8)));
+        }
+    }
+
+    BalanceStreamHub(WalletJournal walletJournal, WalletRepository walletRepository, ObjectMapper objectMapper,
+                     BalanceStreamProperties properties, MeterRegistry meterRegistry,
+                     StringRedisTemplate redisTemplate) {
+        this.walletJournal = walletJournal;
+        this.walletRepository = walletRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+
+        this.partitions = new ExecutorService[Math.max(1, properties.partitions())];
+        for (int i = 0; i < this.partitions.length; i++) {
+            this.partitions[i] = Executors.newSingleThreadExecutor(
+                    Thread.ofPlatform().name("balance-stream-" + i).daemon().factory());
+        }
+
+        Gauge.builder("wallet.balance.stream.connections", connections, AtomicInteger::get)
+                .description("Conexões SSE de saldo abertas")
+                .register(meterRegistry);
+        Gauge.builder("wallet.balance.stream.wallets", subscribers, ConcurrentMap::size)
+                .description("Carteiras com ao menos uma conexão SSE")
+                .register(meterRegistry);
+        this.eventsSent = Counter.builder("wallet.balance.stream.events")
+                .description("Eventos de saldo enviados às conexões SSE")
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("wallet.balance.stream.send.failures")
+                .description("Envios SSE que falharam e encerraram a conexão")
+                .register(meterRegistry);
+        this.publishFailures = Counter.builder("wallet.balance.stream.publish.failures")
+                .description("Mudanças de saldo que não puderam ser publicadas para as outras instâncias")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre uma conexão para a carteira. Envia o saldo atual, exceto quando lastEventId é a versao
+     * atual da carteira, ou seja, o cliente já tem o saldo mais recente.
+     */
+    public SseEmitter subscribe(String idUsuario, String lastEventId) {
+        if (connections.incrementAndGet() > properties.maxConnections()) {
+            connections.decrementAndGet();
+            throw new ServiceOverloadedException();
+        }
+        AtomicBoolean registered = new AtomicBoolean();
+        try {
+            // Capturado antes da leitura: qualquer mudança vista depois dela gera novo envio
+            long seen = sequence.get();
+            Snapshot snapshot = readBalance(idUsuario);
+
+            SseEmitter emitter = new SseEmitter(properties.connectionTimeout().toMillis());
+            emitter.onCompletion(() -> unsubscribe(idUsuario, emitter));
+            emitter.onTimeout(() -> unsubscribe(idUsuario, emitter));
+            emitter.onError(e -> unsubscribe(idUsuario, emitter));
+
+            if (missedChanges(lastEventId, snapshot.versao())) {
+                // Ninguém mais conhece o emitter ainda: o envio fica no buffer até o handler terminar
+                emitter.send(balanceEvent(snapshot)
+                        .reconnectTime(properties.reconnectDelay().toMillis()));
+            }
+            subscribers.compute(idUsuario, (key, emitters) -> {
+                Set<SseEmitter> set = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+                set.add(emitter);
+                return set;
+            });
+            registered.set(true);
+            // Mudança vista entre a leitura e o registro: reenvia o saldo
+            if (lastChange.getOrDefault(idUsuario, 0L) > seen) {
+                schedulePush(idUsuario);
+            }
+            return emitter;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open balance stream for user " + idUsuario, e);
+        } finally {
+            if (!registered.get()) {
+                connections.decrementAndGet();
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLedgerEvent(LedgerEvent event) {
+        changed(event.idUsuarioOrigem());
+        publish(event.idUsuarioOrigem());
+        if (event.idUsuarioDestino() != null) {
+            changed(event.idUsuarioDestino());
+            publish(event.idUsuarioDestino());
+        }
+    }
+
+    /**
+     * Mudança publicada no Redis ("instancia:idUsuario"); as publicadas por esta instância já foram tratadas.
+     */
+    void onRemoteChange(String message) {
+        int separator = message.indexOf(':');
+        if (separator <= 0 || message.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        changed(message.substring(separator + 1));
+    }
+
+    /**
+     * Comentário periódico para manter proxies e balanceadores com a conexão aberta e detectar
+     * clientes que já foram embora. Também descarta as mudanças de carteiras sem conexão vistas
+     * antes do heartbeat anterior.
+     */
+    @Scheduled(fixedDelayString = "${wallet.app.balance-stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> payload = SseEmitter.event().comment("heartbeat").build();
+        for (String idUsuario : subscribers.keySet()) {
+            execute(idUsuario, () -> sendToAll(idUsuario, payload, false));
+        }
+        long previous = sequenceAtLastHeartbeat;
+        sequenceAtLastHeartbeat = sequence.get();
+        lastChange.entrySet().removeIf(entry -> entry.getValue() <= previous
+                && !subscribers.containsKey(entry.getKey()));
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+        // Os clientes reconectam com Last-Event-ID em outra instância
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    private void changed(String idUsuario) {
+        lastChange.merge(idUsuario, sequence.incrementAndGet(), Math::max);
+        if (subscribers.containsKey(idUsuario)) {
+            schedulePush(idUsuario);
+        }
+    }
+
+    // Fora da thread do commit; sem Redis as outras instâncias só veem a mudança na próxima reconexão
+    private void publish(String idUsuario) {
+        if (redisTemplate == null) {
+            return;
+        }
+        execute(idUsuario, () -> {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, instanceId + ":" + idUsuario);
+            } catch (RuntimeException e) {
+                publishFailures.increment();
+                logger.debug("Could not publish balance change of user {}: {}", idUsuario, e.getMessage());
+            }
+        });
+    }
+
+    private void schedulePush(String idUsuario) {
+        if (pending.add(idUsuario)) {
+            execute(idUsuario, () -> push(idUsuario));
+        }
+    }
+
+    private void push(String idUsuario) {
+        // Removido antes da leitura para que mudanças durante o envio agendem outro
+        pending.remove(idUsuario);
+        if (!subscribers.containsKey(idUsuario)) {
+            return;
+        }
+        Set<DataWithMediaType> payload;
+        try {
+            payload = balanceEvent(readBalance(idUsuario)).build();
+        } catch (RuntimeException e) {
+            logger.warn("Could not read balance to stream for user {}: {}", idUsuario, e.getMessage());
+            return;
+        }
+        sendToAll(idUsuario, payload, true);
+    }
+
+    private void sendToAll(String idUsuario, Set<DataWithMediaType> payload, boolean countEvent) {
+        Set<SseEmitter> emitters = subscribers.get(idUsuario);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(payload);
+                if (countEvent) {
+                    eventsSent.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado ou emitter já encerrado
+                sendFailures.increment();
+                unsubscribe(idUsuario, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void unsubscribe(String idUsuario, SseEmitter emitter) {
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(idUsuario, (key, emitters) -> {
+            removed.set(emitters.remove(emitter));
+            return emitters.isEmpty() ? null : emitters;
+        });
+        if (removed.get()) {
+            connections.decrementAndGet();
+        }
+    }
+
+    private static boolean missedChanges(String lastEventId, long versao) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return true;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim()) != versao;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private record Snapshot(BalanceResponse balance, long versao) {
+    }
+
+    /**
+     * O saldo do journal em memória está à frente do banco; fora do modo journal lê o modelo de escrita.
+     * A versão do journal é lida antes do saldo: no pior caso o id fica atrás do saldo enviado e a
+     * próxima reconexão reenvia o saldo.
+     */
+    private Snapshot readBalance(String idUsuario) {
+        Optional<Long> journaledVersion = walletJournal.version(idUsuario);
+        Optional<BalanceResponse> journaled = walletJournal.balance(idUsuario);
+        if (journaledVersion.isPresent() && journaled.isPresent()) {
+            return new Snapshot(journaled.get(), journaledVersion.get());
+        }
+        Wallet wallet = walletRepository.findByIdUsuario(idUsuario);
+        if (wallet == null) {
+            throw new WalletNotFoundException(String.format(Messages.WALLET_NOT_FOUND, idUsuario));
+        }
+        return new Snapshot(new BalanceResponse(wallet.getIdUsuario(), wallet.getSaldo(), wallet.getMoeda()),
+                wallet.getVersao());
+    }
+
+    // JSON serializado uma vez por mudança, enviado como texto para todas as conexões
+    private SseEmitter.SseEventBuilder balanceEvent(Snapshot snapshot) {
+        try {
+            return SseEmitter.event()
+                    .id(Long.toString(snapshot.versao()))
+                    .name(EVENT_NAME)
+                    .data(objectMapper.writeValueAsString(snapshot.balance()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize balance for user " + snapshot.balance().idUsuario(), e);
+        }
+    }
+
+    private void execute(String idUsuario, Runnable task) {
+        try {
+            partitions[Math.floorMod(idUsuario.hashCode(), partitions.length)].execute(task);
+        } catch (RejectedExecutionException e) {
+            // Encerrando
+            pending.remove(idUsuario);
+        }
+    }
+}
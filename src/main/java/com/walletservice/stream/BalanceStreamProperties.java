@@ -0,0 +1,22 @@
+package com.walletservice.stream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Stream SSE de saldo (wallet.app.balance-stream.*).
+ * partitions = threads de envio (hash da carteira); redisEnabled = publica as mudanças no Redis para
+ * que as conexões abertas em outras instâncias também recebam o saldo. O heartbeat fica em
+ * wallet.app.balance-stream.heartbeat-interval-ms.
+ */
+@ConfigurationProperties(prefix = "wallet.app.balance-stream")
+public record BalanceStreamProperties(
+        @DefaultValue("10000") int maxConnections,
+        @DefaultValue("4") int partitions,
+        @DefaultValue("30m") Duration connectionTimeout,
+        @DefaultValue("3s") Duration reconnectDelay,
+        @DefaultValue("true") boolean redisEnabled
+) {
+}
@@ -0,0 +1,206 @@
+package com.walletservice.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing wheel hierárquica (no estilo das filas de timers do kernel): {@code levels} rodas de 64
+ * posições, em que cada posição do nível k cobre 64^k ticks. Agendar e cancelar custam O(1), e
+ * avançar um tick custa O(1) mais os timers que vencem ou descem de nível naquele tick; cada
+ * timer desce no máximo {@code levels - 1} vezes. Com tick de 100 ms, 6 níveis cobrem mais de 200 anos.
+ *
+ * Os timers de uma posição ficam numa lista duplamente ligada intrusiva, então o cancelamento
+ * só desliga o nó. Thread-safe: as operações sincronizam na própria roda e são curtas;
+ * os payloads vencidos são devolvidos para o chamador processar fora do lock.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final long span;
+    // [nível][posição]: sentinela da lista circular daquela posição
+    private final Timeout<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Timer agendado; usado para cancelar.
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private boolean linked;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis <= 0 || levels <= 0 || levels > 10) {
+            throw new IllegalArgumentException("tickMillis deve ser positivo e levels entre 1 e 10");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.span = 1L << (BITS * levels);
+        this.wheels = new Timeout[levels][SLOTS];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timeout<T> sentinel = new Timeout<>(null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                wheels[level][slot] = sentinel;
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Agenda o payload para vencer no primeiro tick em ou após {@code deadlineMillis}.
+     * Prazos já vencidos saem no próximo avanço.
+     */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        // Arredonda para cima: nunca vence antes do prazo
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timeout<T> timeout = new Timeout<>(payload, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * @return true se o timer ainda estava agendado
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || !timeout.linked) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Avança a roda até {@code nowMillis} e devolve os payloads vencidos, em ordem de prazo
+     * (por tick). Depois de um longo intervalo sem avançar, processa os ticks pendentes em sequência.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            // Roda vazia: nada a descer nem vencer até o alvo
+            if (size == 0) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            cascade();
+            drain(wheels[0][(int) (currentTick & MASK)], expired);
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long tickMillis() {
+        return tickMillis;
+    }
+
+    // Ao virar uma posição do nível k-1, os timers da posição atual do nível k descem (de cima para baixo)
+    private void cascade() {
+        int top = 0;
+        while (top + 1 < levels && ((currentTick >>> (BITS * (top + 1))) << (BITS * (top + 1))) == currentTick) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            Timeout<T> node = detach(wheels[level][(int) ((currentTick >>> (BITS * level)) & MASK)]);
+            while (node != null) {
+                Timeout<T> next = node.next;
+                if (node.deadlineTick <= currentTick) {
+                    // Vence neste tick: a posição atual do nível 0 é drenada logo em seguida
+                    link(wheels[0][(int) (currentTick & MASK)], node);
+                } else {
+                    place(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private void drain(Timeout<T> sentinel, List<T> expired) {
+        Timeout<T> node = detach(sentinel);
+        while (node != null) {
+            Timeout<T> next = node.next;
+            if (node.deadlineTick <= currentTick) {
+                node.prev = null;
+                node.next = null;
+                expired.add(node.payload);
+                size--;
+            } else {
+                place(node);
+            }
+            node = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            // Vencido ao agendar: sai no próximo tick
+            link(wheels[0][(int) ((currentTick + 1) & MASK)], timeout);
+            return;
+        }
+        // Além do alcance da roda: fica na última posição do nível mais alto e é reposicionado ao descer
+        long tick = delta < span ? timeout.deadlineTick : currentTick + span - 1;
+        int level = 0;
+        while (level + 1 < levels && (tick - currentTick) >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        link(wheels[level][(int) ((tick >>> (BITS * level)) & MASK)], timeout);
+    }
+
+    private static <T> void link(Timeout<T> sentinel, Timeout<T> timeout) {
+        timeout.prev = sentinel.prev;
+        timeout.next = sentinel;
+        sentinel.prev.next = timeout;
+        sentinel.prev = timeout;
+        timeout.linked = true;
+    }
+
+    // Esvazia a posição e devolve seus timers como uma lista simples (next), já desligados
+    private static <T> Timeout<T> detach(Timeout<T> sentinel) {
+        if (sentinel.next == sentinel) {
+            return null;
+        }
+        Timeout<T> first = sentinel.next;
+        sentinel.prev.next = null;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        for (Timeout<T> node = first; node != null; node = node.next) {
+            node.linked = false;
+        }
+        return first;
+    }
+
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.linked = false;
+    }
+}
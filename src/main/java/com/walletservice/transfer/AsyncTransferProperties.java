@@ -0,0 +1,31 @@
+package com.walletservice.transfer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Transferências assíncronas (wallet.app.async-transfer.*).
+ * partitions = filas/threads (hash da carteira de origem); batchSize = operações lidas por vez da fila.
+ * A varredura periódica das filas fica em wallet.app.async-transfer.poll-interval-ms.
+ * callbackSchemes/callbackHosts = destinos aceitos para a callbackUrl (lista de hosts vazia aceita
+ * qualquer host público); callbackPrivateAddresses libera endereços internos, só para desenvolvimento.
+ */
+@ConfigurationProperties(prefix = "wallet.app.async-transfer")
+public record AsyncTransferProperties(
+        @DefaultValue("4") int partitions,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("5s") Duration callbackTimeout,
+        @DefaultValue("https") List<String> callbackSchemes,
+        List<String> callbackHosts,
+        @DefaultValue("false") boolean callbackPrivateAddresses
+) {
+    public AsyncTransferProperties {
+        callbackSchemes = callbackSchemes != null ? callbackSchemes : List.of("https");
+        callbackHosts = callbackHosts != null
+                ? callbackHosts.stream().filter(host -> !host.isBlank()).toList()
+                : List.of();
+    }
+}
@@ -0,0 +1,266 @@
+package com.walletservice.transfer;
+
+import com.walletservice.datasource.WorkloadContext;
+import com.walletservice.domain.TransferOperation;
+import com.walletservice.dto.AsyncTransferRequest;
+import com.walletservice.dto.TransferOperationResponse;
+import com.walletservice.dto.TransferRequest;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.VelocityLimitExceededException;
+import com.walletservice.exception.TransferOperationNotFoundException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.repository.TransferOperationRepository;
+import com.walletservice.service.WalletService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transferências assíncronas: POST /api/wallets/transfers grava a operação em transfer_operations
+ * e responde 202 assim que ela está confirmada no banco; o resultado sai em
+ * GET /api/wallets/transfers/{operacaoId} e, opcionalmente, num POST para a callbackUrl.
+ *
+ * A fila é particionada pelo hash da carteira de origem, com uma thread por partição, então as
+ * transferências de uma carteira são aplicadas na ordem em que foram aceitas. Cada thread lê a
+ * fila em lotes de batchSize e aplica cada operação com WalletService.transfer na mesma transação
+ * que marca a operação como concluída, para que um crash nunca a aplique duas vezes. O status é
+ * gravado antes da transferência, com checagem de versão: a linha fica bloqueada até o commit, então
+ * outra instância drenando a mesma partição falha na versão sem transferir.
+ *
+ * Erros de negócio (saldo insuficiente, carteira inexistente) encerram a operação como FAILED.
+ * Qualquer outro erro (banco fora, circuito aberto) interrompe a partição sem pular a operação:
+ * a varredura periódica tenta de novo, preservando a ordem.
+ * No modo journal a transferência é confirmada no journal local, fora desta transação; um crash
+ * entre o journal e o commit do status pode reaplicar a operação.
+ */
+@Service
+public class AsyncTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransferService.class);
+
+    static final String WORKLOAD = "walletWrite";
+
+    private final TransferOperationRepository operationRepository;
+    private final WalletService walletService;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTransferProperties properties;
+    private final CallbackUrlPolicy callbackPolicy;
+
+    private final ExecutorService[] partitions;
+    private final AtomicBoolean[] scheduled;
+    private final ExecutorService callbacks = Executors.newFixedThreadPool(2,
+            Thread.ofPlatform().name("async-transfer-callback-", 0).daemon().factory());
+
+    private final Timer completedTimer;
+    private final Timer failedTimer;
+    private final Counter retries;
+    private final Counter callbackFailures;
+
+    private enum Outcome { DONE, RETRY }
+
+    public AsyncTransferService(TransferOperationRepository operationRepository, WalletService walletService,
+                                PlatformTransactionManager transactionManager, AsyncTransferProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.operationRepository = operationRepository;
+        this.walletService = walletService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+
+        this.callbackPolicy = new CallbackUrlPolicy(properties);
+
+        int count = Math.max(1, properties.partitions());
+        this.partitions = new ExecutorService[count];
+        this.scheduled = new AtomicBoolean[count];
+        for (int i = 0; i < count; i++) {
+            this.partitions[i] = Executors.newSingleThreadExecutor(
+                    Thread.ofPlatform().name("async-transfer-" + i).daemon().factory());
+            this.scheduled[i] = new AtomicBoolean();
+        }
+
+        // Tempo entre aceitar a operação e concluí-la, por resultado
+        this.completedTimer = Timer.builder("wallet.async.transfer")
+                .description("Tempo entre o 202 e o processamento da transferência assíncrona")
+                .tag("outcome", "completed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.failedTimer = Timer.builder("wallet.async.transfer")
+                .description("Tempo entre o 202 e o processamento da transferência assíncrona")
+                .tag("outcome", "failed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.retries = Counter.builder("wallet.async.transfer.retries")
+                .description("Tentativas adiadas por erro de infraestrutura")
+                .register(meterRegistry);
+        this.callbackFailures = Counter.builder("wallet.async.transfer.callback.failures")
+                .description("Callbacks de resultado que não puderam ser entregues")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Grava a operação na fila e agenda a partição. Quando retorna, a operação já é durável.
+     */
+    public TransferOperationResponse submit(AsyncTransferRequest request) {
+        // Não permite transferir para si mesmo
+        if (Objects.equals(request.idUsuarioOrigem(), request.idUsuarioDestino())) {
+            throw new IllegalArgumentException("Não é possível transferir para si mesmo");
+        }
+        if (request.callbackUrl() != null) {
+            callbackPolicy.check(request.callbackUrl());
+        }
+        TransferOperation operation = new TransferOperation(UUID.randomUUID(), request.idUsuarioOrigem(),
+                request.idUsuarioDestino(), request.valor(), partitionOf(request.idUsuarioOrigem()),
+                request.callbackUrl(), LocalDateTime.now());
+
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            operation = operationRepository.save(operation);
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+        schedule(operation.getParticao());
+        return TransferOperationResponse.from(operation);
+    }
+
+    public TransferOperationResponse status(UUID operacaoId) {
+        return operationRepository.findByOperacaoId(operacaoId)
+                .map(TransferOperationResponse::from)
+                .orElseThrow(() -> new TransferOperationNotFoundException(operacaoId.toString()));
+    }
+
+    // Recupera operações aceitas antes de um restart e partições interrompidas por erro
+    @Scheduled(fixedDelayString = "${wallet.app.async-transfer.poll-interval-ms:1000}")
+    public void pollAll() {
+        for (int i = 0; i < partitions.length; i++) {
+            schedule(i);
+        }
+    }
+
+    int partitionOf(String idUsuarioOrigem) {
+        return Math.floorMod(idUsuarioOrigem.hashCode(), partitions.length);
+    }
+
+    private void schedule(int partition) {
+        // No máximo um dreno enfileirado por partição; o que chegar depois é lido por ele
+        if (scheduled[partition].compareAndSet(false, true)) {
+            partitions[partition].submit(() -> drain(partition));
+        }
+    }
+
+    private void drain(int partition) {
+        scheduled[partition].set(false);
+        String previous = WorkloadContext.enter(WORKLOAD);
+        try {
+            List<TransferOperation> batch;
+            do {
+                batch = operationRepository.findPending(partition, PageRequest.of(0, properties.batchSize()));
+                for (TransferOperation operation : batch) {
+                    if (process(operation) == Outcome.RETRY) {
+                        return;
+                    }
+                }
+            } while (batch.size() == properties.batchSize());
+        } catch (RuntimeException e) {
+            logger.warn("Async transfer partition {} could not read its queue", partition, e);
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    private Outcome process(TransferOperation operation) {
+        TransferRequest request = new TransferRequest(operation.getIdUsuarioOrigem(),
+                operation.getIdUsuarioDestino(), operation.getValor());
+        try {
+            TransferOperation completed = transactionTemplate.execute(status -> {
+                // O status vai primeiro: trava a linha e falha na versão se outra instância já aplicou
+                operation.complete(LocalDateTime.now());
+                TransferOperation claimed = operationRepository.saveAndFlush(operation);
+                walletService.transfer(request);
+                return claimed;
+            });
+            finished(completed, completedTimer);
+            return Outcome.DONE;
+        } catch (InsufficientFundsException | WalletNotFoundException | VelocityLimitExceededException
+                 | IllegalArgumentException e) {
+            // A transação da transferência já foi desfeita; registra a falha em outra, sobre o estado atual
+            TransferOperation failed = transactionTemplate.execute(status -> {
+                TransferOperation current = operationRepository.findById(operation.getId()).orElse(null);
+                if (current == null || !current.isPending()) {
+                    return null;
+                }
+                current.fail(e.getMessage(), LocalDateTime.now());
+                return operationRepository.saveAndFlush(current);
+            });
+            if (failed != null) {
+                finished(failed, failedTimer);
+            }
+            return Outcome.DONE;
+        } catch (OptimisticLockingFailureException e) {
+            // Já processada por outra instância
+            logger.debug("Async transfer {} was processed by another instance", operation.getOperacaoId());
+            return Outcome.DONE;
+        } catch (RuntimeException e) {
+            retries.increment();
+            logger.warn("Async transfer {} postponed: {}", operation.getOperacaoId(), e.toString());
+            return Outcome.RETRY;
+        }
+    }
+
+    private void finished(TransferOperation operation, Timer timer) {
+        timer.record(Duration.between(operation.getCriadoEm(), operation.getProcessadoEm()));
+        if (operation.getCallbackUrl() != null) {
+            TransferOperationResponse result = TransferOperationResponse.from(operation);
+            callbacks.submit(() -> notify(operation.getCallbackUrl(), result));
+        }
+    }
+
+    // Entrega única e sem garantia; o resultado continua disponível no endpoint de status
+    private void notify(String callbackUrl, TransferOperationResponse result) {
+        try {
+            InetAddress address = callbackPolicy.resolve(callbackUrl);
+            URI uri = URI.create(callbackUrl);
+            RestClient.builder()
+                    .requestFactory(new PinnedCallbackRequestFactory(uri, address, properties.callbackTimeout()))
+                    .build()
+                    .post()
+                    .uri(uri)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(result)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RuntimeException e) {
+            callbackFailures.increment();
+            logger.warn("Callback for async transfer {} to {} failed: {}", result.operacaoId(), callbackUrl,
+                    e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+        callbacks.shutdown();
+    }
+}
@@ -0,0 +1,111 @@
+package com.walletservice.transfer;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Destinos aceitos para a callbackUrl das transferências assíncronas.
+ * O esquema precisa estar em callbackSchemes e, se callbackHosts não estiver vazio, o host precisa
+ * constar nele (".exemplo.com" aceita os subdomínios). Todos os endereços do host são resolvidos e
+ * nenhum pode ser loopback, link-local, privado, multicast ou não roteável, a menos que
+ * callbackPrivateAddresses esteja ligado. A checagem é refeita antes de cada entrega por resolve, que
+ * devolve o endereço validado; o POST conecta nele ({@link PinnedCallbackRequestFactory}) sem resolver
+ * o host de novo, para que um DNS que muda entre a checagem e a conexão não leve a um endereço interno.
+ */
+final class CallbackUrlPolicy {
+
+    private final List<String> schemes;
+    private final List<String> hosts;
+    private final boolean privateAddresses;
+
+    CallbackUrlPolicy(AsyncTransferProperties properties) {
+        this.schemes = properties.callbackSchemes().stream().map(s -> s.toLowerCase(Locale.ROOT)).toList();
+        this.hosts = properties.callbackHosts().stream().map(h -> h.toLowerCase(Locale.ROOT)).toList();
+        this.privateAddresses = properties.callbackPrivateAddresses();
+    }
+
+    /**
+     * Lança IllegalArgumentException se a URL não é um destino permitido.
+     */
+    void check(String callbackUrl) {
+        URI uri = parse(callbackUrl);
+        if (!privateAddresses) {
+            resolve(uri);
+        }
+    }
+
+    /**
+     * Refaz a checagem e devolve o endereço validado em que a entrega deve conectar.
+     */
+    InetAddress resolve(String callbackUrl) {
+        return resolve(parse(callbackUrl));
+    }
+
+    private URI parse(String callbackUrl) {
+        URI uri;
+        try {
+            uri = new URI(callbackUrl);
+        } catch (URISyntaxException e) {
+            throw rejected("URL inválida");
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!schemes.contains(scheme)) {
+            throw rejected("esquema não permitido");
+        }
+        if (uri.getHost() == null || uri.getUserInfo() != null) {
+            throw rejected("host inválido");
+        }
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (!hosts.isEmpty() && hosts.stream().noneMatch(allowed -> matches(host, allowed))) {
+            throw rejected("host fora da lista permitida");
+        }
+        return uri;
+    }
+
+    private InetAddress resolve(URI uri) {
+        String host = uri.getHost();
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host.startsWith("[") ? host.substring(1, host.length() - 1) : host);
+        } catch (UnknownHostException e) {
+            throw rejected("host não encontrado");
+        }
+        if (!privateAddresses) {
+            for (InetAddress address : addresses) {
+                if (isInternal(address)) {
+                    throw rejected("endereço interno");
+                }
+            }
+        }
+        return addresses[0];
+    }
+
+    private static boolean matches(String host, String allowed) {
+        return allowed.startsWith(".") ? host.endsWith(allowed) : host.equals(allowed);
+    }
+
+    static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet6Address) {
+            // fc00::/7 (endereços locais únicos)
+            return (bytes[0] & 0xfe) == 0xfc;
+        }
+        int first = bytes[0] & 0xff;
+        int second = bytes[1] & 0xff;
+        // 0.0.0.0/8 e 100.64.0.0/10 (NAT de operadora)
+        return first == 0 || (first == 100 && second >= 64 && second < 128);
+    }
+
+    private static IllegalArgumentException rejected(String motivo) {
+        return new IllegalArgumentException("callbackUrl não permitida: " + motivo);
+    }
+}
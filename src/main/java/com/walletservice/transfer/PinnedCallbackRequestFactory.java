@@ -0,0 +1,118 @@
+package com.walletservice.transfer;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Fábrica de requisições do callback que conecta no endereço validado pelo {@link CallbackUrlPolicy},
+ * sem nova resolução de DNS, e nunca segue redirecionamentos.
+ *
+ * Em https o socket TCP é aberto direto no endereço validado e o TLS continua usando o host da URL
+ * (SNI e verificação do certificado). Em http o endereço validado é usado como próximo salto:
+ * a requisição sai na forma absoluta com o Host original, que todo servidor HTTP/1.1 aceita.
+ */
+final class PinnedCallbackRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final InetAddress address;
+
+    PinnedCallbackRequestFactory(URI uri, InetAddress address, Duration timeout) {
+        this.address = address;
+        setConnectTimeout(timeout);
+        setReadTimeout(timeout);
+        if ("https".equalsIgnoreCase(uri.getScheme())) {
+            // Sem proxy do sistema: o proxy resolveria o host por conta própria
+            setProxy(Proxy.NO_PROXY);
+        } else {
+            int port = uri.getPort() != -1 ? uri.getPort() : 80;
+            setProxy(new Proxy(Proxy.Type.HTTP, new InetSocketAddress(address, port)));
+        }
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        connection.setInstanceFollowRedirects(false);
+        if (connection instanceof HttpsURLConnection https) {
+            https.setSSLSocketFactory(new PinnedSocketFactory(https.getSSLSocketFactory(), address));
+        }
+    }
+
+    /**
+     * Devolve um socket comum que conecta no endereço fixo; o HttpsURLConnection monta o TLS sobre ele
+     * com createSocket(socket, host, port, autoClose), usando o host da URL.
+     */
+    private static final class PinnedSocketFactory extends SSLSocketFactory {
+
+        private final SSLSocketFactory delegate;
+        private final InetAddress address;
+
+        PinnedSocketFactory(SSLSocketFactory delegate, InetAddress address) {
+            this.delegate = delegate;
+            this.address = address;
+        }
+
+        @Override
+        public Socket createSocket() {
+            return new Socket() {
+                @Override
+                public void connect(SocketAddress endpoint, int timeout) throws IOException {
+                    int port = ((InetSocketAddress) endpoint).getPort();
+                    super.connect(new InetSocketAddress(address, port), timeout);
+                }
+            };
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            return delegate.createSocket(socket, host, port, autoClose);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return layered(host, port);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return layered(host, port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return layered(host.getHostName(), port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port, InetAddress localAddress, int localPort)
+                throws IOException {
+            return layered(host.getHostName(), port);
+        }
+
+        private Socket layered(String host, int port) throws IOException {
+            Socket socket = createSocket();
+            socket.connect(new InetSocketAddress(address, port));
+            return delegate.createSocket(socket, host, port, true);
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+    }
+}
@@ -11,6 +11,16 @@ public class Messages {
     public static final String INVALID_AMOUNT = "O valor precisa ser maior que zero";
     public static final String INSUFFICIENT_BALANCE = "Saldo insuficiente para completar a operação";
     public static final String INVALID_CURRENCY = "Moeda não suportada no momento";
+    public static final String WITHDRAWAL_LIMIT_EXCEEDED = "Limite de saques do período excedido para o usuário %s";
+    public static final String TRANSFER_LIMIT_EXCEEDED = "Limite de transferências do período excedido para o usuário %s";
+    public static final String HOLD_NOT_FOUND = "Reserva %s não encontrada";
+    public static final String HOLD_NOT_ACTIVE = "A reserva %s já foi encerrada (%s)";
+    public static final String HOLD_CAPTURE_EXCEEDS = "O valor capturado não pode ser maior que o reservado";
+    public static final String HOLDS_UNAVAILABLE_IN_JOURNAL = "Reservas não estão disponíveis no modo journal";
+    public static final String SCHEDULED_TRANSFER_NOT_FOUND = "Agendamento %s não encontrado";
+    public static final String SCHEDULED_TRANSFER_NOT_ACTIVE = "O agendamento %s já foi encerrado (%s)";
+    public static final String SCHEDULED_TRANSFER_IN_PAST = "A data de execução não pode estar no passado";
+    public static final String SCHEDULED_TRANSFER_END_BEFORE_START = "A data final não pode ser anterior à primeira execução";
 
     // Mensagens de sucesso - usadas nos logs e descrições de transações
     // TODO: No futuro, adicionar mais detalhes como valores e timestamps
@@ -18,6 +28,7 @@ public class Messages {
     public static final String WITHDRAW_SUCCESS = "Saque efetuado com sucesso";
     public static final String TRANSFER_SUCCESS = "Transferência concluída com sucesso";
     public static final String WALLET_CREATED = "Nova carteira criada com sucesso";
+    public static final String HOLD_CAPTURE_SUCCESS = "Captura da reserva %s";
 
     // Tipos de transação - usados para categorizar as operações no banco
     public static final String TRANSACTION_TYPE_DEPOSIT = "DEPOSITO";
@@ -0,0 +1,190 @@
+-- Schema do wallet-service para PostgreSQL.
+-- Em produção o Hibernate roda com ddl-auto=validate (perfil prod): este script é a fonte do schema.
+-- O docker-compose o aplica na criação do banco; em outros ambientes, rodar uma vez antes do primeiro deploy.
+-- Mudanças nas entidades precisam vir acompanhadas da alteração correspondente aqui.
+
+create table users (
+    id bigint generated by default as identity,
+    email varchar(255) not null unique,
+    password varchar(255) not null,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    role varchar(255),
+    constraint fk_user_roles_user foreign key (user_id) references users
+);
+
+create table wallets (
+    id uuid not null,
+    id_usuario varchar(255) not null unique,
+    saldo numeric(38,2) not null,
+    moeda varchar(255) not null,
+    reservado numeric(38,2) default 0 not null,
+    versao bigint default 0 not null,
+    primary key (id)
+);
+
+create table transactions (
+    id uuid not null,
+    tipo_transacao varchar(255) not null,
+    valor numeric(38,2) not null,
+    moeda varchar(255) not null,
+    data_hora timestamp(6) not null,
+    id_usuario_origem varchar(255) not null,
+    id_usuario_destino varchar(255),
+    status varchar(255) not null,
+    descricao varchar(255),
+    primary key (id)
+);
+
+create index idx_transactions_origem_data on transactions (id_usuario_origem, data_hora);
+create index idx_transactions_destino_data on transactions (id_usuario_destino, data_hora);
+create index idx_transactions_data on transactions (data_hora);
+
+-- Modelo de leitura (BalanceProjector)
+create table wallet_balance_view (
+    id_usuario varchar(255) not null,
+    saldo numeric(38,2) not null,
+    moeda varchar(255) not null,
+    ultima_transacao timestamp(6),
+    data_referencia date not null,
+    creditos_dia numeric(38,2) not null,
+    debitos_dia numeric(38,2) not null,
+    versao bigint not null,
+    atualizado_em timestamp(6) not null,
+    primary key (id_usuario)
+);
+
+-- Modo event-sourced
+create table wallet_events (
+    id uuid not null,
+    id_usuario varchar(255) not null,
+    sequencia bigint not null,
+    tipo varchar(255) not null,
+    valor numeric(38,2) not null,
+    data_hora timestamp(6) not null,
+    id_transacao uuid,
+    primary key (id),
+    constraint uk_wallet_events_usuario_sequencia unique (id_usuario, sequencia)
+);
+
+create table wallet_snapshots (
+    id_usuario varchar(255) not null,
+    sequencia bigint not null,
+    saldo numeric(38,2) not null,
+    criado_em timestamp(6) not null,
+    primary key (id_usuario)
+);
+
+-- Modo journal
+create table journal_checkpoint (
+    nome varchar(255) not null,
+    sequencia bigint not null,
+    atualizado_em timestamp(6) not null,
+    primary key (nome)
+);
+
+-- Extratos diários (StatementJob)
+create table wallet_statements (
+    id uuid not null,
+    id_usuario varchar(255) not null,
+    data_referencia date not null,
+    saldo_inicial numeric(38,2) not null,
+    creditos numeric(38,2) not null,
+    debitos numeric(38,2) not null,
+    saldo_final numeric(38,2) not null,
+    quantidade_transacoes integer not null,
+    moeda varchar(255) not null,
+    gerado_em timestamp(6) not null,
+    primary key (id),
+    constraint uk_wallet_statements_usuario_data unique (id_usuario, data_referencia)
+);
+
+create table statement_checkpoints (
+    id varchar(255) not null,
+    data_referencia date not null,
+    particao integer not null,
+    inicio varchar(255) not null,
+    fim varchar(255),
+    ultimo_id_usuario varchar(255),
+    concluida boolean not null,
+    atualizado_em timestamp(6) not null,
+    primary key (id)
+);
+
+-- Fila de transferências assíncronas (AsyncTransferService)
+create table transfer_operations (
+    id bigint generated by default as identity,
+    operacao_id uuid not null unique,
+    id_usuario_origem varchar(255) not null,
+    id_usuario_destino varchar(255) not null,
+    valor numeric(38,2) not null,
+    particao integer not null,
+    status varchar(255) not null,
+    motivo varchar(255),
+    callback_url varchar(2048),
+    tentativas integer not null,
+    criado_em timestamp(6) not null,
+    processado_em timestamp(6),
+    primary key (id)
+);
+
+create index idx_transfer_operations_fila on transfer_operations (particao, status, id);
+
+-- Totais diários por carteira e tipo de lançamento (DailyRollupWriter)
+create table transaction_daily_rollup (
+    id varchar(255) not null,
+    id_usuario varchar(255) not null,
+    dia date not null,
+    tipo varchar(255) not null,
+    quantidade bigint not null,
+    valor_total numeric(38,2) not null,
+    atualizado_em timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_rollup_dia_tipo on transaction_daily_rollup (dia, tipo);
+create index idx_rollup_usuario_dia on transaction_daily_rollup (id_usuario, dia);
+
+-- Reservas de saldo (autorização/captura); a soma das ativas fica em wallets.reservado
+create table wallet_holds (
+    id uuid not null,
+    id_usuario varchar(255) not null,
+    valor numeric(38,2) not null,
+    valor_capturado numeric(38,2),
+    status varchar(255) not null,
+    descricao varchar(255),
+    criado_em timestamp(6) not null,
+    expira_em timestamp(6) not null,
+    finalizado_em timestamp(6),
+    versao bigint default 0 not null,
+    primary key (id)
+);
+
+create index idx_wallet_holds_usuario_status on wallet_holds (id_usuario, status, expira_em);
+create index idx_wallet_holds_status_id on wallet_holds (status, id);
+
+-- Transferências agendadas; o índice por (status, proxima_execucao) é a fila por data
+create table scheduled_transfers (
+    id uuid not null,
+    id_usuario_origem varchar(255) not null,
+    id_usuario_destino varchar(255) not null,
+    valor numeric(38,2) not null,
+    recorrencia varchar(255) not null,
+    inicio timestamp(6) not null,
+    fim timestamp(6),
+    proxima_execucao timestamp(6) not null,
+    execucoes integer not null,
+    falhas integer not null,
+    status varchar(255) not null,
+    ultima_execucao timestamp(6),
+    motivo varchar(255),
+    criado_em timestamp(6) not null,
+    versao bigint default 0 not null,
+    primary key (id)
+);
+
+create index idx_scheduled_transfers_fila on scheduled_transfers (status, proxima_execucao, id);
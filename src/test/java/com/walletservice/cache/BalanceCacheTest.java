@@ -0,0 +1,267 @@
+package com.walletservice.cache;
+
+import com.walletservice.domain.Wallet;
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceCacheTest {
+
+    private static final String USER = "hotUser";
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    private SimpleMeterRegistry registry;
+    private ConcurrentMapCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager(BalanceCache.CACHE_NAME);
+    }
+
+    private BalanceResponse loadFromRepository() {
+        Wallet wallet = walletRepository.findByIdUsuario(USER);
+        if (wallet == null) {
+            throw new WalletNotFoundException(USER);
+        }
+        return new BalanceResponse(wallet.getIdUsuario(), wallet.getSaldo(), wallet.getMoeda());
+    }
+
+    private double counter(String name) {
+        return registry.counter(name).count();
+    }
+
+    @Test
+    void concurrentMissesRunOneQuery() throws Exception {
+        int callers = 16;
+        BalanceCache balanceCache = new BalanceCache(cacheManager, registry, Duration.ofMinutes(5), false, 1.0);
+
+        // A consulta só termina depois que todos os outros chamadores estiverem aguardando
+        CountDownLatch release = new CountDownLatch(1);
+        when(walletRepository.findByIdUsuario(USER)).thenAnswer(invocation -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return new Wallet(null, USER, new BigDecimal("42.00"), "BRL");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<BalanceResponse>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return balanceCache.get(USER, this::loadFromRepository);
+                }));
+            }
+            start.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (counter("wallet.balance.cache.coalesced") < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<BalanceResponse> result : results) {
+                assertEquals(new BigDecimal("42.00"), result.get(10, TimeUnit.SECONDS).saldo());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(walletRepository, times(1)).findByIdUsuario(USER);
+        assertEquals(callers - 1, counter("wallet.balance.cache.coalesced"));
+        assertEquals(1, counter("wallet.balance.cache.loads"));
+
+        // A próxima chamada já vem do cache
+        balanceCache.get(USER, this::loadFromRepository);
+        verify(walletRepository, times(1)).findByIdUsuario(USER);
+    }
+
+    @Test
+    void loaderFailureReachesEveryCallerAndIsNotCached() {
+        BalanceCache balanceCache = new BalanceCache(cacheManager, registry, Duration.ofMinutes(5), false, 1.0);
+        when(walletRepository.findByIdUsuario(USER)).thenReturn(null);
+
+        assertThrows(WalletNotFoundException.class, () -> balanceCache.get(USER, this::loadFromRepository));
+        assertThrows(WalletNotFoundException.class, () -> balanceCache.get(USER, this::loadFromRepository));
+
+        verify(walletRepository, times(2)).findByIdUsuario(USER);
+        assertNull(cacheManager.getCache(BalanceCache.CACHE_NAME).get(USER));
+    }
+
+    @Test
+    void refreshesHotKeyBeforeExpiry() {
+        MutableClock clock = new MutableClock();
+        // rand fixo em 0.01 => ln(rand) ~ -4.6, ou seja, renova ~4.6 * computeMillis antes do TTL
+        BalanceCache balanceCache = new BalanceCache(cacheManager, registry, Duration.ofSeconds(60), true, 1.0,
+                clock, () -> 0.01);
+        when(walletRepository.findByIdUsuario(USER)).thenAnswer(invocation -> {
+            clock.advance(100);
+            return new Wallet(null, USER, new BigDecimal("10.00"), "BRL");
+        });
+
+        balanceCache.get(USER, this::loadFromRepository);
+        verify(walletRepository, times(1)).findByIdUsuario(USER);
+
+        // Longe da expiração: vem do cache
+        clock.advance(30_000);
+        balanceCache.get(USER, this::loadFromRepository);
+        verify(walletRepository, times(1)).findByIdUsuario(USER);
+
+        // A 300ms do TTL a janela de ~460ms já cobre: renova antes de expirar
+        clock.advance(29_700);
+        balanceCache.get(USER, this::loadFromRepository);
+        verify(walletRepository, times(2)).findByIdUsuario(USER);
+        assertEquals(1, counter("wallet.balance.cache.early.refreshes"));
+    }
+
+    @Test
+    void earlyRefreshFailureServesCachedValue() {
+        MutableClock clock = new MutableClock();
+        BalanceCache balanceCache = new BalanceCache(cacheManager, registry, Duration.ofSeconds(60), true, 1.0,
+                clock, () -> 0.01);
+        when(walletRepository.findByIdUsuario(USER))
+                .thenReturn(new Wallet(null, USER, new BigDecimal("10.00"), "BRL"))
+                .thenThrow(new IllegalStateException("db down"));
+
+        balanceCache.get(USER, this::loadFromRepository);
+        clock.advance(59_999);
+
+        assertEquals(new BigDecimal("10.00"), balanceCache.get(USER, this::loadFromRepository).saldo());
+    }
+
+    @Test
+    void bulkLookupLoadsOnlyMissesInOneCall() {
+        BalanceCache balanceCache = new BalanceCache(cacheManager, registry, Duration.ofMinutes(5), false, 1.0);
+        when(walletRepository.findByIdUsuario(USER)).thenReturn(new Wallet(null, USER, new BigDecimal("42.00"), "BRL"));
+        balanceCache.get(USER, this::loadFromRepository);
+
+        List<List<String>> loaderCalls = new ArrayList<>();
+        Function<List<String>, Map<String, BalanceResponse>> loader = misses -> {
+            loaderCalls.add(List.copyOf(misses));
+            return misses.contains("cold")
+                    ? Map.of("cold", new BalanceResponse("cold", BigDecimal.ONE, "BRL"))
+                    : Map.of();
+        };
+
+        Map<String, BalanceResponse> first = balanceCache.getAll(List.of(USER, "cold", "ghost"), loader);
+        Map<String, BalanceResponse> second = balanceCache.getAll(List.of(USER, "cold", "ghost"), loader);
+
+        assertEquals(List.of(USER, "cold"), List.copyOf(first.keySet()));
+        assertEquals(first, second);
+        // Só carteiras inexistentes voltam ao loader; as encontradas ficaram no cache
+        assertEquals(List.of(List.of("cold", "ghost"), List.of("ghost")), loaderCalls);
+        assertEquals(3, counter("wallet.balance.cache.bulk.hits"));
+    }
+
+    @Test
+    void bulkLookupOnRedisUsesOneMgetAndOnePipeline() {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new GenericJackson2JsonRedisSerializer()));
+        RedisCacheWriter cacheWriter = mock(RedisCacheWriter.class);
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter).cacheDefaults(config).build();
+
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+
+        CachedBalance hot = new CachedBalance(new BalanceResponse(USER, BigDecimal.TEN, "BRL"), 1, Long.MAX_VALUE);
+        byte[] hotValue = ByteUtils.getBytes(config.getValueSerializationPair().write(hot));
+        when(stringCommands.mGet(any(byte[][].class))).thenReturn(Arrays.asList(hotValue, null, null));
+
+        BalanceCache balanceCache = new BalanceCache(redisCacheManager, registry, connectionFactory,
+                Duration.ofMinutes(5), false, 1.0, Clock.systemUTC(), () -> 0.5);
+        Map<String, BalanceResponse> balances = balanceCache.getAll(List.of(USER, "cold1", "cold2"), misses ->
+                Map.of("cold1", new BalanceResponse("cold1", BigDecimal.ONE, "BRL"),
+                        "cold2", new BalanceResponse("cold2", BigDecimal.TWO, "BRL")));
+
+        assertEquals(BigDecimal.TEN, balances.get(USER).saldo());
+        assertEquals(3, balances.size());
+
+        ArgumentCaptor<byte[][]> keys = ArgumentCaptor.forClass(byte[][].class);
+        verify(stringCommands, times(1)).mGet(keys.capture());
+        assertEquals(BalanceCache.CACHE_NAME + "::" + USER, new String(keys.getValue()[0], StandardCharsets.UTF_8));
+
+        // Backfill dos dois misses num único pipeline, com o TTL do cache
+        verify(connection, times(1)).openPipeline();
+        verify(stringCommands, times(2)).set(any(byte[].class), any(byte[].class),
+                eq(Expiration.from(Duration.ofMinutes(5))), eq(RedisStringCommands.SetOption.upsert()));
+        verify(connection, times(1)).closePipeline();
+        verifyNoInteractions(cacheWriter);
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
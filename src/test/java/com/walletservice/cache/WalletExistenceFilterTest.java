@@ -0,0 +1,258 @@
+package com.walletservice.cache;
+
+import com.walletservice.datasource.ReadYourWrites;
+import com.walletservice.exception.WalletFilterUnavailableException;
+import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WalletExistenceFilterTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    private SimpleMeterRegistry registry;
+    private WalletExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new WalletExistenceFilter(walletRepository, new ReadYourWrites(Duration.ofSeconds(10)),
+                new WalletFilterProperties(true, 1000, 0.01, 2, Duration.ofMinutes(1), 1000, false, 1000), registry);
+    }
+
+    @Test
+    void passesEverythingUntilBuilt() {
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightExist("anyone"));
+    }
+
+    @Test
+    void rebuildScansAllPagesAndRejectsUnknownIds() {
+        when(walletRepository.count()).thenReturn(3L);
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenReturn(List.of("alice", "bob"));
+        when(walletRepository.findIdUsuarioAfter(eq("bob"), any(Pageable.class))).thenReturn(List.of("carol"));
+
+        assertEquals(3, filter.rebuild());
+
+        assertTrue(filter.mightExist("alice"));
+        assertTrue(filter.mightExist("carol"));
+        assertFalse(filter.mightExist("mallory"));
+        assertEquals(1.0, registry.get("wallet.existence.filter.rejections").counter().count());
+        verify(walletRepository, never()).existsByIdUsuario("alice");
+    }
+
+    @Test
+    void missIsConfirmedOnPrimaryAndCachedBriefly() {
+        when(walletRepository.count()).thenReturn(1L);
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenReturn(List.of("alice"));
+        filter.rebuild();
+
+        assertFalse(filter.mightExist("mallory"));
+        assertFalse(filter.mightExist("mallory"));
+
+        // A segunda rejeição vem do cache negativo
+        verify(walletRepository, times(1)).existsByIdUsuario("mallory");
+        assertEquals(2.0, registry.get("wallet.existence.filter.rejections").counter().count());
+    }
+
+    @Test
+    void walletCreatedOnAnotherInstanceIsFoundOnPrimary() {
+        when(walletRepository.count()).thenReturn(1L);
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenReturn(List.of("alice"));
+        filter.rebuild();
+        when(walletRepository.existsByIdUsuario("bob")).thenAnswer(invocation -> {
+            assertTrue(ReadYourWrites.isPinnedToPrimary());
+            return true;
+        });
+
+        assertTrue(filter.mightExist("bob"));
+        assertTrue(filter.mightExist("bob"));
+
+        // Depois de encontrada, a carteira passa a constar no filtro local
+        verify(walletRepository, times(1)).existsByIdUsuario("bob");
+        assertEquals(1.0, registry.get("wallet.existence.filter.stale").counter().count());
+        assertEquals(0.0, registry.get("wallet.existence.filter.rejections").counter().count());
+    }
+
+    @Test
+    void addClearsConfirmedMiss() {
+        when(walletRepository.count()).thenReturn(0L);
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenReturn(List.of());
+        filter.rebuild();
+        assertFalse(filter.mightExist("late"));
+
+        filter.add("late");
+
+        assertTrue(filter.mightExist("late"));
+    }
+
+    @Test
+    void walletCreatedDuringRebuildIsKept() {
+        when(walletRepository.count()).thenReturn(1L);
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenAnswer(invocation -> {
+            // Carteira criada enquanto a varredura acontece, depois da página que a conteria
+            filter.add("zoe");
+            return List.of("alice");
+        });
+
+        filter.rebuild();
+
+        assertTrue(filter.mightExist("zoe"));
+    }
+
+    @Test
+    void addIsRepeatedAfterCommit() {
+        when(walletRepository.count()).thenReturn(0L);
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenReturn(List.of());
+        filter.rebuild();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            filter.add("new-user");
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, synchronizations.size());
+            synchronizations.get(0).afterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(filter.mightExist("new-user"));
+    }
+
+    // Duas instâncias ligadas pelo mesmo canal: o mock do Redis entrega cada publicação às duas
+    private List<WalletExistenceFilter> subscribedInstances(StringRedisTemplate redis, long heartbeatIntervalMs)
+            throws InterruptedException {
+        List<WalletExistenceFilter> instances = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            instances.add(new WalletExistenceFilter(walletRepository, new ReadYourWrites(Duration.ofSeconds(10)),
+                    new WalletFilterProperties(true, 1000, 0.01, 2, Duration.ofMinutes(1), 1000, true,
+                            heartbeatIntervalMs), new SimpleMeterRegistry(), redis));
+        }
+        doAnswer(invocation -> {
+            instances.forEach(instance -> instance.onMessage(invocation.getArgument(1)));
+            return 1L;
+        }).when(redis).convertAndSend(eq(WalletExistenceFilter.CHANNEL), anyString());
+        when(walletRepository.count()).thenReturn(1L);
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenReturn(List.of("alice"));
+        for (WalletExistenceFilter instance : instances) {
+            instance.resync();
+            awaitSynced(instance);
+        }
+        return instances;
+    }
+
+    // Publica heartbeats enquanto espera, como o @Scheduled faria
+    private static void awaitSynced(WalletExistenceFilter instance) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!instance.isSynced()) {
+            assertTrue(System.nanoTime() < deadline, "filtro não sincronizou");
+            instance.heartbeat();
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void syncedFilterRejectsWithoutPrimaryAndSeesWalletsCreatedElsewhere() throws InterruptedException {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        List<WalletExistenceFilter> instances = subscribedInstances(redis, 60_000);
+        WalletExistenceFilter local = instances.get(0);
+
+        instances.get(1).add("bob");
+
+        assertTrue(local.mightExist("bob"));
+        assertFalse(local.mightExist("mallory"));
+        verify(walletRepository, never()).existsByIdUsuario(anyString());
+        verify(redis).convertAndSend(eq(WalletExistenceFilter.CHANNEL), endsWith(":bob"));
+    }
+
+    @Test
+    void lostSubscriptionFallsBackToPrimaryUntilRebuilt() throws InterruptedException {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        WalletExistenceFilter local = subscribedInstances(redis, 60_000).get(0);
+
+        local.unsubscribed();
+        assertFalse(local.mightExist("mallory"));
+        verify(walletRepository).existsByIdUsuario("mallory");
+
+        // Reassinado: volta a confiar só depois da reconstrução, que cobre o que se perdeu no intervalo
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenReturn(List.of("alice", "zoe"));
+        local.resync();
+        awaitSynced(local);
+        assertTrue(local.mightExist("zoe"));
+        verify(walletRepository, never()).existsByIdUsuario("zoe");
+    }
+
+    @Test
+    void missingHeartbeatStopsTrustingMisses() throws InterruptedException {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        WalletExistenceFilter local = subscribedInstances(redis, 20).get(0);
+
+        Thread.sleep(100);
+
+        assertFalse(local.isSynced());
+        assertFalse(local.mightExist("mallory"));
+        verify(walletRepository).existsByIdUsuario("mallory");
+
+        // O heartbeat volta depois do intervalo: reconstrói antes de voltar a confiar
+        awaitSynced(local);
+        // Uma reconstrução por instância na assinatura, mais a da instância cujo heartbeat atrasou
+        verify(walletRepository, times(3)).findIdUsuarioAfter(eq(""), any(Pageable.class));
+    }
+
+    @Test
+    void creationFailsWhenItCannotBePublished() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        WalletExistenceFilter local = new WalletExistenceFilter(walletRepository,
+                new ReadYourWrites(Duration.ofSeconds(10)),
+                new WalletFilterProperties(true, 1000, 0.01, 2, Duration.ofMinutes(1), 1000, true, 1000),
+                new SimpleMeterRegistry(), redis);
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(redis).convertAndSend(eq(WalletExistenceFilter.CHANNEL), anyString());
+
+        assertThrows(WalletFilterUnavailableException.class, () -> local.add("bob"));
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndBoundedFalsePositives() {
+        int n = 100_000;
+        BloomFilter bloom = BloomFilter.create(n, 0.01);
+        IntStream.range(0, n).forEach(i -> bloom.put("user-" + i));
+
+        for (int i = 0; i < n; i++) {
+            assertTrue(bloom.mightContain("user-" + i));
+        }
+        long falsePositives = IntStream.range(0, n).filter(i -> bloom.mightContain("other-" + i)).count();
+        double rate = (double) falsePositives / n;
+        System.out.printf("bloom filter: %d bits, %d hashes, false positive rate %.4f%n",
+                bloom.bitCount(), bloom.hashFunctions(), rate);
+        assertTrue(rate < 0.02, "Taxa de falsos positivos " + rate);
+    }
+}
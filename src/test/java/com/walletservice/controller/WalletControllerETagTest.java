@@ -0,0 +1,145 @@
+package com.walletservice.controller;
+
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.service.WalletService;
+import com.walletservice.stream.BalanceStreamHub;
+import com.walletservice.transfer.AsyncTransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ExtendWith(MockitoExtension.class)
+class WalletControllerETagTest {
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
+    @Mock
+    private BalanceStreamHub balanceStreamHub;
+
+    @Mock
+    private WalletMetrics walletMetrics;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new WalletController(walletService, asyncTransferService, balanceStreamHub, walletMetrics)).build();
+    }
+
+    private MockHttpServletResponse balance(String ifNoneMatch) throws Exception {
+        var request = get("/api/wallets/user1/balance");
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    @Test
+    void returnsVersionAsETagAndNotModifiedWithoutReadingBalance() throws Exception {
+        when(walletService.getBalanceVersion("user1")).thenReturn("3");
+        when(walletService.getBalance("user1")).thenReturn(new BalanceResponse("user1", new BigDecimal("10.00"), "BRL"));
+
+        MockHttpServletResponse first = balance(null);
+        assertEquals(200, first.getStatus());
+        assertEquals("\"3\"", first.getHeader("ETag"));
+        assertTrue(first.getContentAsString().contains("10.00"));
+
+        MockHttpServletResponse second = balance("\"3\"");
+        assertEquals(304, second.getStatus());
+        assertEquals("\"3\"", second.getHeader("ETag"));
+        assertEquals(0, second.getContentAsByteArray().length);
+        verify(walletService, times(1)).getBalance("user1");
+    }
+
+    @Test
+    void changedVersionServesNewBalance() throws Exception {
+        when(walletService.getBalanceVersion("user1")).thenReturn("4");
+        when(walletService.getBalance("user1")).thenReturn(new BalanceResponse("user1", new BigDecimal("12.00"), "BRL"));
+
+        MockHttpServletResponse response = balance("\"3\"");
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"4\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void matchesWeakAndListedETags() {
+        assertTrue(WalletController.matchesETag("W/\"3\"", "\"3\""));
+        assertTrue(WalletController.matchesETag("\"1\", \"3\"", "\"3\""));
+        assertTrue(WalletController.matchesETag("*", "\"3\""));
+        assertFalse(WalletController.matchesETag("\"30\"", "\"3\""));
+        assertFalse(WalletController.matchesETag(null, "\"3\""));
+    }
+
+    @Test
+    void fallbackBalanceIsNotTagged() throws Exception {
+        when(walletService.getBalanceVersion("user1")).thenReturn("3");
+        when(walletService.getBalance("user1")).thenReturn(new BalanceResponse("user1", BigDecimal.ZERO, "BRL"));
+        when(walletMetrics.lastOperationFellBack()).thenReturn(true);
+
+        MockHttpServletResponse response = balance(null);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    void unknownVersionServesBalanceWithoutETag() throws Exception {
+        when(walletService.getBalanceVersion("user1")).thenReturn(null);
+        when(walletService.getBalance("user1")).thenReturn(new BalanceResponse("user1", BigDecimal.ONE, "BRL"));
+
+        MockHttpServletResponse response = balance("\"3\"");
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("ETag"));
+    }
+
+    // Benchmark grosseiro de um cliente em polling: corpo enviado e tempo no servidor por resposta, 200 x 304
+    @Test
+    void notModifiedSavesBodyAndSerialization() throws Exception {
+        when(walletService.getBalanceVersion("user1")).thenReturn("42");
+        when(walletService.getBalance("user1"))
+                .thenReturn(new BalanceResponse("user1", new BigDecimal("1234567.89"), "BRL"));
+        int iterations = 2_000;
+        for (int i = 0; i < iterations; i++) {
+            balance(null);
+            balance("\"42\"");
+        }
+
+        long fullBytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            fullBytes += balance(null).getContentAsByteArray().length;
+        }
+        long fullNanos = (System.nanoTime() - start) / iterations;
+
+        long notModifiedBytes = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            notModifiedBytes += balance("\"42\"").getContentAsByteArray().length;
+        }
+        long notModifiedNanos = (System.nanoTime() - start) / iterations;
+
+        System.out.printf("balance 200: %d body bytes, %d ns/op; 304: %d body bytes, %d ns/op%n",
+                fullBytes / iterations, fullNanos, notModifiedBytes / iterations, notModifiedNanos);
+        assertTrue(fullBytes > 0);
+        assertEquals(0, notModifiedBytes);
+    }
+}
@@ -0,0 +1,185 @@
+package com.walletservice.controller;
+
+import com.walletservice.config.ProtobufHttpMessageConverter;
+import com.walletservice.domain.Wallet;
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.dto.BalancesRequest;
+import com.walletservice.dto.BalancesResponse;
+import com.walletservice.dto.DepositRequest;
+import com.walletservice.exception.GlobalExceptionHandler;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.protobuf.RecordProtobufCodec;
+import com.walletservice.service.WalletService;
+import com.walletservice.stream.BalanceStreamHub;
+import com.walletservice.transfer.AsyncTransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@ExtendWith(MockitoExtension.class)
+class WalletControllerProtobufTest {
+
+    private static final String PROTOBUF = ProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
+    @Mock
+    private BalanceStreamHub balanceStreamHub;
+
+    @Mock
+    private WalletMetrics walletMetrics;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Mesma ordem do WebConfig: JSON primeiro, protobuf só quando pedido
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new WalletController(walletService, asyncTransferService, balanceStreamHub, walletMetrics))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter(),
+                        new ProtobufHttpMessageConverter())
+                .build();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    @Test
+    void negotiatesProtobufAndKeepsJsonAsDefault() throws Exception {
+        BalanceResponse balance = new BalanceResponse("user1", new BigDecimal("10.00"), "BRL");
+        when(walletService.getBalance("user1")).thenReturn(balance);
+
+        MockHttpServletResponse protobuf = perform(get("/api/wallets/user1/balance").accept(PROTOBUF));
+        MockHttpServletResponse json = perform(get("/api/wallets/user1/balance"));
+
+        assertEquals(200, protobuf.getStatus());
+        assertEquals(PROTOBUF, protobuf.getContentType());
+        assertEquals(balance, RecordProtobufCodec.decode(BalanceResponse.class, protobuf.getContentAsByteArray()));
+        assertTrue(json.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+    }
+
+    @Test
+    void readsProtobufRequestBodies() throws Exception {
+        when(walletService.deposit(any()))
+                .thenReturn(new Wallet(UUID.randomUUID(), "user1", new BigDecimal("15.00"), "BRL"));
+        when(walletService.getBalances(List.of("user1", "ghost"))).thenReturn(new BalancesResponse(
+                List.of(new BalanceResponse("user1", new BigDecimal("15.00"), "BRL")), List.of("ghost")));
+
+        MockHttpServletResponse deposit = perform(post("/api/wallets/deposit")
+                .contentType(PROTOBUF).accept(PROTOBUF)
+                .content(RecordProtobufCodec.encode(new DepositRequest("user1", new BigDecimal("5.00")))));
+        MockHttpServletResponse balances = perform(post("/api/wallets/balances")
+                .contentType(PROTOBUF).accept(PROTOBUF)
+                .content(RecordProtobufCodec.encode(new BalancesRequest(List.of("user1", "ghost")))));
+
+        assertEquals(200, deposit.getStatus());
+        assertEquals(new BigDecimal("15.00"),
+                RecordProtobufCodec.decode(BalanceResponse.class, deposit.getContentAsByteArray()).saldo());
+        verify(walletService).deposit(new DepositRequest("user1", new BigDecimal("5.00")));
+        assertEquals(List.of("ghost"), RecordProtobufCodec.decode(BalancesResponse.class,
+                balances.getContentAsByteArray()).naoEncontrados());
+    }
+
+    @Test
+    void invalidProtobufAndValidationErrorsAreBadRequests() throws Exception {
+        MockHttpServletResponse truncated = perform(post("/api/wallets/deposit")
+                .contentType(PROTOBUF).accept(PROTOBUF, MediaType.APPLICATION_JSON_VALUE)
+                .content(new byte[]{0x0A, 0x05, 'u'}));
+        // Sem o campo valor: a validação do DTO continua valendo para protobuf
+        MockHttpServletResponse missingAmount = perform(post("/api/wallets/deposit")
+                .contentType(PROTOBUF).accept(PROTOBUF, MediaType.APPLICATION_JSON_VALUE)
+                .content(RecordProtobufCodec.encode(new DepositRequest("user1", null))));
+
+        assertEquals(400, truncated.getStatus());
+        assertEquals(400, missingAmount.getStatus());
+        assertTrue(missingAmount.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+        verifyNoInteractions(walletService);
+    }
+
+    @Test
+    void errorsFallBackToJsonWhenAccepted() throws Exception {
+        when(walletService.getBalance("ghost")).thenThrow(new WalletNotFoundException("Wallet not found"));
+
+        MockHttpServletResponse response = perform(get("/api/wallets/ghost/balance")
+                .header("Accept", PROTOBUF + ", application/json;q=0.5"));
+
+        assertEquals(404, response.getStatus());
+        assertTrue(response.getContentAsString().contains("Wallet not found"));
+    }
+
+    @Test
+    void servesGeneratedSchema() throws Exception {
+        String schema = perform(get("/api/wallets/schema.proto")).getContentAsString();
+
+        assertTrue(schema.contains("message DepositRequest {"));
+        assertTrue(schema.contains("message TransferOperationResponse {"));
+        assertTrue(schema.contains("repeated BalanceResponse saldos = 1;"));
+    }
+
+    // Benchmark grosseiro: bytes por resposta e tempo de ida e volta no MockMvc, JSON x protobuf
+    @Test
+    void protobufResponsesAreSmallerThanJson() throws Exception {
+        List<BalanceResponse> saldos = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add("user" + i);
+            saldos.add(new BalanceResponse("user" + i, new BigDecimal(i * 1000 + ".25"), "BRL"));
+        }
+        when(walletService.getBalances(ids)).thenReturn(new BalancesResponse(saldos, List.of()));
+        byte[] jsonRequest = ("{\"idsUsuario\":[\"" + String.join("\",\"", ids) + "\"]}").getBytes();
+        byte[] protobufRequest = RecordProtobufCodec.encode(new BalancesRequest(ids));
+
+        int iterations = 1_000;
+        long[] json = measure(iterations, MediaType.APPLICATION_JSON_VALUE, jsonRequest);
+        long[] protobuf = measure(iterations, PROTOBUF, protobufRequest);
+
+        System.out.printf("balances x100 json: %d request bytes, %d response bytes, %d ns/op; "
+                        + "protobuf: %d request bytes, %d response bytes, %d ns/op%n",
+                jsonRequest.length, json[0], json[1], protobufRequest.length, protobuf[0], protobuf[1]);
+        assertTrue(protobufRequest.length < jsonRequest.length);
+        assertTrue(protobuf[0] < json[0]);
+    }
+
+    private long[] measure(int iterations, String mediaType, byte[] body) throws Exception {
+        MockHttpServletRequestBuilder request = post("/api/wallets/balances")
+                .contentType(mediaType).accept(mediaType).content(body);
+        for (int i = 0; i < iterations; i++) {
+            perform(request);
+        }
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MockHttpServletResponse response = perform(request);
+            assertEquals(200, response.getStatus());
+            bytes += response.getContentAsByteArray().length;
+        }
+        return new long[]{bytes / iterations, (System.nanoTime() - start) / iterations};
+    }
+}
@@ -0,0 +1,105 @@
+package com.walletservice.datasource;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PartitionedDataSourceTest {
+
+    private DataSource defaultPool;
+    private DataSource readPool;
+    private DataSource reportingPool;
+    private PartitionedDataSource dataSource;
+    private FakeService service;
+
+    // Alvo simples com os mesmos nomes de bulkhead usados no WalletService
+    public static class FakeService {
+        private final DataSource dataSource;
+
+        public FakeService(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Bulkhead(name = "walletRead")
+        public Connection read() throws SQLException {
+            return dataSource.getConnection();
+        }
+
+        @Bulkhead(name = "walletReporting")
+        public Connection report() throws SQLException {
+            assertEquals("walletReporting", WorkloadContext.current());
+            return dataSource.getConnection();
+        }
+
+        @Bulkhead(name = "walletUnknown")
+        public Connection unknown() throws SQLException {
+            return dataSource.getConnection();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        defaultPool = mockPool();
+        readPool = mockPool();
+        reportingPool = mockPool();
+
+        dataSource = new PartitionedDataSource();
+        dataSource.setTargetDataSources(Map.of("walletRead", readPool, "walletReporting", reportingPool));
+        dataSource.setDefaultTargetDataSource(defaultPool);
+        dataSource.afterPropertiesSet();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FakeService(dataSource));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new WorkloadRoutingAspect());
+        service = factory.getProxy();
+    }
+
+    private DataSource mockPool() throws SQLException {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+        return pool;
+    }
+
+    @Test
+    void routesByBulkheadName() throws SQLException {
+        service.read();
+        service.report();
+
+        verify(readPool).getConnection();
+        verify(reportingPool).getConnection();
+        verify(defaultPool, never()).getConnection();
+    }
+
+    @Test
+    void usesDefaultPoolOutsideBulkheads() throws SQLException {
+        dataSource.getConnection();
+        service.unknown();
+
+        verify(defaultPool, times(2)).getConnection();
+        verifyNoInteractions(readPool, reportingPool);
+    }
+
+    @Test
+    void restoresContextAfterCall() throws SQLException {
+        service.read();
+        assertNull(WorkloadContext.current());
+
+        String previous = WorkloadContext.enter("walletWrite");
+        try {
+            service.report();
+            assertEquals("walletWrite", WorkloadContext.current());
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+        assertNull(WorkloadContext.current());
+    }
+}
@@ -0,0 +1,147 @@
+package com.walletservice.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Dois bancos H2 em memória fazendo o papel de primário e réplica
+class ReplicaRoutingTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate replicaAdmin;
+    private ReplicaSelector selector;
+    private ReadYourWrites readYourWrites;
+    private SimpleMeterRegistry registry;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("rr_primary", "primary");
+        replica = database("rr_replica", "replica");
+        replicaAdmin = new JdbcTemplate(replica);
+        replicaAdmin.execute("CREATE TABLE replica_lag (millis BIGINT)");
+        replicaAdmin.update("INSERT INTO replica_lag VALUES (0)");
+
+        registry = new SimpleMeterRegistry();
+        selector = new ReplicaSelector(List.of(new ReplicaSelector.Node("replica1", replica)),
+                Duration.ofSeconds(5), "SELECT millis FROM replica_lag", registry);
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(10));
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, selector, registry));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        replicaAdmin.execute("DROP ALL OBJECTS");
+    }
+
+    private DataSource database(String name, String node) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate admin = new JdbcTemplate(dataSource);
+        admin.execute("CREATE TABLE node (name VARCHAR(20))");
+        admin.update("INSERT INTO node VALUES (?)", node);
+        return dataSource;
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private String readWriteNode() {
+        return readWrite.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void readOnlyTransactionsGoToHealthyReplica() {
+        selector.checkReplicas();
+
+        assertEquals("replica", readOnlyNode());
+        assertEquals("primary", readWriteNode());
+        // Fora de transação a conexão não é readOnly
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void usesPrimaryUntilFirstHealthCheck() {
+        assertEquals("primary", readOnlyNode());
+    }
+
+    @Test
+    void laggingReplicaLeavesRotation() {
+        replicaAdmin.update("UPDATE replica_lag SET millis = 60000");
+        selector.checkReplicas();
+
+        assertFalse(selector.replicas().get(0).isAvailable());
+        assertEquals(60000, selector.replicas().get(0).lagMillis());
+        assertEquals("primary", readOnlyNode());
+
+        // Volta à rotação quando alcança o primário
+        replicaAdmin.update("UPDATE replica_lag SET millis = 10");
+        selector.checkReplicas();
+        assertEquals("replica", readOnlyNode());
+    }
+
+    @Test
+    void unreachableReplicaIsSkipped() {
+        DataSource missing = new DriverManagerDataSource("jdbc:h2:mem:rr_missing;IFEXISTS=TRUE", "sa", "");
+        ReplicaSelector onlyMissing = new ReplicaSelector(List.of(new ReplicaSelector.Node("missing", missing)),
+                Duration.ofSeconds(5), "SELECT 0", null);
+        onlyMissing.checkReplicas();
+
+        assertNull(onlyMissing.select());
+    }
+
+    @Test
+    void recentWritesArePinnedToPrimary() {
+        selector.checkReplicas();
+        readYourWrites.recordWrite("alice");
+
+        assertEquals("primary", readYourWrites.read("alice", this::readOnlyNode));
+        assertEquals("replica", readYourWrites.read("bobby", this::readOnlyNode));
+        assertFalse(ReadYourWrites.isPinnedToPrimary());
+    }
+
+    @Test
+    void writeInsideTransactionIsRecordedOnlyAfterCommit() {
+        readWrite.execute(status -> {
+            readYourWrites.recordWrite("alice");
+            assertFalse(readYourWrites.mustReadFromPrimary("alice"));
+            return null;
+        });
+        assertTrue(readYourWrites.mustReadFromPrimary("alice"));
+
+        readWrite.execute(status -> {
+            readYourWrites.recordWrite("bobby");
+            status.setRollbackOnly();
+            return null;
+        });
+        assertFalse(readYourWrites.mustReadFromPrimary("bobby"));
+    }
+}
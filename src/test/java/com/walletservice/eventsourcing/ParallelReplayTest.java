@@ -0,0 +1,109 @@
+package com.walletservice.eventsourcing;
+
+import com.walletservice.eventsourcing.ParallelReplay.KeyRange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelReplayTest {
+
+    // Stream sintético em memória: cada carteira tem eventos de +1, com snapshot a cada 100
+    private static final class InMemoryStreams implements ParallelReplay.PartitionReader {
+        private final List<String> ids;
+        private final int eventsPerWallet;
+        private final int snapshotEvery;
+
+        InMemoryStreams(List<String> ids, int eventsPerWallet, int snapshotEvery) {
+            this.ids = ids;
+            this.eventsPerWallet = eventsPerWallet;
+            this.snapshotEvery = snapshotEvery;
+        }
+
+        @Override
+        public long read(KeyRange range, Map<String, WalletState> states) {
+            long applied = 0;
+            for (String id : ids) {
+                if (!range.contains(id)) {
+                    continue;
+                }
+                long snapshot = (eventsPerWallet / snapshotEvery) * (long) snapshotEvery;
+                WalletState state = new WalletState(id, snapshot, BigDecimal.valueOf(snapshot));
+                for (long seq = snapshot + 1; seq <= eventsPerWallet; seq++) {
+                    state = state.apply(seq, BigDecimal.ONE);
+                    applied++;
+                }
+                states.put(id, state);
+            }
+            return applied;
+        }
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(String.format("user%07d", i));
+        }
+        return ids;
+    }
+
+    @Test
+    void rangesCoverAllIdsWithoutOverlap() {
+        List<String> ids = ids(1000);
+        List<KeyRange> ranges = ParallelReplay.ranges(ids, 7);
+
+        assertEquals(7, ranges.size());
+        assertEquals("", ranges.get(0).fromInclusive());
+        assertNull(ranges.get(6).toExclusive());
+        for (String id : ids) {
+            assertEquals(1, ranges.stream().filter(r -> r.contains(id)).count(), id);
+        }
+    }
+
+    @Test
+    void replayStartsFromSnapshotAndMergesPartitions() {
+        List<String> ids = ids(500);
+        ParallelReplay.Result result = ParallelReplay.replay(ParallelReplay.ranges(ids, 8),
+                new InMemoryStreams(ids, 250, 100), 4);
+
+        assertEquals(500, result.states().size());
+        // Só os 50 eventos depois do snapshot 200 são aplicados
+        assertEquals(500L * 50, result.events());
+        WalletState state = result.states().get("user0000042");
+        assertEquals(250, state.sequencia());
+        assertEquals(0, new BigDecimal("250").compareTo(state.saldo()));
+    }
+
+    @Test
+    void emptyStoreReplaysNothing() {
+        ParallelReplay.Result result = ParallelReplay.replay(List.of(), (range, states) -> 0, 2);
+
+        assertTrue(result.states().isEmpty());
+        assertEquals(0, result.events());
+    }
+
+    // Benchmark grosseiro do caminho de aplicação (sem I/O): o replay de 10M eventos deve caber em 1 minuto
+    @Test
+    void replayThroughputAllowsTenMillionEventsPerMinute() {
+        List<String> ids = ids(20_000);
+        InMemoryStreams streams = new InMemoryStreams(ids, 100, 1000);
+        List<KeyRange> ranges = ParallelReplay.ranges(ids, 16);
+        ParallelReplay.replay(ranges, streams, 4);
+
+        long start = System.nanoTime();
+        ParallelReplay.Result result = ParallelReplay.replay(ranges, streams,
+                Runtime.getRuntime().availableProcessors());
+        long elapsedNanos = System.nanoTime() - start;
+
+        long eventsPerMinute = result.events() * TimeUnit.MINUTES.toNanos(1) / Math.max(1, elapsedNanos);
+        System.out.printf("event replay: %d events in %d ms (%d events/min)%n",
+                result.events(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), eventsPerMinute);
+        assertEquals(2_000_000L, result.events());
+        assertTrue(eventsPerMinute > 10_000_000L, "Replay aplicou só " + eventsPerMinute + " eventos/min");
+    }
+}
@@ -0,0 +1,210 @@
+package com.walletservice.hold;
+
+import com.walletservice.domain.Wallet;
+import com.walletservice.domain.WalletHold;
+import com.walletservice.exception.HoldNotFoundException;
+import com.walletservice.limits.VelocityLimiter;
+import com.walletservice.repository.ActiveHold;
+import com.walletservice.repository.WalletHoldRepository;
+import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WalletHoldsTest {
+
+    @Mock
+    private WalletHoldRepository holdRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WalletHolds holds;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        holds = new WalletHolds(holdRepository, walletRepository, velocityLimiter, transactionManager,
+                new HoldProperties(Duration.ofMinutes(15), Duration.ofDays(1), Duration.ofMillis(100), 2, 2),
+                new SimpleMeterRegistry());
+        wallet = new Wallet(UUID.randomUUID(), "user1", new BigDecimal("100.00"), "BRL");
+        when(walletRepository.findByIdUsuario("user1")).thenReturn(wallet);
+        when(holdRepository.save(any(WalletHold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        holds.shutdown();
+    }
+
+    private WalletHold hold(String valor, LocalDateTime expiraEm) {
+        WalletHold hold = new WalletHold("user1", new BigDecimal(valor), null, LocalDateTime.now(), expiraEm);
+        ReflectionTestUtils.setField(hold, "id", UUID.randomUUID());
+        when(holdRepository.findById(hold.getId())).thenReturn(Optional.of(hold));
+        return hold;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void ttlUsesDefaultAndRejectsOutOfRange() {
+        assertEquals(Duration.ofMinutes(15), holds.ttl(null));
+        assertEquals(Duration.ofSeconds(60), holds.ttl(60L));
+        assertThrows(IllegalArgumentException.class, () -> holds.ttl(0L));
+        assertThrows(IllegalArgumentException.class, () -> holds.ttl(Duration.ofDays(2).toSeconds()));
+    }
+
+    @Test
+    void findUnknownHoldThrows() {
+        assertThrows(HoldNotFoundException.class, () -> holds.find(UUID.randomUUID()));
+    }
+
+    @Test
+    void finishCancelsScheduledExpiry() {
+        WalletHold hold = holds.place(hold("10.00", LocalDateTime.now().plusMinutes(5)));
+        assertEquals(1, holds.scheduled());
+
+        hold.finish(WalletHold.STATUS_RELEASED, LocalDateTime.now());
+        holds.finish(hold);
+
+        assertEquals(0, holds.scheduled());
+    }
+
+    @Test
+    void tickExpiresDueHoldsAndReturnsAmountToAvailable() {
+        wallet.setReservado(new BigDecimal("30.00"));
+        LocalDateTime expiraEm = LocalDateTime.now().minusSeconds(1);
+        WalletHold due = holds.place(hold("10.00", expiraEm));
+        WalletHold later = holds.place(hold("20.00", LocalDateTime.now().plusMinutes(5)));
+        when(holdRepository.findAllById(anyIterable())).thenReturn(List.of(due));
+
+        holds.tick(millis(LocalDateTime.now()) + 1_000);
+
+        verify(walletRepository, timeout(2_000)).save(wallet);
+        assertEquals(WalletHold.STATUS_EXPIRED, due.getStatus());
+        assertTrue(later.isActive());
+        assertEquals(new BigDecimal("20.00"), wallet.getReservado());
+        assertEquals(new BigDecimal("80.00"), wallet.disponivel());
+        assertEquals(1, holds.scheduled());
+        // O valor expirado volta ao limite de saques, na fatia em que foi reservado
+        verify(velocityLimiter).refundWithdrawal("user1", new BigDecimal("10.00"), due.getCriadoEm(), false);
+        verify(velocityLimiter, never()).refundWithdrawal(eq("user1"), eq(new BigDecimal("20.00")), any(), anyBoolean());
+    }
+
+    @Test
+    void expireSkipsHoldsAlreadyFinished() {
+        wallet.setReservado(new BigDecimal("10.00"));
+        WalletHold captured = hold("10.00", LocalDateTime.now().minusSeconds(1));
+        captured.capture(new BigDecimal("10.00"), LocalDateTime.now());
+        when(holdRepository.findAllById(List.of(captured.getId()))).thenReturn(List.of(captured));
+
+        assertEquals(0, holds.expire(List.of(captured.getId())));
+        assertEquals(WalletHold.STATUS_CAPTURED, captured.getStatus());
+        assertEquals(new BigDecimal("10.00"), wallet.getReservado());
+        verifyNoInteractions(velocityLimiter);
+    }
+
+    @Test
+    void failedBatchIsRetriedOneByOneAndFailuresRescheduled() {
+        wallet.setReservado(new BigDecimal("30.00"));
+        WalletHold ok = hold("10.00", LocalDateTime.now().minusSeconds(1));
+        WalletHold broken = hold("20.00", LocalDateTime.now().minusSeconds(1));
+        when(holdRepository.findAllById(List.of(ok.getId(), broken.getId())))
+                .thenThrow(new IllegalStateException("conflict"));
+        when(holdRepository.findAllById(List.of(ok.getId()))).thenReturn(List.of(ok));
+        when(holdRepository.findAllById(List.of(broken.getId()))).thenThrow(new IllegalStateException("conflict"));
+
+        assertEquals(1, holds.expire(List.of(ok.getId(), broken.getId())));
+        assertEquals(WalletHold.STATUS_EXPIRED, ok.getStatus());
+        assertTrue(broken.isActive());
+        assertEquals(new BigDecimal("20.00"), wallet.getReservado());
+        // A que falhou volta para a roda
+        assertEquals(1, holds.scheduled());
+    }
+
+    @Test
+    void releaseOverdueExpiresInCurrentTransaction() {
+        wallet.setReservado(new BigDecimal("25.00"));
+        WalletHold overdue = hold("25.00", LocalDateTime.now().minusMinutes(1));
+        when(holdRepository.findOverdue(eq("user1"), any())).thenReturn(List.of(overdue));
+
+        holds.releaseOverdue(wallet);
+
+        assertEquals(WalletHold.STATUS_EXPIRED, overdue.getStatus());
+        assertEquals(0, wallet.getReservado().signum());
+        assertEquals(new BigDecimal("100.00"), wallet.disponivel());
+    }
+
+    @Test
+    void releaseOverdueSkipsQueryWithoutReservedAmount() {
+        holds.releaseOverdue(wallet);
+
+        verify(holdRepository, never()).findOverdue(any(), any());
+    }
+
+    @Test
+    void loadActivePagesByKey() {
+        List<ActiveHold> active = IntStream.range(0, 5)
+                .mapToObj(i -> activeHold(new UUID(0, i + 1), LocalDateTime.now().plusMinutes(i + 1)))
+                .toList();
+        when(holdRepository.findActiveAfter(any(UUID.class), any(Pageable.class))).thenAnswer(invocation -> {
+            UUID after = invocation.getArgument(0);
+            int size = invocation.<Pageable>getArgument(1).getPageSize();
+            return active.stream().filter(hold -> hold.getId().compareTo(after) > 0).limit(size).toList();
+        });
+
+        assertEquals(5, holds.loadActive());
+        assertEquals(5, holds.scheduled());
+        // Páginas de 2: 2 + 2 + 1
+        verify(holdRepository, times(3)).findActiveAfter(any(UUID.class), any(Pageable.class));
+    }
+
+    private static ActiveHold activeHold(UUID id, LocalDateTime expiraEm) {
+        return new ActiveHold() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getExpiraEm() {
+                return expiraEm;
+            }
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package com.walletservice.journal;
+
+import com.walletservice.datasource.ReadYourWrites;
+import com.walletservice.domain.JournalCheckpoint;
+import com.walletservice.domain.Transaction;
+import com.walletservice.domain.Wallet;
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.JournalUnavailableException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.projection.LedgerEvent;
+import com.walletservice.repository.JournalCheckpointRepository;
+import com.walletservice.repository.TransactionRepository;
+import com.walletservice.repository.WalletRepository;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WalletJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private Wallet alice;
+    private Wallet bob;
+    private WalletJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        alice = new Wallet(null, "alice", new BigDecimal("100.00"), "BRL");
+        bob = new Wallet(null, "bob", BigDecimal.ZERO, "BRL");
+        when(walletRepository.findByIdUsuario("alice")).thenReturn(alice);
+        when(walletRepository.findByIdUsuario("bob")).thenReturn(bob);
+        journal = newJournal(true);
+        journal.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.stop();
+    }
+
+    private WalletJournal newJournal(boolean enabled) {
+        return new WalletJournal(new JournalProperties(enabled, directory.toString(), DataSize.ofKilobytes(64), 100),
+                walletRepository, transactionRepository, checkpointRepository, transactionManager, eventPublisher,
+                new ReadYourWrites(Duration.ofSeconds(10)), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void operationsAreValidatedInMemoryAndAppliedAsynchronously() {
+        assertEquals(new BigDecimal("150.00"), journal.deposit("alice", new BigDecimal("50")).getSaldo());
+        assertThrows(InsufficientFundsException.class, () -> journal.withdraw("alice", new BigDecimal("200")));
+        journal.transfer("alice", "bob", new BigDecimal("30"));
+        assertThrows(WalletNotFoundException.class, () -> journal.deposit("nobody", BigDecimal.ONE));
+
+        // A leitura vem do journal enquanto o banco não foi atualizado; depois, do banco
+        assertEquals(new BigDecimal("120.00"),
+                journal.balance("alice").map(BalanceResponse::saldo).orElseGet(alice::getSaldo));
+
+        assertTrue(journal.awaitApplied(5000));
+        assertEquals(new BigDecimal("120.00"), alice.getSaldo());
+        assertEquals(new BigDecimal("30"), bob.getSaldo());
+        assertEquals(2, journal.appliedSequence());
+
+        ArgumentCaptor<Transaction> transactions = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository, times(2)).save(transactions.capture());
+        assertEquals(List.of(Messages.TRANSACTION_TYPE_DEPOSIT, Messages.TRANSACTION_TYPE_TRANSFER),
+                transactions.getAllValues().stream().map(Transaction::getTipoTransacao).toList());
+        verify(eventPublisher, times(2)).publishEvent(any(LedgerEvent.class));
+
+        ArgumentCaptor<JournalCheckpoint> checkpoint = ArgumentCaptor.forClass(JournalCheckpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(checkpoint.capture());
+        assertEquals(2, checkpoint.getValue().getSequencia());
+    }
+
+    @Test
+    void entriesAfterCheckpointAreReplayedOnStart() {
+        journal.deposit("alice", new BigDecimal("10"));
+        journal.deposit("alice", new BigDecimal("5"));
+        assertTrue(journal.awaitApplied(5000));
+        journal.stop();
+
+        // Crash depois de aplicar só o primeiro registro: o checkpoint ficou em 1
+        alice.setSaldo(new BigDecimal("110.00"));
+        clearInvocations(transactionRepository);
+        when(checkpointRepository.findById(WalletJournal.CHECKPOINT))
+                .thenReturn(Optional.of(new JournalCheckpoint(WalletJournal.CHECKPOINT, 1, null)));
+
+        journal = newJournal(true);
+        journal.start();
+
+        assertEquals(new BigDecimal("115.00"), alice.getSaldo());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        assertEquals(2, journal.appliedSequence());
+    }
+
+    // Troca o WriteAheadJournal por um dublê; a sequência é atribuída como no real
+    private WriteAheadJournal replaceWriteAheadJournal() {
+        WriteAheadJournal real = (WriteAheadJournal) ReflectionTestUtils.getField(journal, "journal");
+        WriteAheadJournal fake = mock(WriteAheadJournal.class);
+        AtomicLong sequence = new AtomicLong(real.durableSequence());
+        when(fake.append(any(JournalEntry.class)))
+                .thenAnswer(invocation -> invocation.<JournalEntry>getArgument(0).withSequence(sequence.incrementAndGet()));
+        ReflectionTestUtils.setField(journal, "journal", fake);
+        return real;
+    }
+
+    @Test
+    void balanceChangesOnlyAfterFsyncAndPendingDebitsAreReserved() throws Exception {
+        WriteAheadJournal real = replaceWriteAheadJournal();
+        WriteAheadJournal fake = (WriteAheadJournal) ReflectionTestUtils.getField(journal, "journal");
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch fsync = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            appended.countDown();
+            fsync.await();
+            return null;
+        }).when(fake).awaitDurable(anyLong());
+
+        CompletableFuture<Wallet> withdrawal = CompletableFuture.supplyAsync(
+                () -> journal.withdraw("alice", new BigDecimal("80")));
+        assertTrue(appended.await(5, TimeUnit.SECONDS));
+
+        // Ainda sem fsync: o saldo lido não muda, mas o débito já conta na validação
+        assertEquals(new BigDecimal("100.00"), journal.balance("alice").orElseThrow().saldo());
+        assertThrows(InsufficientFundsException.class, () -> journal.withdraw("alice", new BigDecimal("30")));
+
+        fsync.countDown();
+        assertEquals(new BigDecimal("20.00"), withdrawal.get(5, TimeUnit.SECONDS).getSaldo());
+        assertEquals(new BigDecimal("20.00"), journal.balance("alice").orElseThrow().saldo());
+        real.close();
+    }
+
+    @Test
+    void failedFsyncLeavesBalanceAndVersionUntouched() {
+        journal.deposit("bob", new BigDecimal("10"));
+        long versao = journal.version("alice").orElse(alice.getVersao());
+        WriteAheadJournal real = replaceWriteAheadJournal();
+        WriteAheadJournal fake = (WriteAheadJournal) ReflectionTestUtils.getField(journal, "journal");
+        doThrow(new UncheckedIOException(new IOException("disk full"))).when(fake).awaitDurable(anyLong());
+
+        assertThrows(JournalUnavailableException.class, () -> journal.withdraw("alice", new BigDecimal("50")));
+
+        // A reserva foi desfeita e nada do saque aparece na leitura
+        assertEquals(new BigDecimal("100.00"), journal.balance("alice").orElseThrow().saldo());
+        assertEquals(versao, journal.version("alice").orElseThrow());
+        // O valor reservado voltou a ficar disponível
+        ReflectionTestUtils.setField(journal, "journal", real);
+        assertEquals(0, journal.withdraw("alice", new BigDecimal("100")).getSaldo().signum());
+    }
+
+    @Test
+    void walletsAreEvictedOnceApplied() {
+        journal.deposit("alice", new BigDecimal("10"));
+        journal.transfer("alice", "bob", new BigDecimal("5"));
+        assertTrue(journal.awaitApplied(5000));
+        await(() -> journal.balance("alice").isEmpty() && journal.balance("bob").isEmpty());
+
+        // A próxima operação relê a carteira do banco, já com tudo aplicado
+        assertEquals(new BigDecimal("115.00"), journal.deposit("alice", new BigDecimal("10")).getSaldo());
+        verify(walletRepository, atLeast(2)).findByIdUsuario("alice");
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condição não atingida");
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void disabledJournalDoesNothing() {
+        WalletJournal disabled = newJournal(false);
+        disabled.start();
+
+        assertFalse(disabled.isRunning());
+        assertTrue(disabled.balance("alice").isEmpty());
+    }
+}
@@ -0,0 +1,162 @@
+package com.walletservice.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadJournalTest {
+
+    private static final int SEGMENT_SIZE = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    private final List<JournalEntry> durable = Collections.synchronizedList(new ArrayList<>());
+
+    private WriteAheadJournal open(long appliedSequence, int segmentSize) {
+        return new WriteAheadJournal(directory, segmentSize, appliedSequence, durable::addAll);
+    }
+
+    private long write(WriteAheadJournal journal, String idUsuario, String valor) {
+        JournalEntry entry = journal.append(JournalEntry.deposit(idUsuario, new BigDecimal(valor)));
+        journal.awaitDurable(entry.sequence());
+        return entry.sequence();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    void durableEntriesAreReplayedAfterReopen() {
+        try (WriteAheadJournal journal = open(0, SEGMENT_SIZE)) {
+            assertEquals(1, write(journal, "alice", "10.50"));
+            assertEquals(2, write(journal, "bob", "3"));
+            JournalEntry transfer = journal.append(JournalEntry.transfer("alice", "bob", new BigDecimal("1.25")));
+            journal.awaitDurable(transfer.sequence());
+        }
+        assertEquals(3, durable.size());
+
+        try (WriteAheadJournal journal = open(1, SEGMENT_SIZE)) {
+            List<JournalEntry> recovered = journal.recovered();
+            assertEquals(List.of(2L, 3L), recovered.stream().map(JournalEntry::sequence).toList());
+            assertEquals("bob", recovered.get(1).idUsuarioDestino());
+            assertEquals(new BigDecimal("1.25"), recovered.get(1).valor());
+            // Continua a numeração depois do último registro
+            assertEquals(4, write(journal, "carol", "1"));
+        }
+    }
+
+    @Test
+    void tornTailIsDiscardedOnRecovery() throws IOException {
+        try (WriteAheadJournal journal = open(0, SEGMENT_SIZE)) {
+            write(journal, "alice", "1");
+            write(journal, "alice", "2");
+            write(journal, "alice", "3");
+        }
+
+        // Simula um crash no meio da gravação do último registro
+        Path segment = segmentFiles().get(0);
+        byte[] content = Files.readAllBytes(segment);
+        int third = indexOfRecord(content, 2);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(third + JournalSegment.HEADER_BYTES + 3);
+            file.write(0x7F);
+        }
+
+        try (WriteAheadJournal journal = open(0, SEGMENT_SIZE)) {
+            assertEquals(2, journal.recovered().size());
+            assertEquals(3, write(journal, "bob", "9"));
+        }
+        try (WriteAheadJournal journal = open(0, SEGMENT_SIZE)) {
+            assertEquals(List.of(1L, 2L, 3L), journal.recovered().stream().map(JournalEntry::sequence).toList());
+            assertEquals("bob", journal.recovered().get(2).idUsuarioOrigem());
+        }
+    }
+
+    private static int indexOfRecord(byte[] content, int record) {
+        int offset = 0;
+        for (int i = 0; i < record; i++) {
+            int length = ((content[offset] & 0xFF) << 24) | ((content[offset + 1] & 0xFF) << 16)
+                    | ((content[offset + 2] & 0xFF) << 8) | (content[offset + 3] & 0xFF);
+            offset += JournalSegment.HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    @Test
+    void rollsOverSegmentsAndReleasesAppliedOnes() throws IOException {
+        try (WriteAheadJournal journal = open(0, 512)) {
+            for (int i = 0; i < 40; i++) {
+                write(journal, "user" + i, "1");
+            }
+            int segments = journal.segmentCount();
+            assertTrue(segments > 3, "esperava vários segmentos, houve " + segments);
+            assertEquals(segments, segmentFiles().size());
+
+            journal.release(40);
+            // O segmento atual nunca é removido
+            assertEquals(1, journal.segmentCount());
+            assertEquals(1, segmentFiles().size());
+        }
+
+        try (WriteAheadJournal journal = open(40, 512)) {
+            assertTrue(journal.recovered().isEmpty());
+            assertEquals(41, write(journal, "alice", "1"));
+        }
+    }
+
+    // Benchmark grosseiro: com escritores concorrentes os fsyncs são agrupados e o p99 fica baixo
+    @Test
+    void groupCommitBatchesConcurrentWriters() throws Exception {
+        int writers = 8;
+        int perWriter = 500;
+        try (WriteAheadJournal journal = open(0, 16 * SEGMENT_SIZE)) {
+            ExecutorService executor = Executors.newFixedThreadPool(writers);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                String idUsuario = "writer" + w;
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[perWriter];
+                    for (int i = 0; i < perWriter; i++) {
+                        long start = System.nanoTime();
+                        write(journal, idUsuario, "1");
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return latencies;
+                }));
+            }
+            long[] all = new long[writers * perWriter];
+            for (int w = 0; w < writers; w++) {
+                System.arraycopy(futures.get(w).get(60, TimeUnit.SECONDS), 0, all, w * perWriter, perWriter);
+            }
+            executor.shutdown();
+
+            Arrays.sort(all);
+            long p99Micros = TimeUnit.NANOSECONDS.toMicros(all[(int) (all.length * 0.99)]);
+            System.out.printf("journal commit: %d entries, %d fsyncs, p50 %d us, p99 %d us%n", all.length,
+                    journal.syncs(), TimeUnit.NANOSECONDS.toMicros(all[all.length / 2]), p99Micros);
+
+            assertEquals(all.length, durable.size());
+            assertTrue(journal.syncs() < all.length, "Cada registro teve o próprio fsync");
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.walletservice.limits;
+
+import com.walletservice.exception.VelocityLimitExceededException;
+import com.walletservice.limits.VelocityLimiter.Kind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Banco H2 em modo PostgreSQL com o mesmo script de schema de produção, usado só na reconstrução
+class VelocityLimiterTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final long NOW = LocalDateTime.of(2024, 5, 1, 12, 0)
+            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+    private VelocityLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:velocity;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema-postgresql.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        // Saques: R$ 1.000 em 24h (fatias de 1h); transferências: 3 por minuto (fatias de 1s)
+        limiter = newLimiter(new VelocityLimitProperties(true, false, true,
+                new VelocityLimitProperties.Window(Duration.ofHours(24), 24, new BigDecimal("1000.00"), 0),
+                new VelocityLimitProperties.Window(Duration.ofMinutes(1), 60, BigDecimal.ZERO, 3)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        limiter.shutdown();
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    private VelocityLimiter newLimiter(VelocityLimitProperties properties) {
+        return new VelocityLimiter(properties, jdbc,
+                new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class), new SimpleMeterRegistry());
+    }
+
+    private void withdraw(String idUsuario, String valor, long at) {
+        limiter.reserve(Kind.WITHDRAWAL, idUsuario, new BigDecimal(valor), at);
+    }
+
+    @Test
+    void withdrawalAmountSlidesWithTheWindow() {
+        withdraw("alice", "600.00", NOW);
+        withdraw("alice", "400.00", NOW + 2 * HOUR);
+        // Outro usuário tem a própria janela
+        withdraw("bob", "1000.00", NOW);
+
+        VelocityLimitExceededException ex = assertThrows(VelocityLimitExceededException.class,
+                () -> withdraw("alice", "0.01", NOW + 3 * HOUR));
+        // Os 600 saem da janela 24h depois do saque, 21h depois desta tentativa
+        assertEquals(21 * 3600, ex.getRetryAfterSeconds());
+
+        // Depois disso, só os 400 continuam na janela
+        withdraw("alice", "600.00", NOW + 24 * HOUR);
+        assertThrows(VelocityLimitExceededException.class, () -> withdraw("alice", "0.01", NOW + 25 * HOUR));
+    }
+
+    @Test
+    void transferCountLimitAndOversizedWithdrawal() {
+        for (int i = 0; i < 3; i++) {
+            limiter.reserve(Kind.TRANSFER, "alice", BigDecimal.TEN, NOW + i * 1000);
+        }
+        VelocityLimitExceededException ex = assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(Kind.TRANSFER, "alice", BigDecimal.TEN, NOW + 10_000));
+        assertEquals(50, ex.getRetryAfterSeconds());
+        limiter.reserve(Kind.TRANSFER, "alice", BigDecimal.TEN, NOW + 60_000);
+
+        // Maior que o limite inteiro: nunca cabe, Retry-After = janela toda
+        ex = assertThrows(VelocityLimitExceededException.class, () -> withdraw("carol", "1000.01", NOW));
+        assertEquals(24 * 3600, ex.getRetryAfterSeconds());
+        // Valores inválidos ficam para a validação da operação
+        withdraw("carol", "0", NOW);
+    }
+
+    @Test
+    void rolledBackOperationReleasesItsReservation() {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        tx.executeWithoutResult(status -> {
+            withdraw("alice", "900.00", NOW);
+            status.setRollbackOnly();
+        });
+        withdraw("alice", "900.00", NOW);
+
+        tx.executeWithoutResult(status -> withdraw("alice", "100.00", NOW));
+        assertThrows(VelocityLimitExceededException.class, () -> withdraw("alice", "0.01", NOW));
+    }
+
+    @Test
+    void evictsOnlyUsersIdleForTheWholeWindow() {
+        withdraw("alice", "1000.00", NOW);
+        withdraw("bob", "10.00", NOW + 12 * HOUR);
+
+        limiter.evictIdleUsers(NOW + 23 * HOUR);
+        assertEquals(2, limiter.userCount());
+        assertThrows(VelocityLimitExceededException.class, () -> withdraw("alice", "0.01", NOW + 23 * HOUR));
+
+        limiter.evictIdleUsers(NOW + 48 * HOUR);
+        assertEquals(0, limiter.userCount());
+    }
+
+    @Test
+    void warmupRebuildsWindowsFromRecentLedger() {
+        insert("SAQUE", "700.00", NOW - 2 * HOUR, "alice", null);
+        insert("SAQUE", "500.00", NOW - 30 * HOUR, "alice", null);
+        insert("DEPOSITO", "5000.00", NOW - HOUR, "alice", null);
+        insert("TRANSFERENCIA", "1.00", NOW - 10_000, "bob", "alice");
+        insert("TRANSFERENCIA", "1.00", NOW - 5_000, "bob", "alice");
+        insert("TRANSFERENCIA", "1.00", NOW - 2 * HOUR, "bob", "alice");
+        // Posterior ao startup: já contado ao vivo
+        insert("SAQUE", "300.00", NOW + 1_000, "alice", null);
+
+        assertEquals(3, limiter.warmup(NOW));
+
+        withdraw("alice", "300.00", NOW + 2_000);
+        assertThrows(VelocityLimitExceededException.class, () -> withdraw("alice", "0.01", NOW + 3_000));
+        limiter.reserve(Kind.TRANSFER, "bob", BigDecimal.ONE, NOW + 3_000);
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(Kind.TRANSFER, "bob", BigDecimal.ONE, NOW + 4_000));
+    }
+
+    @Test
+    void refundReturnsHoldAmountToTheBucketItWasReservedIn() {
+        // Hold de 600 e saque de 400: limite esgotado
+        withdraw("alice", "600.00", NOW);
+        withdraw("alice", "400.00", NOW + 2 * HOUR);
+        assertThrows(VelocityLimitExceededException.class, () -> withdraw("alice", "0.01", NOW + 3 * HOUR));
+
+        // Captura de 200: os 400 não capturados voltam para a fatia do hold
+        limiter.refundWithdrawal("alice", new BigDecimal("400.00"), at(NOW), true);
+        withdraw("alice", "400.00", NOW + 3 * HOUR);
+        assertThrows(VelocityLimitExceededException.class, () -> withdraw("alice", "0.01", NOW + 3 * HOUR));
+
+        // Devolução fora da janela não mexe em nada
+        limiter.refundWithdrawal("alice", new BigDecimal("600.00"), at(NOW - 30 * HOUR), false);
+        assertThrows(VelocityLimitExceededException.class, () -> withdraw("alice", "0.01", NOW + 3 * HOUR));
+    }
+
+    @Test
+    void warmupCountsActiveHolds() {
+        insertHold("ACTIVE", "700.00", NOW - 2 * HOUR);
+        insertHold("ACTIVE", "500.00", NOW - 30 * HOUR);
+        insertHold("RELEASED", "300.00", NOW - HOUR);
+
+        assertEquals(1, limiter.warmup(NOW));
+
+        withdraw("alice", "300.00", NOW + 1_000);
+        assertThrows(VelocityLimitExceededException.class, () -> withdraw("alice", "0.01", NOW + 2_000));
+    }
+
+    @Test
+    void disabledLimiterAcceptsEverything() {
+        VelocityLimiter disabled = newLimiter(new VelocityLimitProperties(false, false, true, null, null));
+        try {
+            disabled.reserveWithdrawal("alice", new BigDecimal("1000000.00"));
+            assertEquals(0, disabled.userCount());
+        } finally {
+            disabled.shutdown();
+        }
+    }
+
+    @Test
+    void enabledWithoutConfiguredLimitsAcceptsEverything() {
+        VelocityLimiter unconfigured = newLimiter(new VelocityLimitProperties(true, false, true, null, null));
+        try {
+            unconfigured.reserveWithdrawal("alice", new BigDecimal("1000000.00"));
+            for (int i = 0; i < 100; i++) {
+                unconfigured.reserveTransfer("alice", BigDecimal.ONE);
+            }
+            assertEquals(0, unconfigured.userCount());
+        } finally {
+            unconfigured.shutdown();
+        }
+    }
+
+    // Benchmark grosseiro do caminho local: usuários ativos reservando dentro do limite
+    @Test
+    void localCheckCostsLessThanAMicrosecond() {
+        VelocityLimiter unbounded = newLimiter(new VelocityLimitProperties(true, false, false,
+                new VelocityLimitProperties.Window(Duration.ofHours(24), 96, new BigDecimal("1000000000.00"), 0),
+                null));
+        try {
+            String[] users = new String[1_000];
+            for (int i = 0; i < users.length; i++) {
+                users[i] = "user" + i;
+            }
+            BigDecimal valor = new BigDecimal("1.00");
+            int iterations = 2_000_000;
+            for (int i = 0; i < iterations; i++) {
+                unbounded.reserve(Kind.WITHDRAWAL, users[i % users.length], valor, NOW + i);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                unbounded.reserve(Kind.WITHDRAWAL, users[i % users.length], valor, NOW + iterations + i);
+            }
+            long nanos = (System.nanoTime() - start) / iterations;
+            System.out.printf("velocity limit check: %d ns/op%n", nanos);
+            assertTrue(nanos < 1_000, "check levou " + nanos + " ns");
+        } finally {
+            unbounded.shutdown();
+        }
+    }
+
+    private static LocalDateTime at(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private void insertHold(String status, String valor, long at) {
+        jdbc.update("INSERT INTO wallet_holds (id, id_usuario, valor, status, criado_em, expira_em) "
+                        + "VALUES (?, 'alice', ?, ?, ?, ?)",
+                UUID.randomUUID(), new BigDecimal(valor), status, new Timestamp(at), new Timestamp(at + HOUR));
+    }
+
+    private void insert(String tipo, String valor, long at, String origem, String destino) {
+        jdbc.update("INSERT INTO transactions (id, tipo_transacao, valor, moeda, data_hora, id_usuario_origem, "
+                        + "id_usuario_destino, status) VALUES (?, ?, ?, 'BRL', ?, ?, ?, 'COMPLETED')",
+                UUID.randomUUID(), tipo, new BigDecimal(valor), new Timestamp(at), origem, destino);
+    }
+}
@@ -0,0 +1,50 @@
+package com.walletservice.metrics;
+
+import com.walletservice.metrics.RequestTimings.Phase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.end();
+    }
+
+    @Test
+    void headerContainsOnlyMeasuredPhases() {
+        RequestTimings.begin();
+        RequestTimings.record(Phase.JWT, 1_500_000);
+        RequestTimings.record(Phase.DB, 2_000_000);
+        RequestTimings.record(Phase.DB, 250_000);
+
+        String header = RequestTimings.currentHeaderValue();
+
+        assertTrue(header.startsWith("jwt;dur=1.500, db;dur=2.250, app;dur="), header);
+        assertFalse(header.contains("redis"));
+    }
+
+    @Test
+    void recordOutsideRequestIsIgnored() {
+        RequestTimings.record(Phase.DB, 1_000_000);
+        assertNull(RequestTimings.currentHeaderValue());
+
+        // Uma nova requisição começa zerada
+        RequestTimings timings = RequestTimings.begin();
+        assertEquals(0, timings.phaseNanos(Phase.DB));
+    }
+
+    @Test
+    void logLineListsEveryPhase() {
+        RequestTimings timings = RequestTimings.begin();
+        RequestTimings.record(Phase.REDIS, 42_000);
+
+        String line = timings.logLine("GET", "/api/wallets/user1/balance", 200);
+
+        assertTrue(line.startsWith("method=GET uri=/api/wallets/user1/balance status=200 total_ms="), line);
+        assertTrue(line.contains(" redis_ms=0.042"), line);
+        assertTrue(line.contains(" db_ms=0.000"), line);
+    }
+}
@@ -0,0 +1,111 @@
+package com.walletservice.metrics;
+
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.metrics.WalletMetrics.Operation;
+import com.walletservice.metrics.WalletMetrics.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private WalletMetrics walletMetrics;
+    private FakeOperations operations;
+
+    // Alvo simples para exercitar o aspecto sem subir o contexto Spring
+    public static class FakeOperations {
+        private final WalletMetrics walletMetrics;
+
+        public FakeOperations(WalletMetrics walletMetrics) {
+            this.walletMetrics = walletMetrics;
+        }
+
+        @MeteredOperation(Operation.BALANCE)
+        public String balance(String idUsuario) {
+            if ("missing".equals(idUsuario)) {
+                throw new WalletNotFoundException(idUsuario);
+            }
+            if ("fallback".equals(idUsuario)) {
+                walletMetrics.markFallback();
+            }
+            return idUsuario;
+        }
+
+        @MeteredOperation(Operation.WITHDRAW)
+        public void withdraw() {
+            throw new InsufficientFundsException("sem saldo");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        walletMetrics = new WalletMetrics(registry);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FakeOperations(walletMetrics));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new WalletMetricsAspect(walletMetrics));
+        operations = factory.getProxy();
+    }
+
+    private long count(Operation operation, Outcome outcome) {
+        return walletMetrics.timer(operation, outcome).count();
+    }
+
+    @Test
+    void recordsOutcomePerOperation() {
+        operations.balance("user1");
+        assertThrows(WalletNotFoundException.class, () -> operations.balance("missing"));
+        operations.balance("fallback");
+        assertThrows(InsufficientFundsException.class, () -> operations.withdraw());
+
+        assertEquals(1, count(Operation.BALANCE, Outcome.OK));
+        assertEquals(1, count(Operation.BALANCE, Outcome.NOT_FOUND));
+        assertEquals(1, count(Operation.BALANCE, Outcome.FALLBACK));
+        assertEquals(1, count(Operation.WITHDRAW, Outcome.INSUFFICIENT_FUNDS));
+        assertEquals(0, count(Operation.DEPOSIT, Outcome.OK));
+    }
+
+    @Test
+    void fallbackFlagDoesNotLeakToNextCall() {
+        operations.balance("fallback");
+        operations.balance("user1");
+
+        assertEquals(1, count(Operation.BALANCE, Outcome.FALLBACK));
+        assertEquals(1, count(Operation.BALANCE, Outcome.OK));
+    }
+
+    @Test
+    void timersArePreRegistered() {
+        // Todas as combinações existem desde o startup, então o scrape do Prometheus não muda de forma
+        assertEquals(Operation.values().length * Outcome.values().length,
+                registry.find(WalletMetrics.OPERATION_TIMER).timers().size());
+    }
+
+    // Benchmark grosseiro: o custo de registrar uma operação deve ser desprezível perto de um acesso ao banco
+    @Test
+    void recordOverheadIsNegligible() {
+        int iterations = 200_000;
+        for (int i = 0; i < iterations; i++) {
+            walletMetrics.record(Operation.BALANCE, Outcome.OK, i);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            walletMetrics.consumeFallback();
+            walletMetrics.record(Operation.BALANCE, Outcome.OK, i);
+        }
+        long avgNanos = (System.nanoTime() - start) / iterations;
+
+        System.out.printf("wallet.operation record: %d ns/op%n", avgNanos);
+        assertTrue(avgNanos < TimeUnit.MICROSECONDS.toNanos(5),
+                "Registro da métrica custou " + avgNanos + " ns por operação");
+    }
+}
@@ -0,0 +1,71 @@
+package com.walletservice.metrics.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlProfilerTest {
+
+    private SqlProfiler sqlProfiler;
+
+    @BeforeEach
+    void setUp() {
+        // Limite de N+1 baixo para facilitar o teste
+        sqlProfiler = new SqlProfiler(new SimpleMeterRegistry(), true, 3, 200, 20);
+    }
+
+    @Test
+    void normalizeReplacesLiteralsAndCollapsesInLists() {
+        String normalized = sqlProfiler.normalize(
+                "select * from wallets w\n  where w.id_usuario = 'user1' and w.saldo > 10.5 and w.id in (?, ?, ?)");
+
+        assertEquals("select * from wallets w where w.id_usuario = ? and w.saldo > ? and w.id in (?...)", normalized);
+    }
+
+    @Test
+    void recordAggregatesByNormalizedStatement() {
+        sqlProfiler.record("select * from wallets where id_usuario = 'a'", 2_000_000, 1);
+        sqlProfiler.record("select * from wallets where id_usuario = 'b'", 6_000_000, 1);
+        sqlProfiler.record("update wallets set saldo = ? where id = ?", 1_000_000, 1);
+
+        List<SqlProfiler.QueryStatsView> slowest = sqlProfiler.slowestQueries(10);
+
+        assertEquals(2, slowest.size());
+        assertEquals("select * from wallets where id_usuario = ?", slowest.get(0).sql());
+        assertEquals(2, slowest.get(0).executions());
+        assertEquals(6.0, slowest.get(0).maxMs(), 0.001);
+        assertEquals(4.0, slowest.get(0).avgMs(), 0.001);
+        assertEquals(2, slowest.get(0).rows());
+    }
+
+    @Test
+    void requestAboveThresholdIsFlaggedAsNPlusOne() {
+        sqlProfiler.beginRequest();
+        for (int i = 0; i < 5; i++) {
+            sqlProfiler.record("select * from transactions where id = ?", 1_000, 1);
+        }
+        int statements = sqlProfiler.endRequest("GET", "/api/wallets/user1/balance");
+
+        sqlProfiler.beginRequest();
+        sqlProfiler.record("select * from wallets where id = ?", 1_000, 1);
+        sqlProfiler.endRequest("GET", "/api/wallets/user2/balance");
+
+        SqlProfiler.Report report = sqlProfiler.report();
+        assertEquals(5, statements);
+        assertEquals(2, report.requestsProfiled());
+        assertEquals(1, report.nPlusOneCandidates());
+        assertEquals("/api/wallets/user1/balance", report.recentCandidates().get(0).uri());
+    }
+
+    @Test
+    void statementsOutsideRequestAreNotCounted() {
+        sqlProfiler.record("select 1", 1_000, 1);
+
+        assertEquals(0, sqlProfiler.endRequest("GET", "/"));
+        assertEquals(0, sqlProfiler.report().requestsProfiled());
+    }
+}
@@ -0,0 +1,247 @@
+package com.walletservice.operations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.walletservice.controller.WalletOperationsController;
+import com.walletservice.domain.Wallet;
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.dto.DepositRequest;
+import com.walletservice.dto.TransferRequest;
+import com.walletservice.dto.WalletOperationRequest;
+import com.walletservice.dto.WalletOperationResult;
+import com.walletservice.dto.WithdrawalRequest;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.WalletAlreadyExistsException;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.operations.WalletOperationStream.Format;
+import com.walletservice.protobuf.RecordProtobufCodec;
+import com.walletservice.resilience.WalletRateLimiter;
+import com.walletservice.service.WalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WalletOperationStreamTest {
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private WalletRateLimiter rateLimiter;
+
+    @Mock
+    private WalletMetrics walletMetrics;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private WalletOperationStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = newStream(64, 16384);
+        when(walletService.createWallet(any())).thenAnswer(inv -> wallet("new", "0.00"));
+        when(walletService.deposit(any())).thenAnswer(inv -> wallet(((DepositRequest) inv.getArgument(0)).idUsuario(), "110.00"));
+    }
+
+    private WalletOperationStream newStream(int flushEvery, int maxMessageBytes) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new WalletOperationStream(walletService, rateLimiter, walletMetrics,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper,
+                new OperationStreamProperties(flushEvery, maxMessageBytes), meterRegistry);
+    }
+
+    private static Wallet wallet(String idUsuario, String saldo) {
+        return new Wallet(UUID.randomUUID(), idUsuario, new BigDecimal(saldo), "BRL");
+    }
+
+    private static WalletOperationRequest op(long sequencia, String tipo, String idUsuario, String destino, String valor) {
+        return new WalletOperationRequest(sequencia, tipo, idUsuario, destino, valor == null ? null : new BigDecimal(valor));
+    }
+
+    private List<WalletOperationResult> ndjson(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stream.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out, Format.NDJSON);
+        List<WalletOperationResult> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, WalletOperationResult.class));
+        }
+        return results;
+    }
+
+    private static List<WalletOperationResult> decodeAll(byte[] data) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(data);
+        List<WalletOperationResult> results = new ArrayList<>();
+        WalletOperationResult result;
+        while ((result = RecordProtobufCodec.readDelimited(WalletOperationResult.class, in, 1 << 16)) != null) {
+            results.add(result);
+        }
+        return results;
+    }
+
+    @Test
+    void appliesOperationsInOrderWithOneResultEach() throws Exception {
+        doThrow(new InsufficientFundsException("Saldo insuficiente")).when(walletService).withdraw(any());
+        when(walletService.getBalance("user1")).thenReturn(new BalanceResponse("user1", new BigDecimal("110.00"), "BRL"));
+
+        List<WalletOperationResult> results = ndjson("""
+                {"tipo":"CREATE","idUsuario":"new"}
+                {"sequencia":10,"tipo":"DEPOSIT","idUsuario":"user1","valor":10.00}
+
+                {"tipo":"WITHDRAW","idUsuario":"user1","valor":500}
+                {"tipo":"TRANSFER","idUsuario":"user1","idUsuarioDestino":"user2","valor":5}
+                {"tipo":"balance","idUsuario":"user1"}
+                {"tipo":"REFUND","idUsuario":"user1"}
+                {not json
+                {"tipo":"DEPOSIT","idUsuario":"user1"}
+                """);
+
+        assertEquals(List.of(1L, 10L, 3L, 4L, 5L, 6L, 7L, 8L), results.stream().map(WalletOperationResult::sequencia).toList());
+        assertEquals(List.of("OK", "OK", "FAILED_PRECONDITION", "OK", "OK", "INVALID_ARGUMENT", "INVALID_ARGUMENT",
+                "INVALID_ARGUMENT"), results.stream().map(WalletOperationResult::status).toList());
+        assertEquals(new BigDecimal("110.00"), results.get(1).saldo());
+        assertNull(results.get(3).saldo());
+        assertTrue(results.get(7).mensagem().contains("valor"));
+        verify(walletService).transfer(new TransferRequest("user1", "user2", new BigDecimal("5")));
+        verify(walletService).withdraw(new WithdrawalRequest("user1", new BigDecimal("500")));
+        verify(walletService, times(1)).deposit(any());
+        assertEquals(4.0, meterRegistry.get("wallet.operation.stream.messages").tag("status", "ok").counter().count());
+    }
+
+    @Test
+    void speaksDelimitedProtobuf() throws Exception {
+        doThrow(new WalletAlreadyExistsException("Carteira já existe")).when(walletService).createWallet(any());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        RecordProtobufCodec.writeDelimited(op(1, "CREATE", "user1", null, null), body);
+        RecordProtobufCodec.writeDelimited(op(2, "DEPOSIT", "user1", null, "10.00"), body);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long processed = stream.process(new ByteArrayInputStream(body.toByteArray()), out, Format.PROTOBUF);
+
+        List<WalletOperationResult> results = decodeAll(out.toByteArray());
+        assertEquals(2, processed);
+        assertEquals("ALREADY_EXISTS", results.get(0).status());
+        assertEquals(new WalletOperationResult(2, "OK", "user1", new BigDecimal("110.00"), "BRL", null), results.get(1));
+    }
+
+    @Test
+    void malformedFramingEndsStreamAfterReportingIt() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        RecordProtobufCodec.writeDelimited(op(1, "DEPOSIT", "user1", null, "10.00"), body);
+        body.write(new byte[]{0x20, 0x0A, 0x05}); // anuncia 32 bytes e termina antes
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        stream.process(new ByteArrayInputStream(body.toByteArray()), out, Format.PROTOBUF);
+
+        List<WalletOperationResult> results = decodeAll(out.toByteArray());
+        assertEquals(List.of("OK", "INVALID_ARGUMENT"), results.stream().map(WalletOperationResult::status).toList());
+
+        stream = newStream(64, 32);
+        List<WalletOperationResult> oversized = ndjson("{\"tipo\":\"DEPOSIT\",\"idUsuario\":\"" + "x".repeat(64) + "\"}\n"
+                + "{\"tipo\":\"DEPOSIT\",\"idUsuario\":\"user1\",\"valor\":1}\n");
+        assertEquals(1, oversized.size());
+        assertEquals("INVALID_ARGUMENT", oversized.get(0).status());
+    }
+
+    @Test
+    void perWalletRateLimitRejectsOnlyThatOperation() throws Exception {
+        when(rateLimiter.tryAcquire(eq("operations.deposit"), eq("user:hot"))).thenReturn(1_000_000L);
+
+        List<WalletOperationResult> results = ndjson("""
+                {"tipo":"DEPOSIT","idUsuario":"hot","valor":1}
+                {"tipo":"DEPOSIT","idUsuario":"user1","valor":1}
+                """);
+
+        assertEquals(List.of("RESOURCE_EXHAUSTED", "OK"), results.stream().map(WalletOperationResult::status).toList());
+        verify(walletService, never()).deposit(new DepositRequest("hot", BigDecimal.ONE));
+        // Buckets do stream, não os dos endpoints REST
+        verify(rateLimiter, never()).tryAcquire(eq("deposit"), anyString());
+    }
+
+    @Test
+    void fallbackErrorsAreReportedAsUnavailable() throws Exception {
+        when(walletService.getBalance("user1")).thenReturn(new BalanceResponse("user1", BigDecimal.ZERO, "BRL"));
+        when(walletService.withdraw(any())).thenThrow(new RuntimeException("Service temporarily unavailable"));
+        when(walletMetrics.lastOperationFellBack()).thenReturn(true);
+
+        List<WalletOperationResult> results = ndjson("""
+                {"tipo":"BALANCE","idUsuario":"user1"}
+                {"tipo":"WITHDRAW","idUsuario":"user1","valor":1}
+                """);
+
+        assertEquals(List.of("UNAVAILABLE", "UNAVAILABLE"), results.stream().map(WalletOperationResult::status).toList());
+        assertNull(results.get(0).saldo());
+    }
+
+    // O cliente só manda a próxima operação depois de ler o resultado da anterior: sem flush por operação travaria
+    @Test
+    void resultsAreFlushedWhileTheStreamIsStillOpen() throws Exception {
+        PipedOutputStream client = new PipedOutputStream();
+        PipedInputStream serverIn = new PipedInputStream(client);
+        PipedOutputStream serverOut = new PipedOutputStream();
+        PipedInputStream clientIn = new PipedInputStream(serverOut);
+        CompletableFuture<Long> processed = CompletableFuture.supplyAsync(() -> {
+            try (serverOut) {
+                return stream.process(serverIn, serverOut, Format.PROTOBUF);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        for (int i = 1; i <= 3; i++) {
+            RecordProtobufCodec.writeDelimited(op(i, "DEPOSIT", "user" + i, null, "1.00"), client);
+            client.flush();
+            WalletOperationResult result = RecordProtobufCodec.readDelimited(WalletOperationResult.class, clientIn, 1 << 16);
+            assertEquals(i, result.sequencia());
+            assertEquals("user" + i, result.idUsuario());
+        }
+        client.close();
+
+        assertEquals(3L, processed.get(5, TimeUnit.SECONDS));
+        assertNull(RecordProtobufCodec.readDelimited(WalletOperationResult.class, clientIn, 1 << 16));
+    }
+
+    @Test
+    void controllerAnswersInTheRequestFormat() throws Exception {
+        var mockMvc = MockMvcBuilders.standaloneSetup(new WalletOperationsController(stream)).build();
+
+        MockHttpServletResponse response = mockMvc.perform(post("/api/wallets/operations")
+                        .contentType("application/x-ndjson")
+                        .content("{\"tipo\":\"DEPOSIT\",\"idUsuario\":\"user1\",\"valor\":1}\n"))
+                .andReturn().getResponse();
+        MockHttpServletResponse unsupported = mockMvc.perform(post("/api/wallets/operations")
+                .contentType("application/json").content("{}")).andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("application/x-ndjson", response.getContentType());
+        assertTrue(response.getContentAsString().contains("\"status\":\"OK\""));
+        assertEquals(415, unsupported.getStatus());
+    }
+}
@@ -0,0 +1,179 @@
+package com.walletservice.projection;
+
+import com.walletservice.cache.BalanceCache;
+import com.walletservice.domain.Wallet;
+import com.walletservice.domain.WalletBalanceView;
+import com.walletservice.repository.LedgerSummary;
+import com.walletservice.repository.TransactionRepository;
+import com.walletservice.repository.WalletBalanceViewRepository;
+import com.walletservice.repository.WalletRepository;
+import com.walletservice.utils.Messages;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BalanceProjectorTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private WalletBalanceViewRepository viewRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private BalanceProjector projector;
+
+    private record Summary(long getEntries, LocalDateTime getLastTransaction,
+                           BigDecimal getCredits, BigDecimal getDebits) implements LedgerSummary {}
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(BalanceCache.CACHE_NAME);
+        projector = newProjector(true);
+
+        when(walletRepository.findByIdUsuario(anyString())).thenAnswer(invocation ->
+                new Wallet(null, invocation.getArgument(0), new BigDecimal("80.00"), "BRL"));
+        when(transactionRepository.summarizeLedger(anyString(), any())).thenReturn(
+                new Summary(3, LocalDateTime.now(), new BigDecimal("100.00"), new BigDecimal("20.00")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        projector.shutdown();
+    }
+
+    private BalanceProjector newProjector(boolean enabled) {
+        return new BalanceProjector(walletRepository, transactionRepository, viewRepository, transactionManager,
+                cacheManager, new SimpleMeterRegistry(), enabled, 2, 2, Clock.systemDefaultZone());
+    }
+
+    private LedgerEvent transfer(String from, String to) {
+        return new LedgerEvent(UUID.randomUUID(), Messages.TRANSACTION_TYPE_TRANSFER, new BigDecimal("20.00"),
+                from, to, LocalDateTime.now());
+    }
+
+    @Test
+    void projectsEveryWalletInTheEvent() {
+        cacheManager.getCache(BalanceCache.CACHE_NAME).put("bobby", "stale");
+
+        projector.onLedgerEvent(transfer("alice", "bobby"));
+        assertTrue(projector.awaitIdle(TIMEOUT));
+
+        ArgumentCaptor<WalletBalanceView> saved = ArgumentCaptor.forClass(WalletBalanceView.class);
+        verify(viewRepository, times(2)).save(saved.capture());
+        Map<String, WalletBalanceView> views = saved.getAllValues().stream()
+                .collect(Collectors.toMap(WalletBalanceView::getIdUsuario, view -> view));
+
+        WalletBalanceView alice = views.get("alice");
+        assertEquals(new BigDecimal("80.00"), alice.getSaldo());
+        assertEquals(new BigDecimal("100.00"), alice.getCreditosDia());
+        assertEquals(new BigDecimal("20.00"), alice.getDebitosDia());
+        assertEquals(3, alice.getVersao());
+        assertTrue(views.containsKey("bobby"));
+
+        assertFalse(projector.isPending("alice"));
+        assertFalse(projector.isPending("bobby"));
+        // O saldo cacheado a partir da visão antiga é descartado
+        assertNull(cacheManager.getCache(BalanceCache.CACHE_NAME).get("bobby"));
+    }
+
+    @Test
+    void pendingWalletIsReadFromWriteModel() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(walletRepository.findByIdUsuario("alice")).thenAnswer(invocation -> {
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new Wallet(null, "alice", BigDecimal.TEN, "BRL");
+        });
+        when(viewRepository.findById("alice")).thenReturn(Optional.of(new WalletBalanceView()));
+
+        projector.onLedgerEvent(transfer("alice", null));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(projector.isPending("alice"));
+        assertTrue(projector.currentView("alice").isEmpty());
+        verify(viewRepository, never()).findById("alice");
+
+        release.countDown();
+        assertTrue(projector.awaitIdle(TIMEOUT));
+        assertTrue(projector.currentView("alice").isPresent());
+    }
+
+    @Test
+    void failedProjectionStaysPending() {
+        when(transactionRepository.summarizeLedger(eq("alice"), any())).thenThrow(new IllegalStateException("db down"));
+
+        projector.onLedgerEvent(transfer("alice", null));
+        assertTrue(projector.awaitIdle(TIMEOUT));
+
+        assertTrue(projector.isPending("alice"));
+        assertEquals(1, projector.status().pending());
+        verify(viewRepository, never()).save(any());
+    }
+
+    @Test
+    void rebuildRecomputesEveryWalletPageByPage() {
+        when(walletRepository.findIdUsuarioAfter(eq(""), any(Pageable.class))).thenReturn(List.of("alice", "bobby"));
+        when(walletRepository.findIdUsuarioAfter(eq("bobby"), any(Pageable.class))).thenReturn(List.of("carol"));
+
+        BalanceProjector.RebuildResult result = projector.rebuild();
+
+        assertEquals(3, result.wallets());
+        assertEquals(0, result.failures());
+        verify(viewRepository).deleteAllInBatch();
+        verify(viewRepository, times(3)).save(any(WalletBalanceView.class));
+        assertEquals(0, projector.status().pending());
+        assertSame(result, projector.status().lastRebuild());
+    }
+
+    @Test
+    void disabledProjectorIgnoresEvents() {
+        BalanceProjector disabled = newProjector(false);
+        try {
+            disabled.onLedgerEvent(transfer("alice", "bobby"));
+            assertTrue(disabled.awaitIdle(TIMEOUT));
+
+            verifyNoInteractions(viewRepository);
+            assertTrue(disabled.currentView("alice").isEmpty());
+        } finally {
+            disabled.shutdown();
+        }
+    }
+}
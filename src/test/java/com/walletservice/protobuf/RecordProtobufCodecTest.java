@@ -0,0 +1,111 @@
+package com.walletservice.protobuf;
+
+import com.walletservice.dto.BalanceResponse;
+import com.walletservice.dto.BalanceSummaryResponse;
+import com.walletservice.dto.BalancesResponse;
+import com.walletservice.dto.TransferOperationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordProtobufCodecTest {
+
+    @Test
+    void encodesFieldsInDeclarationOrderWithProtobufWireFormat() {
+        byte[] encoded = RecordProtobufCodec.encode(new BalanceResponse("user1", new BigDecimal("10.00"), "BRL"));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(0x0A);
+        expected.write(5);
+        expected.writeBytes("user1".getBytes(StandardCharsets.UTF_8));
+        expected.write(0x12);
+        expected.write(5);
+        expected.writeBytes("10.00".getBytes(StandardCharsets.UTF_8));
+        expected.write(0x1A);
+        expected.write(3);
+        expected.writeBytes("BRL".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(expected.toByteArray(), encoded);
+    }
+
+    @Test
+    void roundTripsNestedListsDatesAndNulls() {
+        BalancesResponse balances = new BalancesResponse(
+                List.of(new BalanceResponse("user1", new BigDecimal("1.50"), "BRL"),
+                        new BalanceResponse("user2", new BigDecimal("-0.01"), "BRL")),
+                List.of("ghost"));
+        BalanceSummaryResponse summary = new BalanceSummaryResponse("user1", new BigDecimal("99.90"), "BRL",
+                LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000), new BigDecimal("50"), BigDecimal.ZERO, 7L);
+        TransferOperationResponse operation = new TransferOperationResponse(UUID.randomUUID(), "PENDING",
+                "user1", "user2", new BigDecimal("75.00"), null,
+                LocalDateTime.of(2024, 5, 1, 10, 0), null);
+
+        assertEquals(balances, RecordProtobufCodec.decode(BalancesResponse.class, RecordProtobufCodec.encode(balances)));
+        assertEquals(summary, RecordProtobufCodec.decode(BalanceSummaryResponse.class, RecordProtobufCodec.encode(summary)));
+        assertEquals(operation,
+                RecordProtobufCodec.decode(TransferOperationResponse.class, RecordProtobufCodec.encode(operation)));
+    }
+
+    @Test
+    void skipsUnknownFieldsAndRejectsTruncatedInput() {
+        byte[] known = RecordProtobufCodec.encode(new BalanceResponse("user1", BigDecimal.ONE, "BRL"));
+        ByteArrayOutputStream withUnknown = new ByteArrayOutputStream();
+        withUnknown.writeBytes(known);
+        withUnknown.write(0x20); // campo 4, varint
+        withUnknown.write(0x96);
+        withUnknown.write(0x01);
+        withUnknown.write(0x2A); // campo 5, length-delimited
+        withUnknown.write(1);
+        withUnknown.write('x');
+
+        assertEquals(new BalanceResponse("user1", BigDecimal.ONE, "BRL"),
+                RecordProtobufCodec.decode(BalanceResponse.class, withUnknown.toByteArray()));
+        assertThrows(IllegalArgumentException.class,
+                () -> RecordProtobufCodec.decode(BalanceResponse.class, java.util.Arrays.copyOf(known, known.length - 1)));
+    }
+
+    @Test
+    void rejectsMalformedScalarsAsIllegalArgument() {
+        byte[] known = RecordProtobufCodec.encode(new TransferOperationResponse(UUID.randomUUID(), "PENDING",
+                "user1", "user2", new BigDecimal("75.00"), null, null, null));
+        for (String[] field : new String[][] {{"7", "2024-13-45T99:00"}, {"5", "1,5"}, {"1", "not-a-uuid"}}) {
+            ByteArrayOutputStream malformed = new ByteArrayOutputStream();
+            malformed.writeBytes(known);
+            malformed.write(Integer.parseInt(field[0]) << 3 | 2);
+            malformed.write(field[1].length());
+            malformed.writeBytes(field[1].getBytes(StandardCharsets.UTF_8));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> RecordProtobufCodec.decode(TransferOperationResponse.class, malformed.toByteArray()),
+                    "campo " + field[0]);
+        }
+    }
+
+    @Test
+    void supportsOnlyMappableRecords() {
+        record WithMap(Map<String, String> values) {}
+
+        assertTrue(RecordProtobufCodec.supports(BalancesResponse.class));
+        assertFalse(RecordProtobufCodec.supports(WithMap.class));
+        assertFalse(RecordProtobufCodec.supports(Map.class));
+        assertFalse(RecordProtobufCodec.supports(String.class));
+    }
+
+    @Test
+    void generatesProto3SchemaIncludingNestedMessages() {
+        String schema = ProtobufSchema.generate(List.of(BalancesResponse.class));
+
+        assertTrue(schema.startsWith("syntax = \"proto3\";"));
+        assertTrue(schema.contains("message BalancesResponse {\n  repeated BalanceResponse saldos = 1;\n"
+                + "  repeated string naoEncontrados = 2;\n}"));
+        assertTrue(schema.contains("message BalanceResponse {\n  string idUsuario = 1;\n  string saldo = 2;\n"
+                + "  string moeda = 3;\n}"));
+    }
+}
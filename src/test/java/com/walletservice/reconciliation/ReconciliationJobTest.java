@@ -0,0 +1,133 @@
+package com.walletservice.reconciliation;
+
+import com.walletservice.repository.LedgerBalance;
+import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReconciliationJobTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // idUsuario -> {saldo, soma do ledger}
+    private final NavigableMap<String, BigDecimal[]> wallets = new TreeMap<>();
+    private final AtomicInteger ledgerQueries = new AtomicInteger();
+    private SimpleMeterRegistry registry;
+
+    private record Row(String getIdUsuario, BigDecimal getSaldo, BigDecimal getLedger) implements LedgerBalance {}
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+
+        when(walletRepository.count()).thenAnswer(inv -> (long) wallets.size());
+        when(walletRepository.findIdUsuarioAfter(anyString(), any(Pageable.class))).thenAnswer(inv -> {
+            String after = inv.getArgument(0);
+            Pageable page = inv.getArgument(1);
+            return wallets.tailMap(after, false).keySet().stream().limit(page.getPageSize()).toList();
+        });
+        when(walletRepository.findLedgerBalances(anyString(), anyString())).thenAnswer(inv -> {
+            ledgerQueries.incrementAndGet();
+            return wallets.subMap(inv.getArgument(0), true, inv.getArgument(1), true).entrySet().stream()
+                    .map(e -> (LedgerBalance) new Row(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                    .toList();
+        });
+    }
+
+    private ReconciliationJob job(int chunkSize, int leafSize, int maxWalletsPerSecond) {
+        ReconciliationProperties properties = new ReconciliationProperties(chunkSize, leafSize, 4,
+                maxWalletsPerSecond, 3);
+        return new ReconciliationJob(walletRepository, transactionManager, properties, registry);
+    }
+
+    private void addWallets(int count) {
+        for (int i = 0; i < count; i++) {
+            BigDecimal saldo = BigDecimal.valueOf(i, 2);
+            wallets.put(String.format("user%05d", i), new BigDecimal[]{saldo, saldo.setScale(4)});
+        }
+    }
+
+    @Test
+    void findsMismatchesAcrossChunks() {
+        addWallets(1_000);
+        wallets.get("user00010")[1] = new BigDecimal("1.00");
+        wallets.get("user00450")[1] = BigDecimal.ZERO;
+        wallets.get("user00999")[0] = new BigDecimal("-5");
+
+        ReconciliationJob.Result result = job(300, 40, 0).run();
+
+        assertEquals(1_000, result.wallets());
+        assertEquals(3, result.mismatches());
+        // 4 blocos de no máximo 300, cada um dividido em folhas de até 40 carteiras
+        assertTrue(ledgerQueries.get() >= 1_000 / 40);
+
+        assertEquals(1_000, registry.get("wallet.reconciliation.wallets").counter().count());
+        assertEquals(3, registry.get("wallet.reconciliation.mismatches").counter().count());
+    }
+
+    @Test
+    void statusKeepsOnlyMostRecentMismatches() {
+        addWallets(100);
+        for (int i = 0; i < 5; i++) {
+            wallets.get(String.format("user%05d", i * 10))[1] = new BigDecimal("-1");
+        }
+
+        ReconciliationJob job = job(25, 10, 0);
+        job.run();
+
+        ReconciliationJob.Status status = job.status();
+        assertEquals(5, status.mismatches());
+        assertEquals(List.of("user00020", "user00030", "user00040"),
+                status.recentMismatches().stream().map(ReconciliationJob.Mismatch::idUsuario).toList());
+        assertEquals(new BigDecimal("1.20"), status.recentMismatches().get(0).diferenca());
+        assertEquals(100, status.lastRun().wallets());
+        assertEquals(1.0, registry.get("wallet.reconciliation.progress").gauge().value());
+    }
+
+    @Test
+    void throttlesToConfiguredRate() {
+        addWallets(600);
+
+        long start = System.nanoTime();
+        ReconciliationJob.Result result = job(100, 50, 2_000).run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 600 carteiras a 2000/s levam pelo menos ~300 ms
+        System.out.printf("reconciliation: %d wallets in %d ms (%d wallets/s)%n",
+                result.wallets(), elapsedMillis, result.walletsPerSecond());
+        assertTrue(elapsedMillis >= 280, "Conciliação terminou em " + elapsedMillis + " ms");
+        assertTrue(result.walletsPerSecond() <= 2_200);
+    }
+
+    @Test
+    void emptyTableFinishesImmediately() {
+        ReconciliationJob.Result result = job(100, 50, 0).run();
+
+        assertEquals(0, result.wallets());
+        verify(walletRepository, never()).findLedgerBalances(anyString(), anyString());
+    }
+}
@@ -0,0 +1,82 @@
+package com.walletservice.resilience;
+
+import com.walletservice.resilience.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLI = 1_000_000;
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), initialLimit, 4, 200, 1_000, 0.9, 0.5);
+    }
+
+    @Test
+    void balanceReadsKeepHeadroomOverWrites() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        // Escritas só podem ocupar 90% do limite
+        for (int i = 0; i < 9; i++) {
+            assertTrue(limiter.tryAcquire(Priority.WRITE));
+        }
+        assertFalse(limiter.tryAcquire(Priority.WRITE));
+        assertFalse(limiter.tryAcquire(Priority.REPORTING));
+
+        // A última vaga fica para a consulta de saldo
+        assertTrue(limiter.tryAcquire(Priority.BALANCE));
+        assertFalse(limiter.tryAcquire(Priority.BALANCE));
+    }
+
+    @Test
+    void limitGrowsWhileLatencyStaysAtBaseline() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        saturate(limiter, 20, 5 * MILLI, 50);
+
+        assertTrue(limiter.getLimit() > 20, "limite deveria subir, ficou em " + limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyQueues() {
+        AdaptiveConcurrencyLimiter limiter = limiter(50);
+        // Estabelece a latência sem fila
+        saturate(limiter, 50, 5 * MILLI, 1);
+        // Latência 4x maior indica fila crescendo
+        saturate(limiter, 50, 20 * MILLI, 50);
+
+        assertTrue(limiter.getLimit() < 50, "limite deveria cair, ficou em " + limiter.getLimit());
+    }
+
+    @Test
+    void failuresDoNotFeedTheAlgorithm() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 20; i++) {
+                limiter.tryAcquire(Priority.BALANCE);
+            }
+            for (int i = 0; i < 20; i++) {
+                limiter.release(MILLI, false);
+            }
+        }
+
+        assertEquals(20, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    // Ocupa todas as vagas e libera com a latência informada, simulando carga no limite
+    private void saturate(AdaptiveConcurrencyLimiter limiter, int concurrency, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            for (int i = 0; i < concurrency; i++) {
+                if (limiter.tryAcquire(Priority.BALANCE)) {
+                    acquired++;
+                }
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos, true);
+            }
+        }
+    }
+}
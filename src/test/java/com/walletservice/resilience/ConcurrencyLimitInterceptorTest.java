@@ -0,0 +1,31 @@
+package com.walletservice.resilience;
+
+import com.walletservice.resilience.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private static Priority priority(String method, String uri) {
+        return ConcurrencyLimitInterceptor.priorityOf(new MockHttpServletRequest(method, uri));
+    }
+
+    @Test
+    void balanceReadsAreClassifiedByRoute() {
+        assertEquals(Priority.BALANCE, priority("GET", "/api/wallets/user1/balance"));
+        assertEquals(Priority.BALANCE, priority("GET", "/api/wallets/user1/summary"));
+        assertEquals(Priority.BALANCE, priority("GET", "/api/wallets/user1/available"));
+        // Leitura em lote: POST só para levar os IDs no corpo
+        assertEquals(Priority.BALANCE, priority("POST", "/api/wallets/balances"));
+    }
+
+    @Test
+    void writesAndReportsKeepTheirClasses() {
+        assertEquals(Priority.WRITE, priority("POST", "/api/wallets/withdraw"));
+        assertEquals(Priority.WRITE, priority("POST", "/api/wallets/holds/6f1c/capture"));
+        assertEquals(Priority.WRITE, priority("PUT", "/api/wallets/balances"));
+        assertEquals(Priority.REPORTING, priority("GET", "/api/wallets/user1/balance/historical"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.walletservice.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRejectsWithRetryAfter() {
+        // 10 tokens por segundo, rajada de 5
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now), "token " + i + " deveria ser concedido");
+        }
+
+        long wait = bucket.tryAcquire(now);
+        assertEquals(SECOND / 10, wait);
+    }
+
+    @Test
+    void refillsAtReplenishRate() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = 1_000 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now + SECOND / 20) > 0);
+        assertEquals(0, bucket.tryAcquire(now + SECOND / 10));
+    }
+
+    @Test
+    void bucketBecomesIdleOnceFull() {
+        TokenBucket bucket = new TokenBucket(1, 2);
+        long now = 1_000 * SECOND;
+
+        assertTrue(bucket.isIdle(now, SECOND));
+        bucket.tryAcquire(now);
+        assertFalse(bucket.isIdle(now, SECOND));
+        assertTrue(bucket.isIdle(now + 3 * SECOND, SECOND));
+    }
+
+    // Benchmark grosseiro: a verificação local precisa ficar abaixo de 1 microssegundo
+    @Test
+    void tryAcquireIsSubMicrosecond() {
+        TokenBucket bucket = new TokenBucket(1_000_000_000, 1_000_000_000);
+        int iterations = 1_000_000;
+        for (int i = 0; i < iterations; i++) {
+            bucket.tryAcquire(System.nanoTime());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bucket.tryAcquire(System.nanoTime());
+        }
+        long avgNanos = (System.nanoTime() - start) / iterations;
+
+        System.out.printf("TokenBucket.tryAcquire: %d ns/op%n", avgNanos);
+        assertTrue(avgNanos < 1_000, "tryAcquire custou " + avgNanos + " ns");
+    }
+}
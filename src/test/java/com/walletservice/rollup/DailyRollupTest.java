@@ -0,0 +1,187 @@
+package com.walletservice.rollup;
+
+import com.walletservice.projection.LedgerEvent;
+import com.walletservice.rollup.DailyRollupReports.DayTotal;
+import com.walletservice.rollup.DailyRollupReports.Report;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Banco H2 em modo PostgreSQL com o mesmo script de schema de produção
+class DailyRollupTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate tx;
+    private DailyRollupWriter writer;
+    private DailyRollupReports reports;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:rollups;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema-postgresql.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        tx = new TransactionTemplate(transactionManager);
+        RollupProperties properties = new RollupProperties(true, 366);
+        writer = new DailyRollupWriter(dataSource, properties, new SimpleMeterRegistry());
+        reports = new DailyRollupReports(dataSource, transactionManager, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    // Como no WalletService: o lançamento vai para transactions e o evento é publicado na mesma transação
+    private void post(String tipo, String valor, LocalDateTime dataHora, String origem, String destino) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO transactions (id, tipo_transacao, valor, moeda, data_hora, id_usuario_origem, "
+                        + "id_usuario_destino, status) VALUES (?, ?, ?, 'BRL', ?, ?, ?, 'COMPLETED')",
+                id, tipo, new BigDecimal(valor), Timestamp.valueOf(dataHora), origem, destino);
+        writer.onLedgerEvent(new LedgerEvent(id, tipo, new BigDecimal(valor), origem, destino, dataHora));
+    }
+
+    private Map<String, Object> rollup(String idUsuario, LocalDate dia, String tipo) {
+        return jdbc.queryForMap("SELECT quantidade, valor_total FROM transaction_daily_rollup "
+                + "WHERE id_usuario = ? AND dia = ? AND tipo = ?", idUsuario, dia, tipo);
+    }
+
+    private static void assertAmount(String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), "esperado " + expected + ", veio " + actual);
+    }
+
+    @Test
+    void aggregatesLedgerEntriesAtCommit() {
+        tx.executeWithoutResult(status -> {
+            post("DEPOSITO", "100", DAY.atTime(9, 0), "alice", null);
+            post("DEPOSITO", "50", DAY.atTime(10, 0), "alice", null);
+            post("TRANSFERENCIA", "30", DAY.atTime(11, 0), "alice", "bob");
+            // Nada gravado antes do commit
+            assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM transaction_daily_rollup", Integer.class));
+        });
+        tx.executeWithoutResult(status -> post("SAQUE", "20", DAY.atTime(12, 0), "alice", null));
+        tx.executeWithoutResult(status -> post("DEPOSITO", "5", DAY.atTime(23, 59), "alice", null));
+
+        Map<String, Object> deposits = rollup("alice", DAY, DailyRollupWriter.DEPOSIT);
+        assertEquals(3L, ((Number) deposits.get("quantidade")).longValue());
+        assertAmount("155", deposits.get("valor_total"));
+        assertAmount("30", rollup("alice", DAY, DailyRollupWriter.TRANSFER_OUT).get("valor_total"));
+        assertAmount("30", rollup("bob", DAY, DailyRollupWriter.TRANSFER_IN).get("valor_total"));
+        assertAmount("20", rollup("alice", DAY, DailyRollupWriter.WITHDRAW).get("valor_total"));
+    }
+
+    @Test
+    void rollbackDiscardsRollupWithTheLedger() {
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            post("DEPOSITO", "100", DAY.atTime(9, 0), "alice", null);
+            throw new IllegalStateException("falha depois do lançamento");
+        }));
+        tx.executeWithoutResult(status -> post("DEPOSITO", "7", DAY.atTime(9, 0), "alice", null));
+
+        assertEquals(1L, ((Number) rollup("alice", DAY, DailyRollupWriter.DEPOSIT).get("quantidade")).longValue());
+        assertAmount("7", rollup("alice", DAY, DailyRollupWriter.DEPOSIT).get("valor_total"));
+    }
+
+    @Test
+    void reportsDailyTotalsForAllWalletsOrOne() {
+        tx.executeWithoutResult(status -> {
+            post("DEPOSITO", "100", DAY.atTime(9, 0), "alice", null);
+            post("DEPOSITO", "40", DAY.atTime(9, 0), "bob", null);
+            post("SAQUE", "10", DAY.plusDays(1).atTime(9, 0), "alice", null);
+            post("DEPOSITO", "1", DAY.plusDays(5).atTime(9, 0), "alice", null);
+        });
+
+        Report all = reports.daily(DAY, DAY.plusDays(1), null);
+        Report alice = reports.daily(DAY, DAY.plusDays(1), "alice");
+
+        assertEquals(List.of(new DayTotal(DAY, "DEPOSITO", 2, new BigDecimal("140.00")),
+                new DayTotal(DAY.plusDays(1), "SAQUE", 1, new BigDecimal("10.00"))), all.dias());
+        assertAmount("100", alice.totais().get("DEPOSITO").valorTotal());
+        assertEquals(1, alice.totais().get("SAQUE").quantidade());
+        assertThrows(IllegalArgumentException.class, () -> reports.daily(DAY, DAY.minusDays(1), null));
+        assertThrows(IllegalArgumentException.class, () -> reports.daily(DAY, DAY.plusDays(400), null));
+    }
+
+    @Test
+    void rebuildFromLedgerMatchesIncrementalRollup() {
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < 30; i++) {
+                LocalDateTime when = DAY.plusDays(i % 3).atTime(8 + i % 10, 0);
+                post("DEPOSITO", "10." + i, when, "user" + i % 4, null);
+                post("TRANSFERENCIA", "1.50", when, "user" + i % 4, "user" + (i + 1) % 4);
+                if (i % 5 == 0) {
+                    post("SAQUE", "2", when, "user" + i % 4, null);
+                }
+            }
+        });
+        Report incremental = reports.daily(DAY, DAY.plusDays(2), null);
+        List<Map<String, Object>> before = jdbc.queryForList(
+                "SELECT id, quantidade, valor_total FROM transaction_daily_rollup ORDER BY id");
+
+        // Dia sem rollup (ex.: anterior à ativação) e um dia com rollup apagado por engano
+        jdbc.update("DELETE FROM transaction_daily_rollup WHERE dia = ?", DAY.plusDays(1));
+        DailyRollupReports.RebuildResult result = reports.rebuild(DAY, DAY.plusDays(2));
+
+        assertEquals(3, result.days());
+        assertEquals(before, jdbc.queryForList("SELECT id, quantidade, valor_total FROM transaction_daily_rollup ORDER BY id"));
+        assertEquals(incremental.dias(), reports.daily(DAY, DAY.plusDays(2), null).dias());
+        assertThrows(IllegalArgumentException.class, () -> reports.rebuild(LocalDate.now().minusDays(1), LocalDate.now()));
+    }
+
+    // Benchmark grosseiro: agregado de 30 dias pelo rollup x varredura de transactions
+    @Test
+    void rollupReportAvoidsScanningTheLedger() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 60_000; i++) {
+            LocalDateTime when = DAY.plusDays(i % 30).atTime(i % 24, i % 60);
+            rows.add(new Object[]{UUID.randomUUID(), i % 3 == 0 ? "SAQUE" : "DEPOSITO", new BigDecimal("1.25"),
+                    Timestamp.valueOf(when), "user" + i % 200});
+        }
+        jdbc.batchUpdate("INSERT INTO transactions (id, tipo_transacao, valor, moeda, data_hora, id_usuario_origem, "
+                + "status) VALUES (?, ?, ?, 'BRL', ?, ?, 'COMPLETED')", rows);
+        reports.rebuild(DAY, DAY.plusDays(29));
+        String scan = "SELECT CAST(data_hora AS DATE), tipo_transacao, COUNT(*), SUM(valor) FROM transactions "
+                + "WHERE data_hora >= ? AND data_hora < ? GROUP BY CAST(data_hora AS DATE), tipo_transacao";
+        Timestamp start = Timestamp.valueOf(DAY.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(DAY.plusDays(30).atStartOfDay());
+        for (int i = 0; i < 5; i++) {
+            jdbc.queryForList(scan, start, end);
+            reports.daily(DAY, DAY.plusDays(29), null);
+        }
+
+        long t0 = System.nanoTime();
+        List<Map<String, Object>> scanned = jdbc.queryForList(scan, start, end);
+        long scanMicros = (System.nanoTime() - t0) / 1_000;
+        t0 = System.nanoTime();
+        Report report = reports.daily(DAY, DAY.plusDays(29), null);
+        long rollupMicros = (System.nanoTime() - t0) / 1_000;
+
+        System.out.printf("30-day totals: ledger scan %d us over %d rows; rollup %d us over %d rows%n",
+                scanMicros, rows.size(), rollupMicros,
+                jdbc.queryForObject("SELECT COUNT(*) FROM transaction_daily_rollup", Long.class));
+        assertEquals(scanned.size(), report.dias().size());
+        assertEquals(60_000, report.totais().values().stream().mapToLong(DailyRollupReports.Totals::quantidade).sum());
+    }
+}
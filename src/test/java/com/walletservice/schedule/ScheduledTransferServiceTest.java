@@ -0,0 +1,289 @@
+package com.walletservice.schedule;
+
+import com.walletservice.domain.ScheduledTransfer;
+import com.walletservice.domain.Wallet;
+import com.walletservice.dto.ScheduledTransferRequest;
+import com.walletservice.dto.ScheduledTransferResponse;
+import com.walletservice.dto.TransferRequest;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.ScheduledTransferNotActiveException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.repository.DueTransfer;
+import com.walletservice.repository.ScheduledTransferRepository;
+import com.walletservice.repository.WalletRepository;
+import com.walletservice.schedule.ScheduledTransferService.Due;
+import com.walletservice.service.WalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ScheduledTransferServiceTest {
+
+    @Mock
+    private ScheduledTransferRepository repository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ScheduledTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        // Janela de 1 min, páginas de 2 para exercitar a paginação por chave
+        service = new ScheduledTransferService(repository, walletRepository, walletService, transactionManager,
+                new ScheduledTransferProperties(Duration.ofSeconds(1), Duration.ofMinutes(1), 2, 200, 31, 2, 100_000),
+                new SimpleMeterRegistry());
+        for (String idUsuario : List.of("user1", "user2")) {
+            when(walletRepository.findByIdUsuario(idUsuario))
+                    .thenReturn(new Wallet(UUID.randomUUID(), idUsuario, new BigDecimal("100.00"), "BRL"));
+        }
+        when(repository.save(any(ScheduledTransfer.class))).thenAnswer(invocation -> {
+            ScheduledTransfer schedule = invocation.getArgument(0);
+            if (schedule.getId() == null) {
+                ReflectionTestUtils.setField(schedule, "id", UUID.randomUUID());
+            }
+            return schedule;
+        });
+        when(repository.saveAndFlush(any(ScheduledTransfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static ScheduledTransfer schedule(String recorrencia, LocalDateTime inicio, LocalDateTime fim) {
+        ScheduledTransfer schedule = new ScheduledTransfer("user1", "user2", new BigDecimal("10.00"), recorrencia,
+                inicio, fim, LocalDateTime.now());
+        ReflectionTestUtils.setField(schedule, "id", UUID.randomUUID());
+        return schedule;
+    }
+
+    // Linha lida do banco: a leitura do lote e a releitura na falha devolvem instâncias diferentes
+    private void givenStored(ScheduledTransfer schedule) {
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(schedule));
+        when(repository.findById(schedule.getId())).thenAnswer(invocation -> {
+            ScheduledTransfer copy = schedule(schedule.getRecorrencia(), schedule.getInicio(), schedule.getFim());
+            ReflectionTestUtils.setField(copy, "id", schedule.getId());
+            return Optional.of(copy);
+        });
+    }
+
+    private static Due due(ScheduledTransfer schedule) {
+        return new Due(schedule.getId(), schedule.getIdUsuarioOrigem(), schedule.getProximaExecucao());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void monthlyRecurrenceKeepsAnchorDayAndStopsAtEnd() {
+        ScheduledTransfer monthly = schedule(ScheduledTransfer.MONTHLY, LocalDateTime.of(2024, 1, 31, 9, 0),
+                LocalDateTime.of(2024, 4, 30, 9, 0));
+
+        assertEquals(LocalDateTime.of(2024, 2, 29, 9, 0), monthly.occurrence(1));
+        assertEquals(LocalDateTime.of(2024, 3, 31, 9, 0), monthly.occurrence(2));
+        assertEquals(LocalDateTime.of(2024, 4, 30, 9, 0), monthly.occurrence(3));
+        assertNull(monthly.occurrence(4));
+
+        ScheduledTransfer once = schedule(ScheduledTransfer.ONCE, LocalDateTime.of(2024, 1, 31, 9, 0), null);
+        once.advance(LocalDateTime.now(), null);
+        assertEquals(ScheduledTransfer.STATUS_COMPLETED, once.getStatus());
+    }
+
+    @Test
+    void createValidatesDatesAndWallets() {
+        LocalDateTime amanha = LocalDateTime.now().plusDays(1);
+
+        assertThrows(IllegalArgumentException.class, () -> service.create(new ScheduledTransferRequest(
+                "user1", "user2", BigDecimal.TEN, LocalDateTime.now().minusMinutes(5), null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.create(new ScheduledTransferRequest(
+                "user1", "user2", BigDecimal.TEN, amanha, "DAILY", amanha.minusHours(1))));
+        assertThrows(IllegalArgumentException.class, () -> service.create(new ScheduledTransferRequest(
+                "user1", "user1", BigDecimal.TEN, amanha, null, null)));
+        assertThrows(WalletNotFoundException.class, () -> service.create(new ScheduledTransferRequest(
+                "user1", "ghost", BigDecimal.TEN, amanha, null, null)));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void createPutsOnlyRunsOfTheLoadedWindowInTheWheel() {
+        ScheduledTransferResponse soon = service.create(new ScheduledTransferRequest(
+                "user1", "user2", BigDecimal.TEN, LocalDateTime.now().plusSeconds(30), "weekly", null));
+        assertEquals(ScheduledTransfer.WEEKLY, soon.recorrencia());
+        assertEquals(0, soon.proximaExecucao().getNano());
+        assertEquals(1, service.pending());
+
+        service.create(new ScheduledTransferRequest(
+                "user1", "user2", BigDecimal.TEN, LocalDateTime.now().plusDays(1), null, null));
+        // Fora da janela: fica só no banco até uma leitura da fila
+        assertEquals(1, service.pending());
+    }
+
+    @Test
+    void tickRunsDueTransferAndAdvancesRecurrence() {
+        ScheduledTransferResponse created = service.create(new ScheduledTransferRequest(
+                "user1", "user2", new BigDecimal("10.00"), LocalDateTime.now(), "DAILY", null));
+        ScheduledTransfer stored = schedule(ScheduledTransfer.DAILY, created.inicio(), null);
+        ReflectionTestUtils.setField(stored, "id", created.agendamentoId());
+        givenStored(stored);
+
+        service.tick(millis(LocalDateTime.now()) + 2_000);
+
+        verify(walletService, timeout(2_000)).transfer(new TransferRequest("user1", "user2", new BigDecimal("10.00")));
+        verify(repository, timeout(2_000)).saveAndFlush(stored);
+        assertEquals(1, stored.getExecucoes());
+        assertEquals(created.inicio().plusDays(1), stored.getProximaExecucao());
+        assertTrue(stored.isActive());
+    }
+
+    @Test
+    void businessFailureIsRecordedAndOneTimeTransferEndsFailed() {
+        ScheduledTransfer stored = schedule(ScheduledTransfer.ONCE, LocalDateTime.now().minusSeconds(5), null);
+        givenStored(stored);
+        doThrow(new InsufficientFundsException("Saldo insuficiente")).when(walletService).transfer(any());
+
+        service.execute(List.of(due(stored)));
+
+        verify(repository).save(argThat(saved -> ScheduledTransfer.STATUS_FAILED.equals(saved.getStatus())
+                && saved.getFalhas() == 1 && "Saldo insuficiente".equals(saved.getMotivo())));
+    }
+
+    @Test
+    void catchUpRunsMissedOccurrencesUpToTheLimit() {
+        // 41 execuções diárias perdidas: as 10 mais antigas são puladas e as últimas 31 executadas
+        LocalDateTime inicio = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(40).minusHours(1);
+        ScheduledTransfer stored = schedule(ScheduledTransfer.DAILY, inicio, null);
+        givenStored(stored);
+
+        service.execute(List.of(due(stored)));
+
+        verify(walletService, times(31)).transfer(any());
+        assertEquals(41, stored.getExecucoes());
+        assertEquals(inicio.plusDays(41), stored.getProximaExecucao());
+        assertEquals(0, stored.getFalhas());
+    }
+
+    @Test
+    void cancelledOrAlreadyRunSchedulesAreNotTransferred() {
+        ScheduledTransfer cancelled = schedule(ScheduledTransfer.ONCE, LocalDateTime.now().minusSeconds(5), null);
+        cancelled.cancel();
+        givenStored(cancelled);
+        service.execute(List.of(due(cancelled)));
+
+        // Já executado por outra instância: a próxima execução ainda não venceu
+        ScheduledTransfer ahead = schedule(ScheduledTransfer.DAILY, LocalDateTime.now().minusSeconds(5), null);
+        Due stale = due(ahead);
+        ahead.advance(LocalDateTime.now(), null);
+        givenStored(ahead);
+        service.execute(List.of(stale));
+
+        verify(walletService, never()).transfer(any());
+    }
+
+    @Test
+    void infrastructureErrorLeavesScheduleForNextRefill() {
+        ScheduledTransfer stored = schedule(ScheduledTransfer.ONCE, LocalDateTime.now().minusSeconds(5), null);
+        givenStored(stored);
+        doThrow(new RuntimeException("Service temporarily unavailable")).when(walletService).transfer(any());
+
+        service.execute(List.of(due(stored)));
+
+        verify(repository, never()).save(any());
+        DueTransfer row = dueRow(stored.getId(), stored.getInicio());
+        when(repository.findDue(any(), any(Pageable.class))).thenReturn(List.of(row));
+        assertEquals(1, service.refill(System.currentTimeMillis()));
+        assertEquals(1, service.pending());
+    }
+
+    @Test
+    void refillPagesByKeyAndSkipsRunsAlreadyInTheWheel() {
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<DueTransfer> rows = IntStream.range(0, 5)
+                .mapToObj(i -> dueRow(new UUID(0, i + 1), base.plusSeconds(i)))
+                .toList();
+        when(repository.findDue(any(), any(Pageable.class))).thenReturn(rows.subList(0, 2));
+        when(repository.findDueAfter(any(), any(), any(), any(Pageable.class))).thenAnswer(invocation -> {
+            UUID afterId = invocation.getArgument(2);
+            int from = (int) afterId.getLeastSignificantBits();
+            return rows.subList(from, Math.min(rows.size(), from + 2));
+        });
+
+        assertEquals(5, service.refill(System.currentTimeMillis()));
+        assertEquals(5, service.pending());
+        // Páginas de 2: 2 + 2 + 1
+        verify(repository).findDue(any(), any(Pageable.class));
+        verify(repository, times(2)).findDueAfter(any(), any(), any(), any(Pageable.class));
+
+        assertEquals(0, service.refill(System.currentTimeMillis()));
+        assertEquals(5, service.pending());
+    }
+
+    @Test
+    void cancelRemovesFromWheelAndRejectsFinishedSchedule() {
+        ScheduledTransferResponse created = service.create(new ScheduledTransferRequest(
+                "user1", "user2", BigDecimal.TEN, LocalDateTime.now().plusSeconds(30), null, null));
+        ScheduledTransfer stored = schedule(ScheduledTransfer.ONCE, created.inicio(), null);
+        ReflectionTestUtils.setField(stored, "id", created.agendamentoId());
+        when(repository.findById(created.agendamentoId())).thenReturn(Optional.of(stored));
+
+        ScheduledTransferResponse cancelled = service.cancel(created.agendamentoId());
+
+        assertEquals(ScheduledTransfer.STATUS_CANCELLED, cancelled.status());
+        assertNull(cancelled.proximaExecucao());
+        assertEquals(0, service.pending());
+        assertThrows(ScheduledTransferNotActiveException.class, () -> service.cancel(created.agendamentoId()));
+    }
+
+    private static DueTransfer dueRow(UUID id, LocalDateTime proximaExecucao) {
+        return new DueTransfer() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getIdUsuarioOrigem() {
+                return "user1";
+            }
+
+            @Override
+            public LocalDateTime getProximaExecucao() {
+                return proximaExecucao;
+            }
+        };
+    }
+}
@@ -1,21 +1,36 @@
 package com.walletservice.service;
 
+import com.walletservice.cache.BalanceCache;
+import com.walletservice.cache.WalletExistenceFilter;
+import com.walletservice.cache.WalletFilterProperties;
+import com.walletservice.datasource.ReadYourWrites;
 import com.walletservice.domain.Wallet;
 import com.walletservice.dto.BalanceResponse;
 import com.walletservice.dto.CreateWalletRequest;
 import com.walletservice.dto.DepositRequest;
 import com.walletservice.dto.WithdrawalRequest;
+import com.walletservice.eventsourcing.EventSourcedWalletStore;
 import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.hold.WalletHolds;
+import com.walletservice.journal.WalletJournal;
+import com.walletservice.limits.VelocityLimiter;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.projection.BalanceProjector;
 import com.walletservice.repository.TransactionRepository;
 import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +46,39 @@ public class SimpleWalletServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Spy
+    private WalletMetrics walletMetrics = new WalletMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private BalanceCache balanceCache = new BalanceCache(new ConcurrentMapCacheManager(), new SimpleMeterRegistry(),
+            Duration.ofMinutes(5), false, 1.0);
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(10));
+
+    @Mock
+    private BalanceProjector balanceProjector;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventSourcedWalletStore eventStore;
+
+    @Mock
+    private WalletJournal walletJournal;
+
+    // Ainda não construído: deixa todas as consultas seguirem para o repositório
+    @Spy
+    private WalletExistenceFilter walletExistenceFilter = new WalletExistenceFilter(null, null,
+            new WalletFilterProperties(true, 1000, 0.01, 100, Duration.ofSeconds(5), 1000, false, 1000), new SimpleMeterRegistry());
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private WalletHolds walletHolds;
+
     @InjectMocks
     private WalletService walletService;
 
@@ -1,27 +1,59 @@
 package com.walletservice.service;
 
+import com.walletservice.cache.BalanceCache;
+import com.walletservice.cache.WalletExistenceFilter;
+import com.walletservice.cache.WalletFilterProperties;
+import com.walletservice.datasource.ReadYourWrites;
 import com.walletservice.domain.Wallet;
+import com.walletservice.domain.WalletHold;
 import com.walletservice.dto.CreateWalletRequest;
 import com.walletservice.dto.DepositRequest;
+import com.walletservice.dto.HoldRequest;
+import com.walletservice.dto.HoldResponse;
 import com.walletservice.dto.TransferRequest;
 import com.walletservice.dto.WithdrawalRequest;
+import com.walletservice.eventsourcing.EventSourcedWalletStore;
+import com.walletservice.exception.HoldNotActiveException;
 import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.VelocityLimitExceededException;
 import com.walletservice.exception.WalletAlreadyExistsException;
 import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.hold.WalletHolds;
+import com.walletservice.journal.WalletJournal;
+import com.walletservice.limits.VelocityLimitProperties;
+import com.walletservice.limits.VelocityLimiter;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.projection.BalanceProjector;
 import com.walletservice.repository.TransactionRepository;
 import com.walletservice.repository.WalletRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +65,39 @@ class WalletServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Spy
+    private WalletMetrics walletMetrics = new WalletMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private BalanceCache balanceCache = new BalanceCache(new ConcurrentMapCacheManager(), new SimpleMeterRegistry(),
+            Duration.ofMinutes(5), false, 1.0);
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(10));
+
+    @Mock
+    private BalanceProjector balanceProjector;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventSourcedWalletStore eventStore;
+
+    @Mock
+    private WalletJournal walletJournal;
+
+    // Ainda não construído: deixa todas as consultas seguirem para o repositório
+    @Spy
+    private WalletExistenceFilter walletExistenceFilter = new WalletExistenceFilter(null, null,
+            new WalletFilterProperties(true, 1000, 0.01, 100, Duration.ofSeconds(5), 1000, false, 1000), new SimpleMeterRegistry());
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private WalletHolds walletHolds;
+
     @InjectMocks
     private WalletService walletService;
 
@@ -119,6 +184,148 @@ class WalletServiceTest {
         assertThrows(InsufficientFundsException.class, () -> walletService.withdraw(request));
     }
 
+    @Test
+    void withdraw_VelocityLimitExceeded() {
+        WithdrawalRequest request = new WithdrawalRequest("user1", new BigDecimal("50.00"));
+        doThrow(new VelocityLimitExceededException("limite", 1000))
+                .when(velocityLimiter).reserveWithdrawal("user1", request.valor());
+
+        // Rejeitado antes de ler ou alterar a carteira
+        assertThrows(VelocityLimitExceededException.class, () -> walletService.withdraw(request));
+        verify(walletRepository, never()).save(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void withdraw_BlockedByReservedAmount() {
+        // 80 dos 100 estão reservados: o disponível é 20
+        wallet.setReservado(new BigDecimal("80.00"));
+        when(walletRepository.findByIdUsuario("user1")).thenReturn(wallet);
+
+        WithdrawalRequest request = new WithdrawalRequest("user1", new BigDecimal("50.00"));
+
+        assertThrows(InsufficientFundsException.class, () -> walletService.withdraw(request));
+        verify(walletHolds).releaseOverdue(wallet);
+        verify(walletRepository, never()).save(any());
+    }
+
+    @Test
+    void hold_ReservesAvailableBalance() {
+        when(walletRepository.findByIdUsuario("user1")).thenReturn(wallet);
+        when(walletHolds.ttl(null)).thenReturn(Duration.ofMinutes(15));
+        when(walletHolds.place(any(WalletHold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        HoldResponse response = walletService.hold(new HoldRequest("user1", new BigDecimal("40.00"), null, null));
+
+        assertEquals(WalletHold.STATUS_ACTIVE, response.status());
+        assertEquals(new BigDecimal("40.00"), wallet.getReservado());
+        assertEquals(new BigDecimal("60.00"), wallet.disponivel());
+        // O saldo só muda na captura; o limite de saques já conta a reserva
+        assertEquals(new BigDecimal("100.00"), wallet.getSaldo());
+        verify(velocityLimiter).reserveWithdrawal("user1", new BigDecimal("40.00"));
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void hold_InsufficientAvailableBalance() {
+        wallet.setReservado(new BigDecimal("70.00"));
+        when(walletRepository.findByIdUsuario("user1")).thenReturn(wallet);
+        when(walletHolds.ttl(null)).thenReturn(Duration.ofMinutes(15));
+
+        HoldRequest request = new HoldRequest("user1", new BigDecimal("40.00"), null, null);
+
+        assertThrows(InsufficientFundsException.class, () -> walletService.hold(request));
+        verify(walletHolds, never()).place(any());
+    }
+
+    @Test
+    void capture_DebitsCapturedAmountAndReleasesRemainder() {
+        wallet.setReservado(new BigDecimal("40.00"));
+        WalletHold hold = new WalletHold("user1", new BigDecimal("40.00"), null, LocalDateTime.now(),
+                LocalDateTime.now().plusMinutes(15));
+        UUID holdId = UUID.randomUUID();
+        when(walletHolds.find(holdId)).thenReturn(hold);
+        when(walletRepository.findByIdUsuario("user1")).thenReturn(wallet);
+
+        HoldResponse response = walletService.capture(holdId, new BigDecimal("30.00"));
+
+        assertEquals(WalletHold.STATUS_CAPTURED, response.status());
+        assertEquals(new BigDecimal("70.00"), wallet.getSaldo());
+        assertEquals(0, wallet.getReservado().signum());
+        // A captura não passa de novo pelo limite; o restante não capturado é devolvido a ele
+        verify(velocityLimiter, never()).reserveWithdrawal(any(), any());
+        verify(velocityLimiter).refundWithdrawal("user1", new BigDecimal("10.00"), hold.getCriadoEm(), true);
+        verify(walletHolds).finish(hold);
+        verify(transactionRepository).save(any());
+        // Captura encerrada não pode ser capturada de novo
+        assertThrows(HoldNotActiveException.class, () -> walletService.capture(holdId, null));
+    }
+
+    @Test
+    void hold_ReleasedAmountDoesNotCountAgainstWithdrawalLimit() {
+        // Limite real de R$ 100 em 24h no lugar do mock
+        VelocityLimiter limiter = new VelocityLimiter(new VelocityLimitProperties(true, false, false,
+                new VelocityLimitProperties.Window(Duration.ofHours(24), 24, new BigDecimal("100.00"), 0), null),
+                null, new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(walletService, "velocityLimiter", limiter);
+        when(walletRepository.findByIdUsuario("user1")).thenReturn(wallet);
+        when(walletRepository.save(any(Wallet.class))).thenReturn(wallet);
+        when(walletHolds.ttl(null)).thenReturn(Duration.ofMinutes(15));
+        when(walletHolds.place(any(WalletHold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        walletService.hold(new HoldRequest("user1", new BigDecimal("100.00"), null, null));
+        WalletHold hold = new WalletHold("user1", new BigDecimal("100.00"), null, LocalDateTime.now(),
+                LocalDateTime.now().plusMinutes(15));
+        UUID holdId = UUID.randomUUID();
+        when(walletHolds.find(holdId)).thenReturn(hold);
+        walletService.release(holdId);
+
+        Wallet updated = walletService.withdraw(new WithdrawalRequest("user1", new BigDecimal("100.00")));
+
+        assertEquals(0, updated.getSaldo().signum());
+        assertThrows(VelocityLimitExceededException.class,
+                () -> walletService.withdraw(new WithdrawalRequest("user1", new BigDecimal("0.01"))));
+        limiter.shutdown();
+    }
+
+    @Test
+    void capture_SucceedsAfterWithdrawalLimitIsReachedAndRefundsRemainder() {
+        // Limite real de R$ 100 em 24h no lugar do mock
+        VelocityLimiter limiter = new VelocityLimiter(new VelocityLimitProperties(true, false, false,
+                new VelocityLimitProperties.Window(Duration.ofHours(24), 24, new BigDecimal("100.00"), 0), null),
+                null, new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(walletService, "velocityLimiter", limiter);
+        when(walletRepository.findByIdUsuario("user1")).thenReturn(wallet);
+        when(walletRepository.save(any(Wallet.class))).thenReturn(wallet);
+        when(walletHolds.ttl(null)).thenReturn(Duration.ofMinutes(15));
+        List<WalletHold> placed = new ArrayList<>();
+        when(walletHolds.place(any(WalletHold.class))).thenAnswer(invocation -> {
+            WalletHold hold = invocation.getArgument(0);
+            ReflectionTestUtils.setField(hold, "id", UUID.randomUUID());
+            placed.add(hold);
+            return hold;
+        });
+        when(walletHolds.find(any(UUID.class))).thenAnswer(invocation -> placed.get(0));
+
+        UUID holdId = walletService.hold(new HoldRequest("user1", new BigDecimal("60.00"), null, null)).holdId();
+        // Saques depois da reserva esgotam o limite
+        walletService.withdraw(new WithdrawalRequest("user1", new BigDecimal("40.00")));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> walletService.withdraw(new WithdrawalRequest("user1", new BigDecimal("0.01"))));
+
+        // A captura autorizada não é barrada; os R$ 30 não capturados voltam ao limite
+        HoldResponse captured = walletService.capture(holdId, new BigDecimal("30.00"));
+        assertEquals(WalletHold.STATUS_CAPTURED, captured.status());
+        assertEquals(new BigDecimal("30.00"), wallet.getSaldo());
+
+        walletService.withdraw(new WithdrawalRequest("user1", new BigDecimal("30.00")));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> walletService.withdraw(new WithdrawalRequest("user1", new BigDecimal("0.01"))));
+        limiter.shutdown();
+    }
+
     @Test
     void transfer_Success() {
         // Cria uma carteira de destino
@@ -167,4 +374,86 @@ class WalletServiceTest {
         when(walletRepository.findByIdUsuario("user1")).thenReturn(null);
         assertThrows(WalletNotFoundException.class, () -> walletService.getBalance("user1"));
     }
+
+    @Test
+    void getBalances_QueriesMissesOnceAndReportsUnknown() {
+        Wallet other = new Wallet(UUID.randomUUID(), "user2", new BigDecimal("7.50"), "BRL");
+        when(walletRepository.findByIdUsuarioIn(anyCollection())).thenReturn(List.of(wallet, other));
+
+        var first = walletService.getBalances(List.of("user2", "ghost", "user1", "user2"));
+        var second = walletService.getBalances(List.of("user1", "user2"));
+
+        assertEquals(List.of("user2", "user1"), first.saldos().stream().map(b -> b.idUsuario()).toList());
+        assertEquals(List.of("ghost"), first.naoEncontrados());
+        assertEquals(new BigDecimal("100.00"), second.saldos().get(0).saldo());
+        // A segunda chamada vem inteira do cache
+        verify(walletRepository, times(1)).findByIdUsuarioIn(anyCollection());
+    }
+
+    @Test
+    void getBalanceVersion_PrefersJournalOverDatabase() {
+        when(walletRepository.findVersaoByIdUsuario("user1")).thenReturn(Optional.of(7L));
+        assertEquals("7", walletService.getBalanceVersion("user1"));
+
+        // No modo journal a versão em memória está à frente do banco
+        when(walletJournal.version("user1")).thenReturn(Optional.of(9L));
+        assertEquals("9", walletService.getBalanceVersion("user1"));
+    }
+
+    @Test
+    void getBalanceVersion_ReadsPrimaryAfterOwnWrite() {
+        when(walletRepository.findVersaoByIdUsuario("user1"))
+                .thenAnswer(invocation -> Optional.of(ReadYourWrites.isPinnedToPrimary() ? 8L : 7L));
+        assertEquals("7", walletService.getBalanceVersion("user1"));
+
+        // Depois de uma escrita, a versão vem do primário e não de uma réplica atrasada
+        readYourWrites.recordWrite("user1");
+        assertEquals("8", walletService.getBalanceVersion("user1"));
+    }
+
+    @Test
+    void getBalanceVersion_WalletNotFound() {
+        when(walletRepository.findVersaoByIdUsuario("ghost")).thenReturn(Optional.empty());
+        assertThrows(WalletNotFoundException.class, () -> walletService.getBalanceVersion("ghost"));
+    }
+
+    @Test
+    void readFallbacksRethrowSaturatedBulkhead() {
+        Bulkhead bulkhead = Bulkhead.of("walletRead",
+                BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+        // Única vaga ocupada por outra chamada
+        bulkhead.acquirePermission();
+        BulkheadFullException full = assertThrows(BulkheadFullException.class,
+                () -> bulkhead.executeSupplier(() -> walletService.getBalance("user1")));
+
+        // Nem saldo zero nem saldo atual no lugar do histórico: a rejeição sobe para virar 503
+        assertSame(full, assertThrows(BulkheadFullException.class,
+                () -> walletService.getBalanceFallback("user1", full)));
+        assertSame(full, assertThrows(BulkheadFullException.class,
+                () -> walletService.getHistoricalBalanceFallback("user1", LocalDateTime.now().minusDays(1), full)));
+        assertSame(full, assertThrows(BulkheadFullException.class,
+                () -> walletService.getBalanceVersionFallback("user1", full)));
+        verifyNoInteractions(walletRepository, transactionRepository);
+    }
+
+    @Test
+    void readFallbacksRethrowBusinessErrors() {
+        WalletNotFoundException notFound = new WalletNotFoundException("Wallet not found for user ghost");
+
+        assertSame(notFound, assertThrows(WalletNotFoundException.class,
+                () -> walletService.getBalanceFallback("ghost", notFound)));
+        assertSame(notFound, assertThrows(WalletNotFoundException.class,
+                () -> walletService.getHistoricalBalanceFallback("ghost", LocalDateTime.now(), notFound)));
+    }
+
+    @Test
+    void unknownWalletRejectedByFilterWithoutQueries() {
+        doReturn(false).when(walletExistenceFilter).mightExist("ghost");
+
+        assertThrows(WalletNotFoundException.class, () -> walletService.getBalance("ghost"));
+        assertThrows(WalletNotFoundException.class,
+                () -> walletService.deposit(new DepositRequest("ghost", BigDecimal.TEN)));
+        assertEquals(List.of("ghost"), walletService.getBalances(List.of("ghost")).naoEncontrados());
+        verifyNoInteractions(walletRepository);
+    }
 }
@@ -1,17 +1,30 @@
 package com.walletservice.service.resilience;
 
+import com.walletservice.cache.BalanceCache;
+import com.walletservice.cache.WalletExistenceFilter;
+import com.walletservice.cache.WalletFilterProperties;
+import com.walletservice.datasource.ReadYourWrites;
 import com.walletservice.domain.Wallet;
+import com.walletservice.eventsourcing.EventSourcedWalletStore;
+import com.walletservice.hold.WalletHolds;
+import com.walletservice.journal.WalletJournal;
+import com.walletservice.limits.VelocityLimiter;
+import com.walletservice.metrics.WalletMetrics;
+import com.walletservice.projection.BalanceProjector;
 import com.walletservice.repository.TransactionRepository;
 import com.walletservice.repository.WalletRepository;
 import com.walletservice.service.WalletService;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.Duration;
@@ -30,6 +43,24 @@ public class CircuitBreakerTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private BalanceProjector balanceProjector;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventSourcedWalletStore eventStore;
+
+    @Mock
+    private WalletJournal walletJournal;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private WalletHolds walletHolds;
+
     private WalletService walletService;
 
     private CircuitBreakerRegistry circuitBreakerRegistry;
@@ -50,7 +81,14 @@ public class CircuitBreakerTest {
         circuitBreakerRegistry = CircuitBreakerRegistry.of(config);
 
         // Criar instância do WalletService com os mocks
-        walletService = new WalletService(walletRepository, transactionRepository);
+        walletService = new WalletService(walletRepository, transactionRepository,
+                new WalletMetrics(new SimpleMeterRegistry()),
+                new BalanceCache(new ConcurrentMapCacheManager(), new SimpleMeterRegistry(), Duration.ofMinutes(5), false, 1.0),
+                new ReadYourWrites(Duration.ofSeconds(10)), balanceProjector, eventPublisher, eventStore, walletJournal,
+                new WalletExistenceFilter(walletRepository, new ReadYourWrites(Duration.ofSeconds(10)),
+                        new WalletFilterProperties(true, 1000, 0.01, 100, Duration.ofSeconds(5), 1000, false, 1000),
+                        new SimpleMeterRegistry()),
+                velocityLimiter, walletHolds);
 
         // Configurar o wallet de teste
         testWallet = new Wallet(UUID.randomUUID(), userId, new BigDecimal("100.00"), "BRL");
@@ -0,0 +1,183 @@
+package com.walletservice.statement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Banco H2 em modo PostgreSQL com o mesmo script de schema de produção
+class StatementJobTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:statements;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema-postgresql.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    private StatementJob job(int partitions, int chunkSize) {
+        return new StatementJob(dataSource, new DataSourceTransactionManager(dataSource),
+                new StatementProperties(partitions, 3, chunkSize, 100, false), registry);
+    }
+
+    private void wallet(String idUsuario) {
+        jdbc.update("INSERT INTO wallets (id, id_usuario, saldo, moeda) VALUES (?, ?, 0, 'BRL')",
+                UUID.randomUUID(), idUsuario);
+    }
+
+    private void entry(String tipo, String valor, LocalDateTime dataHora, String origem, String destino) {
+        jdbc.update("INSERT INTO transactions (id, tipo_transacao, valor, moeda, data_hora, id_usuario_origem, "
+                        + "id_usuario_destino, status) VALUES (?, ?, ?, 'BRL', ?, ?, ?, 'COMPLETED')",
+                UUID.randomUUID(), tipo, new BigDecimal(valor), Timestamp.valueOf(dataHora), origem, destino);
+    }
+
+    private Map<String, Object> statement(String idUsuario, LocalDate data) {
+        return jdbc.queryForMap("SELECT * FROM wallet_statements WHERE id_usuario = ? AND data_referencia = ?",
+                idUsuario, data);
+    }
+
+    private static void assertAmount(String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), "esperado " + expected + ", veio " + actual);
+    }
+
+    @Test
+    void computesOpeningCreditsDebitsAndClosing() {
+        for (int i = 0; i < 50; i++) {
+            wallet(String.format("user%03d", i));
+        }
+        LocalDateTime before = DAY.minusDays(1).atTime(10, 0);
+        LocalDateTime during = DAY.atTime(12, 0);
+        entry("DEPOSITO", "100", before, "user001", null);
+        entry("TRANSFERENCIA", "30", before, "user001", "user040");
+        entry("DEPOSITO", "20", during, "user001", null);
+        entry("SAQUE", "5", during, "user001", null);
+        entry("TRANSFERENCIA", "10", during, "user040", "user001");
+        entry("DEPOSITO", "999", DAY.plusDays(1).atStartOfDay(), "user001", null);
+
+        StatementJob.Result result = job(4, 7).generate(DAY);
+
+        assertEquals(4, result.partitions());
+        assertEquals(0, result.failedPartitions());
+        assertEquals(50, result.statements());
+        assertEquals(50, jdbc.queryForObject("SELECT COUNT(*) FROM wallet_statements", Integer.class));
+
+        Map<String, Object> user001 = statement("user001", DAY);
+        assertAmount("70", user001.get("SALDO_INICIAL"));
+        assertAmount("30", user001.get("CREDITOS"));
+        assertAmount("5", user001.get("DEBITOS"));
+        assertAmount("95", user001.get("SALDO_FINAL"));
+        assertEquals(3, user001.get("QUANTIDADE_TRANSACOES"));
+
+        Map<String, Object> user040 = statement("user040", DAY);
+        assertAmount("30", user040.get("SALDO_INICIAL"));
+        assertAmount("10", user040.get("DEBITOS"));
+        assertAmount("20", user040.get("SALDO_FINAL"));
+
+        assertAmount("0", statement("user002", DAY).get("SALDO_FINAL"));
+        assertEquals(50, registry.get("wallet.statements.generated").counter().count());
+    }
+
+    @Test
+    void nextDayOpensWithPreviousClosing() {
+        wallet("alice");
+        entry("DEPOSITO", "100", DAY.atTime(9, 0), "alice", null);
+        job(1, 10).generate(DAY);
+
+        // Muda o histórico: o dia seguinte deve partir do extrato gravado, não do ledger
+        entry("DEPOSITO", "50", DAY.minusDays(3).atStartOfDay(), "alice", null);
+        entry("SAQUE", "40", DAY.plusDays(1).atTime(9, 0), "alice", null);
+        job(1, 10).generate(DAY.plusDays(1));
+
+        Map<String, Object> next = statement("alice", DAY.plusDays(1));
+        assertAmount("100", next.get("SALDO_INICIAL"));
+        assertAmount("60", next.get("SALDO_FINAL"));
+    }
+
+    @Test
+    void resumesFromCheckpointAfterCrash() {
+        for (int i = 0; i < 30; i++) {
+            wallet(String.format("user%03d", i));
+            entry("DEPOSITO", "10", DAY.atTime(8, 0), String.format("user%03d", i), null);
+        }
+        job(2, 5).generate(DAY);
+        Timestamp firstRun = jdbc.queryForObject(
+                "SELECT gerado_em FROM wallet_statements WHERE id_usuario = 'user002'", Timestamp.class);
+
+        // Simula um crash no meio da primeira partição: só os dois primeiros blocos ficaram gravados
+        jdbc.update("DELETE FROM wallet_statements WHERE id_usuario > 'user009' AND id_usuario < 'user015'");
+        jdbc.update("UPDATE statement_checkpoints SET concluida = false, ultimo_id_usuario = 'user009' WHERE particao = 0");
+
+        StatementJob resumed = job(2, 5);
+        resumed.resumeIncomplete();
+
+        StatementJob.Result result = resumed.status().lastRun();
+        assertEquals(1, result.resumedPartitions());
+        assertEquals(5, result.statements());
+        assertEquals(30, jdbc.queryForObject("SELECT COUNT(*) FROM wallet_statements", Integer.class));
+        assertEquals(firstRun, jdbc.queryForObject(
+                "SELECT gerado_em FROM wallet_statements WHERE id_usuario = 'user002'", Timestamp.class));
+        assertEquals(0, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM statement_checkpoints WHERE concluida = false", Integer.class));
+    }
+
+    @Test
+    void completedDayIsNotRegenerated() {
+        wallet("alice");
+        job(1, 10).generate(DAY);
+
+        StatementJob.Result again = job(1, 10).generate(DAY);
+
+        assertEquals(0, again.statements());
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM wallet_statements", Integer.class));
+    }
+
+    // Benchmark grosseiro: o lote inteiro não pode se aproximar do custo de uma consulta por carteira
+    @Test
+    void generatesLargeDayInBulk() {
+        int wallets = 20_000;
+        jdbc.batchUpdate("INSERT INTO wallets (id, id_usuario, saldo, moeda) VALUES (?, ?, 0, 'BRL')",
+                IntStream.range(0, wallets)
+                        .mapToObj(i -> new Object[]{UUID.randomUUID(), String.format("u%06d", i)}).toList());
+        jdbc.batchUpdate("INSERT INTO transactions (id, tipo_transacao, valor, moeda, data_hora, id_usuario_origem, "
+                        + "id_usuario_destino, status) VALUES (?, 'TRANSFERENCIA', 1, 'BRL', ?, ?, ?, 'COMPLETED')",
+                IntStream.range(0, wallets * 2)
+                        .mapToObj(i -> new Object[]{UUID.randomUUID(), Timestamp.valueOf(DAY.atTime(10, 0)),
+                                String.format("u%06d", i % wallets), String.format("u%06d", (i * 7 + 1) % wallets)})
+                        .toList());
+
+        StatementJob.Result result = job(8, 1000).generate(DAY);
+
+        System.out.printf("statements: %d wallets in %d ms%n", result.statements(), result.durationMillis());
+        assertEquals(wallets, result.statements());
+        assertEquals(0, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM wallet_statements WHERE saldo_final <> 0", Integer.class));
+    }
+}
@@ -0,0 +1,250 @@
+package com.walletservice.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.walletservice.domain.Wallet;
+import com.walletservice.exception.ServiceOverloadedException;
+import com.walletservice.exception.WalletNotFoundException;
+import com.walletservice.journal.WalletJournal;
+import com.walletservice.projection.LedgerEvent;
+import com.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BalanceStreamHubTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+    @Mock
+    private WalletJournal walletJournal;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    private BalanceStreamHub hub;
+    private MockMvc mockMvc;
+
+    // Controller mínimo para exercitar o emitter dentro do fluxo assíncrono do Spring MVC
+    @RestController
+    static class StreamController {
+        private final BalanceStreamHub hub;
+
+        StreamController(BalanceStreamHub hub) {
+            this.hub = hub;
+        }
+
+        @GetMapping("/stream/{idUsuario}")
+        SseEmitter stream(@PathVariable String idUsuario,
+                          @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return hub.subscribe(idUsuario, lastEventId);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        hub = newHub(100);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(hub)).build();
+        givenBalance("user1", "100.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    private BalanceStreamHub newHub(int maxConnections) {
+        return newHub(maxConnections, null);
+    }
+
+    private BalanceStreamHub newHub(int maxConnections, StringRedisTemplate redisTemplate) {
+        BalanceStreamProperties properties = new BalanceStreamProperties(maxConnections, 2,
+                Duration.ofMinutes(5), Duration.ofSeconds(3), redisTemplate != null);
+        return new BalanceStreamHub(walletJournal, walletRepository, new ObjectMapper(), properties,
+                new SimpleMeterRegistry(), redisTemplate);
+    }
+
+    private void givenBalance(String idUsuario, String saldo) {
+        givenBalance(idUsuario, saldo, 1);
+    }
+
+    // Carteira como está no banco, com a versao que vira o id do evento
+    private void givenBalance(String idUsuario, String saldo, long versao) {
+        Wallet wallet = new Wallet(UUID.randomUUID(), idUsuario, new BigDecimal(saldo), "BRL");
+        wallet.setVersao(versao);
+        when(walletRepository.findByIdUsuario(idUsuario)).thenReturn(wallet);
+    }
+
+    private MockHttpServletResponse open(String idUsuario, String lastEventId) throws Exception {
+        var builder = get("/stream/" + idUsuario);
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    private static LedgerEvent deposit(String idUsuario) {
+        return new LedgerEvent(UUID.randomUUID(), "DEPOSIT", BigDecimal.TEN, idUsuario, null, LocalDateTime.now());
+    }
+
+    private static String lastEventId(String content) {
+        Matcher matcher = EVENT_ID.matcher(content);
+        String id = null;
+        while (matcher.find()) {
+            id = matcher.group(1);
+        }
+        assertNotNull(id, "Nenhum evento com id em: " + content);
+        return id;
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!response.getContentAsString().contains(expected)) {
+            assertTrue(System.nanoTime() < deadline,
+                    "Esperava '" + expected + "' em: " + response.getContentAsString());
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void sendsCurrentBalanceThenCommittedChanges() throws Exception {
+        MockHttpServletResponse first = open("user1", null);
+        MockHttpServletResponse second = open("user1", null);
+
+        assertTrue(first.getContentAsString().contains("event:balance"));
+        assertTrue(first.getContentAsString().contains("\"saldo\":100.00"));
+        assertEquals(2, hub.connections());
+
+        givenBalance("user1", "110.00");
+        hub.onLedgerEvent(deposit("user1"));
+
+        // Mesma leitura enviada para as duas conexões da carteira
+        awaitContent(first, "\"saldo\":110.00");
+        awaitContent(second, "\"saldo\":110.00");
+    }
+
+    @Test
+    void ignoresChangesOfOtherWallets() throws Exception {
+        MockHttpServletResponse response = open("user1", null);
+        String initial = response.getContentAsString();
+
+        givenBalance("user2", "50.00");
+        hub.onLedgerEvent(deposit("user2"));
+        hub.heartbeat();
+
+        awaitContent(response, ":heartbeat");
+        assertFalse(response.getContentAsString().contains("user2"));
+        assertTrue(response.getContentAsString().startsWith(initial));
+    }
+
+    @Test
+    void resumeSkipsBalanceWhenWalletDidNotChange() throws Exception {
+        String id = lastEventId(open("user1", null).getContentAsString());
+
+        MockHttpServletResponse resumed = open("user1", id);
+
+        assertEquals("1", id);
+        assertEquals("", resumed.getContentAsString());
+    }
+
+    @Test
+    void resumeSendsBalanceWhenWalletChangedAfterLastEventId() throws Exception {
+        String id = lastEventId(open("user1", null).getContentAsString());
+        // Mudança confirmada por outra instância: esta não recebeu nenhum LedgerEvent
+        givenBalance("user1", "90.00", 2);
+
+        MockHttpServletResponse resumed = open("user1", id);
+
+        awaitContent(resumed, "\"saldo\":90.00");
+        assertEquals("2", lastEventId(resumed.getContentAsString()));
+    }
+
+    @Test
+    void unknownOrOldLastEventIdSendsBalance() throws Exception {
+        givenBalance("user1", "100.00", 3);
+
+        assertTrue(open("user1", "abc").getContentAsString().contains("\"saldo\":100.00"));
+        assertTrue(open("user1", "1").getContentAsString().contains("\"saldo\":100.00"));
+    }
+
+    @Test
+    void changeCommittedOnAnotherInstanceIsPushedThroughRedis() throws Exception {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        BalanceStreamHub other = newHub(100, redis);
+        BalanceStreamHub local = newHub(100, redis);
+        // Canal em memória: cada mensagem publicada chega às duas instâncias, inclusive a que publicou
+        doAnswer(inv -> {
+            String message = inv.getArgument(1);
+            other.onRemoteChange(message);
+            local.onRemoteChange(message);
+            return 1L;
+        }).when(redis).convertAndSend(eq(BalanceStreamHub.CHANNEL), anyString());
+        try {
+            MockHttpServletResponse response = MockMvcBuilders.standaloneSetup(new StreamController(local)).build()
+                    .perform(get("/stream/user1"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn()
+                    .getResponse();
+
+            givenBalance("user1", "130.00", 2);
+            other.onLedgerEvent(deposit("user1"));
+
+            awaitContent(response, "\"saldo\":130.00");
+            assertEquals("2", lastEventId(response.getContentAsString()));
+            verify(redis, timeout(2_000)).convertAndSend(eq(BalanceStreamHub.CHANNEL), endsWith(":user1"));
+        } finally {
+            other.shutdown();
+            local.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsUnknownWalletAndConnectionsOverLimit() {
+        BalanceStreamHub limited = newHub(1);
+        try {
+            assertThrows(WalletNotFoundException.class, () -> limited.subscribe("missing", null));
+            assertEquals(0, limited.connections());
+
+            limited.subscribe("user1", null);
+            assertThrows(ServiceOverloadedException.class, () -> limited.subscribe("user1", null));
+            assertEquals(1, limited.connections());
+        } finally {
+            limited.shutdown();
+        }
+    }
+}
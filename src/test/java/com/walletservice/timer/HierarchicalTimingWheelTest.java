@@ -0,0 +1,96 @@
+package com.walletservice.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void expiresEachTimerOnItsTickAcrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 4, START);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // De 1 tick a ~2 níveis acima, incluindo fronteiras de posição
+            long deadline = START + 1 + random.nextInt(10 * 64 * 64 * 5);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        int expired = 0;
+        for (long now = START; now <= START + 10 * 64 * 64 * 5 + 10; now += 10) {
+            for (long deadline : wheel.advance(now)) {
+                // Nunca antes do prazo e nunca mais de um tick depois
+                assertTrue(deadline <= now, "venceu antes: " + deadline + " em " + now);
+                assertTrue(now - deadline < 10, "venceu tarde: " + deadline + " em " + now);
+                expired++;
+            }
+        }
+        assertEquals(deadlines.size(), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimersNeverExpire() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 6, START);
+        HierarchicalTimingWheel.Timeout<String> kept = wheel.schedule("kept", START + 5_000);
+        HierarchicalTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", START + 5_000);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("kept"), wheel.advance(START + 10_000));
+        assertFalse(wheel.cancel(kept));
+    }
+
+    @Test
+    void catchesUpAfterLongPauseAndHandlesPastAndFarDeadlines() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 2, START);
+        wheel.schedule("past", START - 60_000);
+        wheel.schedule("hour", START + 3_600_000);
+        // Além do alcance de 2 níveis (64 * 64 ticks de 100 ms = ~7 min): reposicionado ao descer
+        wheel.schedule("day", START + 86_400_000);
+
+        assertEquals(List.of("past"), wheel.advance(START + 100));
+        // Uma hora sem avançar: sai de uma vez no próximo avanço
+        assertEquals(List.of("hour"), wheel.advance(START + 3_700_000));
+        assertTrue(wheel.advance(START + 86_399_900).isEmpty());
+        assertEquals(List.of("day"), wheel.advance(START + 86_400_000));
+    }
+
+    // Benchmark grosseiro: agendar, cancelar e vencer um milhão de timers
+    @Test
+    void scheduleAndExpireAreConstantTime() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(100, 6, START);
+        int timers = 1_000_000;
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        List<HierarchicalTimingWheel.Timeout<Integer>> handles = new ArrayList<>(timers);
+        for (int i = 0; i < timers; i++) {
+            handles.add(wheel.schedule(i, START + 1 + random.nextInt(3_600_000)));
+        }
+        long scheduleNanos = (System.nanoTime() - start) / timers;
+
+        for (int i = 0; i < timers; i += 2) {
+            wheel.cancel(handles.get(i));
+        }
+        start = System.nanoTime();
+        int expired = 0;
+        for (long now = START; now <= START + 3_600_000; now += 100) {
+            expired += wheel.advance(now).size();
+        }
+        long expireNanos = (System.nanoTime() - start) / expired;
+
+        System.out.printf("timing wheel: schedule %d ns/op, expire %d ns/op (%d timers)%n",
+                scheduleNanos, expireNanos, expired);
+        assertEquals(timers / 2, expired);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,341 @@
+package com.walletservice.transfer;
+
+import com.sun.net.httpserver.HttpServer;
+import com.walletservice.domain.TransferOperation;
+import com.walletservice.dto.AsyncTransferRequest;
+import com.walletservice.dto.TransferOperationResponse;
+import com.walletservice.dto.TransferRequest;
+import com.walletservice.exception.InsufficientFundsException;
+import com.walletservice.exception.TransferOperationNotFoundException;
+import com.walletservice.repository.TransferOperationRepository;
+import com.walletservice.service.WalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.util.ReflectionUtils;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AsyncTransferServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private TransferOperationRepository operationRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Fila em memória no lugar de transfer_operations, ordenada por id; guarda cópias, como o banco
+    private final Map<Long, TransferOperation> queue = new ConcurrentSkipListMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final List<TransferRequest> applied = Collections.synchronizedList(new ArrayList<>());
+    // Transação simulada: gravações pendentes por thread e linhas bloqueadas até o commit
+    private final Map<Long, Thread> locks = new HashMap<>();
+    private final ThreadLocal<Map<Long, TransferOperation>> staged = new ThreadLocal<>();
+    private AsyncTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            staged.set(new HashMap<>());
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(inv -> endTransaction(true)).when(transactionManager).commit(any());
+        doAnswer(inv -> endTransaction(false)).when(transactionManager).rollback(any());
+        when(operationRepository.save(any(TransferOperation.class))).thenAnswer(inv -> write(inv.getArgument(0)));
+        when(operationRepository.saveAndFlush(any(TransferOperation.class)))
+                .thenAnswer(inv -> write(inv.getArgument(0)));
+        when(operationRepository.findPending(anyInt(), any(Pageable.class))).thenAnswer(inv -> {
+            int particao = inv.getArgument(0);
+            Pageable page = inv.getArgument(1);
+            return queue.values().stream()
+                    .filter(o -> o.getParticao() == particao && o.isPending())
+                    .limit(page.getPageSize())
+                    .map(AsyncTransferServiceTest::copy)
+                    .toList();
+        });
+        when(operationRepository.findById(anyLong())).thenAnswer(inv ->
+                Optional.ofNullable(queue.get(inv.<Long>getArgument(0))).map(AsyncTransferServiceTest::copy));
+        when(operationRepository.findByOperacaoId(any(UUID.class))).thenAnswer(inv -> queue.values().stream()
+                .filter(o -> o.getOperacaoId().equals(inv.getArgument(0)))
+                .findFirst()
+                .map(AsyncTransferServiceTest::copy));
+        doAnswer(inv -> applied.add(inv.getArgument(0))).when(walletService).transfer(any(TransferRequest.class));
+
+        service = newService(new AsyncTransferProperties(4, 10, Duration.ofSeconds(2), null, null, false));
+    }
+
+    private static TransferOperation copy(TransferOperation operation) {
+        TransferOperation copy = new TransferOperation();
+        ReflectionUtils.shallowCopyFieldState(operation, copy);
+        return copy;
+    }
+
+    // UPDATE com checagem de versão: espera o bloqueio de outra transação e falha se a versão mudou
+    private synchronized TransferOperation write(TransferOperation operation) throws InterruptedException {
+        if (operation.getId() == null) {
+            ReflectionTestUtils.setField(operation, "id", ids.incrementAndGet());
+            queue.put(operation.getId(), copy(operation));
+            return operation;
+        }
+        Long id = operation.getId();
+        while (locks.containsKey(id) && locks.get(id) != Thread.currentThread()) {
+            wait();
+        }
+        Map<Long, TransferOperation> writes = staged.get();
+        TransferOperation current = writes != null && writes.containsKey(id) ? writes.get(id) : queue.get(id);
+        if (current.getVersao() != operation.getVersao()) {
+            throw new ObjectOptimisticLockingFailureException(TransferOperation.class, id);
+        }
+        TransferOperation saved = copy(operation);
+        ReflectionTestUtils.setField(saved, "versao", operation.getVersao() + 1);
+        if (writes == null) {
+            queue.put(id, saved);
+        } else {
+            locks.put(id, Thread.currentThread());
+            writes.put(id, saved);
+        }
+        return copy(saved);
+    }
+
+    private synchronized Object endTransaction(boolean commit) {
+        Map<Long, TransferOperation> writes = staged.get();
+        staged.remove();
+        if (writes != null) {
+            if (commit) {
+                queue.putAll(writes);
+            }
+            writes.keySet().forEach(locks::remove);
+            notifyAll();
+        }
+        return null;
+    }
+
+    private AsyncTransferService newService(AsyncTransferProperties properties) {
+        return new AsyncTransferService(operationRepository, walletService, transactionManager, properties,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static AsyncTransferRequest request(String from, String to, String valor) {
+        return new AsyncTransferRequest(from, to, new BigDecimal(valor), null);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condição não atingida em " + TIMEOUT);
+            Thread.sleep(5);
+        }
+    }
+
+    private boolean allProcessed() {
+        return queue.values().stream().noneMatch(TransferOperation::isPending);
+    }
+
+    private List<BigDecimal> appliedFrom(String idUsuarioOrigem) {
+        synchronized (applied) {
+            return applied.stream().filter(r -> r.idUsuarioOrigem().equals(idUsuarioOrigem))
+                    .map(TransferRequest::valor).toList();
+        }
+    }
+
+    @Test
+    void appliesTransfersOfEachWalletInSubmissionOrder() throws InterruptedException {
+        List<BigDecimal> expected = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) {
+            service.submit(request("alice", "bobby", String.valueOf(i)));
+            service.submit(request("user" + i, "alice", "1"));
+            expected.add(new BigDecimal(i));
+        }
+
+        await(this::allProcessed);
+
+        assertEquals(120, applied.size());
+        assertEquals(expected, appliedFrom("alice"));
+        assertTrue(queue.values().stream().allMatch(o -> TransferOperation.STATUS_COMPLETED.equals(o.getStatus())));
+    }
+
+    @Test
+    void twoInstancesDrainingTheSamePartitionApplyEachTransferOnce() throws InterruptedException {
+        doAnswer(inv -> {
+            // Transferência lenta para que as duas instâncias disputem as mesmas linhas
+            Thread.sleep(2);
+            return applied.add(inv.getArgument(0));
+        }).when(walletService).transfer(any(TransferRequest.class));
+        AsyncTransferService other = newService(new AsyncTransferProperties(4, 10, Duration.ofSeconds(2),
+                null, null, false));
+        try {
+            List<BigDecimal> expected = new ArrayList<>();
+            for (int i = 1; i <= 40; i++) {
+                service.submit(request("alice", "bobby", String.valueOf(i)));
+                expected.add(new BigDecimal(i));
+                other.pollAll();
+            }
+            await(this::allProcessed);
+
+            assertEquals(expected, appliedFrom("alice"));
+            assertEquals(40, applied.size());
+            assertTrue(queue.values().stream().allMatch(o -> o.getVersao() == 1));
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    void businessErrorFailsOperationAndQueueMovesOn() throws InterruptedException {
+        doThrow(new InsufficientFundsException("Saldo insuficiente"))
+                .when(walletService).transfer(argThat(r -> r != null && r.valor().compareTo(new BigDecimal("500")) == 0));
+
+        TransferOperationResponse rejected = service.submit(request("alice", "bobby", "500"));
+        TransferOperationResponse next = service.submit(request("alice", "bobby", "5"));
+        await(this::allProcessed);
+
+        TransferOperationResponse failed = service.status(rejected.operacaoId());
+        assertEquals(TransferOperation.STATUS_FAILED, failed.status());
+        assertEquals("Saldo insuficiente", failed.motivo());
+        assertNotNull(failed.processadoEm());
+        assertEquals(TransferOperation.STATUS_COMPLETED, service.status(next.operacaoId()).status());
+    }
+
+    @Test
+    void infrastructureErrorKeepsOperationAndOrderForRetry() throws InterruptedException {
+        AtomicBoolean databaseDown = new AtomicBoolean(true);
+        doAnswer(inv -> {
+            if (databaseDown.get()) {
+                throw new IllegalStateException("connection refused");
+            }
+            return applied.add(inv.getArgument(0));
+        }).when(walletService).transfer(any(TransferRequest.class));
+
+        TransferOperationResponse first = service.submit(request("alice", "bobby", "1"));
+        service.submit(request("alice", "bobby", "2"));
+        Thread.sleep(200);
+
+        // Nada é pulado enquanto o banco está fora
+        assertTrue(applied.isEmpty());
+        assertEquals(TransferOperation.STATUS_PENDING, service.status(first.operacaoId()).status());
+
+        databaseDown.set(false);
+        service.pollAll();
+        await(this::allProcessed);
+
+        assertEquals(List.of(BigDecimal.ONE, new BigDecimal("2")), appliedFrom("alice"));
+    }
+
+    @Test
+    void postsResultToCallbackUrl() throws Exception {
+        BlockingQueue<String> received = new ArrayBlockingQueue<>(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/callback", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            received.add(body);
+        });
+        server.start();
+        // Servidor local: só com endereços internos liberados
+        service.shutdown();
+        service = newService(new AsyncTransferProperties(4, 10, Duration.ofSeconds(2),
+                List.of("http"), List.of("127.0.0.1"), true));
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/callback";
+            TransferOperationResponse operation = service.submit(
+                    new AsyncTransferRequest("alice", "bobby", BigDecimal.TEN, url));
+
+            String body = received.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            assertNotNull(body, "Callback não recebido");
+            assertTrue(body.contains(operation.operacaoId().toString()));
+            assertTrue(body.contains("\"status\":\"COMPLETED\""));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void rejectsCallbackToInternalAddresses() {
+        service.shutdown();
+        service = newService(new AsyncTransferProperties(4, 10, Duration.ofSeconds(2),
+                List.of("http", "https"), null, false));
+
+        for (String url : List.of("http://localhost:8080/callback", "http://127.0.0.1/callback",
+                "http://169.254.169.254/latest/meta-data", "http://10.0.0.5/callback", "http://[::1]/callback",
+                "http://user@example.com/callback", "ftp://example.com/callback")) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> service.submit(new AsyncTransferRequest("alice", "bobby", BigDecimal.ONE, url)), url);
+            assertTrue(error.getMessage().startsWith("callbackUrl não permitida"), url);
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void callbackHostMustBeInAllowlist() {
+        service.shutdown();
+        service = newService(new AsyncTransferProperties(4, 10, Duration.ofSeconds(2),
+                null, List.of(".partner.example"), true));
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(
+                new AsyncTransferRequest("alice", "bobby", BigDecimal.ONE, "https://evil.example/callback")));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(
+                new AsyncTransferRequest("alice", "bobby", BigDecimal.ONE, "http://api.partner.example/callback")));
+        assertNotNull(service.submit(
+                new AsyncTransferRequest("alice", "bobby", BigDecimal.ONE, "https://api.partner.example/callback")));
+    }
+
+    @Test
+    void rejectsSelfTransferAndUnknownOperation() {
+        assertThrows(IllegalArgumentException.class, () -> service.submit(request("alice", "alice", "1")));
+        assertTrue(queue.isEmpty());
+        assertThrows(TransferOperationNotFoundException.class, () -> service.status(UUID.randomUUID()));
+    }
+
+    @Test
+    void sameSourceAlwaysMapsToSamePartition() {
+        int partition = service.partitionOf("alice");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(partition, service.partitionOf("alice"));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.walletservice.transfer;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinnedCallbackRequestFactoryTest {
+
+    // .invalid nunca resolve: se a requisição chega, foi pelo endereço fixado
+    private static final String HOST = "callback.invalid";
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private InetAddress loopback;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        loopback = InetAddress.getByName("127.0.0.1");
+        server = HttpServer.create(new InetSocketAddress(loopback, 0), 0);
+        server.createContext("/callback", exchange -> {
+            received.add(exchange.getRequestURI().getPath() + " " + exchange.getRequestHeaders().getFirst("Host"));
+            exchange.getResponseHeaders().add("Location", "http://" + HOST + ":" + port() + "/redirected");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.createContext("/redirected", exchange -> {
+            received.add(exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private int port() {
+        return server.getAddress().getPort();
+    }
+
+    private static RestClient client(URI uri, InetAddress address) {
+        return RestClient.builder()
+                .requestFactory(new PinnedCallbackRequestFactory(uri, address, Duration.ofSeconds(2)))
+                .build();
+    }
+
+    @Test
+    void httpConnectsToPinnedAddressKeepsHostAndDoesNotFollowRedirects() {
+        URI uri = URI.create("http://" + HOST + ":" + port() + "/callback");
+
+        HttpStatus status = (HttpStatus) client(uri, loopback).post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{}")
+                .exchange((request, response) -> response.getStatusCode());
+
+        assertEquals(HttpStatus.FOUND, status);
+        assertEquals(List.of("/callback " + HOST + ":" + port()), received);
+    }
+
+    @Test
+    void httpsOpensTheSocketOnPinnedAddress() throws Exception {
+        try (ServerSocket tls = new ServerSocket(0, 1, loopback)) {
+            CompletableFuture<Boolean> accepted = CompletableFuture.supplyAsync(() -> {
+                try (Socket socket = tls.accept()) {
+                    return true;
+                } catch (Exception e) {
+                    return false;
+                }
+            });
+            URI uri = URI.create("https://" + HOST + ":" + tls.getLocalPort() + "/callback");
+
+            // Sem servidor TLS do outro lado o handshake falha; importa só onde o socket conectou
+            assertThrows(RuntimeException.class, () -> client(uri, loopback).post()
+                    .uri(uri)
+                    .body("{}")
+                    .retrieve()
+                    .toBodilessEntity());
+            assertTrue(accepted.get(2, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+#!/bin/bash
+
+# Benchmark de startup: tempo entre subir a JVM e o primeiro GET /balance com sucesso.
+# Compara o jar padrão, o jar processado pelo Spring AOT (mvn -Pfast-start) e AOT + arquivo CDS.
+#
+# Pré-requisitos: Postgres com o schema (src/main/resources/db/schema-postgresql.sql) e Redis no ar,
+# por exemplo: docker compose up -d db redis
+# Uso: ./startup-benchmark.sh [execuções por modo]
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:$PORT"
+WORK_DIR=target/startup-benchmark
+BENCH_USER=startupbench
+BENCH_PASSWORD=password123
+JAVA_OPTS=${JAVA_OPTS:-"-Xms256m -Xmx512m -XX:+UseG1GC"}
+export SPRING_PROFILES_ACTIVE=prod
+
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+signin() {
+  curl -s -X POST -H "Content-Type: application/json" \
+    -d "{\"username\":\"$BENCH_USER\",\"password\":\"$BENCH_PASSWORD\"}" \
+    "$BASE_URL/api/auth/signin" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p'
+}
+
+wait_for_balance() {
+  local token=""
+  until [ -n "$token" ]; do
+    token=$(signin 2>/dev/null || true)
+    [ -n "$token" ] || sleep 0.05
+  done
+  until curl -sf -o /dev/null -H "Authorization: Bearer $token" "$BASE_URL/api/wallets/$BENCH_USER/balance"; do
+    sleep 0.05
+  done
+}
+
+# Sobe a aplicação com os argumentos da JVM recebidos e mede até o primeiro /balance
+measure() {
+  local start pid elapsed
+  start=$(now_ms)
+  # shellcheck disable=SC2086
+  java $JAVA_OPTS "$@" > "$WORK_DIR/app.log" 2>&1 &
+  pid=$!
+  wait_for_balance
+  elapsed=$(( $(now_ms) - start ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed"
+}
+
+report() {
+  local mode=$1
+  shift
+  local sorted
+  sorted=$(printf '%s\n' "$@" | sort -n)
+  echo -e "${BLUE}$mode${NC}: min $(echo "$sorted" | head -1) ms, mediana $(echo "$sorted" | sed -n "$(( ($# + 1) / 2 ))p") ms, max $(echo "$sorted" | tail -1) ms"
+}
+
+rm -rf "$WORK_DIR"
+mkdir -p "$WORK_DIR"
+
+echo -e "${BLUE}=== Build: jar padrão e jar AOT ===${NC}"
+mvn -q -DskipTests package
+cp target/wallet-service-*.jar "$WORK_DIR/plain.jar"
+mvn -q -DskipTests -Pfast-start package
+cp target/wallet-service-*.jar "$WORK_DIR/aot.jar"
+
+echo -e "${BLUE}=== Arquivo CDS (treino que sobe o contexto e sai) ===${NC}"
+java -Djarmode=tools -jar "$WORK_DIR/aot.jar" extract --destination "$WORK_DIR/extracted"
+# shellcheck disable=SC2086
+java $JAVA_OPTS -XX:ArchiveClassesAtExit="$WORK_DIR/extracted/application.jsa" \
+  -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh -jar "$WORK_DIR/extracted/aot.jar" > "$WORK_DIR/training.log" 2>&1
+
+echo -e "${BLUE}=== Preparando usuário e carteira de teste ===${NC}"
+java $JAVA_OPTS -jar "$WORK_DIR/plain.jar" > "$WORK_DIR/app.log" 2>&1 &
+SETUP_PID=$!
+until curl -sf -o /dev/null "$BASE_URL/actuator/health"; do sleep 0.5; done
+curl -s -o /dev/null -X POST -H "Content-Type: application/json" \
+  -d "{\"username\":\"$BENCH_USER\",\"email\":\"$BENCH_USER@example.com\",\"password\":\"$BENCH_PASSWORD\",\"roles\":[\"USER\"]}" \
+  "$BASE_URL/api/auth/signup"
+TOKEN=$(signin)
+curl -s -o /dev/null -X POST -H "Content-Type: application/json" -H "Authorization: Bearer $TOKEN" \
+  -d "{\"idUsuario\":\"$BENCH_USER\"}" "$BASE_URL/api/wallets"
+kill "$SETUP_PID"
+wait "$SETUP_PID" 2>/dev/null || true
+
+declare -a PLAIN AOT CDS
+for i in $(seq 1 "$RUNS"); do
+  echo -e "${BLUE}=== Execução $i de $RUNS ===${NC}"
+  PLAIN+=("$(measure -jar "$WORK_DIR/plain.jar")")
+  AOT+=("$(measure -Dspring.aot.enabled=true -jar "$WORK_DIR/aot.jar")")
+  CDS+=("$(measure -XX:SharedArchiveFile="$WORK_DIR/extracted/application.jsa" -Dspring.aot.enabled=true \
+    -jar "$WORK_DIR/extracted/aot.jar")")
+done
+
+echo -e "\n${BLUE}=== Tempo até o primeiro /balance com sucesso ===${NC}"
+report "jar padrão" "${PLAIN[@]}"
+report "AOT" "${AOT[@]}"
+report "AOT + CDS" "${CDS[@]}"